@@ -0,0 +1,20 @@
+package io.github.sssamira.legalsheba.controller;
+
+import io.github.sssamira.legalsheba.security.BoundedPasswordEncoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+// Failures that can surface from any controller
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    // Every hashing thread is busy and the queue is full: whatever needed a hash fails fast
+    @ExceptionHandler(BoundedPasswordEncoder.HashingBusyException.class)
+    public ResponseEntity<?> hashingBusy(BoundedPasswordEncoder.HashingBusyException e) {
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(Map.of("error", e.getMessage()));
+    }
+}
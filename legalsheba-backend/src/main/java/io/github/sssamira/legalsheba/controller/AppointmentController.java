@@ -1,40 +1,98 @@
 package io.github.sssamira.legalsheba.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.sssamira.legalsheba.event.AppointmentChangedEvent;
 import io.github.sssamira.legalsheba.model.Appointment;
 import io.github.sssamira.legalsheba.model.LawyerProfile;
 import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.pagination.CursorPage;
+import io.github.sssamira.legalsheba.pagination.KeysetCursor;
+import io.github.sssamira.legalsheba.pagination.PagedResponse;
+import io.github.sssamira.legalsheba.pagination.TotalCountCache;
+import io.github.sssamira.legalsheba.repository.AppointmentListRow;
 import io.github.sssamira.legalsheba.repository.AppointmentRepository;
 import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
 import io.github.sssamira.legalsheba.repository.UserRepository;
+import io.github.sssamira.legalsheba.service.AppointmentService;
+import io.github.sssamira.legalsheba.service.AppointmentStatsService;
+import io.github.sssamira.legalsheba.service.AppointmentStreamService;
+import io.github.sssamira.legalsheba.service.BookingIntakeService;
+import io.github.sssamira.legalsheba.service.UserIdentityCache;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriUtils;
 
-import java.util.Optional;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/appointments")
 @RequiredArgsConstructor
 public class AppointmentController {
 
+    private static final Set<String> STATUSES = Set.of("PENDING", "CONFIRMED", "IN_PROGRESS", "COMPLETED", "REJECTED");
+    private static final int MAX_BULK_ITEMS = 200;
+    private static final int MAX_STATS_DAYS = 366;
+    private static final int EXPORT_CHUNK = 500;
+    private static final int MAX_IDEMPOTENCY_KEY = 100;
+
     private final AppointmentRepository appointmentRepository;
     private final UserRepository userRepository;
     private final LawyerProfileRepository lawyerProfileRepository;
+    private final TotalCountCache totalCountCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AppointmentService appointmentService;
+    private final AppointmentStreamService appointmentStreamService;
+    private final AppointmentStatsService appointmentStatsService;
+    private final ObjectMapper objectMapper;
+    private final BookingIntakeService bookingIntakeService;
+    private final UserIdentityCache userIdentityCache;
+
+    // How long a queued booking request waits for its batch before answering 202
+    @Value("${appointments.intake.wait-ms:2000}")
+    private long intakeWaitMs;
 
     @PostMapping
     public ResponseEntity<?> create(@AuthenticationPrincipal User principal, @Valid @RequestBody CreateAppointmentRequest req) {
         if (principal == null) return ResponseEntity.status(401).build();
-        Optional<UserEntity> clientOpt = userRepository.findByEmail(principal.getUsername());
+        // Only the client's id is needed to book; not getReferenceById, as the appointment is the response
+        // body and an uninitialized proxy does not serialize
+        Optional<UserEntity> clientOpt = bookingIntakeService.findClient(principal.getUsername());
         if (clientOpt.isEmpty()) return ResponseEntity.status(401).build();
 
         LawyerProfile lawyer = lawyerProfileRepository.findById(req.getLawyerProfileId()).orElse(null);
@@ -48,36 +106,158 @@ public class AppointmentController {
                 .problemDescription(req.getProblemDescription())
                 .notes(req.getNotes())
                 .build();
-        appt = appointmentRepository.save(appt);
+        try {
+            appt = appointmentService.book(appt);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (AppointmentService.SlotConflictException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        }
+        afterBooked(appt);
         return ResponseEntity.ok(appt);
     }
 
+    // Queued, idempotent variant of create for requests carrying an Idempotency-Key: answers once the
+    // booking's batch has committed, or with 202 and a status URL if that takes longer than intakeWaitMs
+    @PostMapping(headers = "Idempotency-Key")
+    public CompletableFuture<ResponseEntity<?>> createQueued(@AuthenticationPrincipal User principal,
+                                                             @Valid @RequestBody CreateAppointmentRequest req,
+                                                             @RequestHeader("Idempotency-Key") String idempotencyKey) {
+        if (principal == null) return CompletableFuture.completedFuture(ResponseEntity.status(401).build());
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY + " characters"));
+        }
+        // Not through the repositories: see BookingIntakeService.findClient
+        Optional<UserEntity> clientOpt = bookingIntakeService.findClient(principal.getUsername());
+        if (clientOpt.isEmpty()) return CompletableFuture.completedFuture(ResponseEntity.status(401).build());
+
+        LawyerProfile lawyer = req.getLawyerProfileId() == null ? null : bookingIntakeService.findLawyer(req.getLawyerProfileId()).orElse(null);
+        if (lawyer == null) return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Invalid lawyerProfileId"));
+
+        Appointment appt = Appointment.builder()
+                .client(clientOpt.get())
+                .lawyer(lawyer)
+                .appointmentDate(req.getAppointmentDate())
+                .status("PENDING")
+                .problemDescription(req.getProblemDescription())
+                .notes(req.getNotes())
+                .build();
+        BookingIntakeService.Submission submission;
+        try {
+            submission = bookingIntakeService.submit(appt, idempotencyKey);
+        } catch (BookingIntakeService.KeyReusedException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(422).body(e.getMessage()));
+        } catch (BookingIntakeService.QueueFullException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage()));
+        }
+        // Runs on the intake writer once committed, whether or not this request is still waiting
+        if (submission.fresh()) {
+            submission.result().thenAccept(r -> {
+                if (r.appointment() != null) afterBooked(r.appointment());
+            });
+        }
+        return submission.result()
+                .<ResponseEntity<?>>thenApply(r -> intakeResponse(idempotencyKey, r))
+                .completeOnTimeout(queuedResponse(idempotencyKey), intakeWaitMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> e.getCause() instanceof BookingIntakeService.KeyReusedException
+                        ? ResponseEntity.status(422).body(e.getCause().getMessage())
+                        : intakeFailed());
+    }
+
+    @GetMapping("/intake/{idempotencyKey}")
+    public ResponseEntity<?> intakeStatus(@AuthenticationPrincipal User principal, @PathVariable String idempotencyKey) {
+        if (principal == null) return ResponseEntity.status(401).build();
+        Optional<UserIdentityCache.Identity> client = userIdentityCache.find(principal.getUsername());
+        if (client.isEmpty()) return ResponseEntity.status(401).build();
+
+        CompletableFuture<BookingIntakeService.IntakeResult> result = bookingIntakeService.find(client.get().userId(), idempotencyKey).orElse(null);
+        if (result == null) return ResponseEntity.status(404).body("Unknown Idempotency-Key");
+        if (!result.isDone()) return queuedResponse(idempotencyKey);
+        if (result.isCompletedExceptionally()) return intakeFailed();
+        return intakeResponse(idempotencyKey, result.join());
+    }
+
     @GetMapping("/by-lawyer/{lawyerProfileId}")
     public ResponseEntity<?> listByLawyer(
         @PathVariable Long lawyerProfileId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
             @AuthenticationPrincipal User principal
     ) {
-        if (principal == null) return ResponseEntity.status(401).build();
-        Optional<UserEntity> userOpt = userRepository.findByEmail(principal.getUsername());
-        if (userOpt.isEmpty()) return ResponseEntity.status(401).build();
-
-    // First, treat the provided id as a userId to resolve the lawyer's profile; if not found, treat it as a profileId
-    LawyerProfile lp = lawyerProfileRepository.findByUserId(lawyerProfileId)
-        .or(() -> lawyerProfileRepository.findById(lawyerProfileId))
-        .orElse(null);
-    if (lp == null) return ResponseEntity.notFound().build();
-
-        // Enforce that the authenticated user owns this lawyer profile
-        if (lp.getUser() == null || !lp.getUser().getId().equals(userOpt.get().getId())) {
-            return ResponseEntity.status(403).body("Forbidden");
+        LawyerAccess access = ownedLawyerProfile(lawyerProfileId, principal);
+        if (access.denied() != null) return access.denied();
+        LawyerProfile lp = access.profile();
+
+        int pageSize = Math.max(1, Math.min(size, 100));
+        String totalKey = lawyerTotalKey(lp.getId());
+        // Keyset mode when a cursor is given (empty cursor = first page)
+        if (cursor != null) {
+            long before;
+            try {
+                before = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor");
+            }
+            List<AppointmentListRow> rows = appointmentRepository.findListRowsByLawyerIdBefore(lp.getId(), before, Limit.of(pageSize + 1));
+            Long total = withTotal ? totalCountCache.get(totalKey, () -> appointmentRepository.countByLawyer(lp)) : null;
+            return ResponseEntity.ok(CursorPage.of(rows, pageSize, AppointmentListRow::getId, AppointmentController::toDto, total));
         }
 
-        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, 100)));
-        Page<Appointment> p = appointmentRepository.findByLawyerOrderByIdDesc(lp, pageable);
-        Page<AppointmentDto> dtoPage = p.map(this::toDto);
-        return ResponseEntity.ok(PagedResponse.of(dtoPage));
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize);
+        Slice<AppointmentListRow> p = appointmentRepository.findListRowsByLawyerId(lp.getId(), pageable);
+        long total = totalCountCache.get(totalKey, () -> appointmentRepository.countByLawyer(lp));
+        return ResponseEntity.ok(PagedResponse.of(p.map(AppointmentController::toDto).getContent(), p.getNumber(), p.getSize(), total));
+    }
+
+    // Whole appointment history of a lawyer as CSV or NDJSON (optionally gzipped), newest first, under the
+    // same ownership rules as the listing. Rows are read in keyset chunks and written as they arrive, so
+    // memory stays flat and no read transaction is held open against SQLite for the whole download.
+    @GetMapping("/by-lawyer/{lawyerProfileId}/export")
+    public ResponseEntity<StreamingResponseBody> exportByLawyer(
+            @PathVariable Long lawyerProfileId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @AuthenticationPrincipal User principal
+    ) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) return plainText(ResponseEntity.badRequest().body("format must be csv or ndjson"));
+        LawyerAccess access = ownedLawyerProfile(lawyerProfileId, principal);
+        if (access.denied() != null) return plainText(access.denied());
+        Long lawyerId = access.profile().getId();
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 1 << 16) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 1 << 16);
+            if (csv) writer.write("id,appointmentDate,status,clientName,lawyerName,problemDescription,notes\r\n");
+            long before = Long.MAX_VALUE;
+            List<AppointmentListRow> rows;
+            do {
+                rows = appointmentRepository.findListRowsByLawyerIdBefore(lawyerId, before, Limit.of(EXPORT_CHUNK));
+                for (AppointmentListRow r : rows) {
+                    if (csv) {
+                        writeCsvRow(writer, r.getId().toString(), r.getAppointmentDate(), r.getStatus(), r.getClientName(),
+                                r.getLawyerName(), r.getProblemDescription(), r.getNotes());
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(toDto(r)));
+                        writer.write('\n');
+                    }
+                }
+                if (!rows.isEmpty()) before = rows.get(rows.size() - 1).getId();
+                writer.flush();
+            } while (rows.size() == EXPORT_CHUNK);
+            writer.flush();
+            if (target instanceof GZIPOutputStream g) g.finish();
+        };
+
+        String filename = "appointments-" + lawyerId + (csv ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        MediaType type = gzip ? MediaType.parseMediaType("application/gzip")
+                : csv ? MediaType.parseMediaType("text/csv;charset=UTF-8") : MediaType.parseMediaType("application/x-ndjson");
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
     }
 
     // List appointments for the authenticated client (paginated)
@@ -85,49 +265,186 @@ public class AppointmentController {
     public ResponseEntity<?> listMyAppointments(
             @AuthenticationPrincipal User principal,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal
+    ) {
+        if (principal == null) return ResponseEntity.status(401).build();
+        Optional<UserIdentityCache.Identity> caller = userIdentityCache.find(principal.getUsername());
+        if (caller.isEmpty()) return ResponseEntity.status(401).build();
+        UserEntity client = userRepository.getReferenceById(caller.get().userId());
+
+        int pageSize = Math.max(1, Math.min(size, 100));
+        String totalKey = clientTotalKey(client.getId());
+        if (cursor != null) {
+            long before;
+            try {
+                before = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor");
+            }
+            List<AppointmentListRow> rows = appointmentRepository.findListRowsByClientIdBefore(client.getId(), before, Limit.of(pageSize + 1));
+            Long total = withTotal ? totalCountCache.get(totalKey, () -> appointmentRepository.countByClient(client)) : null;
+            return ResponseEntity.ok(CursorPage.of(rows, pageSize, AppointmentListRow::getId, AppointmentController::toDto, total));
+        }
+
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize);
+        Slice<AppointmentListRow> p = appointmentRepository.findListRowsByClientId(client.getId(), pageable);
+        long total = totalCountCache.get(totalKey, () -> appointmentRepository.countByClient(client));
+        return ResponseEntity.ok(PagedResponse.of(p.map(AppointmentController::toDto).getContent(), p.getNumber(), p.getSize(), total));
+    }
+
+    // Live appointment changes for the authenticated user, as client or as lawyer. A reconnecting client
+    // sends its Last-Event-ID (header, or lastEventId for clients that cannot set it) to get what it missed.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> stream(
+            @AuthenticationPrincipal User principal,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam
+    ) {
+        if (principal == null) return ResponseEntity.status(401).build();
+        // Not through the repositories: see UserIdentityCache
+        Optional<UserIdentityCache.Identity> caller = userIdentityCache.find(principal.getUsername());
+        if (caller.isEmpty()) return ResponseEntity.status(401).build();
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        return ResponseEntity.ok(appointmentStreamService.subscribe(caller.get().userId(), lastEventId));
+    }
+
+    // Dashboard counters of the authenticated lawyer: all-time counts per status, plus per-day counts
+    // for appointments scheduled in [from, to] when a range is given (at most MAX_STATS_DAYS days)
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats(
+            @AuthenticationPrincipal User principal,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
     ) {
         if (principal == null) return ResponseEntity.status(401).build();
-        Optional<UserEntity> userOpt = userRepository.findByEmail(principal.getUsername());
-        if (userOpt.isEmpty()) return ResponseEntity.status(401).build();
+        Optional<Long> lawyer = userIdentityCache.find(principal.getUsername()).map(UserIdentityCache.Identity::lawyerProfileId);
+        if (lawyer.isEmpty()) return ResponseEntity.status(403).body("Only lawyers have appointment statistics");
+        if ((from == null) != (to == null)) return ResponseEntity.badRequest().body("Provide both from and to, or neither");
+        if (from != null && (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_STATS_DAYS)) {
+            return ResponseEntity.badRequest().body("to must be on or after from and within " + MAX_STATS_DAYS + " days");
+        }
+
+        Long lawyerId = lawyer.get();
+        Map<String, Long> totals = appointmentStatsService.totals(lawyerId);
+        List<DayStats> days = new ArrayList<>();
+        if (from != null) {
+            appointmentStatsService.byDay(lawyerId, from, to).forEach((day, counts) ->
+                    days.add(new DayStats(day, counts, counts.values().stream().mapToLong(Long::longValue).sum())));
+        }
+        return ResponseEntity.ok(new StatsResponse(totals, totals.values().stream().mapToLong(Long::longValue).sum(), days));
+    }
 
-        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, 100)));
-        Page<Appointment> p = appointmentRepository.findByClientOrderByIdDesc(userOpt.get(), pageable);
-        Page<AppointmentDto> dtoPage = p.map(this::toDto);
-        return ResponseEntity.ok(PagedResponse.of(dtoPage));
+    // Recounts the lawyer's appointments and compares them with the counters; repair=true rewrites
+    // the counters from the recount when they disagree
+    @GetMapping("/stats/verify")
+    public ResponseEntity<?> verifyStats(@AuthenticationPrincipal User principal, @RequestParam(defaultValue = "false") boolean repair) {
+        if (principal == null) return ResponseEntity.status(401).build();
+        Optional<Long> lawyer = userIdentityCache.find(principal.getUsername()).map(UserIdentityCache.Identity::lawyerProfileId);
+        if (lawyer.isEmpty()) return ResponseEntity.status(403).body("Only lawyers have appointment statistics");
+        return ResponseEntity.ok(appointmentStatsService.verify(lawyer.get(), repair));
     }
 
     @PatchMapping("/{id}/status")
     public ResponseEntity<?> updateStatus(@PathVariable Long id, @RequestBody UpdateStatusRequest req, @AuthenticationPrincipal User principal) {
         if (principal == null) return ResponseEntity.status(401).build();
-        Optional<UserEntity> userOpt = userRepository.findByEmail(principal.getUsername());
-        if (userOpt.isEmpty()) return ResponseEntity.status(401).build();
+        Optional<UserIdentityCache.Identity> caller = userIdentityCache.find(principal.getUsername());
+        if (caller.isEmpty()) return ResponseEntity.status(401).build();
 
         return appointmentRepository.findById(id)
                 .map(a -> {
                     // Ensure the principal is the owner of this lawyer profile
-                    if (a.getLawyer() == null || a.getLawyer().getUser() == null || !a.getLawyer().getUser().getId().equals(userOpt.get().getId())) {
+                    if (a.getLawyer() == null || a.getLawyer().getUser() == null || !a.getLawyer().getUser().getId().equals(caller.get().userId())) {
                         return ResponseEntity.status(403).body("Forbidden");
                     }
                     String newStatus = req.getStatus();
                     if (newStatus == null || newStatus.isBlank()) newStatus = a.getStatus();
                     // Basic status whitelist
-                    switch (newStatus) {
-                        case "PENDING":
-                        case "CONFIRMED":
-                        case "IN_PROGRESS":
-                        case "COMPLETED":
-                        case "REJECTED":
-                            a.setStatus(newStatus);
-                            appointmentRepository.save(a);
-                            return ResponseEntity.ok(toDto(a));
-                        default:
-                            return ResponseEntity.badRequest().body("Invalid status");
+                    if (!STATUSES.contains(newStatus)) return ResponseEntity.badRequest().body("Invalid status");
+                    String previousStatus = a.getStatus();
+                    if (newStatus.equals(previousStatus)) return ResponseEntity.ok(toDto(a));
+                    try {
+                        a = appointmentService.changeStatus(a, newStatus);
+                    } catch (AppointmentService.SlotConflictException e) {
+                        return ResponseEntity.status(409).body(e.getMessage());
                     }
+                    eventPublisher.publishEvent(changedEvent(a, previousStatus));
+                    return ResponseEntity.ok(toDto(a));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Status changes for many appointments in one call. Ownership of every id is checked with one query
+    // and the accepted changes are written in one transaction; each item gets its own result, using the
+    // status codes the single-item endpoint would have returned.
+    @PatchMapping("/status")
+    public ResponseEntity<?> updateStatuses(@RequestBody BulkStatusRequest req, @AuthenticationPrincipal User principal) {
+        if (principal == null) return ResponseEntity.status(401).build();
+        Optional<UserIdentityCache.Identity> caller = userIdentityCache.find(principal.getUsername());
+        if (caller.isEmpty()) return ResponseEntity.status(401).build();
+        List<BulkStatusItem> items = req.getItems();
+        if (items == null || items.isEmpty()) return ResponseEntity.badRequest().body("items is required");
+        if (items.size() > MAX_BULK_ITEMS) return ResponseEntity.badRequest().body("At most " + MAX_BULK_ITEMS + " items per request");
+
+        Map<Long, Appointment> found = new HashMap<>();
+        List<Long> ids = items.stream().map(BulkStatusItem::getId).filter(Objects::nonNull).distinct().toList();
+        if (!ids.isEmpty()) {
+            for (Appointment a : appointmentRepository.findWithPartiesByIdIn(ids)) found.put(a.getId(), a);
+        }
+
+        Long userId = caller.get().userId();
+        BulkStatusResult[] results = new BulkStatusResult[items.size()];
+        Map<Appointment, String> changes = new LinkedHashMap<>();
+        Map<Long, Integer> positions = new HashMap<>();
+        Map<Long, String> previousStatuses = new HashMap<>();
+        Long lawyerId = null;
+        for (int i = 0; i < items.size(); i++) {
+            BulkStatusItem item = items.get(i);
+            Appointment a = item.getId() != null ? found.get(item.getId()) : null;
+            if (a == null) {
+                results[i] = BulkStatusResult.error(item.getId(), 404, "Not found");
+            } else if (a.getLawyer().getUser() == null || !a.getLawyer().getUser().getId().equals(userId)) {
+                results[i] = BulkStatusResult.error(item.getId(), 403, "Forbidden");
+            } else if (previousStatuses.containsKey(a.getId())) {
+                results[i] = BulkStatusResult.error(item.getId(), 400, "Duplicate id");
+            } else {
+                String newStatus = item.getStatus() == null || item.getStatus().isBlank() ? a.getStatus() : item.getStatus();
+                if (!STATUSES.contains(newStatus)) {
+                    results[i] = BulkStatusResult.error(item.getId(), 400, "Invalid status");
+                } else if (newStatus.equals(a.getStatus())) {
+                    previousStatuses.put(a.getId(), a.getStatus());
+                    results[i] = BulkStatusResult.ok(toDto(a));
+                } else {
+                    // A user owns at most one lawyer profile, so every change belongs to the same lawyer
+                    lawyerId = a.getLawyer().getId();
+                    previousStatuses.put(a.getId(), a.getStatus());
+                    positions.put(a.getId(), i);
+                    changes.put(a, newStatus);
+                }
+            }
+        }
+
+        if (!changes.isEmpty()) {
+            Set<Long> conflicts;
+            try {
+                conflicts = appointmentService.changeStatuses(lawyerId, changes);
+            } catch (AppointmentService.SlotConflictException e) {
+                return ResponseEntity.status(409).body(e.getMessage());
+            }
+            for (Appointment a : changes.keySet()) {
+                int i = positions.get(a.getId());
+                if (conflicts.contains(a.getId())) {
+                    results[i] = BulkStatusResult.error(a.getId(), 409, new AppointmentService.SlotConflictException().getMessage());
+                } else {
+                    results[i] = BulkStatusResult.ok(toDto(a));
+                    eventPublisher.publishEvent(changedEvent(a, previousStatuses.get(a.getId())));
+                }
+            }
+        }
+        return ResponseEntity.ok(new BulkStatusResponse(List.of(results)));
+    }
+
     @Data
     public static class CreateAppointmentRequest {
         private Long lawyerProfileId;
@@ -136,11 +453,70 @@ public class AppointmentController {
         private String notes;
     }
 
+    @Data
+    @AllArgsConstructor
+    public static class IntakeResponse {
+        private String idempotencyKey;
+        private String status;
+        private Long appointmentId;
+        private String message;
+    }
+
     @Data
     public static class UpdateStatusRequest {
         private String status;
     }
 
+    @Data
+    public static class BulkStatusRequest {
+        private List<BulkStatusItem> items;
+    }
+
+    @Data
+    public static class BulkStatusItem {
+        private Long id;
+        private String status;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class BulkStatusResponse {
+        private List<BulkStatusResult> results;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class BulkStatusResult {
+        private Long id;
+        private int code;
+        private String error;
+        private AppointmentDto appointment;
+
+        static BulkStatusResult ok(AppointmentDto appointment) {
+            return new BulkStatusResult(appointment.getId(), 200, null, appointment);
+        }
+
+        static BulkStatusResult error(Long id, int code, String error) {
+            return new BulkStatusResult(id, code, error, null);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class StatsResponse {
+        private Map<String, Long> byStatus;
+        private long total;
+        private List<DayStats> byDay;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class DayStats {
+        private LocalDate day;
+        private Map<String, Long> byStatus;
+        private long total;
+    }
+
     @Data
     @Builder
     @AllArgsConstructor
@@ -170,17 +546,92 @@ public class AppointmentController {
                 .build();
     }
 
-    @Data
-    @AllArgsConstructor(staticName = "of")
-    public static class PagedResponse<T> {
-        private List<T> content;
-        private int page;
-        private int size;
-        private long totalElements;
-        private int totalPages;
-
-        public static <T> PagedResponse<T> of(Page<T> p) {
-            return new PagedResponse<>(p.getContent(), p.getNumber(), p.getSize(), p.getTotalElements(), p.getTotalPages());
+    // First treats the id as the lawyer's user id, then as a profile id, and requires the principal to own the profile
+    private LawyerAccess ownedLawyerProfile(Long id, User principal) {
+        if (principal == null) return new LawyerAccess(null, ResponseEntity.status(401).build());
+        Optional<UserIdentityCache.Identity> caller = userIdentityCache.find(principal.getUsername());
+        if (caller.isEmpty()) return new LawyerAccess(null, ResponseEntity.status(401).build());
+        LawyerProfile lp = lawyerProfileRepository.findByUserIdOrId(id, Limit.of(1)).stream().findFirst().orElse(null);
+        if (lp == null) return new LawyerAccess(null, ResponseEntity.notFound().build());
+        if (lp.getUser() == null || !lp.getUser().getId().equals(caller.get().userId())) {
+            return new LawyerAccess(null, ResponseEntity.status(403).body("Forbidden"));
         }
+        return new LawyerAccess(lp, null);
+    }
+
+    private record LawyerAccess(LawyerProfile profile, ResponseEntity<?> denied) {
+    }
+
+    // Error response for a streaming endpoint, whose declared body type must stay StreamingResponseBody
+    private static ResponseEntity<StreamingResponseBody> plainText(ResponseEntity<?> response) {
+        byte[] message = response.getBody() == null ? new byte[0] : response.getBody().toString().getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(response.getStatusCode()).contentType(MediaType.TEXT_PLAIN).body(out -> out.write(message));
+    }
+
+    // RFC 4180 quoting; cells that a spreadsheet would evaluate as a formula get a leading apostrophe
+    private static void writeCsvRow(Writer w, String... cells) throws IOException {
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) w.write(',');
+            String c = cells[i];
+            if (c == null || c.isEmpty()) continue;
+            if ("=+-@\t\r".indexOf(c.charAt(0)) >= 0) c = "'" + c;
+            if (c.indexOf(',') >= 0 || c.indexOf('"') >= 0 || c.indexOf('\n') >= 0 || c.indexOf('\r') >= 0) {
+                w.write('"');
+                w.write(c.replace("\"", "\"\""));
+                w.write('"');
+            } else {
+                w.write(c);
+            }
+        }
+        w.write("\r\n");
+    }
+
+    private static AppointmentDto toDto(AppointmentListRow r) {
+        return new AppointmentDto(r.getId(), r.getAppointmentDate(), r.getStatus(), r.getProblemDescription(),
+                r.getNotes(), r.getClientName(), r.getLawyerName());
+    }
+
+    private static AppointmentChangedEvent changedEvent(Appointment a, String previousStatus) {
+        LawyerProfile lawyer = a.getLawyer();
+        return new AppointmentChangedEvent(a.getId(), lawyer.getId(),
+                lawyer.getUser() != null ? lawyer.getUser().getId() : null,
+                a.getClient() != null ? a.getClient().getId() : null,
+                a.getAppointmentDate(), previousStatus, a.getStatus());
+    }
+
+    private void afterBooked(Appointment appt) {
+        totalCountCache.adjust(lawyerTotalKey(appt.getLawyer().getId()), 1);
+        totalCountCache.adjust(clientTotalKey(appt.getClient().getId()), 1);
+        eventPublisher.publishEvent(changedEvent(appt, null));
+    }
+
+    private static ResponseEntity<?> intakeResponse(String idempotencyKey, BookingIntakeService.IntakeResult r) {
+        int status = switch (r.status()) {
+            case AppointmentService.BookingOutcome.BOOKED -> 200;
+            case AppointmentService.BookingOutcome.CONFLICT -> 409;
+            default -> 400;
+        };
+        return ResponseEntity.status(status).body(new IntakeResponse(idempotencyKey, r.status(), r.appointmentId(), r.message()));
+    }
+
+    private static ResponseEntity<?> queuedResponse(String idempotencyKey) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/appointments/intake/" + UriUtils.encodePathSegment(idempotencyKey, StandardCharsets.UTF_8)))
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new IntakeResponse(idempotencyKey, "QUEUED", null, null));
+    }
+
+    // Nothing was stored for the key, so retrying it is safe
+    private static ResponseEntity<?> intakeFailed() {
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Booking could not be processed, retry with the same Idempotency-Key");
+    }
+
+    private static String lawyerTotalKey(Long lawyerProfileId) {
+        return "appointments:lawyer:" + lawyerProfileId;
+    }
+
+    private static String clientTotalKey(Long clientId) {
+        return "appointments:client:" + clientId;
     }
 }
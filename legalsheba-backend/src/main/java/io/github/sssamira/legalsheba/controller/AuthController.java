@@ -1,23 +1,35 @@
 package io.github.sssamira.legalsheba.controller;
 
+import io.github.sssamira.legalsheba.event.LawyerProfileSavedEvent;
 import io.github.sssamira.legalsheba.model.LawyerProfile;
 import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
 import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
 import io.github.sssamira.legalsheba.repository.UserRepository;
 import io.github.sssamira.legalsheba.repository.SpecialtyRepository;
+import io.github.sssamira.legalsheba.security.BoundedPasswordEncoder;
+import io.github.sssamira.legalsheba.security.JwtPrincipal;
+import io.github.sssamira.legalsheba.service.CacheStatistics;
 import io.github.sssamira.legalsheba.service.JwtService;
+import io.github.sssamira.legalsheba.service.RefreshTokenService;
+import io.github.sssamira.legalsheba.service.TokenRevocationService;
+import io.github.sssamira.legalsheba.service.UserIdentityCache;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonAlias;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.List;
 
@@ -30,8 +42,14 @@ public class AuthController {
 	private final LawyerProfileRepository lawyerProfileRepository;
 	private final SpecialtyRepository specialtyRepository;
 	private final PasswordEncoder passwordEncoder;
+	private final BoundedPasswordEncoder boundedPasswordEncoder;
 	private final AuthenticationManager authenticationManager;
 	private final JwtService jwtService;
+	private final ApplicationEventPublisher eventPublisher;
+	private final UserIdentityCache userIdentityCache;
+	private final RefreshTokenService refreshTokenService;
+	private final TokenRevocationService tokenRevocationService;
+	private final TransactionTemplate transactionTemplate;
 
 	@PostMapping("/register")
 	public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest request) {
@@ -46,69 +64,154 @@ public class AuthController {
 				.createdAt(request.getCreatedAt())
 				.build();
 		userRepository.save(user);
-		String token = jwtService.generateToken(org.springframework.security.core.userdetails.User
-				.withUsername(user.getEmail())
-				.password(user.getPassword())
-				.roles(user.getRole())
-				.build(), new HashMap<>());
-		return ResponseEntity.ok(AuthResponse.of(token, user, null));
+		userIdentityCache.invalidate(user.getEmail());
+		return ResponseEntity.ok(signIn(user, null));
 	}
 
+	// Hashing happens before the transaction, which opens with the user insert so no lock is held across
+	// BCrypt and none needs upgrading. User, profile and specialties commit together; the indexes hear
+	// about the lawyer, and the refresh token is issued, once they have.
 	@PostMapping("/register-lawyer")
 	public ResponseEntity<?> registerLawyer(@Valid @RequestBody RegisterLawyerRequest request) {
 		if (userRepository.existsByEmail(request.getEmail())) {
 			return ResponseEntity.badRequest().body(Map.of("error", "Email already in use"));
 		}
-		UserEntity user = UserEntity.builder()
-				.fName(request.getFName())
-				.email(request.getEmail())
-				.password(passwordEncoder.encode(request.getPassword()))
-				.role("LAWYER")
-				.createdAt(request.getCreatedAt())
-				.build();
-		userRepository.save(user);
+		String hash = passwordEncoder.encode(request.getPassword());
+		RegisteredLawyer registered = transactionTemplate.execute(tx -> {
+			UserEntity user = UserEntity.builder()
+					.fName(request.getFName())
+					.email(request.getEmail())
+					.password(hash)
+					.role("LAWYER")
+					.createdAt(request.getCreatedAt())
+					.build();
+			userRepository.save(user);
 
-		LawyerProfile profile = LawyerProfile.builder()
-				.user(user)
-				.experience(request.getExperience())
-				.location(request.getLocation())
-				.courtOfPractice(request.getCourtOfPractice())
-				.availabilityDetails(request.getAvailabilityDetails())
-				.vHour(request.getVHour())
-				.build();
-		lawyerProfileRepository.save(profile);
-
-		// Optional: save specialties if provided
-		if (request.getSpecialties() != null && !request.getSpecialties().isEmpty()) {
-			for (String name : request.getSpecialties()) {
-				if (name == null || name.isBlank()) continue;
-				io.github.sssamira.legalsheba.model.Specialty s = io.github.sssamira.legalsheba.model.Specialty.builder()
-						.lawyer(profile)
-						.name(name.trim())
-						.build();
-				specialtyRepository.save(s);
+			LawyerProfile profile = LawyerProfile.builder()
+					.user(user)
+					.experience(request.getExperience())
+					.location(request.getLocation())
+					.courtOfPractice(request.getCourtOfPractice())
+					.availabilityDetails(request.getAvailabilityDetails())
+					.vHour(request.getVHour())
+					.build();
+			lawyerProfileRepository.save(profile);
+
+			// Optional: save specialties if provided
+			List<String> specialtyNames = new ArrayList<>();
+			if (request.getSpecialties() != null && !request.getSpecialties().isEmpty()) {
+				for (String name : request.getSpecialties()) {
+					if (name == null || name.isBlank()) continue;
+					io.github.sssamira.legalsheba.model.Specialty s = io.github.sssamira.legalsheba.model.Specialty.builder()
+							.lawyer(profile)
+							.name(name.trim())
+							.build();
+					specialtyRepository.save(s);
+					specialtyNames.add(s.getName());
+				}
 			}
-		}
+			return new RegisteredLawyer(user, profile, specialtyNames);
+		});
+		UserEntity user = registered.user();
+		LawyerProfile profile = registered.profile();
+		userIdentityCache.invalidate(user.getEmail());
 
-		String token = jwtService.generateToken(org.springframework.security.core.userdetails.User
-				.withUsername(user.getEmail())
-				.password(user.getPassword())
-				.roles(user.getRole())
-				.build(), new HashMap<>());
-		return ResponseEntity.ok(AuthResponse.of(token, user, profile.getId()));
+		// Let in-memory directory indexes pick up the new lawyer without a rebuild
+		eventPublisher.publishEvent(new LawyerProfileSavedEvent(new LawyerDirectoryRow(
+				profile.getId(), user.getFName(), profile.getExperience(), profile.getLocation(),
+				profile.getCourtOfPractice(), profile.getAvailabilityDetails(), profile.getVHour()), registered.specialtyNames()));
+
+		return ResponseEntity.ok(signIn(user, profile.getId()));
+	}
+
+	private record RegisteredLawyer(UserEntity user, LawyerProfile profile, List<String> specialtyNames) {
 	}
 
 	@PostMapping("/login")
 	public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
 		authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
 		UserEntity user = userRepository.findByEmail(request.getEmail()).orElseThrow();
-		String token = jwtService.generateToken(org.springframework.security.core.userdetails.User
-				.withUsername(user.getEmail())
-				.password(user.getPassword())
-				.roles(user.getRole())
-				.build(), new HashMap<>());
-		Long lawyerProfileId = lawyerProfileRepository.findByUser(user).map(LawyerProfile::getId).orElse(null);
-		return ResponseEntity.ok(AuthResponse.of(token, user, lawyerProfileId));
+		// Cached by the authentication just above
+		Long lawyerProfileId = userIdentityCache.find(user.getEmail()).map(UserIdentityCache.Identity::lawyerProfileId).orElse(null);
+		return ResponseEntity.ok(signIn(user, lawyerProfileId));
+	}
+
+	// Trades a refresh token for a new access token and the next refresh token; the presented one is spent
+	@PostMapping("/refresh")
+	public ResponseEntity<?> refresh(@RequestBody RefreshRequest request) {
+		if (request.getRefreshToken() == null || request.getRefreshToken().isBlank()) {
+			return ResponseEntity.badRequest().body(Map.of("error", "refreshToken is required"));
+		}
+		RefreshTokenService.Rotation rotation;
+		try {
+			rotation = refreshTokenService.rotate(request.getRefreshToken());
+		} catch (RefreshTokenService.InvalidRefreshTokenException e) {
+			return ResponseEntity.status(401).body(Map.of("error", e.getMessage()));
+		}
+		UserEntity user = userRepository.findById(rotation.userId()).orElse(null);
+		if (user == null) return ResponseEntity.status(401).body(Map.of("error", "Unknown user"));
+		Long lawyerProfileId = userIdentityCache.find(user.getEmail()).map(UserIdentityCache.Identity::lawyerProfileId).orElse(null);
+		return ResponseEntity.ok(AuthResponse.of(jwtService.generateToken(user), rotation.token(),
+				jwtService.getExpirationMs() / 1000, user, lawyerProfileId));
+	}
+
+	// Revokes the presented access token and, when given, the refresh token's family
+	@PostMapping("/logout")
+	public ResponseEntity<?> logout(@AuthenticationPrincipal JwtPrincipal principal, @RequestBody(required = false) RefreshRequest request) {
+		if (principal == null) return ResponseEntity.status(401).build();
+		if (principal.getTokenId() != null) tokenRevocationService.revokeToken(principal.getTokenId(), principal.getExpiresAt());
+		if (request != null && request.getRefreshToken() != null) refreshTokenService.revokeFamily(request.getRefreshToken());
+		return ResponseEntity.noContent().build();
+	}
+
+	// Signs every session of the user out (access and refresh tokens) and returns a fresh sign-in
+	@PostMapping("/password")
+	public ResponseEntity<?> changePassword(@AuthenticationPrincipal JwtPrincipal principal, @RequestBody ChangePasswordRequest request) {
+		if (principal == null) return ResponseEntity.status(401).build();
+		if (request.getNewPassword() == null || request.getNewPassword().isBlank()) {
+			return ResponseEntity.badRequest().body(Map.of("error", "newPassword is required"));
+		}
+		UserIdentityCache.Identity identity = userIdentityCache.find(principal.getUsername()).orElse(null);
+		if (identity == null) return ResponseEntity.status(401).build();
+		if (request.getCurrentPassword() == null || !passwordEncoder.matches(request.getCurrentPassword(), identity.passwordHash())) {
+			return ResponseEntity.status(403).body(Map.of("error", "Current password is incorrect"));
+		}
+		String hash = passwordEncoder.encode(request.getNewPassword());
+		// The new password and both revocations commit together; the sign-in below carries the new marker
+		transactionTemplate.executeWithoutResult(tx -> {
+			userRepository.updatePassword(identity.email(), hash);
+			refreshTokenService.revokeAll(identity.userId());
+			tokenRevocationService.revokeUser(identity.userId());
+		});
+		userIdentityCache.invalidate(identity.email());
+		UserEntity user = userRepository.findById(identity.userId()).orElseThrow();
+		return ResponseEntity.ok(signIn(user, identity.lawyerProfileId()));
+	}
+
+	private AuthResponse signIn(UserEntity user, Long lawyerProfileId) {
+		return AuthResponse.of(jwtService.generateToken(user), refreshTokenService.issue(user.getId()),
+				jwtService.getExpirationMs() / 1000, user, lawyerProfileId);
+	}
+
+	// Hit rate and size of the user identity cache
+	@GetMapping("/cache/stats")
+	@PreAuthorize("hasRole('ADMIN')")
+	public CacheStatistics cacheStats() {
+		return userIdentityCache.stats();
+	}
+
+	// Queue depth, work factor and latency of password hashing
+	@GetMapping("/hashing/stats")
+	@PreAuthorize("hasRole('ADMIN')")
+	public BoundedPasswordEncoder.Statistics hashingStats() {
+		return boundedPasswordEncoder.stats();
+	}
+
+	// How many authenticated requests the revocation filter cleared without a database lookup
+	@GetMapping("/revocation/stats")
+	@PreAuthorize("hasRole('ADMIN')")
+	public TokenRevocationService.Statistics revocationStats() {
+		return tokenRevocationService.stats();
 	}
 
 	@Data
@@ -141,10 +244,23 @@ public class AuthController {
 		private String password;
 	}
 
+	@Data
+	public static class RefreshRequest {
+		private String refreshToken;
+	}
+
+	@Data
+	public static class ChangePasswordRequest {
+		private String currentPassword;
+		private String newPassword;
+	}
+
 	@Data
 	@AllArgsConstructor(staticName = "of")
 	public static class AuthResponse {
 		private String token;
+		private String refreshToken;
+		private Long expiresIn; // seconds until token expires
 		private Long id;
 		private String email;
 		private String role;
@@ -154,12 +270,8 @@ public class AuthController {
 		// For frontend compatibility (expects `name` sometimes)
 		public String getName() { return fName; }
 
-		public static AuthResponse of(String token, UserEntity user) {
-			return of(token, user, null);
-		}
-
-		public static AuthResponse of(String token, UserEntity user, Long lawyerProfileId) {
-			return new AuthResponse(token, user.getId(), user.getEmail(), user.getRole(), user.getFName(), lawyerProfileId);
+		public static AuthResponse of(String token, String refreshToken, long expiresIn, UserEntity user, Long lawyerProfileId) {
+			return new AuthResponse(token, refreshToken, expiresIn, user.getId(), user.getEmail(), user.getRole(), user.getFName(), lawyerProfileId);
 		}
 	}
 }
@@ -1,20 +1,43 @@
 package io.github.sssamira.legalsheba.controller;
 
+import io.github.sssamira.legalsheba.event.InfoHubChangedEvent;
 import io.github.sssamira.legalsheba.model.InfoHub;
+import io.github.sssamira.legalsheba.pagination.CursorPage;
+import io.github.sssamira.legalsheba.pagination.KeysetCursor;
+import io.github.sssamira.legalsheba.pagination.PagedResponse;
+import io.github.sssamira.legalsheba.pagination.TotalCountCache;
 import io.github.sssamira.legalsheba.repository.InfoHubRepository;
+import io.github.sssamira.legalsheba.repository.InfoHubSummaryRow;
+import io.github.sssamira.legalsheba.search.InfoHubSearchIndex;
+import io.github.sssamira.legalsheba.service.CacheStatistics;
+import io.github.sssamira.legalsheba.service.InfoHubBodyCache;
+import io.github.sssamira.legalsheba.service.InfoHubImportService;
+import io.github.sssamira.legalsheba.service.InfoHubPageCache;
+import io.github.sssamira.legalsheba.service.InfoHubSnapshot;
+import io.github.sssamira.legalsheba.service.ResourceVersions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/infohub")
@@ -22,29 +45,120 @@ import java.util.List;
 public class InfoHubController {
 
     private final InfoHubRepository infoHubRepository;
+    private final TotalCountCache totalCountCache;
+    private final ResourceVersions resourceVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InfoHubSearchIndex infoHubSearchIndex;
+    private final InfoHubBodyCache infoHubBodyCache;
+    private final InfoHubPageCache infoHubPageCache;
+    private final InfoHubSnapshot infoHubSnapshot;
+    private final InfoHubImportService infoHubImportService;
 
-    // List with optional category filter, pagination
+    // List with optional category filter, pagination (offset by default, keyset when a cursor is given).
+    // Items are summaries with a teaser; the full body is only served by GET /{id}.
     @GetMapping
-    public ResponseEntity<PagedResponse<InfoHub>> list(
+    public ResponseEntity<?> list(
             @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        ResourceVersions.Stamp stamp = resourceVersions.collection(ResourceVersions.INFOHUB);
+        if (webRequest.checkNotModified(stamp.eTag(), stamp.lastModified())) return notModified();
+
+        boolean all = category == null || category.isBlank();
+        int pageSize = Math.max(1, Math.min(size, 100));
+        String totalKey = totalKey(all ? null : category);
+
+        if (cursor != null) {
+            long before;
+            try {
+                before = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor");
+            }
+            List<InfoHubSummaryRow> rows = all
+                    ? infoHubRepository.findSummariesBefore(before, Limit.of(pageSize + 1))
+                    : infoHubRepository.findSummariesByCategoryBefore(category, before, Limit.of(pageSize + 1));
+            Long total = withTotal ? countCached(totalKey, all ? null : category) : null;
+            return cacheable(stamp).body(CursorPage.of(rows, pageSize, InfoHubSummaryRow::getId, r -> r, total));
+        }
+
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize);
+        var snapshot = infoHubSnapshot.page(all ? null : category, pageable.getPageNumber(), pageSize);
+        if (snapshot.isPresent()) return serveSnapshot(snapshot.get(), stamp, acceptEncoding, request, response);
+        List<InfoHubSummaryRow> rows = infoHubPageCache.page(all ? null : category, pageable.getPageNumber(), pageSize, () -> (all
+                ? infoHubRepository.findSummaries(pageable)
+                : infoHubRepository.findSummariesByCategory(category, pageable)).getContent());
+        long total = countCached(totalKey, all ? null : category);
+        return cacheable(stamp).body(PagedResponse.of(rows, pageable.getPageNumber(), pageSize, total));
+    }
+
+    // Keyword search over titles and content, best matches first, with highlighted titles and snippets
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest
     ) {
-        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, 100)));
-        Page<InfoHub> p = (category == null || category.isBlank())
-                ? infoHubRepository.findAllByOrderByIdDesc(pageable)
-                : infoHubRepository.findByCategoryIgnoreCaseOrderByIdDesc(category, pageable);
-        return ResponseEntity.ok(PagedResponse.of(p));
+        if (q.isBlank()) return ResponseEntity.badRequest().body("q is required");
+        ResourceVersions.Stamp stamp = resourceVersions.collection(ResourceVersions.INFOHUB);
+        if (webRequest.checkNotModified(stamp.eTag(), stamp.lastModified())) return notModified();
+
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.max(1, Math.min(size, 50));
+        InfoHubSearchIndex.Result r = infoHubSearchIndex.search(q, category, safePage * safeSize, safeSize);
+        return cacheable(stamp).body(InfoHubSearchResponse.builder()
+                .content(r.hits())
+                .page(safePage)
+                .size(safeSize)
+                .totalElements(r.total())
+                .totalPages((int) ((r.total() + safeSize - 1) / safeSize))
+                .tookMicros(r.tookMicros())
+                .build());
     }
 
-    // Get one
+    // Get one, from pre-serialized JSON; gzip-encoded when the client accepts it
     @GetMapping("/{id}")
-    public ResponseEntity<InfoHub> get(@PathVariable Long id) {
-        return infoHubRepository.findById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> get(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        ResourceVersions.Stamp stamp = resourceVersions.entity(ResourceVersions.INFOHUB, id);
+        if (webRequest.checkNotModified(stamp.eTag(), stamp.lastModified())) return notModified();
+
+        var snapshot = infoHubSnapshot.article(id);
+        if (snapshot.isPresent()) return serveSnapshot(snapshot.get(), stamp, acceptEncoding, request, response);
+
+        return infoHubBodyCache.get(id, stamp)
+                .map(b -> {
+                    boolean gzip = b.gzip() != null && InfoHubBodyCache.acceptsGzip(acceptEncoding);
+                    ResponseEntity.BodyBuilder r = cacheable(stamp)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+                    if (gzip) r.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    return r.body(gzip ? b.gzip() : b.json());
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Hit/miss/eviction counters of the page and article caches
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<CacheStatistics> cacheStats() {
+        return List.of(infoHubPageCache.stats(), infoHubBodyCache.stats());
+    }
+
     // Create (protected)
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -55,7 +169,33 @@ public class InfoHubController {
                 .category(req.getCategory())
                 .date(req.getDate())
                 .build();
-        return ResponseEntity.ok(infoHubRepository.save(entity));
+        InfoHub saved = infoHubRepository.save(entity);
+        totalCountCache.adjust(totalKey(null), 1);
+        totalCountCache.adjust(totalKey(saved.getCategory()), 1);
+        infoHubPageCache.onCreated(saved);
+        infoHubSnapshot.onCreated(saved);
+        eventPublisher.publishEvent(new InfoHubChangedEvent(saved.getId(), saved));
+        return ResponseEntity.ok(saved);
+    }
+
+    // Bulk import (protected): NDJSON or a JSON array of articles, optionally gzip-encoded, streamed and
+    // inserted in batches. Readers see each batch as it commits; the collection ETag and the snapshot are
+    // brought up to date once at the end.
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<InfoHubImportService.Report> importArticles(HttpServletRequest request) throws IOException {
+        InputStream in = "gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))
+                ? new GZIPInputStream(request.getInputStream(), 64 * 1024)
+                : request.getInputStream();
+        InfoHubImportService.Report report = infoHubImportService.importArticles(in, () -> {
+            totalCountCache.invalidatePrefix("infohub:");
+            infoHubPageCache.invalidateAll();
+        });
+        if (report.getImported() > 0) {
+            infoHubSnapshot.publish();
+            resourceVersions.bump(ResourceVersions.INFOHUB, null);
+        }
+        return ResponseEntity.ok(report);
     }
 
     // Update (protected)
@@ -64,11 +204,20 @@ public class InfoHubController {
     public ResponseEntity<InfoHub> update(@PathVariable Long id, @Valid @RequestBody InfoHubRequest req) {
         return infoHubRepository.findById(id)
                 .map(e -> {
+                    String previousCategory = e.getCategory();
+                    if (!totalKey(e.getCategory()).equals(totalKey(req.getCategory()))) {
+                        totalCountCache.adjust(totalKey(e.getCategory()), -1);
+                        totalCountCache.adjust(totalKey(req.getCategory()), 1);
+                    }
                     e.setTitle(req.getTitle());
                     e.setContent(req.getContent());
                     e.setCategory(req.getCategory());
                     e.setDate(req.getDate());
-                    return ResponseEntity.ok(infoHubRepository.save(e));
+                    InfoHub saved = infoHubRepository.save(e);
+                    infoHubPageCache.onUpdated(previousCategory, saved);
+                    infoHubSnapshot.onUpdated(previousCategory, saved);
+                    eventPublisher.publishEvent(new InfoHubChangedEvent(saved.getId(), saved));
+                    return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -80,6 +229,11 @@ public class InfoHubController {
         return infoHubRepository.findById(id)
                 .map(e -> {
                     infoHubRepository.delete(e);
+                    totalCountCache.adjust(totalKey(null), -1);
+                    totalCountCache.adjust(totalKey(e.getCategory()), -1);
+                    infoHubPageCache.onDeleted(e);
+                    infoHubSnapshot.onDeleted(e);
+                    eventPublisher.publishEvent(new InfoHubChangedEvent(id, null));
                     return ResponseEntity.noContent().build();
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -96,15 +250,53 @@ public class InfoHubController {
     @Data
     @Builder
     @AllArgsConstructor
-    public static class PagedResponse<T> {
-        private List<T> content;
+    public static class InfoHubSearchResponse {
+        private List<InfoHubSearchIndex.Hit> content;
         private int page;
         private int size;
         private long totalElements;
         private int totalPages;
+        private long tookMicros;
+    }
 
-        public static <T> PagedResponse<T> of(Page<T> p) {
-            return new PagedResponse<>(p.getContent(), p.getNumber(), p.getSize(), p.getTotalElements(), p.getTotalPages());
-        }
+    private static ResponseEntity.BodyBuilder cacheable(ResourceVersions.Stamp stamp) {
+        return ResponseEntity.ok()
+                .eTag(stamp.eTag())
+                .lastModified(stamp.lastModified())
+                .cacheControl(ResourceVersions.REVALIDATE);
+    }
+
+    // Streams a pre-rendered file as the response, bypassing message converters; the null return tells
+    // Spring MVC the response has been handled
+    private static <T> ResponseEntity<T> serveSnapshot(InfoHubSnapshot.Rendered r, ResourceVersions.Stamp stamp, String acceptEncoding,
+                                                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean gzip = InfoHubBodyCache.acceptsGzip(acceptEncoding);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.ETAG, stamp.eTag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, stamp.lastModified());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, ResourceVersions.REVALIDATE.getHeaderValue());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        InfoHubSnapshot.transfer(gzip ? r.gzip() : r.json(), gzip ? r.gzipLength() : r.jsonLength(), request, response);
+        return null;
+    }
+
+    // checkNotModified has already written ETag/Last-Modified and the 304 status
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(ResourceVersions.REVALIDATE)
+                .build();
+    }
+
+    private long countCached(String key, String category) {
+        return totalCountCache.get(key, () -> category == null
+                ? infoHubRepository.count()
+                : infoHubRepository.countByCategoryIgnoreCase(category));
+    }
+
+    // Category totals are case-insensitive, matching findByCategoryIgnoreCase
+    private static String totalKey(String category) {
+        return category == null ? "infohub:all" : "infohub:category:" + InfoHubRepository.categoryKey(category);
     }
 }
@@ -1,18 +1,46 @@
 package io.github.sssamira.legalsheba.controller;
 
-import io.github.sssamira.legalsheba.model.LawyerProfile;
-import io.github.sssamira.legalsheba.model.Specialty;
+import io.github.sssamira.legalsheba.pagination.PagedResponse;
+import io.github.sssamira.legalsheba.repository.AvailabilitySlotRow;
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
 import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
+import io.github.sssamira.legalsheba.repository.LawyerSpecialtyRow;
 import io.github.sssamira.legalsheba.repository.SpecialtyRepository;
-import io.github.sssamira.legalsheba.repository.UserRepository;
+import io.github.sssamira.legalsheba.search.AvailabilityIndex;
+import io.github.sssamira.legalsheba.search.LawyerFacetIndex;
+import io.github.sssamira.legalsheba.search.LawyerGeoIndex;
+import io.github.sssamira.legalsheba.search.LawyerRelevanceIndex;
+import io.github.sssamira.legalsheba.search.LawyerSuggestIndex;
+import io.github.sssamira.legalsheba.service.AppointmentService;
+import io.github.sssamira.legalsheba.service.AppointmentTimes;
+import io.github.sssamira.legalsheba.service.AvailabilityService;
+import io.github.sssamira.legalsheba.service.Gazetteer;
+import io.github.sssamira.legalsheba.service.ResourceVersions;
+import io.github.sssamira.legalsheba.service.UserIdentityCache;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,19 +50,216 @@ public class LawyerController {
 
     private final LawyerProfileRepository lawyerProfileRepository;
     private final SpecialtyRepository specialtyRepository;
-    private final UserRepository userRepository;
+    private final UserIdentityCache userIdentityCache;
+    private final LawyerFacetIndex lawyerFacetIndex;
+    private final LawyerSuggestIndex lawyerSuggestIndex;
+    private final ResourceVersions resourceVersions;
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailabilityService availabilityService;
+    private final AppointmentService appointmentService;
+    private final LawyerGeoIndex lawyerGeoIndex;
+    private final Gazetteer gazetteer;
+    private final LawyerRelevanceIndex lawyerRelevanceIndex;
 
+    // Directory listing: one profile+user page query (plus its count) and one batched specialty query.
+    // Revalidated against the collection version before any repository access.
     @GetMapping
-    public List<LawyerDto> list() {
-        return lawyerProfileRepository.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<PagedResponse<LawyerDto>> list(
+            @RequestParam(required = false) String specialty,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String court,
+            @RequestParam(required = false) Integer minExperience,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest
+    ) {
+        ResourceVersions.Stamp stamp = resourceVersions.collection(ResourceVersions.LAWYERS);
+        if (webRequest.checkNotModified(stamp.eTag(), stamp.lastModified())) return notModified();
+
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, 100)));
+        Page<LawyerDirectoryRow> p = lawyerProfileRepository.findDirectoryPage(
+                blankToNull(specialty), blankToNull(location), blankToNull(court), minExperience, blankToNull(name), pageable);
+        return ResponseEntity.ok()
+                .eTag(stamp.eTag())
+                .lastModified(stamp.lastModified())
+                .cacheControl(ResourceVersions.REVALIDATE)
+                .body(PagedResponse.of(p, toDtos(p.getContent())));
+    }
+
+    // Faceted search over the in-memory index: OR within a facet, AND across facets, with facet counts
+    @GetMapping("/search")
+    public LawyerSearchResponse search(
+            @RequestParam(required = false) List<String> specialty,
+            @RequestParam(defaultValue = "any") String specialtyMode,
+            @RequestParam(required = false) List<String> location,
+            @RequestParam(required = false) List<String> court,
+            @RequestParam(required = false) List<String> experience,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.max(1, Math.min(size, 100));
+        LawyerFacetIndex.Query query = LawyerFacetIndex.Query.builder()
+                .specialties(specialty != null ? specialty : List.of())
+                .matchAllSpecialties("all".equalsIgnoreCase(specialtyMode))
+                .locations(location != null ? location : List.of())
+                .courts(court != null ? court : List.of())
+                .experienceBands(experience != null ? experience : List.of())
+                .build();
+        LawyerFacetIndex.Result r = lawyerFacetIndex.search(query, safePage * safeSize, safeSize);
+        return LawyerSearchResponse.builder()
+                .content(dtosFor(r.getIds()))
+                .page(safePage)
+                .size(safeSize)
+                .totalElements(r.getTotal())
+                .totalPages((r.getTotal() + safeSize - 1) / safeSize)
+                .facets(r.getFacets())
+                .tookMicros(r.getTookMicros())
+                .build();
+    }
+
+    // Type-ahead over lawyer names, specialties, locations and courts (typo tolerant, ranked)
+    @GetMapping("/suggest")
+    public List<LawyerSuggestIndex.Suggestion> suggest(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "8") int limit
+    ) {
+        return lawyerSuggestIndex.suggest(q, Math.max(1, Math.min(limit, LawyerSuggestIndex.TOP_K)));
+    }
+
+    @GetMapping("/suggest/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public LawyerSuggestIndex.Stats suggestStats() {
+        return lawyerSuggestIndex.stats();
+    }
+
+    // Who is free: a weekly window (day + from/to, e.g. TUESDAY 15:00-17:00) or a concrete time
+    // (at + durationMinutes), which also drops lawyers with an overlapping active appointment
+    @GetMapping("/available")
+    public ResponseEntity<?> available(
+            @RequestParam(required = false) DayOfWeek day,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String at,
+            @RequestParam(defaultValue = "60") int durationMinutes,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        List<Long> ids;
+        if (at != null) {
+            LocalDateTime start = AppointmentTimes.parse(at).orElse(null);
+            if (start == null) return ResponseEntity.badRequest().body("Invalid 'at' (expected yyyy-MM-ddTHH:mm)");
+            int minutes = Math.max(AvailabilityIndex.SLOT_MINUTES, Math.min(durationMinutes, 1440));
+            ids = availabilityIndex.availableAt(start, minutes, appointmentService.getSlotMinutes());
+        } else {
+            Integer fromMinute = toMinute(from);
+            Integer toMinute = toMinute(to);
+            if (day == null || fromMinute == null || toMinute == null || fromMinute >= toMinute) {
+                return ResponseEntity.badRequest().body("Provide either 'at' or 'day' with 'from' < 'to' (HH:mm)");
+            }
+            ids = availabilityIndex.availableWeekly(day, fromMinute, toMinute);
+        }
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.max(1, Math.min(size, 100));
+        int fromIndex = (int) Math.min((long) safePage * safeSize, ids.size());
+        List<Long> pageIds = ids.subList(fromIndex, Math.min(fromIndex + safeSize, ids.size()));
+        return ResponseEntity.ok(PagedResponse.of(dtosFor(pageIds), safePage, safeSize, ids.size()));
+    }
+
+    // Lawyers nearest to a point (lat/lon) or a gazetteer place name, served from the in-memory grid.
+    // With radiusKm only lawyers inside the radius are returned (still capped at k).
+    @GetMapping("/near")
+    public ResponseEntity<?> near(
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) String place,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) Double radiusKm
+    ) {
+        String origin = null;
+        if (lat == null || lon == null) {
+            Gazetteer.Place p = place != null ? gazetteer.resolve(place).orElse(null) : null;
+            if (p == null) return ResponseEntity.badRequest().body("Provide lat and lon, or a known place");
+            lat = p.latitude();
+            lon = p.longitude();
+            origin = p.name();
+        } else if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            return ResponseEntity.badRequest().body("Invalid coordinates");
+        }
+        if (radiusKm != null && radiusKm <= 0) return ResponseEntity.badRequest().body("radiusKm must be positive");
+
+        List<LawyerGeoIndex.Hit> hits = lawyerGeoIndex.nearest(lat, lon, Math.max(1, Math.min(k, 100)), radiusKm);
+        List<LawyerDto> dtos = dtosFor(hits.stream().map(LawyerGeoIndex.Hit::lawyerId).collect(Collectors.toList()));
+        Map<Long, LawyerDto> byId = new HashMap<>();
+        for (LawyerDto d : dtos) byId.put(d.getId(), d);
+        List<NearbyLawyerDto> content = new ArrayList<>(hits.size());
+        for (LawyerGeoIndex.Hit h : hits) {
+            LawyerDto d = byId.get(h.lawyerId());
+            if (d != null) content.add(new NearbyLawyerDto(d, h.place(), Math.round(h.distanceKm() * 10) / 10.0));
+        }
+        return ResponseEntity.ok(new NearbyResponse(lat, lon, origin, content));
+    }
+
+    // Ranks lawyers against a client's problem description (BM25 over specialties, court and location)
+    @PostMapping("/recommend")
+    public ResponseEntity<?> recommend(@RequestBody RecommendRequest req) {
+        if (req.getProblemDescription() == null || req.getProblemDescription().isBlank()) {
+            return ResponseEntity.badRequest().body("problemDescription is required");
+        }
+        int limit = req.getLimit() != null ? Math.max(1, Math.min(req.getLimit(), 50)) : 10;
+        long start = System.nanoTime();
+        List<LawyerRelevanceIndex.Match> matches = lawyerRelevanceIndex.recommend(req.getProblemDescription(), limit);
+        long tookMicros = (System.nanoTime() - start) / 1_000;
+
+        List<LawyerDto> dtos = dtosFor(matches.stream().map(LawyerRelevanceIndex.Match::getLawyerId).collect(Collectors.toList()));
+        Map<Long, LawyerDto> byId = new HashMap<>();
+        for (LawyerDto d : dtos) byId.put(d.getId(), d);
+        List<RecommendedLawyerDto> content = new ArrayList<>(matches.size());
+        for (LawyerRelevanceIndex.Match m : matches) {
+            LawyerDto d = byId.get(m.getLawyerId());
+            if (d != null) content.add(new RecommendedLawyerDto(d, m.getScore(), m.getMatchedTerms()));
+        }
+        return ResponseEntity.ok(new RecommendResponse(content, tookMicros));
+    }
+
+    @GetMapping("/{id}/availability")
+    public List<AvailabilityWindow> availability(@PathVariable Long id) {
+        return toWindows(availabilityService.getSlots(id));
+    }
+
+    // Replaces the authenticated lawyer's structured weekly availability
+    @PutMapping("/me/availability")
+    public ResponseEntity<?> updateMyAvailability(@AuthenticationPrincipal User principal, @RequestBody List<AvailabilityWindow> windows) {
+        if (principal == null) return ResponseEntity.status(401).build();
+        Long profileId = userIdentityCache.find(principal.getUsername())
+                .map(UserIdentityCache.Identity::lawyerProfileId)
+                .orElse(null);
+        if (profileId == null) return ResponseEntity.status(403).body("Only lawyers have availability");
+
+        List<AvailabilitySlotRow> slots = new ArrayList<>(windows.size());
+        for (AvailabilityWindow w : windows) {
+            Integer start = toMinute(w.getStart());
+            Integer end = toMinute(w.getEnd());
+            if (w.getDayOfWeek() == null || start == null || end == null || start >= end) {
+                return ResponseEntity.badRequest().body("Invalid availability window");
+            }
+            slots.add(new AvailabilitySlotRow(profileId, w.getDayOfWeek().getValue(), start, end));
+        }
+        return ResponseEntity.ok(toWindows(availabilityService.replaceSlots(profileId, slots)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<LawyerDto> get(@PathVariable Long id) {
-        return lawyerProfileRepository.findById(id)
-                .map(lp -> ResponseEntity.ok(toDto(lp)))
+    public ResponseEntity<LawyerDto> get(@PathVariable Long id, WebRequest webRequest) {
+        ResourceVersions.Stamp stamp = resourceVersions.entity(ResourceVersions.LAWYERS, id);
+        if (webRequest.checkNotModified(stamp.eTag(), stamp.lastModified())) return notModified();
+
+        return lawyerProfileRepository.findDirectoryRowById(id)
+                .map(row -> ResponseEntity.ok()
+                        .eTag(stamp.eTag())
+                        .lastModified(stamp.lastModified())
+                        .cacheControl(ResourceVersions.REVALIDATE)
+                        .body(toDtos(List.of(row)).get(0)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -50,28 +275,86 @@ public class LawyerController {
     @GetMapping("/me/profile-id")
     public ResponseEntity<Long> getMyProfileId(@org.springframework.security.core.annotation.AuthenticationPrincipal org.springframework.security.core.userdetails.User principal) {
         if (principal == null) return ResponseEntity.status(401).build();
-        return userRepository.findByEmail(principal.getUsername())
-                .flatMap(u -> lawyerProfileRepository.findByUserId(u.getId()))
-                .map(lp -> ResponseEntity.ok(lp.getId()))
+        return userIdentityCache.find(principal.getUsername())
+                .map(UserIdentityCache.Identity::lawyerProfileId)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    private LawyerDto toDto(LawyerProfile lp) {
-        List<String> specs = specialtyRepository.findByLawyer(lp).stream()
-                .map(Specialty::getName)
-                .collect(Collectors.toList());
-        return LawyerDto.builder()
-                .id(lp.getId())
-                .name(lp.getUser() != null ? lp.getUser().getFName() : null)
-                .experience(lp.getExperience())
-                .location(lp.getLocation())
-                .courtOfPractice(lp.getCourtOfPractice())
-                .availabilityDetails(lp.getAvailabilityDetails())
-                .vHour(lp.getVHour())
-                .specialties(specs)
+    // Loads DTOs for index hits (two queries) and returns them in the order of the given ids
+    private List<LawyerDto> dtosFor(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, LawyerDirectoryRow> byId = new HashMap<>();
+        for (LawyerDirectoryRow row : lawyerProfileRepository.findDirectoryRowsByIds(ids)) {
+            byId.put(row.getId(), row);
+        }
+        List<LawyerDirectoryRow> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            LawyerDirectoryRow row = byId.get(id);
+            if (row != null) ordered.add(row);
+        }
+        return toDtos(ordered);
+    }
+
+    // Builds DTOs for a batch of rows with a single specialty query, preserving row order
+    private List<LawyerDto> toDtos(List<LawyerDirectoryRow> rows) {
+        if (rows.isEmpty()) return List.of();
+        List<Long> ids = rows.stream().map(LawyerDirectoryRow::getId).collect(Collectors.toList());
+        Map<Long, List<String>> specsByLawyer = new HashMap<>();
+        for (LawyerSpecialtyRow s : specialtyRepository.findNamesByLawyerIds(ids)) {
+            specsByLawyer.computeIfAbsent(s.getLawyerId(), k -> new ArrayList<>()).add(s.getName());
+        }
+        List<LawyerDto> out = new ArrayList<>(rows.size());
+        for (LawyerDirectoryRow row : rows) {
+            out.add(LawyerDto.builder()
+                    .id(row.getId())
+                    .name(row.getName())
+                    .experience(row.getExperience())
+                    .location(row.getLocation())
+                    .courtOfPractice(row.getCourtOfPractice())
+                    .availabilityDetails(row.getAvailabilityDetails())
+                    .vHour(row.getVHour())
+                    .specialties(specsByLawyer.getOrDefault(row.getId(), List.of()))
+                    .build());
+        }
+        return out;
+    }
+
+    private static List<AvailabilityWindow> toWindows(List<AvailabilitySlotRow> slots) {
+        List<AvailabilityWindow> out = new ArrayList<>(slots.size());
+        for (AvailabilitySlotRow s : slots) {
+            out.add(new AvailabilityWindow(DayOfWeek.of(s.getDayOfWeek()), formatMinute(s.getStartMinute()), formatMinute(s.getEndMinute())));
+        }
+        return out;
+    }
+
+    // "HH:mm" to minute of day; "24:00" is allowed as an end of day
+    private static Integer toMinute(String hhmm) {
+        if (hhmm == null || hhmm.isBlank()) return null;
+        if (hhmm.trim().equals("24:00")) return 1440;
+        try {
+            LocalTime t = LocalTime.parse(hhmm.trim());
+            return t.getHour() * 60 + t.getMinute();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String formatMinute(int minute) {
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+
+    // checkNotModified has already written ETag/Last-Modified and the 304 status
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(ResourceVersions.REVALIDATE)
                 .build();
     }
 
+    private static String blankToNull(String s) {
+        return (s == null || s.isBlank()) ? null : s.trim();
+    }
+
     @Data
     @Builder
     @AllArgsConstructor
@@ -85,4 +368,64 @@ public class LawyerController {
         private String vHour;
         private List<String> specialties;
     }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AvailabilityWindow {
+        private DayOfWeek dayOfWeek;
+        private String start;
+        private String end;
+    }
+
+    @Data
+    public static class RecommendRequest {
+        private String problemDescription;
+        private Integer limit;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RecommendedLawyerDto {
+        private LawyerDto lawyer;
+        private double score;
+        private List<String> matchedTerms;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RecommendResponse {
+        private List<RecommendedLawyerDto> content;
+        private long tookMicros;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class NearbyLawyerDto {
+        private LawyerDto lawyer;
+        private String place;
+        private double distanceKm;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class NearbyResponse {
+        private double latitude;
+        private double longitude;
+        private String resolvedPlace;
+        private List<NearbyLawyerDto> content;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    public static class LawyerSearchResponse {
+        private List<LawyerDto> content;
+        private int page;
+        private int size;
+        private long totalElements;
+        private int totalPages;
+        private Map<String, Map<String, Integer>> facets;
+        private long tookMicros;
+    }
 }
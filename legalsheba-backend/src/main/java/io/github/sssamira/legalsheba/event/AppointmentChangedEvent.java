@@ -0,0 +1,21 @@
+package io.github.sssamira.legalsheba.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published after an appointment was created (previousStatus == null) or its status changed
+@Getter
+@AllArgsConstructor
+public class AppointmentChangedEvent {
+    private final Long appointmentId;
+    private final Long lawyerProfileId;
+    private final Long lawyerUserId;
+    private final Long clientId;
+    private final String appointmentDate;
+    private final String previousStatus;
+    private final String status;
+
+    public boolean isCreated() {
+        return previousStatus == null;
+    }
+}
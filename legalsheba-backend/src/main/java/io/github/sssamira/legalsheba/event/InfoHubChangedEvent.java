@@ -0,0 +1,17 @@
+package io.github.sssamira.legalsheba.event;
+
+import io.github.sssamira.legalsheba.model.InfoHub;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published after an InfoHub article was created, updated or deleted (article is null on delete)
+@Getter
+@AllArgsConstructor
+public class InfoHubChangedEvent {
+    private final Long id;
+    private final InfoHub article;
+
+    public boolean isDeleted() {
+        return article == null;
+    }
+}
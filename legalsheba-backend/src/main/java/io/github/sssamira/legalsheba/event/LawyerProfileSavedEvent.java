@@ -0,0 +1,16 @@
+package io.github.sssamira.legalsheba.event;
+
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Published after a lawyer profile (and its specialties) has been written, so in-memory
+// directory indexes can update incrementally instead of reloading from the database.
+@Getter
+@AllArgsConstructor
+public class LawyerProfileSavedEvent {
+    private final LawyerDirectoryRow profile;
+    private final List<String> specialties;
+}
@@ -0,0 +1,27 @@
+package io.github.sssamira.legalsheba.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "appointment_slots")
+public class AppointmentSlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "lawyer_id", nullable = false)
+    private Long lawyerId;
+
+    // Minutes since the epoch (local time), aligned to AppointmentService.BUCKET_MINUTES
+    @Column(name = "slot_start", nullable = false)
+    private Long slotStart;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+}
@@ -0,0 +1,44 @@
+package io.github.sssamira.legalsheba.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "appointment_stats")
+@IdClass(AppointmentStat.Key.class)
+public class AppointmentStat {
+    // Day the appointments are scheduled for (yyyy-MM-dd); TOTAL for the all-time row, UNSCHEDULED when the date does not parse
+    public static final String TOTAL = "*";
+    public static final String UNSCHEDULED = "";
+
+    @Id
+    @Column(name = "lawyer_id")
+    private Long lawyerId;
+
+    @Id
+    @Column(length = 10)
+    private String day;
+
+    @Id
+    @Column(length = 50)
+    private String status;
+
+    @Column(name = "n", nullable = false)
+    private Long count;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long lawyerId;
+        private String day;
+        private String status;
+    }
+}
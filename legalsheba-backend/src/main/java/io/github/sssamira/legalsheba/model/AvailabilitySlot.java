@@ -0,0 +1,39 @@
+package io.github.sssamira.legalsheba.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "availability_slots")
+public class AvailabilitySlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "lawyer_id", nullable = false, foreignKey = @ForeignKey(name = "fk_slot_lawyer"))
+    private LawyerProfile lawyer;
+
+    // ISO day of week: 1 = Monday ... 7 = Sunday
+    @Min(1)
+    @Max(7)
+    @Column(name = "day_of_week", nullable = false)
+    private Integer dayOfWeek;
+
+    @Min(0)
+    @Max(1440)
+    @Column(name = "start_minute", nullable = false)
+    private Integer startMinute;
+
+    @Min(0)
+    @Max(1440)
+    @Column(name = "end_minute", nullable = false)
+    private Integer endMinute;
+}
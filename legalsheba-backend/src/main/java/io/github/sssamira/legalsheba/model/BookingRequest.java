@@ -0,0 +1,38 @@
+package io.github.sssamira.legalsheba.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "booking_requests")
+public class BookingRequest {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // BOOKED, CONFLICT or INVALID
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "appointment_id")
+    private Long appointmentId;
+
+    private String message;
+
+    @Column(name = "created_at", nullable = false, length = 50)
+    private String createdAt;
+}
@@ -0,0 +1,27 @@
+package io.github.sssamira.legalsheba.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "lawyer_locations")
+public class LawyerLocation {
+    // Shares the lawyer profile's id; one resolved location per profile
+    @Id
+    @Column(name = "lawyer_id")
+    private Long lawyerId;
+
+    @Column(nullable = false, length = 100)
+    private String place;
+
+    @Column(nullable = false)
+    private Double latitude;
+
+    @Column(nullable = false)
+    private Double longitude;
+}
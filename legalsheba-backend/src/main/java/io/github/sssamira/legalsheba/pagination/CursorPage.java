@@ -0,0 +1,27 @@
+package io.github.sssamira.legalsheba.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Keyset page ordered by id DESC. nextCursor is opaque to clients and null on the last page;
+// totalElements is only filled when the caller asked for it and comes from TotalCountCache.
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+    private Long totalElements;
+
+    // rows must have been fetched with limit size + 1 so the extra row tells whether a next page exists
+    public static <E, T> CursorPage<T> of(List<E> rows, int size, Function<E, Long> idOf, Function<E, T> mapper, Long totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? KeysetCursor.encode(idOf.apply(pageRows.get(pageRows.size() - 1))) : null;
+        return new CursorPage<>(pageRows.stream().map(mapper).toList(), size, next, hasNext, totalElements);
+    }
+}
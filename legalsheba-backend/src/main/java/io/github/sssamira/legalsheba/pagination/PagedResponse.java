@@ -0,0 +1,32 @@
+package io.github.sssamira.legalsheba.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+// Offset-style page shared by all list endpoints (page/size/totalElements/totalPages)
+@Data
+@AllArgsConstructor
+public class PagedResponse<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    public static <T> PagedResponse<T> of(Page<T> p) {
+        return new PagedResponse<>(p.getContent(), p.getNumber(), p.getSize(), p.getTotalElements(), p.getTotalPages());
+    }
+
+    public static <T> PagedResponse<T> of(Page<?> p, List<T> content) {
+        return new PagedResponse<>(content, p.getNumber(), p.getSize(), p.getTotalElements(), p.getTotalPages());
+    }
+
+    // For slices whose total comes from TotalCountCache rather than a COUNT per request
+    public static <T> PagedResponse<T> of(List<T> content, int page, int size, long totalElements) {
+        int totalPages = size == 0 ? 0 : (int) ((totalElements + size - 1) / size);
+        return new PagedResponse<>(content, page, size, totalElements, totalPages);
+    }
+}
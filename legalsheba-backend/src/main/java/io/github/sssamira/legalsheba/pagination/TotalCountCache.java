@@ -0,0 +1,42 @@
+package io.github.sssamira.legalsheba.pagination;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Cached row totals for list endpoints, so pages do not each run a COUNT(*). Writers adjust the
+// cached value in place; entries are recounted after a TTL to bound drift from racing writers,
+// which makes the total approximate by design.
+@Component
+public class TotalCountCache {
+
+    private final ConcurrentHashMap<String, Entry> totals = new ConcurrentHashMap<>();
+
+    @Value("${pagination.total-cache-ttl-ms:300000}")
+    private long ttlMs;
+
+    public long get(String key, LongSupplier counter) {
+        long now = System.currentTimeMillis();
+        Entry e = totals.get(key);
+        if (e != null && now - e.loadedAt < ttlMs) return e.value;
+        return totals.compute(key, (k, old) ->
+                old != null && now - old.loadedAt < ttlMs ? old : new Entry(counter.getAsLong(), now)).value;
+    }
+
+    public void adjust(String key, long delta) {
+        totals.computeIfPresent(key, (k, e) -> new Entry(Math.max(0, e.value + delta), e.loadedAt));
+    }
+
+    public void invalidate(String key) {
+        totals.remove(key);
+    }
+
+    public void invalidatePrefix(String prefix) {
+        totals.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    private record Entry(long value, long loadedAt) {
+    }
+}
@@ -0,0 +1,11 @@
+package io.github.sssamira.legalsheba.repository;
+
+import lombok.Value;
+
+// Minimal appointment columns needed to rebuild in-memory booking state
+@Value
+public class AppointmentBookingRow {
+    Long id;
+    Long lawyerId;
+    String appointmentDate;
+}
@@ -0,0 +1,15 @@
+package io.github.sssamira.legalsheba.repository;
+
+import lombok.Value;
+
+// Appointment listing row with the client and lawyer names joined in, so a page is a single query
+@Value
+public class AppointmentListRow {
+    Long id;
+    String appointmentDate;
+    String status;
+    String problemDescription;
+    String notes;
+    String clientName;
+    String lawyerName;
+}
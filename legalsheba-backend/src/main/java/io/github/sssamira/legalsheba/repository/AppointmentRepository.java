@@ -1,10 +1,14 @@
 package io.github.sssamira.legalsheba.repository;
 
+import java.util.Collection;
 import java.util.List;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import io.github.sssamira.legalsheba.model.Appointment;
 import io.github.sssamira.legalsheba.model.LawyerProfile;
@@ -13,6 +17,56 @@ import io.github.sssamira.legalsheba.model.UserEntity;
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     List<Appointment> findByClient(UserEntity client);
     List<Appointment> findByLawyer(LawyerProfile lawyer);
-    Page<Appointment> findByLawyerOrderByIdDesc(LawyerProfile lawyer, Pageable pageable);
-    Page<Appointment> findByClientOrderByIdDesc(UserEntity client, Pageable pageable);
+
+    // Listing rows with client and lawyer names joined in: one statement per page instead of the
+    // eager client/lawyer/lawyer.user loads an entity page triggers per row
+    String LIST_ROW = """
+            select new io.github.sssamira.legalsheba.repository.AppointmentListRow(
+                a.id, a.appointmentDate, a.status, a.problemDescription, a.notes, c.fName, lu.fName)
+            from Appointment a join a.client c join a.lawyer l join l.user lu
+            """;
+
+    // Offset pages without the implicit COUNT(*); totals come from TotalCountCache
+    @Query(LIST_ROW + " where l.id = :lawyerId order by a.id desc")
+    Slice<AppointmentListRow> findListRowsByLawyerId(@Param("lawyerId") Long lawyerId, Pageable pageable);
+
+    @Query(LIST_ROW + " where c.id = :clientId order by a.id desc")
+    Slice<AppointmentListRow> findListRowsByClientId(@Param("clientId") Long clientId, Pageable pageable);
+
+    // Keyset (seek) pages: id < cursor ORDER BY id DESC
+    @Query(LIST_ROW + " where l.id = :lawyerId and a.id < :before order by a.id desc")
+    List<AppointmentListRow> findListRowsByLawyerIdBefore(@Param("lawyerId") Long lawyerId, @Param("before") Long before, Limit limit);
+
+    @Query(LIST_ROW + " where c.id = :clientId and a.id < :before order by a.id desc")
+    List<AppointmentListRow> findListRowsByClientIdBefore(@Param("clientId") Long clientId, @Param("before") Long before, Limit limit);
+
+    // Appointments with their parties in one statement, for checking ownership of a batch of ids
+    @Query("select a from Appointment a join fetch a.client join fetch a.lawyer l join fetch l.user where a.id in :ids")
+    List<Appointment> findWithPartiesByIdIn(@Param("ids") Collection<Long> ids);
+
+    long countByLawyer(LawyerProfile lawyer);
+    long countByClient(UserEntity client);
+
+    // Full recount input for AppointmentStatsService, grouped in SQL
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.AppointmentStatusCountRow(a.lawyer.id, a.appointmentDate, a.status, count(a))
+            from Appointment a
+            group by a.lawyer.id, a.appointmentDate, a.status
+            """)
+    List<AppointmentStatusCountRow> countAllByDateAndStatus();
+
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.AppointmentStatusCountRow(a.lawyer.id, a.appointmentDate, a.status, count(a))
+            from Appointment a
+            where a.lawyer.id = :lawyerId
+            group by a.lawyer.id, a.appointmentDate, a.status
+            """)
+    List<AppointmentStatusCountRow> countByDateAndStatus(@Param("lawyerId") Long lawyerId);
+
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.AppointmentBookingRow(a.id, a.lawyer.id, a.appointmentDate)
+            from Appointment a
+            where a.status in :statuses
+            """)
+    List<AppointmentBookingRow> findBookingsByStatusIn(@Param("statuses") Collection<String> statuses);
 }
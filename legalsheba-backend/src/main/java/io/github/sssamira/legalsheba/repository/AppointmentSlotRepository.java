@@ -0,0 +1,31 @@
+package io.github.sssamira.legalsheba.repository;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import io.github.sssamira.legalsheba.model.AppointmentSlot;
+
+public interface AppointmentSlotRepository extends JpaRepository<AppointmentSlot, Long> {
+
+    boolean existsByLawyerIdAndSlotStartIn(Long lawyerId, Collection<Long> slotStarts);
+
+    @Query("select distinct s.appointmentId from AppointmentSlot s")
+    Set<Long> findReservedAppointmentIds();
+
+    // Appointments holding any of the given buckets of a lawyer
+    @Query("select s.appointmentId from AppointmentSlot s where s.lawyerId = :lawyerId and s.slotStart in :slotStarts")
+    Set<Long> findHolders(@Param("lawyerId") Long lawyerId, @Param("slotStarts") Collection<Long> slotStarts);
+
+    @Modifying
+    @Query("delete from AppointmentSlot s where s.appointmentId = :appointmentId")
+    int deleteByAppointmentId(@Param("appointmentId") Long appointmentId);
+
+    @Modifying
+    @Query("delete from AppointmentSlot s where s.appointmentId in :appointmentIds")
+    int deleteByAppointmentIdIn(@Param("appointmentIds") Collection<Long> appointmentIds);
+}
@@ -0,0 +1,31 @@
+package io.github.sssamira.legalsheba.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import io.github.sssamira.legalsheba.model.AppointmentStat;
+
+public interface AppointmentStatRepository extends JpaRepository<AppointmentStat, AppointmentStat.Key> {
+
+    // Adds delta to one counter, creating it on first use
+    @Modifying
+    @Query(value = """
+            insert into appointment_stats(lawyer_id, day, status, n) values (:lawyerId, :day, :status, :delta)
+            on conflict(lawyer_id, day, status) do update set n = n + excluded.n
+            """, nativeQuery = true)
+    int add(@Param("lawyerId") Long lawyerId, @Param("day") String day, @Param("status") String status, @Param("delta") long delta);
+
+    List<AppointmentStat> findByLawyerIdAndDay(Long lawyerId, String day);
+
+    List<AppointmentStat> findByLawyerIdAndDayBetweenOrderByDay(Long lawyerId, String from, String to);
+
+    List<AppointmentStat> findByLawyerId(Long lawyerId);
+
+    @Modifying
+    @Query("delete from AppointmentStat s where s.lawyerId = :lawyerId")
+    int deleteByLawyerId(@Param("lawyerId") Long lawyerId);
+}
@@ -0,0 +1,12 @@
+package io.github.sssamira.legalsheba.repository;
+
+import lombok.Value;
+
+// Appointments of one lawyer grouped by raw appointment_date and status, for recounting statistics
+@Value
+public class AppointmentStatusCountRow {
+    Long lawyerId;
+    String appointmentDate;
+    String status;
+    Long count;
+}
@@ -0,0 +1,41 @@
+package io.github.sssamira.legalsheba.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import io.github.sssamira.legalsheba.model.AvailabilitySlot;
+
+public interface AvailabilitySlotRepository extends JpaRepository<AvailabilitySlot, Long> {
+
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.AvailabilitySlotRow(s.lawyer.id, s.dayOfWeek, s.startMinute, s.endMinute)
+            from AvailabilitySlot s
+            where s.lawyer.id = :lawyerId
+            order by s.dayOfWeek, s.startMinute
+            """)
+    List<AvailabilitySlotRow> findRowsByLawyerId(@Param("lawyerId") Long lawyerId);
+
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.AvailabilitySlotRow(s.lawyer.id, s.dayOfWeek, s.startMinute, s.endMinute)
+            from AvailabilitySlot s
+            """)
+    List<AvailabilitySlotRow> findAllRows();
+
+    @Modifying
+    @Query("delete from AvailabilitySlot s where s.lawyer.id = :lawyerId")
+    int deleteByLawyerId(@Param("lawyerId") Long lawyerId);
+
+    // Profiles that have free-text availability but no structured slots yet (backfill candidates)
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.LawyerDirectoryRow(
+                lp.id, u.fName, lp.experience, lp.location, lp.courtOfPractice, lp.availabilityDetails, lp.vHour)
+            from LawyerProfile lp join lp.user u
+            where (lp.availabilityDetails is not null or lp.vHour is not null)
+              and not exists (select 1 from AvailabilitySlot s where s.lawyer = lp)
+            """)
+    List<LawyerDirectoryRow> findProfilesWithoutSlots();
+}
@@ -0,0 +1,12 @@
+package io.github.sssamira.legalsheba.repository;
+
+import lombok.Value;
+
+// One weekly availability window of a lawyer; minutes since midnight, end exclusive
+@Value
+public class AvailabilitySlotRow {
+    Long lawyerId;
+    Integer dayOfWeek;
+    Integer startMinute;
+    Integer endMinute;
+}
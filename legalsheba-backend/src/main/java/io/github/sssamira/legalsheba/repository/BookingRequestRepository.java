@@ -0,0 +1,8 @@
+package io.github.sssamira.legalsheba.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import io.github.sssamira.legalsheba.model.BookingRequest;
+
+public interface BookingRequestRepository extends JpaRepository<BookingRequest, Long> {
+}
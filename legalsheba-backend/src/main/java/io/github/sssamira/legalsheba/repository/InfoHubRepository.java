@@ -1,11 +1,44 @@
 package io.github.sssamira.legalsheba.repository;
 
 import io.github.sssamira.legalsheba.model.InfoHub;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface InfoHubRepository extends JpaRepository<InfoHub, Long> {
-    Page<InfoHub> findByCategoryIgnoreCaseOrderByIdDesc(String category, Pageable pageable);
-    Page<InfoHub> findAllByOrderByIdDesc(Pageable pageable);
+    // List views read summary rows: the article body is cut down to a teaser in SQL (241 = TEASER_LENGTH + 1)
+    String SUMMARY = "select new io.github.sssamira.legalsheba.repository.InfoHubSummaryRow(h.id, h.title, h.category, h.date, substring(cast(h.content as String), 1, 241)) from InfoHub h ";
+
+    // Offset pages without the implicit COUNT(*); totals come from TotalCountCache
+    @Query(SUMMARY + "order by h.id desc")
+    Slice<InfoHubSummaryRow> findSummaries(Pageable pageable);
+
+    @Query(SUMMARY + "where upper(h.category) = upper(:category) order by h.id desc")
+    Slice<InfoHubSummaryRow> findSummariesByCategory(@Param("category") String category, Pageable pageable);
+
+    // Keyset (seek) pages: id < cursor ORDER BY id DESC
+    @Query(SUMMARY + "where h.id < :before order by h.id desc")
+    List<InfoHubSummaryRow> findSummariesBefore(@Param("before") Long before, Limit limit);
+
+    @Query(SUMMARY + "where upper(h.category) = upper(:category) and h.id < :before order by h.id desc")
+    List<InfoHubSummaryRow> findSummariesByCategoryBefore(@Param("category") String category, @Param("before") Long before, Limit limit);
+
+    long countByCategoryIgnoreCase(String category);
+
+    // A category as these queries compare it, for keying caches and snapshot files: SQLite's upper() folds
+    // ASCII letters only and nothing is trimmed. Empty for no category.
+    static String categoryKey(String category) {
+        if (category == null || category.isBlank()) return "";
+        StringBuilder key = new StringBuilder(category.length());
+        for (int i = 0; i < category.length(); i++) {
+            char c = category.charAt(i);
+            key.append(c >= 'a' && c <= 'z' ? (char) (c - 'a' + 'A') : c);
+        }
+        return key.toString();
+    }
 }
@@ -0,0 +1,26 @@
+package io.github.sssamira.legalsheba.repository;
+
+import lombok.Value;
+
+// InfoHub list item: everything but the article body, plus its first TEASER_LENGTH characters. The query
+// selects one character more so truncated can be told without reading the length of the whole body.
+@Value
+public class InfoHubSummaryRow {
+    public static final int TEASER_LENGTH = 240;
+
+    Long id;
+    String title;
+    String category;
+    String date;
+    String teaser;
+    boolean truncated;
+
+    public InfoHubSummaryRow(Long id, String title, String category, String date, String head) {
+        this.id = id;
+        this.title = title;
+        this.category = category;
+        this.date = date;
+        this.truncated = head != null && head.length() > TEASER_LENGTH;
+        this.teaser = truncated ? head.substring(0, TEASER_LENGTH) : head;
+    }
+}
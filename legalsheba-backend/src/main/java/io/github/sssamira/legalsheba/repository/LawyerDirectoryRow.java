@@ -0,0 +1,15 @@
+package io.github.sssamira.legalsheba.repository;
+
+import lombok.Value;
+
+// Flat profile + user columns for the public lawyer directory (no entity graph, no lazy/eager joins)
+@Value
+public class LawyerDirectoryRow {
+    Long id;
+    String name;
+    Integer experience;
+    String location;
+    String courtOfPractice;
+    String availabilityDetails;
+    String vHour;
+}
@@ -0,0 +1,20 @@
+package io.github.sssamira.legalsheba.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import io.github.sssamira.legalsheba.model.LawyerLocation;
+
+public interface LawyerLocationRepository extends JpaRepository<LawyerLocation, Long> {
+
+    // Profiles that have not been through the gazetteer yet (backfill candidates)
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.LawyerDirectoryRow(
+                lp.id, u.fName, lp.experience, lp.location, lp.courtOfPractice, lp.availabilityDetails, lp.vHour)
+            from LawyerProfile lp join lp.user u
+            where not exists (select 1 from LawyerLocation l where l.lawyerId = lp.id)
+            """)
+    List<LawyerDirectoryRow> findProfilesWithoutLocation();
+}
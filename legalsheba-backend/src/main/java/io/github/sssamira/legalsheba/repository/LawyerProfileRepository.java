@@ -1,8 +1,15 @@
 package io.github.sssamira.legalsheba.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import io.github.sssamira.legalsheba.model.LawyerProfile;
 import io.github.sssamira.legalsheba.model.UserEntity;
@@ -11,4 +18,60 @@ public interface LawyerProfileRepository extends JpaRepository<LawyerProfile, Lo
     Optional<LawyerProfile> findByUser(UserEntity user);
     boolean existsByUser(UserEntity user);
     Optional<LawyerProfile> findByUserId(Long userId);
+
+    // Profile whose user id or profile id equals id, preferring the user id match, in one statement.
+    // No fetch join: it would move the user id predicate onto users and turn the OR into a scan.
+    @Query("""
+            select lp from LawyerProfile lp
+            where lp.user.id = :id or lp.id = :id
+            order by case when lp.user.id = :id then 0 else 1 end
+            """)
+    List<LawyerProfile> findByUserIdOrId(@Param("id") Long id, Limit limit);
+
+    String DIRECTORY_FILTER = """
+            where (:location is null or lower(lp.location) like lower(concat('%', :location, '%')))
+              and (:court is null or lower(lp.courtOfPractice) like lower(concat('%', :court, '%')))
+              and (:minExperience is null or lp.experience >= :minExperience)
+              and (:name is null or lower(u.fName) like lower(concat('%', :name, '%')))
+              and (:specialty is null or exists (
+                    select 1 from Specialty s where s.lawyer = lp and lower(s.name) = lower(:specialty)))
+            """;
+
+    @Query(value = """
+            select new io.github.sssamira.legalsheba.repository.LawyerDirectoryRow(
+                lp.id, u.fName, lp.experience, lp.location, lp.courtOfPractice, lp.availabilityDetails, lp.vHour)
+            from LawyerProfile lp join lp.user u
+            """ + DIRECTORY_FILTER + " order by lp.id",
+            countQuery = "select count(lp) from LawyerProfile lp join lp.user u " + DIRECTORY_FILTER)
+    Page<LawyerDirectoryRow> findDirectoryPage(
+            @Param("specialty") String specialty,
+            @Param("location") String location,
+            @Param("court") String court,
+            @Param("minExperience") Integer minExperience,
+            @Param("name") String name,
+            Pageable pageable);
+
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.LawyerDirectoryRow(
+                lp.id, u.fName, lp.experience, lp.location, lp.courtOfPractice, lp.availabilityDetails, lp.vHour)
+            from LawyerProfile lp join lp.user u
+            where lp.id = :id
+            """)
+    Optional<LawyerDirectoryRow> findDirectoryRowById(@Param("id") Long id);
+
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.LawyerDirectoryRow(
+                lp.id, u.fName, lp.experience, lp.location, lp.courtOfPractice, lp.availabilityDetails, lp.vHour)
+            from LawyerProfile lp join lp.user u
+            where lp.id in :ids
+            """)
+    List<LawyerDirectoryRow> findDirectoryRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.LawyerDirectoryRow(
+                lp.id, u.fName, lp.experience, lp.location, lp.courtOfPractice, lp.availabilityDetails, lp.vHour)
+            from LawyerProfile lp join lp.user u
+            order by lp.id
+            """)
+    List<LawyerDirectoryRow> findAllDirectoryRows();
 }
@@ -0,0 +1,10 @@
+package io.github.sssamira.legalsheba.repository;
+
+import lombok.Value;
+
+// Specialty name keyed by lawyer profile id, used to batch-load specialties for a page of lawyers
+@Value
+public class LawyerSpecialtyRow {
+    Long lawyerId;
+    String name;
+}
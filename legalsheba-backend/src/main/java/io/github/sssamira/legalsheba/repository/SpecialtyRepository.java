@@ -1,12 +1,31 @@
 package io.github.sssamira.legalsheba.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import io.github.sssamira.legalsheba.model.Specialty;
 import io.github.sssamira.legalsheba.model.LawyerProfile;
 
 public interface SpecialtyRepository extends JpaRepository<Specialty, Long> {
     List<Specialty> findByLawyer(LawyerProfile lawyer);
+
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.LawyerSpecialtyRow(s.lawyer.id, s.name)
+            from Specialty s
+            where s.lawyer.id in :lawyerIds
+            order by s.id
+            """)
+    List<LawyerSpecialtyRow> findNamesByLawyerIds(@Param("lawyerIds") Collection<Long> lawyerIds);
+
+    @Query("""
+            select new io.github.sssamira.legalsheba.repository.LawyerSpecialtyRow(s.lawyer.id, s.name)
+            from Specialty s
+            where s.lawyer is not null
+            order by s.id
+            """)
+    List<LawyerSpecialtyRow> findAllNames();
 }
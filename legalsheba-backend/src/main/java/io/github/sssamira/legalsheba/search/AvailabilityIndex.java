@@ -0,0 +1,184 @@
+package io.github.sssamira.legalsheba.search;
+
+import io.github.sssamira.legalsheba.repository.AvailabilitySlotRow;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// "Who is free at time T" index. The week is cut into 15-minute slots (7 x 96 = 672); every slot holds a
+// BitSet of the lawyer ordinals available in it, so a weekly window query is an AND over its slots.
+// Concrete date queries additionally drop lawyers whose active bookings (sorted by start per lawyer)
+// overlap the window. Pure in-memory state; AvailabilityService feeds it.
+@Component
+public class AvailabilityIndex {
+
+    public static final int SLOT_MINUTES = 15;
+    private static final int SLOTS_PER_DAY = 1440 / SLOT_MINUTES;
+    private static final int WEEK_SLOTS = 7 * SLOTS_PER_DAY;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final BitSet[] slots = new BitSet[WEEK_SLOTS];
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] lawyerIds = new long[64];
+    private BitSet[] weekByLawyer = new BitSet[64];
+    private final Map<Long, TreeMap<LocalDateTime, Integer>> bookingsByLawyer = new HashMap<>();
+    private final Map<Long, Booking> bookings = new HashMap<>();
+
+    {
+        for (int i = 0; i < WEEK_SLOTS; i++) slots[i] = new BitSet();
+    }
+
+    public void load(Collection<AvailabilitySlotRow> weekly, Collection<Booking> active) {
+        Map<Long, List<AvailabilitySlotRow>> byLawyer = new HashMap<>();
+        for (AvailabilitySlotRow r : weekly) byLawyer.computeIfAbsent(r.getLawyerId(), k -> new ArrayList<>()).add(r);
+        lock.writeLock().lock();
+        try {
+            for (BitSet s : slots) s.clear();
+            ordinals.clear();
+            Arrays.fill(weekByLawyer, null);
+            bookingsByLawyer.clear();
+            bookings.clear();
+            byLawyer.forEach(this::putWeekly);
+            for (Booking b : active) putBooking(b);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void replaceWeekly(Long lawyerId, Collection<AvailabilitySlotRow> weekly) {
+        lock.writeLock().lock();
+        try {
+            putWeekly(lawyerId, weekly);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addBooking(Booking booking) {
+        lock.writeLock().lock();
+        try {
+            putBooking(booking);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeBooking(Long appointmentId) {
+        lock.writeLock().lock();
+        try {
+            Booking b = bookings.remove(appointmentId);
+            if (b == null) return;
+            TreeMap<LocalDateTime, Integer> starts = bookingsByLawyer.get(b.lawyerId());
+            if (starts != null) {
+                starts.computeIfPresent(b.start(), (k, n) -> n > 1 ? n - 1 : null);
+                if (starts.isEmpty()) bookingsByLawyer.remove(b.lawyerId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Lawyers whose weekly availability covers [fromMinute, toMinute) on the given day, ascending by id
+    public List<Long> availableWeekly(DayOfWeek day, int fromMinute, int toMinute) {
+        lock.readLock().lock();
+        try {
+            BitSet hits = weeklyHits(day, fromMinute, toMinute);
+            return toIds(hits, null, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lawyers available at [start, start + minutes) on that weekday and without an overlapping booking.
+    // A booking occupies bookingMinutes from its start.
+    public List<Long> availableAt(LocalDateTime start, int minutes, int bookingMinutes) {
+        int from = start.getHour() * 60 + start.getMinute();
+        int to = Math.min(1440, from + minutes);
+        lock.readLock().lock();
+        try {
+            BitSet hits = weeklyHits(start.getDayOfWeek(), from, to);
+            // Any booking starting in (start - bookingMinutes, start + minutes) overlaps the window
+            return toIds(hits, start.minusMinutes(bookingMinutes), start.plusMinutes(minutes));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- internals (caller holds the lock) ----
+
+    private BitSet weeklyHits(DayOfWeek day, int fromMinute, int toMinute) {
+        int base = (day.getValue() - 1) * SLOTS_PER_DAY;
+        int first = Math.max(0, fromMinute) / SLOT_MINUTES;
+        int last = (Math.min(1440, toMinute) + SLOT_MINUTES - 1) / SLOT_MINUTES; // exclusive
+        BitSet hits = null;
+        for (int s = first; s < last; s++) {
+            if (hits == null) {
+                hits = (BitSet) slots[base + s].clone();
+            } else {
+                hits.and(slots[base + s]);
+            }
+            if (hits.isEmpty()) break;
+        }
+        return hits == null ? new BitSet() : hits;
+    }
+
+    private List<Long> toIds(BitSet hits, LocalDateTime busyAfter, LocalDateTime busyBefore) {
+        List<Long> ids = new ArrayList<>(hits.cardinality());
+        for (int i = hits.nextSetBit(0); i >= 0; i = hits.nextSetBit(i + 1)) {
+            long lawyerId = lawyerIds[i];
+            if (busyAfter != null) {
+                TreeMap<LocalDateTime, Integer> starts = bookingsByLawyer.get(lawyerId);
+                if (starts != null && !starts.subMap(busyAfter, false, busyBefore, false).isEmpty()) continue;
+            }
+            ids.add(lawyerId);
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private void putWeekly(Long lawyerId, Collection<AvailabilitySlotRow> weekly) {
+        int ord = ordinals.computeIfAbsent(lawyerId, id -> {
+            int next = ordinals.size();
+            if (next >= lawyerIds.length) {
+                lawyerIds = Arrays.copyOf(lawyerIds, next * 2);
+                weekByLawyer = Arrays.copyOf(weekByLawyer, next * 2);
+            }
+            lawyerIds[next] = id;
+            return next;
+        });
+        BitSet old = weekByLawyer[ord];
+        if (old != null) {
+            for (int s = old.nextSetBit(0); s >= 0; s = old.nextSetBit(s + 1)) slots[s].clear(ord);
+        }
+        BitSet week = new BitSet(WEEK_SLOTS);
+        for (AvailabilitySlotRow r : weekly) {
+            int base = (r.getDayOfWeek() - 1) * SLOTS_PER_DAY;
+            // Only slots fully inside the window count as available
+            int first = (r.getStartMinute() + SLOT_MINUTES - 1) / SLOT_MINUTES;
+            int last = r.getEndMinute() / SLOT_MINUTES;
+            if (first < last) week.set(base + first, base + last);
+        }
+        for (int s = week.nextSetBit(0); s >= 0; s = week.nextSetBit(s + 1)) slots[s].set(ord);
+        weekByLawyer[ord] = week;
+    }
+
+    private void putBooking(Booking b) {
+        if (bookings.putIfAbsent(b.appointmentId(), b) != null) return;
+        bookingsByLawyer.computeIfAbsent(b.lawyerId(), k -> new TreeMap<>()).merge(b.start(), 1, Integer::sum);
+    }
+
+    public record Booking(Long appointmentId, Long lawyerId, LocalDateTime start) {
+    }
+}
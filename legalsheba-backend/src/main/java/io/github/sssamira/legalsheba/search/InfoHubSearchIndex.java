@@ -0,0 +1,132 @@
+package io.github.sssamira.legalsheba.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Keyword search over InfoHub articles backed by the info_hub_fts FTS5 table. The triggers below keep the
+// index in the same transaction as every write to info_hub, whatever path it comes from. Results are
+// ranked by BM25 with title matches weighted over body matches; titles and snippets come back HTML-escaped
+// with the matched terms wrapped in <mark>.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InfoHubSearchIndex {
+
+    public static final int MAX_TERMS = 8;
+    private static final double TITLE_WEIGHT = 10.0;
+    private static final double CONTENT_WEIGHT = 1.0;
+    private static final int SNIPPET_TOKENS = 24;
+    // Private-use markers survive HTML escaping and are swapped for <mark> afterwards
+    private static final String OPEN = "\uE000";
+    private static final String CLOSE = "\uE001";
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{M}\\p{N}]+");
+
+    private static final List<String> TRIGGERS = List.of("""
+            CREATE TRIGGER IF NOT EXISTS info_hub_fts_ai AFTER INSERT ON info_hub BEGIN
+                INSERT INTO info_hub_fts(rowid, title, content) VALUES (new.id, new.title, new.content);
+            END""", """
+            CREATE TRIGGER IF NOT EXISTS info_hub_fts_ad AFTER DELETE ON info_hub BEGIN
+                INSERT INTO info_hub_fts(info_hub_fts, rowid, title, content) VALUES ('delete', old.id, old.title, old.content);
+            END""", """
+            CREATE TRIGGER IF NOT EXISTS info_hub_fts_au AFTER UPDATE OF title, content ON info_hub BEGIN
+                INSERT INTO info_hub_fts(info_hub_fts, rowid, title, content) VALUES ('delete', old.id, old.title, old.content);
+                INSERT INTO info_hub_fts(rowid, title, content) VALUES (new.id, new.title, new.content);
+            END""");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Creates the triggers, stores the ranking function as the table's rank, and rebuilds the index when
+    // it does not cover info_hub (first start on an existing database, or rows written without triggers)
+    @EventListener(ApplicationReadyEvent.class)
+    public void setUp() {
+        TRIGGERS.forEach(jdbcTemplate::execute);
+        jdbcTemplate.update("INSERT INTO info_hub_fts(info_hub_fts, rank) VALUES ('rank', ?)",
+                "bm25(" + TITLE_WEIGHT + ", " + CONTENT_WEIGHT + ")");
+        Long articles = jdbcTemplate.queryForObject("SELECT count(*) FROM info_hub", Long.class);
+        Long indexed = jdbcTemplate.queryForObject("SELECT count(*) FROM info_hub_fts_docsize", Long.class);
+        if (articles != null && !articles.equals(indexed)) {
+            long start = System.nanoTime();
+            jdbcTemplate.update("INSERT INTO info_hub_fts(info_hub_fts) VALUES ('rebuild')");
+            log.info("InfoHub search index rebuilt: {} articles in {} ms", articles, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // Every word of the query must occur (the last one as a prefix, for search-as-you-type); empty when
+    // the query has no words
+    public Result search(String query, String category, int offset, int limit) {
+        long start = System.nanoTime();
+        String match = matchExpression(query);
+        if (match == null) return new Result(List.of(), 0, 0);
+
+        boolean filtered = category != null && !category.isBlank();
+        // CROSS JOIN pins the match as the outer loop; driven from the category index instead, SQLite
+        // would run the full-text query once per article of the category
+        String matches = filtered
+                ? "FROM info_hub_fts CROSS JOIN info_hub h ON h.id = info_hub_fts.rowid WHERE info_hub_fts MATCH ? AND upper(h.category) = upper(?)"
+                : "FROM info_hub_fts WHERE info_hub_fts MATCH ?";
+        Object[] args = filtered ? new Object[]{match, category.trim()} : new Object[]{match};
+
+        Long total = jdbcTemplate.queryForObject("SELECT count(*) " + matches, Long.class, args);
+        // Ranks first and builds highlights for the page only: in a single ORDER BY rank LIMIT query
+        // SQLite would compute a snippet for every match before sorting
+        List<Hit> hits = jdbcTemplate.query("""
+                WITH page AS (SELECT info_hub_fts.rowid AS id, rank %s ORDER BY rank LIMIT ? OFFSET ?)
+                SELECT h.id, h.category, h.date, page.rank,
+                       highlight(info_hub_fts, 0, ?, ?) AS title,
+                       snippet(info_hub_fts, 1, ?, ?, '…', ?) AS snippet
+                FROM page
+                CROSS JOIN info_hub_fts ON info_hub_fts.rowid = page.id AND info_hub_fts MATCH ?
+                CROSS JOIN info_hub h ON h.id = page.id
+                ORDER BY page.rank
+                """.formatted(matches),
+                (rs, n) -> new Hit(rs.getLong("id"), marked(rs.getString("title")), rs.getString("category"),
+                        rs.getString("date"), marked(rs.getString("snippet")), -rs.getDouble("rank")),
+                concat(args, new Object[]{limit, offset, OPEN, CLOSE, OPEN, CLOSE, SNIPPET_TOKENS, match}));
+        return new Result(hits, total == null ? 0 : total, (System.nanoTime() - start) / 1_000);
+    }
+
+    // Words of the query as quoted FTS5 strings, so operators and punctuation typed by users are inert
+    static String matchExpression(String query) {
+        if (query == null) return null;
+        Set<String> terms = new LinkedHashSet<>();
+        for (String t : NON_WORD.split(query.toLowerCase(Locale.ROOT))) {
+            if (!t.isEmpty() && terms.size() < MAX_TERMS) terms.add(t);
+        }
+        if (terms.isEmpty()) return null;
+        List<String> quoted = new ArrayList<>(terms.size());
+        for (String t : terms) quoted.add('"' + t + '"');
+        int last = quoted.size() - 1;
+        quoted.set(last, quoted.get(last) + "*");
+        return String.join(" ", quoted);
+    }
+
+    private static String marked(String text) {
+        if (text == null) return null;
+        return HtmlUtils.htmlEscape(text, "UTF-8").replace(OPEN, "<mark>").replace(CLOSE, "</mark>");
+    }
+
+    private static Object[] concat(Object[]... parts) {
+        List<Object> out = new ArrayList<>();
+        for (Object[] p : parts) out.addAll(List.of(p));
+        return out.toArray();
+    }
+
+    // score is the negated BM25 rank: higher is better
+    public record Hit(Long id, String title, String category, String date, String snippet, double score) {
+    }
+
+    public record Result(List<Hit> hits, long total, long tookMicros) {
+    }
+}
@@ -0,0 +1,340 @@
+package io.github.sssamira.legalsheba.search;
+
+import io.github.sssamira.legalsheba.event.LawyerProfileSavedEvent;
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
+import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
+import io.github.sssamira.legalsheba.repository.LawyerSpecialtyRow;
+import io.github.sssamira.legalsheba.repository.SpecialtyRepository;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory faceted index over the lawyer directory. Each lawyer gets a dense ordinal; every facet value
+// (specialty, location, court, experience band) keeps a BitSet posting list of those ordinals. Values inside
+// a facet are OR-ed (specialties can optionally be AND-ed), facets are AND-ed together.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LawyerFacetIndex {
+
+    public static final List<String> EXPERIENCE_BANDS = List.of("0-2", "3-5", "6-10", "11-20", "21+");
+
+    private final LawyerProfileRepository lawyerProfileRepository;
+    private final SpecialtyRepository specialtyRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] lawyerIds = new long[64];
+    private int[][] docSpecialties = new int[64][];
+    private int[] docLocation = new int[64];
+    private int[] docCourt = new int[64];
+    private int[] docBand = new int[64];
+    private int size;
+    private final BitSet live = new BitSet();
+    private final Facet specialties = new Facet();
+    private final Facet locations = new Facet();
+    private final Facet courts = new Facet();
+    private final BitSet[] bands = new BitSet[EXPERIENCE_BANDS.size()];
+
+    {
+        for (int i = 0; i < bands.length; i++) bands[i] = new BitSet();
+    }
+
+    // The read happens under the write lock: a save committed after the read started waits here and is
+    // applied on top of the snapshot instead of being overwritten by it
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<LawyerDirectoryRow> rows;
+        lock.writeLock().lock();
+        try {
+            rows = lawyerProfileRepository.findAllDirectoryRows();
+            Map<Long, List<String>> specsByLawyer = new HashMap<>();
+            for (LawyerSpecialtyRow s : specialtyRepository.findAllNames()) {
+                specsByLawyer.computeIfAbsent(s.getLawyerId(), k -> new ArrayList<>()).add(s.getName());
+            }
+            clear();
+            for (LawyerDirectoryRow row : rows) {
+                put(row, specsByLawyer.getOrDefault(row.getId(), List.of()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Lawyer facet index built: {} lawyers, {} specialties, {} locations, {} courts in {} ms",
+                rows.size(), specialties.labels.size(), locations.labels.size(), courts.labels.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLawyerSaved(LawyerProfileSavedEvent event) {
+        upsert(event.getProfile(), event.getSpecialties());
+    }
+
+    public void upsert(LawyerDirectoryRow row, Collection<String> specialtyNames) {
+        lock.writeLock().lock();
+        try {
+            put(row, specialtyNames);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Result search(Query query, int offset, int limit) {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            BitSet specFilter = facetFilter(specialties, query.getSpecialties(), query.isMatchAllSpecialties());
+            BitSet locFilter = facetFilter(locations, query.getLocations(), false);
+            BitSet courtFilter = facetFilter(courts, query.getCourts(), false);
+            BitSet bandFilter = bandFilter(query.getExperienceBands());
+
+            BitSet hits = intersect(specFilter, locFilter, courtFilter, bandFilter);
+            int total = hits.cardinality();
+            List<Long> ids = new ArrayList<>(Math.min(limit, total));
+            int skipped = 0;
+            for (int i = hits.nextSetBit(0); i >= 0 && ids.size() < limit; i = hits.nextSetBit(i + 1)) {
+                if (skipped++ < offset) continue;
+                ids.add(lawyerIds[i]);
+            }
+
+            // Disjunctive facet counts: each facet is counted against the hits of all the *other* filters,
+            // so selecting one location still shows how many lawyers the sibling locations would return.
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            BitSet specBase = query.isMatchAllSpecialties() ? hits : intersect(null, locFilter, courtFilter, bandFilter);
+            facets.put("specialty", countMulti(specBase, docSpecialties, specialties));
+            facets.put("location", countSingle(intersect(specFilter, null, courtFilter, bandFilter), docLocation, locations.labels));
+            facets.put("court", countSingle(intersect(specFilter, locFilter, null, bandFilter), docCourt, courts.labels));
+            facets.put("experience", countSingle(intersect(specFilter, locFilter, courtFilter, null), docBand, EXPERIENCE_BANDS));
+
+            return new Result(ids, total, facets, (System.nanoTime() - start) / 1_000);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static int bandOf(Integer experience) {
+        if (experience == null || experience < 0) return -1;
+        if (experience <= 2) return 0;
+        if (experience <= 5) return 1;
+        if (experience <= 10) return 2;
+        if (experience <= 20) return 3;
+        return 4;
+    }
+
+    // ---- internals (caller holds the write lock) ----
+
+    private void clear() {
+        ordinals.clear();
+        live.clear();
+        size = 0;
+        specialties.clear();
+        locations.clear();
+        courts.clear();
+        for (int i = 0; i < bands.length; i++) bands[i] = new BitSet();
+    }
+
+    private void put(LawyerDirectoryRow row, Collection<String> specialtyNames) {
+        Integer existing = ordinals.get(row.getId());
+        int ord;
+        if (existing != null) {
+            ord = existing;
+            unlink(ord);
+        } else {
+            ord = size++;
+            ensureCapacity(size);
+            ordinals.put(row.getId(), ord);
+            lawyerIds[ord] = row.getId();
+        }
+
+        Set<Integer> specIds = new LinkedHashSet<>();
+        if (specialtyNames != null) {
+            for (String name : specialtyNames) {
+                int id = specialties.intern(name);
+                if (id >= 0) specIds.add(id);
+            }
+        }
+        docSpecialties[ord] = specIds.stream().mapToInt(Integer::intValue).toArray();
+        for (int id : docSpecialties[ord]) specialties.postings.get(id).set(ord);
+
+        docLocation[ord] = locations.intern(row.getLocation());
+        if (docLocation[ord] >= 0) locations.postings.get(docLocation[ord]).set(ord);
+        docCourt[ord] = courts.intern(row.getCourtOfPractice());
+        if (docCourt[ord] >= 0) courts.postings.get(docCourt[ord]).set(ord);
+        docBand[ord] = bandOf(row.getExperience());
+        if (docBand[ord] >= 0) bands[docBand[ord]].set(ord);
+
+        live.set(ord);
+    }
+
+    private void unlink(int ord) {
+        for (int id : docSpecialties[ord]) specialties.postings.get(id).clear(ord);
+        if (docLocation[ord] >= 0) locations.postings.get(docLocation[ord]).clear(ord);
+        if (docCourt[ord] >= 0) courts.postings.get(docCourt[ord]).clear(ord);
+        if (docBand[ord] >= 0) bands[docBand[ord]].clear(ord);
+        docSpecialties[ord] = new int[0];
+        docLocation[ord] = docCourt[ord] = docBand[ord] = -1;
+        live.clear(ord);
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= lawyerIds.length) return;
+        int cap = Math.max(n, lawyerIds.length * 2);
+        lawyerIds = Arrays.copyOf(lawyerIds, cap);
+        docSpecialties = Arrays.copyOf(docSpecialties, cap);
+        docLocation = Arrays.copyOf(docLocation, cap);
+        docCourt = Arrays.copyOf(docCourt, cap);
+        docBand = Arrays.copyOf(docBand, cap);
+    }
+
+    // ---- query helpers (caller holds the read lock) ----
+
+    // Returns null when the facet is not constrained
+    private BitSet facetFilter(Facet facet, List<String> values, boolean matchAll) {
+        if (values == null || values.isEmpty()) return null;
+        BitSet out = null;
+        for (String v : values) {
+            int id = facet.lookup(v);
+            BitSet postings = id >= 0 ? facet.postings.get(id) : new BitSet();
+            if (out == null) {
+                out = (BitSet) postings.clone();
+            } else if (matchAll) {
+                out.and(postings);
+            } else {
+                out.or(postings);
+            }
+        }
+        return out;
+    }
+
+    private BitSet bandFilter(List<String> values) {
+        if (values == null || values.isEmpty()) return null;
+        BitSet out = new BitSet();
+        for (String v : values) {
+            int band = EXPERIENCE_BANDS.indexOf(v == null ? null : v.trim());
+            if (band >= 0) out.or(bands[band]);
+        }
+        return out;
+    }
+
+    private BitSet intersect(BitSet... filters) {
+        BitSet out = (BitSet) live.clone();
+        for (BitSet f : filters) {
+            if (f != null) out.and(f);
+        }
+        return out;
+    }
+
+    private Map<String, Integer> countSingle(BitSet base, int[] docValues, List<String> labels) {
+        int[] counts = new int[labels.size()];
+        for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+            if (docValues[i] >= 0) counts[docValues[i]]++;
+        }
+        return toCountMap(counts, labels);
+    }
+
+    private Map<String, Integer> countMulti(BitSet base, int[][] docValues, Facet facet) {
+        int[] counts = new int[facet.labels.size()];
+        for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+            for (int v : docValues[i]) counts[v]++;
+        }
+        return toCountMap(counts, facet.labels);
+    }
+
+    private static Map<String, Integer> toCountMap(int[] counts, List<String> labels) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) order.add(i);
+        }
+        order.sort((a, b) -> counts[b] != counts[a] ? Integer.compare(counts[b], counts[a]) : labels.get(a).compareTo(labels.get(b)));
+        Map<String, Integer> out = new LinkedHashMap<>();
+        for (int i : order) out.put(labels.get(i), counts[i]);
+        return out;
+    }
+
+    static String normalize(String raw) {
+        if (raw == null) return null;
+        String s = raw.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return s.isEmpty() ? null : s;
+    }
+
+    // Interned facet values: normalized key -> dense id, display label and posting list per id
+    private static final class Facet {
+        final Map<String, Integer> ids = new HashMap<>();
+        final List<String> labels = new ArrayList<>();
+        final List<BitSet> postings = new ArrayList<>();
+
+        int intern(String raw) {
+            String key = normalize(raw);
+            if (key == null) return -1;
+            return ids.computeIfAbsent(key, k -> {
+                labels.add(raw.trim().replaceAll("\\s+", " "));
+                postings.add(new BitSet());
+                return labels.size() - 1;
+            });
+        }
+
+        int lookup(String raw) {
+            String key = normalize(raw);
+            return key == null ? -1 : ids.getOrDefault(key, -1);
+        }
+
+        void clear() {
+            ids.clear();
+            labels.clear();
+            postings.clear();
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class Query {
+        @Builder.Default
+        private List<String> specialties = List.of();
+        private boolean matchAllSpecialties;
+        @Builder.Default
+        private List<String> locations = List.of();
+        @Builder.Default
+        private List<String> courts = List.of();
+        @Builder.Default
+        private List<String> experienceBands = List.of();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private final List<Long> ids;
+        private final int total;
+        private final Map<String, Map<String, Integer>> facets;
+        private final long tookMicros;
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.sssamira.legalsheba.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Uniform lat/lon grid over lawyer coordinates. k-nearest searches rings of cells outward from the query
+// cell and stops once no unvisited cell can hold anything closer than the current k-th hit, or than the
+// optional radius. Distances are great-circle (haversine) km.
+@Component
+public class LawyerGeoIndex {
+
+    private static final double CELL_DEG = 0.1; // ~11 km north-south
+    private static final double EARTH_KM = 6371.0088;
+    private static final double KM_PER_DEG = Math.PI * EARTH_KM / 180;
+    private static final int MAX_RINGS = 200; // ~20 degrees, well beyond Bangladesh
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+    private final Map<Long, Point> byLawyer = new HashMap<>();
+
+    public void load(Collection<Point> points) {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            byLawyer.clear();
+            for (Point p : points) put(p);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(Point point) {
+        lock.writeLock().lock();
+        try {
+            put(point);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byLawyer.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Up to k closest lawyers, optionally within maxKm, nearest first
+    public List<Hit> nearest(double lat, double lon, int k, Double maxKm) {
+        if (k <= 0) return List.of();
+        int row = row(lat);
+        int col = col(lon);
+        // A cell r rings away is at least (r - 1) cells away; longitude cells shrink with latitude
+        double ringKm = CELL_DEG * KM_PER_DEG * Math.cos(Math.toRadians(Math.min(Math.abs(lat) + CELL_DEG * MAX_RINGS, 89)));
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int r = 0; r <= MAX_RINGS; r++) {
+                double ringMinKm = Math.max(0, (r - 1) * ringKm);
+                if (maxKm != null && ringMinKm > maxKm) break;
+                if (hits.size() >= k && ringMinKm > hits.get(k - 1).distanceKm()) break;
+                if (hits.size() == byLawyer.size() && r > 0) break;
+                for (int dr = -r; dr <= r; dr++) {
+                    for (int dc = -r; dc <= r; dc++) {
+                        if (Math.abs(dr) != r && Math.abs(dc) != r) continue; // ring border only
+                        collect(row + dr, col + dc, lat, lon, maxKm, hits);
+                    }
+                }
+                hits.sort(Comparator.comparingDouble(Hit::distanceKm).thenComparing(Hit::lawyerId));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits.size() > k ? new ArrayList<>(hits.subList(0, k)) : hits;
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // ---- internals (caller holds the lock) ----
+
+    private void collect(int row, int col, double lat, double lon, Double maxKm, List<Hit> out) {
+        List<Point> cell = cells.get(key(row, col));
+        if (cell == null) return;
+        for (Point p : cell) {
+            double d = distanceKm(lat, lon, p.latitude(), p.longitude());
+            if (maxKm == null || d <= maxKm) out.add(new Hit(p.lawyerId(), p.place(), d));
+        }
+    }
+
+    private void put(Point p) {
+        Point old = byLawyer.put(p.lawyerId(), p);
+        if (old != null) {
+            long oldKey = key(row(old.latitude()), col(old.longitude()));
+            List<Point> cell = cells.get(oldKey);
+            if (cell != null) {
+                cell.removeIf(x -> x.lawyerId().equals(p.lawyerId()));
+                if (cell.isEmpty()) cells.remove(oldKey);
+            }
+        }
+        cells.computeIfAbsent(key(row(p.latitude()), col(p.longitude())), k -> new ArrayList<>()).add(p);
+    }
+
+    private static int row(double lat) {
+        return (int) Math.floor(lat / CELL_DEG);
+    }
+
+    private static int col(double lon) {
+        return (int) Math.floor(lon / CELL_DEG);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    public record Point(Long lawyerId, String place, double latitude, double longitude) {
+    }
+
+    public record Hit(Long lawyerId, String place, double distanceKm) {
+    }
+}
@@ -0,0 +1,309 @@
+package io.github.sssamira.legalsheba.search;
+
+import io.github.sssamira.legalsheba.event.LawyerProfileSavedEvent;
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
+import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
+import io.github.sssamira.legalsheba.repository.LawyerSpecialtyRow;
+import io.github.sssamira.legalsheba.repository.SpecialtyRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// BM25F ranking of lawyers against a client's problem description. Each lawyer is a document with
+// weighted fields (specialties > court > location); lay words in the query are expanded to the legal
+// area they usually mean ("divorce" -> family). Postings are precomputed into primitive arrays with the
+// length-normalised term weight baked in, so a query is a few array scans plus a top-k heap.
+// The index is an immutable snapshot rebuilt on change and swapped atomically; readers never lock.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LawyerRelevanceIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float SPECIALTY_WEIGHT = 3.0f;
+    private static final float COURT_WEIGHT = 1.5f;
+    private static final float LOCATION_WEIGHT = 1.0f;
+    private static final float EXPANSION_WEIGHT = 0.6f;
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "the", "and", "or", "but", "of", "to", "in", "on", "at", "for", "from", "by", "with", "about",
+            "is", "am", "are", "was", "were", "be", "been", "have", "has", "had", "do", "does", "did", "i", "me", "my",
+            "we", "our", "you", "your", "he", "she", "his", "her", "they", "them", "their", "it", "its", "this", "that",
+            "these", "those", "what", "which", "who", "how", "when", "where", "why", "can", "could", "would", "should",
+            "will", "not", "no", "so", "if", "then", "than", "also", "very", "need", "want", "help", "please", "some",
+            "any", "all", "into", "out", "up", "there", "here", "just", "get", "got", "law", "lawyer", "legal", "case",
+            "court", "advocate", "issue", "problem", "matter");
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Lay vocabulary -> legal areas as they appear in specialty names
+    private static final Map<String, List<String>> EXPANSIONS = expansions();
+
+    private final LawyerProfileRepository lawyerProfileRepository;
+    private final SpecialtyRepository specialtyRepository;
+
+    // Source documents, guarded by "this"; the snapshot is rebuilt from them
+    private final Map<Long, Doc> docs = new LinkedHashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // Read while holding the monitor so a lawyer saved during the rebuild is applied after it, not lost
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            List<LawyerDirectoryRow> rows = lawyerProfileRepository.findAllDirectoryRows();
+            Map<Long, List<String>> specsByLawyer = new HashMap<>();
+            for (LawyerSpecialtyRow s : specialtyRepository.findAllNames()) {
+                specsByLawyer.computeIfAbsent(s.getLawyerId(), k -> new ArrayList<>()).add(s.getName());
+            }
+            load(rows, specsByLawyer);
+        }
+        log.info("Lawyer relevance index built: {} lawyers, {} terms in {} ms",
+                snapshot.lawyerIds.length, snapshot.termIds.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLawyerSaved(LawyerProfileSavedEvent event) {
+        upsert(event.getProfile(), event.getSpecialties());
+    }
+
+    synchronized void load(List<LawyerDirectoryRow> rows, Map<Long, List<String>> specsByLawyer) {
+        docs.clear();
+        for (LawyerDirectoryRow row : rows) {
+            docs.put(row.getId(), Doc.of(row, specsByLawyer.getOrDefault(row.getId(), List.of())));
+        }
+        snapshot = Snapshot.build(docs.values());
+    }
+
+    public synchronized void upsert(LawyerDirectoryRow row, Collection<String> specialtyNames) {
+        docs.put(row.getId(), Doc.of(row, specialtyNames != null ? specialtyNames : List.of()));
+        snapshot = Snapshot.build(docs.values());
+    }
+
+    public List<Match> recommend(String problemDescription, int limit) {
+        Snapshot s = snapshot;
+        Map<Integer, Float> query = new LinkedHashMap<>();
+        for (String word : words(problemDescription)) {
+            String token = stem(word);
+            // Expanded before the stopword check: "will" means nothing on its own but inheritance as a lay word
+            for (String expanded : EXPANSIONS.getOrDefault(token, List.of())) {
+                Integer e = s.termIds.get(expanded);
+                if (e != null) query.merge(e, EXPANSION_WEIGHT, Math::max);
+            }
+            if (STOPWORDS.contains(word)) continue;
+            Integer t = s.termIds.get(token);
+            if (t != null) query.merge(t, 1f, Float::sum);
+        }
+        if (query.isEmpty() || limit <= 0) return List.of();
+
+        float[] scores = new float[s.lawyerIds.length];
+        int[] touched = new int[s.lawyerIds.length];
+        int touchedCount = 0;
+        for (Map.Entry<Integer, Float> q : query.entrySet()) {
+            int t = q.getKey();
+            float w = s.idf[t] * q.getValue();
+            int[] postDocs = s.postingDocs[t];
+            float[] postWeights = s.postingWeights[t];
+            for (int i = 0; i < postDocs.length; i++) {
+                int d = postDocs[i];
+                if (scores[d] == 0f) touched[touchedCount++] = d;
+                scores[d] += w * postWeights[i];
+            }
+        }
+
+        // Top-k by insertion into a small sorted array (best first); ties go to the lower lawyer id
+        int k = Math.min(limit, touchedCount);
+        int[] best = new int[k];
+        int size = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int d = touched[i];
+            if (size == k && !better(s, scores, d, best[k - 1])) continue;
+            int pos = size < k ? size++ : k - 1;
+            while (pos > 0 && better(s, scores, d, best[pos - 1])) {
+                best[pos] = best[pos - 1];
+                pos--;
+            }
+            best[pos] = d;
+        }
+        List<Match> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int d = best[i];
+            List<String> matched = new ArrayList<>();
+            for (int t : query.keySet()) {
+                if (Arrays.binarySearch(s.postingDocs[t], d) >= 0) matched.add(s.terms[t]);
+            }
+            out.add(new Match(s.lawyerIds[d], Math.round(scores[d] * 1000) / 1000.0, matched));
+        }
+        return out;
+    }
+
+    private static boolean better(Snapshot s, float[] scores, int a, int b) {
+        return scores[a] != scores[b] ? scores[a] > scores[b] : s.lawyerIds[a] < s.lawyerIds[b];
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        for (String word : words(text)) {
+            if (!STOPWORDS.contains(word)) out.add(stem(word));
+        }
+        return out;
+    }
+
+    private static List<String> words(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        for (String raw : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (raw.length() >= 2) out.add(raw);
+        }
+        return out;
+    }
+
+    // Light plural folding so "properties"/"property" and "contracts"/"contract" meet
+    private static String stem(String w) {
+        if (w.length() > 4 && w.endsWith("ies")) return w.substring(0, w.length() - 3) + "y";
+        if (w.length() > 3 && w.endsWith("s") && !w.endsWith("ss") && !w.endsWith("us")) return w.substring(0, w.length() - 1);
+        return w;
+    }
+
+    private static Map<String, List<String>> expansions() {
+        Map<String, List<String>> m = new HashMap<>();
+        String[][] groups = {
+                {"family", "divorce", "marriage", "married", "husband", "wife", "talaq", "dowry", "custody", "child",
+                        "children", "alimony", "maintenance", "denmohor", "mohor", "guardianship", "adoption"},
+                {"criminal", "theft", "stolen", "murder", "assault", "attack", "police", "arrest", "arrested", "bail", "fir",
+                        "gd", "fraud", "cheating", "harassment", "threat", "kidnap", "robbery", "drug", "warrant", "jail"},
+                {"property", "land", "plot", "flat", "apartment", "tenant", "rent", "landlord", "mutation", "khatian",
+                        "deed", "partition", "possession", "eviction", "boundary", "registration"},
+                {"civil", "dispute", "damage", "compensation", "injunction", "suit", "partition", "deed", "contract"},
+                {"corporate", "company", "business", "partnership", "shareholder", "director", "startup", "trade",
+                        "license", "licence", "commercial", "contract", "agreement"},
+                {"tax", "vat", "income", "customs", "duty", "return"},
+                {"labour", "job", "salary", "wage", "employer", "employee", "termination", "fired", "dismissal",
+                        "worker", "gratuity", "overtime", "employment"},
+                {"cyber", "online", "facebook", "hacked", "hacking", "internet", "defamation", "digital", "blackmail"},
+                {"banking", "bank", "loan", "mortgage", "cheque", "check", "bounce", "dishonour", "debt", "finance"},
+                {"immigration", "visa", "passport", "abroad", "migrant", "citizenship"},
+                {"intellectual", "patent", "trademark", "copyright", "brand", "piracy"},
+                {"inheritance", "will", "succession", "heir", "waris", "probate", "estate"},
+                {"constitutional", "writ", "rights", "fundamental", "government"},
+                {"consumer", "product", "refund", "defective", "warranty"},
+        };
+        for (String[] g : groups) {
+            String area = g[0];
+            for (int i = 1; i < g.length; i++) m.computeIfAbsent(stem(g[i]), k -> new ArrayList<>()).add(area);
+        }
+        return m;
+    }
+
+    // Field-weighted term frequencies for one lawyer
+    private record Doc(long lawyerId, Map<String, Float> tf, float length) {
+        static Doc of(LawyerDirectoryRow row, Collection<String> specialties) {
+            Map<String, Float> tf = new HashMap<>();
+            float[] len = {0};
+            for (String s : specialties) add(tf, len, s, SPECIALTY_WEIGHT);
+            add(tf, len, row.getCourtOfPractice(), COURT_WEIGHT);
+            add(tf, len, row.getLocation(), LOCATION_WEIGHT);
+            return new Doc(row.getId(), tf, len[0]);
+        }
+
+        private static void add(Map<String, Float> tf, float[] len, String text, float weight) {
+            for (String token : tokenize(text)) {
+                tf.merge(token, weight, Float::sum);
+                len[0] += weight;
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = build(List.of());
+
+        final long[] lawyerIds;
+        final Map<String, Integer> termIds;
+        final String[] terms;
+        final float[] idf;
+        final int[][] postingDocs; // ascending doc ordinals per term
+        final float[][] postingWeights; // BM25 tf component, length-normalised
+
+        private Snapshot(long[] lawyerIds, Map<String, Integer> termIds, String[] terms, float[] idf,
+                         int[][] postingDocs, float[][] postingWeights) {
+            this.lawyerIds = lawyerIds;
+            this.termIds = termIds;
+            this.terms = terms;
+            this.idf = idf;
+            this.postingDocs = postingDocs;
+            this.postingWeights = postingWeights;
+        }
+
+        static Snapshot build(Collection<Doc> docs) {
+            int n = docs.size();
+            long[] ids = new long[n];
+            float totalLength = 0;
+            Map<String, Integer> termIds = new HashMap<>();
+            List<String> terms = new ArrayList<>();
+            List<int[]> counts = new ArrayList<>(); // per term: {docFreq}
+            for (Doc d : docs) {
+                totalLength += d.length();
+                for (String t : d.tf().keySet()) {
+                    Integer id = termIds.get(t);
+                    if (id == null) {
+                        id = terms.size();
+                        termIds.put(t, id);
+                        terms.add(t);
+                        counts.add(new int[1]);
+                    }
+                    counts.get(id)[0]++;
+                }
+            }
+            float avgLength = n == 0 ? 1 : Math.max(1e-3f, totalLength / n);
+            int[][] postingDocs = new int[terms.size()][];
+            float[][] postingWeights = new float[terms.size()][];
+            float[] idf = new float[terms.size()];
+            for (int t = 0; t < terms.size(); t++) {
+                int df = counts.get(t)[0];
+                postingDocs[t] = new int[df];
+                postingWeights[t] = new float[df];
+                idf[t] = (float) Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            }
+            int[] fill = new int[terms.size()];
+            int ord = 0;
+            for (Doc d : docs) {
+                ids[ord] = d.lawyerId();
+                float norm = K1 * (1 - B + B * d.length() / avgLength);
+                for (Map.Entry<String, Float> e : d.tf().entrySet()) {
+                    int t = termIds.get(e.getKey());
+                    float tf = e.getValue();
+                    postingDocs[t][fill[t]] = ord;
+                    postingWeights[t][fill[t]] = tf * (K1 + 1) / (tf + norm);
+                    fill[t]++;
+                }
+                ord++;
+            }
+            return new Snapshot(ids, termIds, terms.toArray(new String[0]), idf, postingDocs, postingWeights);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Match {
+        private final Long lawyerId;
+        private final double score;
+        private final List<String> matchedTerms;
+    }
+}
@@ -0,0 +1,368 @@
+package io.github.sssamira.legalsheba.search;
+
+import io.github.sssamira.legalsheba.event.LawyerProfileSavedEvent;
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
+import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
+import io.github.sssamira.legalsheba.repository.LawyerSpecialtyRow;
+import io.github.sssamira.legalsheba.repository.SpecialtyRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Prefix trie for type-ahead over lawyer names, specialties, locations and courts. Every word start of a
+// term is a key, so "judge" finds "Dhaka Judge Court". Each node keeps the ids of the TOP_K heaviest
+// terms in its subtree, so a prefix lookup never walks the subtree. Typos are tolerated by a bounded
+// Levenshtein walk over the trie (0 edits up to 3 chars, 1 up to 6, 2 beyond).
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LawyerSuggestIndex {
+
+    public static final String NAME = "NAME";
+    public static final String SPECIALTY = "SPECIALTY";
+    public static final String LOCATION = "LOCATION";
+    public static final String COURT = "COURT";
+
+    // Also the most suggestions one lookup may ask for: a prefix node knows no more than this many terms
+    public static final int TOP_K = 10;
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final int[] NO_INTS = new int[0];
+
+    private final LawyerProfileRepository lawyerProfileRepository;
+    private final SpecialtyRepository specialtyRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Node root = new Node();
+    private final List<Term> terms = new ArrayList<>();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final Map<Long, int[]> termsByLawyer = new HashMap<>();
+
+    // Read under the write lock, like LawyerFacetIndex, so a save committed meanwhile is not lost
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            List<LawyerDirectoryRow> rows = lawyerProfileRepository.findAllDirectoryRows();
+            Map<Long, List<String>> specsByLawyer = new HashMap<>();
+            for (LawyerSpecialtyRow s : specialtyRepository.findAllNames()) {
+                specsByLawyer.computeIfAbsent(s.getLawyerId(), k -> new ArrayList<>()).add(s.getName());
+            }
+            root = new Node();
+            terms.clear();
+            termIds.clear();
+            termsByLawyer.clear();
+            for (LawyerDirectoryRow row : rows) {
+                put(row, specsByLawyer.getOrDefault(row.getId(), List.of()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Stats stats = stats();
+        log.info("Lawyer suggest index built: {} terms, {} trie nodes, ~{} KB in {} ms",
+                stats.getTerms(), stats.getNodes(), stats.getApproxBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLawyerSaved(LawyerProfileSavedEvent event) {
+        upsert(event.getProfile(), event.getSpecialties());
+    }
+
+    public void upsert(LawyerDirectoryRow row, Collection<String> specialtyNames) {
+        lock.writeLock().lock();
+        try {
+            put(row, specialtyNames);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Suggestion> suggest(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) return List.of();
+        int maxEdits = q.length() <= 3 ? 0 : q.length() <= 6 ? 1 : 2;
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> best = new HashMap<>();
+            int[] firstRow = new int[q.length() + 1];
+            for (int i = 0; i <= q.length(); i++) firstRow[i] = i;
+            walk(root, q, firstRow, maxEdits, best);
+
+            List<Suggestion> out = new ArrayList<>(best.size());
+            for (Map.Entry<Integer, Integer> e : best.entrySet()) {
+                Term t = terms.get(e.getKey());
+                if (t.weight <= 0) continue;
+                out.add(new Suggestion(t.text, t.type, NAME.equals(t.type) && t.lawyerId > 0 ? t.lawyerId : null, t.weight,
+                        e.getValue(), t.norm.startsWith(q)));
+            }
+            out.sort(Comparator.comparingInt(Suggestion::getDistance)
+                    .thenComparing(s -> !s.isLeadingMatch())
+                    .thenComparing(Comparator.comparingInt(Suggestion::getWeight).reversed())
+                    .thenComparingInt(s -> s.getText().length())
+                    .thenComparing(Suggestion::getText));
+            return out.size() > limit ? new ArrayList<>(out.subList(0, limit)) : out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Walks the node graph once and estimates retained heap (compressed oops, 8-byte alignment)
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            long[] acc = new long[2]; // nodes, bytes
+            measure(root, acc);
+            long termBytes = 0;
+            for (Term t : terms) {
+                termBytes += 32 + stringBytes(t.text) + stringBytes(t.norm);
+            }
+            long mapBytes = (long) termIds.size() * 48 + (long) termsByLawyer.size() * 64;
+            return new Stats(terms.size(), acc[0], acc[1] + termBytes + mapBytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- internals (caller holds the write lock) ----
+
+    private void put(LawyerDirectoryRow row, Collection<String> specialtyNames) {
+        int[] previous = termsByLawyer.remove(row.getId());
+        if (previous != null) {
+            for (int id : previous) {
+                Term t = terms.get(id);
+                t.weight--;
+                reorder(t, id, false);
+            }
+        }
+        List<Integer> ids = new ArrayList<>();
+        addTerm(NAME, row.getName(), row.getId(), ids);
+        addTerm(LOCATION, row.getLocation(), row.getId(), ids);
+        addTerm(COURT, row.getCourtOfPractice(), row.getId(), ids);
+        if (specialtyNames != null) {
+            for (String s : specialtyNames) addTerm(SPECIALTY, s, row.getId(), ids);
+        }
+        termsByLawyer.put(row.getId(), ids.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private void addTerm(String type, String text, Long lawyerId, List<Integer> ids) {
+        String norm = normalize(text);
+        if (norm.isEmpty()) return;
+        String key = type + '\u0000' + norm;
+        Integer id = termIds.get(key);
+        Term t;
+        if (id == null) {
+            t = new Term(text.trim().replaceAll("\\s+", " "), norm, type);
+            t.lawyerId = lawyerId;
+            id = terms.size();
+            terms.add(t);
+            termIds.put(key, id);
+        } else {
+            if (ids.contains(id)) return;
+            t = terms.get(id);
+            // Only a single-lawyer term can point at one profile
+            if (t.lawyerId != lawyerId) t.lawyerId = t.weight <= 0 ? lawyerId : -1;
+        }
+        t.weight++;
+        reorder(t, id, true);
+        ids.add(id);
+    }
+
+    // Re-ranks the term in the top-k list of every node on every word-start key of the term. A term that
+    // lost weight may now rank below one those lists had no room for, so on a loss the lists along the key
+    // are rebuilt instead, deepest first; a term down to zero weight drops out of them.
+    private void reorder(Term t, int id, boolean gained) {
+        String norm = t.norm;
+        for (int start = 0; start < norm.length(); start++) {
+            if (start > 0 && norm.charAt(start - 1) != ' ') continue;
+            Node node = root;
+            Node[] path = new Node[norm.length() - start];
+            for (int i = start; i < norm.length(); i++) {
+                node = node.childOrCreate(norm.charAt(i));
+                path[i - start] = node;
+                if (gained) node.offer(id, terms);
+            }
+            if (gained) {
+                node.addEnd(id);
+            } else {
+                for (int i = path.length - 1; i >= 0; i--) path[i].refill(terms);
+            }
+        }
+    }
+
+    // ---- query helpers (caller holds the read lock) ----
+
+    private void walk(Node node, String q, int[] prevRow, int maxEdits, Map<Integer, Integer> best) {
+        for (int c = 0; c < node.keys.length; c++) {
+            char ch = node.keys[c];
+            int[] row = new int[prevRow.length];
+            row[0] = prevRow[0] + 1;
+            int rowMin = row[0];
+            for (int i = 1; i < row.length; i++) {
+                int cost = q.charAt(i - 1) == ch ? 0 : 1;
+                row[i] = Math.min(Math.min(row[i - 1] + 1, prevRow[i] + 1), prevRow[i - 1] + cost);
+                rowMin = Math.min(rowMin, row[i]);
+            }
+            Node child = node.children[c];
+            int distance = row[q.length()];
+            if (distance <= maxEdits) {
+                for (int id : child.top) best.merge(id, distance, Math::min);
+                // An exact prefix already covers its whole subtree through the top-k list
+                if (distance == 0) continue;
+            }
+            if (rowMin <= maxEdits) walk(child, q, row, maxEdits, best);
+        }
+    }
+
+    private void measure(Node node, long[] acc) {
+        acc[0]++;
+        acc[1] += 24 + align(16 + node.keys.length * 2L) + align(16 + node.children.length * 4L) + align(16 + node.top.length * 4L)
+                + (node.ends.length > 0 ? align(16 + node.ends.length * 4L) : 0);
+        for (Node child : node.children) measure(child, acc);
+    }
+
+    private static long stringBytes(String s) {
+        return 24 + align(16 + s.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static String normalize(String raw) {
+        if (raw == null) return "";
+        return raw.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static final class Term {
+        final String text;
+        final String norm;
+        final String type;
+        long lawyerId;
+        int weight;
+
+        Term(String text, String norm, String type) {
+            this.text = text;
+            this.norm = norm;
+            this.type = type;
+        }
+    }
+
+    private static final class Node {
+        char[] keys = NO_CHARS;
+        Node[] children = NO_NODES;
+        int[] top = NO_INTS;
+        // Terms whose key ends at this node; with the children's lists they are all a refill can draw on
+        int[] ends = NO_INTS;
+
+        Node childOrCreate(char ch) {
+            int pos = Arrays.binarySearch(keys, ch);
+            if (pos >= 0) return children[pos];
+            int at = -pos - 1;
+            Node child = new Node();
+            char[] k = new char[keys.length + 1];
+            Node[] c = new Node[children.length + 1];
+            System.arraycopy(keys, 0, k, 0, at);
+            System.arraycopy(children, 0, c, 0, at);
+            k[at] = ch;
+            c[at] = child;
+            System.arraycopy(keys, at, k, at + 1, keys.length - at);
+            System.arraycopy(children, at, c, at + 1, children.length - at);
+            keys = k;
+            children = c;
+            return child;
+        }
+
+        void addEnd(int id) {
+            for (int e : ends) {
+                if (e == id) return;
+            }
+            ends = Arrays.copyOf(ends, ends.length + 1);
+            ends[ends.length - 1] = id;
+        }
+
+        // Rebuilds top from the terms ending here and the children's lists, which hold the heaviest terms
+        // of every other key through this node; children are refilled first
+        void refill(List<Term> terms) {
+            LinkedHashSet<Integer> candidates = new LinkedHashSet<>();
+            for (int id : top) candidates.add(id);
+            for (int id : ends) candidates.add(id);
+            for (Node child : children) {
+                for (int id : child.top) candidates.add(id);
+            }
+            top = candidates.stream()
+                    .filter(id -> terms.get(id).weight > 0)
+                    .sorted((a, b) -> Integer.compare(terms.get(b).weight, terms.get(a).weight))
+                    .limit(TOP_K)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        // Keeps top sorted by weight desc, capped at TOP_K
+        void offer(int id, List<Term> terms) {
+            int[] list = top;
+            int existing = -1;
+            for (int i = 0; i < list.length; i++) {
+                if (list[i] == id) {
+                    existing = i;
+                    break;
+                }
+            }
+            if (existing < 0) {
+                if (list.length >= TOP_K && terms.get(list[list.length - 1]).weight >= terms.get(id).weight) return;
+                list = Arrays.copyOf(list, Math.min(list.length + 1, TOP_K));
+                existing = list.length - 1;
+                list[existing] = id;
+            }
+            // Bubble the term to its place in either direction
+            int i = existing;
+            while (i > 0 && terms.get(list[i - 1]).weight < terms.get(list[i]).weight) {
+                int tmp = list[i - 1]; list[i - 1] = list[i]; list[i] = tmp;
+                i--;
+            }
+            while (i < list.length - 1 && terms.get(list[i + 1]).weight > terms.get(list[i]).weight) {
+                int tmp = list[i + 1]; list[i + 1] = list[i]; list[i] = tmp;
+                i++;
+            }
+            top = list;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Suggestion {
+        private final String text;
+        private final String type;
+        private final Long lawyerId;
+        private final int weight;
+        private final int distance;
+        private final boolean leadingMatch;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        private final int terms;
+        private final long nodes;
+        private final long approxBytes;
+    }
+}
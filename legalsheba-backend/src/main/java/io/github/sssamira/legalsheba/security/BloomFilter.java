@@ -0,0 +1,62 @@
+package io.github.sssamira.legalsheba.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size Bloom filter over 64-bit key hashes: no false negatives, and false positives at a rate set by
+// the bits per key. Adds and lookups are lock-free and allocate nothing; the size is a power of two so a
+// probe is a mask, and the probes come from the two halves of one hash (double hashing).
+public class BloomFilter {
+
+    private static final int PROBES = 7;
+
+    private final AtomicLongArray words;
+    private final int mask;
+
+    // About 1% false positives while it holds at most expectedKeys keys
+    public BloomFilter(int expectedKeys) {
+        long bits = Long.highestOneBit(Math.max(1024L, (long) expectedKeys * 10 - 1) << 1);
+        bits = Math.min(bits, 1L << 30);
+        this.words = new AtomicLongArray((int) (bits >>> 6));
+        this.mask = (int) bits - 1;
+    }
+
+    public void add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            long m = 1L << bit;
+            words.getAndAccumulate(bit >>> 6, m, (a, b) -> a | b);
+        }
+    }
+
+    public boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < PROBES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // FNV-1a over the chars, then a final mix so both halves are usable as probes
+    public static long hash(CharSequence key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    public static long hash(long key) {
+        return mix(key + 0x9e3779b97f4a7c15L);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.sssamira.legalsheba.security;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// BCrypt on a small dedicated pool instead of the request threads, so a login or registration storm uses
+// at most auth.hashing.threads CPUs and the rest stay free for cheap requests. At most
+// auth.hashing.queue-capacity hashes wait for a thread; beyond that callers get HashingBusyException at
+// once rather than a slot in an ever longer queue.
+//
+// The work factor is measured at startup: the highest strength (from Spring's default of 10 up to
+// auth.hashing.max-strength) whose hash takes at most auth.hashing.target-ms, unless auth.hashing.strength
+// pins it. upgradeEncoding reports hashes of a lower strength, which DaoAuthenticationProvider rehashes
+// through UserDetailsPasswordService after a successful login.
+@Slf4j
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final int MIN_STRENGTH = 10;
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final ThreadPoolExecutor executor;
+    private final int strength;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedPasswordEncoder(@Value("${auth.hashing.threads:0}") int threads,
+                                  @Value("${auth.hashing.queue-capacity:16}") int queueCapacity,
+                                  @Value("${auth.hashing.strength:0}") int strength,
+                                  @Value("${auth.hashing.target-ms:250}") long targetMs,
+                                  @Value("${auth.hashing.max-strength:14}") int maxStrength) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger n = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "password-hashing-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.strength = strength > 0 ? strength : calibrate(targetMs, maxStrength);
+        this.bcrypt = new BCryptPasswordEncoder(this.strength);
+        log.info("Password hashing: BCrypt strength {}, {} threads, queue of {}", this.strength, poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return bcrypt.upgradeEncoding(encodedPassword);
+    }
+
+    public Statistics stats() {
+        long count = hashes.sum();
+        return new Statistics(strength, executor.getMaximumPoolSize(), executor.getActiveCount(),
+                executor.getQueue().size(), executor.getQueue().size() + executor.getQueue().remainingCapacity(),
+                count, rejected.sum(),
+                count == 0 ? 0 : hashNanos.sum() / count / 1e6,
+                maxHashNanos.get() / 1e6,
+                count == 0 ? 0 : waitNanos.sum() / count / 1e6);
+    }
+
+    // The caller blocks until its hash is done, but only pool threads spend CPU on it
+    private <T> T run(Callable<T> work) {
+        long submitted = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return work.call();
+                } finally {
+                    long took = System.nanoTime() - start;
+                    hashes.increment();
+                    hashNanos.add(took);
+                    maxHashNanos.accumulateAndGet(took, Math::max);
+                    waitNanos.add(start - submitted);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HashingBusyException();
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Each strength step doubles the cost, so one measurement at the minimum predicts the rest. The best
+    // of a few runs, after a warm-up, keeps JIT compilation and startup noise out of it.
+    private static int calibrate(long targetMs, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_STRENGTH);
+        String hash = probe.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.matches("calibration", hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        int strength = MIN_STRENGTH;
+        long nanos = best;
+        while (strength < maxStrength && nanos * 2 <= targetMs * 1_000_000) {
+            strength++;
+            nanos *= 2;
+        }
+        return strength;
+    }
+
+    // Latencies in milliseconds. wait is the time spent queued before a pool thread picked the hash up.
+    public record Statistics(int strength, int threads, int active, int queued, int queueCapacity,
+                             long hashes, long rejected, double averageHashMs, double maxHashMs, double averageWaitMs) {
+    }
+
+    public static class HashingBusyException extends RuntimeException {
+        public HashingBusyException() {
+            super("Too many sign-ins at once, retry shortly");
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package io.github.sssamira.legalsheba.security;
 
-import io.github.sssamira.legalsheba.service.CustomUserDetailsService;
 import io.github.sssamira.legalsheba.service.JwtService;
+import io.github.sssamira.legalsheba.service.TokenRevocationService;
+import io.github.sssamira.legalsheba.service.UserIdentityCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +12,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,34 +23,50 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final CustomUserDetailsService userDetailsService;
+    private final UserIdentityCache userIdentityCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
-        jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+
+        // One parse checks signature and expiry; an invalid token leaves the request unauthenticated
+        final Claims claims;
+        try {
+            claims = jwtService.parse(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Tokens issued before they carried the role are still resolved through the user lookup
+            JwtPrincipal principal = JwtPrincipal.from(claims);
+            if (principal == null) {
+                principal = userIdentityCache.find(claims.getSubject())
+                        .map(u -> new JwtPrincipal(u.userId(), u.email(), u.role(), claims.getId(), claims.getExpiration().getTime()))
+                        .orElse(null);
+            }
+            Number marker = claims.get(JwtService.REVOCATION_CLAIM, Number.class);
+            if (principal == null || tokenRevocationService.isRevoked(principal.getTokenId(), principal.getUserId(),
+                    marker == null ? 0 : marker.longValue())) {
+                filterChain.doFilter(request, response);
+                return;
             }
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    principal,
+                    null,
+                    principal.getAuthorities()
+            );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
@@ -0,0 +1,35 @@
+package io.github.sssamira.legalsheba.security;
+
+import io.github.sssamira.legalsheba.service.JwtService;
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+// Principal built from a verified token's claims alone. Still a User, so handlers taking
+// @AuthenticationPrincipal User keep working; it carries no password. tokenId and expiresAt identify
+// the token for revocation at logout; tokenId is null for tokens issued before they carried a jti.
+@Getter
+public class JwtPrincipal extends User {
+
+    private final Long userId;
+    private final String tokenId;
+    private final long expiresAt;
+
+    public JwtPrincipal(Long userId, String email, String role, String tokenId, long expiresAt) {
+        super(email, "", List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+        this.userId = userId;
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    // null for tokens issued before they carried the user id and role
+    public static JwtPrincipal from(Claims claims) {
+        Number userId = claims.get(JwtService.USER_ID_CLAIM, Number.class);
+        String role = claims.get(JwtService.ROLE_CLAIM, String.class);
+        if (userId == null || role == null || claims.getSubject() == null) return null;
+        return new JwtPrincipal(userId.longValue(), claims.getSubject(), role, claims.getId(), claims.getExpiration().getTime());
+    }
+}
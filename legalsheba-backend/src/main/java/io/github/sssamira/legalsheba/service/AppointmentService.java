@@ -0,0 +1,335 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.model.Appointment;
+import io.github.sssamira.legalsheba.model.AppointmentSlot;
+import io.github.sssamira.legalsheba.repository.AppointmentBookingRow;
+import io.github.sssamira.legalsheba.repository.AppointmentRepository;
+import io.github.sssamira.legalsheba.repository.AppointmentSlotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Books appointments without double booking. An appointment reserves every 15-minute bucket it covers in
+// appointment_slots, whose UNIQUE(lawyer_id, slot_start) is the source of truth across instances. Within
+// this instance a striped lock keyed by lawyer id serialises bookings for the same lawyer, so conflicts
+// are detected by a cheap pre-check instead of failed inserts, while other lawyers book in parallel.
+// Transactions start with a write: SQLite then waits on its busy timeout rather than failing a
+// read-to-write lock upgrade.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AppointmentService {
+
+    public static final int BUCKET_MINUTES = 15;
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    // SQLite's message for a second reservation of a bucket
+    private static final String SLOT_UNIQUE_VIOLATION = "UNIQUE constraint failed: appointment_slots.lawyer_id, appointment_slots.slot_start";
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentSlotRepository appointmentSlotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AppointmentStatsService appointmentStatsService;
+
+    private final ReentrantLock[] stripes = newStripes();
+
+    // How long one appointment blocks the lawyer, starting at appointment_date
+    @Value("${appointments.slot-minutes:60}")
+    private int slotMinutes;
+
+    // Reserves slots for active appointments made before reservations existed. Pre-existing double
+    // bookings cannot be reserved twice; they are logged and left as they are.
+    @EventListener(ApplicationReadyEvent.class)
+    public void reserveExisting() {
+        Set<Long> reserved = appointmentSlotRepository.findReservedAppointmentIds();
+        int added = 0;
+        int conflicts = 0;
+        for (AppointmentBookingRow b : appointmentRepository.findBookingsByStatusIn(AppointmentTimes.ACTIVE_STATUSES)) {
+            if (reserved.contains(b.getId())) continue;
+            LocalDateTime start = AppointmentTimes.parse(b.getAppointmentDate()).orElse(null);
+            if (start == null) continue;
+            try {
+                transactionTemplate.executeWithoutResult(tx ->
+                        appointmentSlotRepository.saveAll(slots(b.getLawyerId(), b.getId(), buckets(start))));
+                added++;
+            } catch (DataAccessException e) {
+                if (!isSlotConflict(e)) throw e;
+                conflicts++;
+            }
+        }
+        if (added > 0 || conflicts > 0) {
+            log.info("Reserved slots for {} existing appointments ({} overlapping ones left unreserved)", added, conflicts);
+        }
+    }
+
+    // Persists a new appointment together with its slot reservation
+    public Appointment book(Appointment appointment) {
+        LocalDateTime start = AppointmentTimes.parse(appointment.getAppointmentDate())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid appointmentDate (expected yyyy-MM-ddTHH:mm)"));
+        List<Long> buckets = buckets(start);
+        Long lawyerId = appointment.getLawyer().getId();
+        boolean active = AppointmentTimes.ACTIVE_STATUSES.contains(appointment.getStatus());
+
+        ReentrantLock lock = stripe(lawyerId);
+        lock.lock();
+        try {
+            if (active && appointmentSlotRepository.existsByLawyerIdAndSlotStartIn(lawyerId, buckets)) {
+                throw new SlotConflictException();
+            }
+            return transactionTemplate.execute(tx -> {
+                Appointment saved = appointmentRepository.save(appointment);
+                if (active) appointmentSlotRepository.saveAll(slots(lawyerId, saved.getId(), buckets));
+                appointmentStatsService.apply(lawyerId, List.of(
+                        new AppointmentStatsService.StatusChange(saved.getAppointmentDate(), null, saved.getStatus())));
+                return saved;
+            });
+        } catch (DataAccessException e) {
+            // Another instance reserved an overlapping bucket between the pre-check and the insert
+            throw slotConflictOr(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Books a batch of appointments, possibly for several lawyers, in one transaction so they share one
+    // SQLite commit. The stripes of every lawyer involved are taken in index order. Requests that are
+    // invalid or overlap an appointment (in the database or earlier in the batch) are skipped and
+    // reported in their outcome; inTransaction runs last inside the transaction with the outcomes in
+    // input order, booked appointments already carrying their ids. If another instance reserves a bucket
+    // between the pre-check and the insert, the whole batch rolls back with a SlotConflictException.
+    public List<BookingOutcome> bookAll(List<Appointment> appointments, Consumer<List<BookingOutcome>> inTransaction) {
+        TreeSet<Integer> lockIndexes = new TreeSet<>();
+        for (Appointment a : appointments) lockIndexes.add(stripeIndex(a.getLawyer().getId()));
+        List<ReentrantLock> locks = new ArrayList<>(lockIndexes.size());
+        for (int i : lockIndexes) locks.add(stripes[i]);
+
+        locks.forEach(ReentrantLock::lock);
+        try {
+            List<BookingOutcome> outcomes = new ArrayList<>(appointments.size());
+            Map<Appointment, List<Long>> reservations = new HashMap<>();
+            Map<Long, Set<Long>> claimed = new HashMap<>();
+            // Read-only, but in a transaction so the checks of a batch share one pooled connection
+            transactionTemplate.executeWithoutResult(check -> {
+                for (Appointment a : appointments) {
+                    LocalDateTime start = AppointmentTimes.parse(a.getAppointmentDate()).orElse(null);
+                    if (start == null) {
+                        outcomes.add(new BookingOutcome(a, BookingOutcome.INVALID, "Invalid appointmentDate (expected yyyy-MM-ddTHH:mm)"));
+                        continue;
+                    }
+                    if (AppointmentTimes.ACTIVE_STATUSES.contains(a.getStatus())) {
+                        Long lawyerId = a.getLawyer().getId();
+                        List<Long> buckets = buckets(start);
+                        Set<Long> lawyerClaimed = claimed.computeIfAbsent(lawyerId, k -> new HashSet<>());
+                        if (buckets.stream().anyMatch(lawyerClaimed::contains)
+                                || appointmentSlotRepository.existsByLawyerIdAndSlotStartIn(lawyerId, buckets)) {
+                            outcomes.add(new BookingOutcome(a, BookingOutcome.CONFLICT, new SlotConflictException().getMessage()));
+                            continue;
+                        }
+                        lawyerClaimed.addAll(buckets);
+                        reservations.put(a, buckets);
+                    }
+                    outcomes.add(new BookingOutcome(a, BookingOutcome.BOOKED, null));
+                }
+            });
+
+            transactionTemplate.executeWithoutResult(tx -> {
+                List<AppointmentSlot> slots = new ArrayList<>();
+                Map<Long, List<AppointmentStatsService.StatusChange>> statusChanges = new HashMap<>();
+                for (BookingOutcome o : outcomes) {
+                    if (!o.booked()) continue;
+                    Appointment saved = appointmentRepository.save(o.appointment());
+                    Long lawyerId = saved.getLawyer().getId();
+                    List<Long> buckets = reservations.get(o.appointment());
+                    if (buckets != null) slots.addAll(slots(lawyerId, saved.getId(), buckets));
+                    statusChanges.computeIfAbsent(lawyerId, k -> new ArrayList<>()).add(
+                            new AppointmentStatsService.StatusChange(saved.getAppointmentDate(), null, saved.getStatus()));
+                }
+                appointmentSlotRepository.saveAll(slots);
+                statusChanges.forEach(appointmentStatsService::apply);
+                inTransaction.accept(outcomes);
+            });
+            return outcomes;
+        } catch (DataAccessException e) {
+            throw slotConflictOr(e);
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) locks.get(i).unlock();
+        }
+    }
+
+    // Moves an appointment to a new status, releasing or re-reserving its slots as it leaves or
+    // re-enters an active status
+    public Appointment changeStatus(Appointment appointment, String newStatus) {
+        boolean wasActive = AppointmentTimes.ACTIVE_STATUSES.contains(appointment.getStatus());
+        boolean active = AppointmentTimes.ACTIVE_STATUSES.contains(newStatus);
+        Long lawyerId = appointment.getLawyer().getId();
+        // Legacy rows with an unparseable date were never reserved
+        List<Long> buckets = active && !wasActive
+                ? AppointmentTimes.parse(appointment.getAppointmentDate()).map(this::buckets).orElse(null)
+                : null;
+
+        ReentrantLock lock = stripe(lawyerId);
+        lock.lock();
+        try {
+            if (buckets != null && appointmentSlotRepository.existsByLawyerIdAndSlotStartIn(lawyerId, buckets)) {
+                throw new SlotConflictException();
+            }
+            String previousStatus = appointment.getStatus();
+            return transactionTemplate.execute(tx -> {
+                appointment.setStatus(newStatus);
+                Appointment saved = appointmentRepository.save(appointment);
+                if (buckets != null) appointmentSlotRepository.saveAll(slots(lawyerId, saved.getId(), buckets));
+                if (wasActive && !active) appointmentSlotRepository.deleteByAppointmentId(saved.getId());
+                appointmentStatsService.apply(lawyerId, List.of(
+                        new AppointmentStatsService.StatusChange(saved.getAppointmentDate(), previousStatus, newStatus)));
+                return saved;
+            });
+        } catch (DataAccessException e) {
+            throw slotConflictOr(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Applies status changes to appointments of one lawyer in a single transaction, so the updates go out
+    // as one JDBC batch and one SQLite commit. A re-activation that would overlap an appointment staying
+    // active (in the database or earlier in the batch) is left unchanged and its id returned; buckets
+    // released by deactivations in the same batch count as free.
+    public Set<Long> changeStatuses(Long lawyerId, Map<Appointment, String> changes) {
+        ReentrantLock lock = stripe(lawyerId);
+        lock.lock();
+        try {
+            Set<Long> deactivated = new HashSet<>();
+            for (Map.Entry<Appointment, String> c : changes.entrySet()) {
+                if (AppointmentTimes.ACTIVE_STATUSES.contains(c.getKey().getStatus())
+                        && !AppointmentTimes.ACTIVE_STATUSES.contains(c.getValue())) {
+                    deactivated.add(c.getKey().getId());
+                }
+            }
+
+            Set<Long> conflicts = new HashSet<>();
+            Set<Long> claimed = new HashSet<>();
+            List<AppointmentSlot> reservations = new ArrayList<>();
+            List<Appointment> changed = new ArrayList<>();
+            for (Map.Entry<Appointment, String> c : changes.entrySet()) {
+                Appointment a = c.getKey();
+                boolean activating = !AppointmentTimes.ACTIVE_STATUSES.contains(a.getStatus())
+                        && AppointmentTimes.ACTIVE_STATUSES.contains(c.getValue());
+                List<Long> buckets = activating
+                        ? AppointmentTimes.parse(a.getAppointmentDate()).map(this::buckets).orElse(null)
+                        : null;
+                if (buckets != null) {
+                    boolean taken = buckets.stream().anyMatch(claimed::contains)
+                            || !deactivated.containsAll(appointmentSlotRepository.findHolders(lawyerId, buckets));
+                    if (taken) {
+                        conflicts.add(a.getId());
+                        continue;
+                    }
+                    claimed.addAll(buckets);
+                    reservations.addAll(slots(lawyerId, a.getId(), buckets));
+                }
+                changed.add(a);
+            }
+
+            transactionTemplate.executeWithoutResult(tx -> {
+                if (!deactivated.isEmpty()) appointmentSlotRepository.deleteByAppointmentIdIn(deactivated);
+                List<AppointmentStatsService.StatusChange> statusChanges = new ArrayList<>(changed.size());
+                for (Appointment a : changed) {
+                    statusChanges.add(new AppointmentStatsService.StatusChange(a.getAppointmentDate(), a.getStatus(), changes.get(a)));
+                    a.setStatus(changes.get(a));
+                }
+                appointmentRepository.saveAll(changed);
+                appointmentSlotRepository.saveAll(reservations);
+                appointmentStatsService.apply(lawyerId, statusChanges);
+            });
+            return conflicts;
+        } catch (DataAccessException e) {
+            throw slotConflictOr(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    // Every bucket touched by [start, start + slotMinutes)
+    List<Long> buckets(LocalDateTime start) {
+        long startMinute = start.toEpochSecond(ZoneOffset.UTC) / 60;
+        long first = Math.floorDiv(startMinute, BUCKET_MINUTES) * BUCKET_MINUTES;
+        long end = startMinute + Math.max(1, slotMinutes);
+        List<Long> out = new ArrayList<>();
+        for (long b = first; b < end; b += BUCKET_MINUTES) out.add(b);
+        return out;
+    }
+
+    private static List<AppointmentSlot> slots(Long lawyerId, Long appointmentId, List<Long> buckets) {
+        List<AppointmentSlot> out = new ArrayList<>(buckets.size());
+        for (Long b : buckets) {
+            out.add(AppointmentSlot.builder().lawyerId(lawyerId).appointmentId(appointmentId).slotStart(b).build());
+        }
+        return out;
+    }
+
+    private ReentrantLock stripe(Long lawyerId) {
+        return stripes[stripeIndex(lawyerId)];
+    }
+
+    private static int stripeIndex(Long lawyerId) {
+        // Fibonacci hashing spreads consecutive ids over the stripes
+        return (int) ((lawyerId * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - STRIPE_BITS));
+    }
+
+    // True when the violated constraint is appointment_slots' UNIQUE(lawyer_id, slot_start), i.e. a bucket is
+    // already held. Foreign key and NOT NULL failures are bad input or bugs, not conflicts. Judged by the
+    // driver's message: the SQLite dialect does not map constraint failures, so they arrive as generic
+    // JpaSystemException / UncategorizedSQLException rather than DataIntegrityViolationException.
+    public static boolean isSlotConflict(DataAccessException e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message != null && message.contains(SLOT_UNIQUE_VIOLATION);
+    }
+
+    private static RuntimeException slotConflictOr(DataAccessException e) {
+        return isSlotConflict(e) ? new SlotConflictException() : e;
+    }
+
+    private static ReentrantLock[] newStripes() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) locks[i] = new ReentrantLock();
+        return locks;
+    }
+
+    public record BookingOutcome(Appointment appointment, String status, String message) {
+        public static final String BOOKED = "BOOKED";
+        public static final String CONFLICT = "CONFLICT";
+        public static final String INVALID = "INVALID";
+
+        public boolean booked() {
+            return BOOKED.equals(status);
+        }
+    }
+
+    public static class SlotConflictException extends RuntimeException {
+        public SlotConflictException() {
+            super("The lawyer already has an appointment in this time slot");
+        }
+    }
+}
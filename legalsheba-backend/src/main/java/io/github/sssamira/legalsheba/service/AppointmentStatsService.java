@@ -0,0 +1,147 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.model.AppointmentStat;
+import io.github.sssamira.legalsheba.repository.AppointmentRepository;
+import io.github.sssamira.legalsheba.repository.AppointmentStatRepository;
+import io.github.sssamira.legalsheba.repository.AppointmentStatusCountRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Per-lawyer appointment counters by status and by appointment day, stored in appointment_stats.
+// AppointmentService calls apply() inside its booking transactions, so a counter never disagrees with
+// committed appointments; dashboard reads touch a handful of primary-key rows however long the history.
+// verify() recounts from appointments to prove that, and can rewrite a lawyer's counters if it does not.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AppointmentStatsService {
+
+    private final AppointmentStatRepository appointmentStatRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    // Builds the counters once for databases that predate them
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (appointmentStatRepository.count() > 0) return;
+        Map<Long, Map<Key, Long>> byLawyer = new HashMap<>();
+        for (AppointmentStatusCountRow r : appointmentRepository.countAllByDateAndStatus()) {
+            accumulate(byLawyer.computeIfAbsent(r.getLawyerId(), k -> new HashMap<>()), r);
+        }
+        int counters = 0;
+        for (Map.Entry<Long, Map<Key, Long>> e : byLawyer.entrySet()) counters += write(e.getKey(), e.getValue());
+        if (counters > 0) log.info("Built appointment statistics for {} lawyers ({} counters)", byLawyer.size(), counters);
+    }
+
+    // Counter updates for changes made in the caller's transaction; each (day, status) is written once
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Long lawyerId, List<StatusChange> changes) {
+        Map<Key, Long> deltas = new HashMap<>();
+        for (StatusChange c : changes) {
+            String day = day(c.appointmentDate());
+            if (c.previousStatus() != null) {
+                deltas.merge(new Key(day, c.previousStatus()), -1L, Long::sum);
+                deltas.merge(new Key(AppointmentStat.TOTAL, c.previousStatus()), -1L, Long::sum);
+            }
+            deltas.merge(new Key(day, c.status()), 1L, Long::sum);
+            deltas.merge(new Key(AppointmentStat.TOTAL, c.status()), 1L, Long::sum);
+        }
+        deltas.forEach((k, delta) -> {
+            if (delta != 0) appointmentStatRepository.add(lawyerId, k.day(), k.status(), delta);
+        });
+    }
+
+    // All-time counts per status
+    public Map<String, Long> totals(Long lawyerId) {
+        Map<String, Long> out = new HashMap<>();
+        for (AppointmentStat s : appointmentStatRepository.findByLawyerIdAndDay(lawyerId, AppointmentStat.TOTAL)) {
+            if (s.getCount() != 0) out.put(s.getStatus(), s.getCount());
+        }
+        return out;
+    }
+
+    // Counts per status for each day in [from, to] that has appointments, in day order
+    public Map<LocalDate, Map<String, Long>> byDay(Long lawyerId, LocalDate from, LocalDate to) {
+        Map<LocalDate, Map<String, Long>> out = new LinkedHashMap<>();
+        for (AppointmentStat s : appointmentStatRepository.findByLawyerIdAndDayBetweenOrderByDay(lawyerId, from.toString(), to.toString())) {
+            if (s.getCount() != 0) out.computeIfAbsent(LocalDate.parse(s.getDay()), d -> new HashMap<>()).put(s.getStatus(), s.getCount());
+        }
+        return out;
+    }
+
+    // Recounts the lawyer's appointments and lists every counter that disagrees; with repair the
+    // counters are replaced by the recount in the same transaction
+    @Transactional
+    public Verification verify(Long lawyerId, boolean repair) {
+        Map<Key, Long> actual = new HashMap<>();
+        long appointments = 0;
+        for (AppointmentStatusCountRow r : appointmentRepository.countByDateAndStatus(lawyerId)) {
+            accumulate(actual, r);
+            appointments += r.getCount();
+        }
+        Map<Key, Long> stored = new HashMap<>();
+        for (AppointmentStat s : appointmentStatRepository.findByLawyerId(lawyerId)) {
+            stored.put(new Key(s.getDay(), s.getStatus()), s.getCount());
+        }
+
+        List<Mismatch> mismatches = new ArrayList<>();
+        Set<Key> keys = new HashSet<>(actual.keySet());
+        keys.addAll(stored.keySet());
+        for (Key k : keys) {
+            long a = actual.getOrDefault(k, 0L);
+            long s = stored.getOrDefault(k, 0L);
+            if (a != s) mismatches.add(new Mismatch(k.day(), k.status(), s, a));
+        }
+        mismatches.sort((x, y) -> x.day().equals(y.day()) ? x.status().compareTo(y.status()) : x.day().compareTo(y.day()));
+
+        boolean repaired = false;
+        if (repair && !mismatches.isEmpty()) {
+            appointmentStatRepository.deleteByLawyerId(lawyerId);
+            write(lawyerId, actual);
+            repaired = true;
+            log.warn("Repaired {} appointment statistics counters of lawyer {}", mismatches.size(), lawyerId);
+        }
+        return new Verification(mismatches.isEmpty(), appointments, mismatches, repaired);
+    }
+
+    private static void accumulate(Map<Key, Long> counts, AppointmentStatusCountRow r) {
+        counts.merge(new Key(day(r.getAppointmentDate()), r.getStatus()), r.getCount(), Long::sum);
+        counts.merge(new Key(AppointmentStat.TOTAL, r.getStatus()), r.getCount(), Long::sum);
+    }
+
+    // Upserts rather than saveAll: entities with assigned ids would each be merged with a SELECT first
+    private int write(Long lawyerId, Map<Key, Long> counts) {
+        counts.forEach((k, n) -> appointmentStatRepository.add(lawyerId, k.day(), k.status(), n));
+        return counts.size();
+    }
+
+    private static String day(String appointmentDate) {
+        return AppointmentTimes.parse(appointmentDate).map(t -> t.toLocalDate().toString()).orElse(AppointmentStat.UNSCHEDULED);
+    }
+
+    private record Key(String day, String status) {
+    }
+
+    public record StatusChange(String appointmentDate, String previousStatus, String status) {
+    }
+
+    public record Mismatch(String day, String status, long stored, long actual) {
+    }
+
+    public record Verification(boolean consistent, long appointments, List<Mismatch> mismatches, boolean repaired) {
+    }
+}
@@ -0,0 +1,250 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.event.AppointmentChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Pushes AppointmentChangedEvents to the client and the lawyer involved over Server-Sent Events.
+// Emitters are async servlet responses, so an idle subscriber holds a socket but no thread. Each
+// subscriber has its own queue, drained by a virtual thread while it is non-empty, so a client that
+// reads slowly only holds up its own events; one that falls MAX_BACKLOG events behind is completed and
+// reconnects as after a timeout. The last REPLAY_SIZE events stay in a ring so a
+// reconnecting client resumes from its Last-Event-ID; when that is too old or from before a restart it
+// gets a "resync" event and reloads its list instead.
+@Service
+@RequiredArgsConstructor
+public class AppointmentStreamService {
+
+    private static final int REPLAY_SIZE = 1024;
+    static final int MAX_BACKLOG = 256;
+    private static final long HEARTBEAT_SECONDS = 25;
+
+    // Event ids are "<bootId>-<seq>" so ids from a previous process are recognised as unknown
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    // A write blocked on a slow socket parks a virtual thread instead of stalling everyone else's stream
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "appointment-stream");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Guarded by this, which also orders registrations against publishes
+    private final Entry[] replay = new Entry[REPLAY_SIZE];
+    private long seq;
+
+    // Streams are closed after this long; EventSource and the api.js client reconnect with Last-Event-ID
+    @Value("${appointments.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @PostConstruct
+    void startHeartbeat() {
+        // Comment lines keep proxies from closing idle streams and surface dead sockets
+        heartbeats.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(Subscriber::close));
+        writers.shutdown();
+    }
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        SseEmitter emitter = newEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(subscriber));
+
+        synchronized (this) {
+            List<Entry> backlog = missed(userId, lastEventId);
+            if (backlog == null) {
+                subscriber.enqueue(SseEmitter.event().id(eventId(seq)).name("resync").data("{}", MediaType.APPLICATION_JSON));
+            } else {
+                // Opens the stream right away so clients and proxies see the headers
+                subscriber.enqueue(SseEmitter.event().comment("connected"));
+                for (Entry e : backlog) subscriber.enqueue(e.toSse(eventId(e.seq())));
+            }
+            subscribers.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        return emitter;
+    }
+
+    SseEmitter newEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    // The user's events after lastEventId, or null when they cannot be replayed: the id is unknown or
+    // older than the ring, or more events were missed than a subscriber may have queued
+    private List<Entry> missed(Long userId, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return List.of();
+        long after = parseSeq(lastEventId);
+        if (after < 0 || after > seq || after < seq - REPLAY_SIZE) return null;
+        List<Entry> backlog = new ArrayList<>();
+        for (long s = after + 1; s <= seq; s++) {
+            Entry e = replay[(int) (s % REPLAY_SIZE)];
+            if (e.isFor(userId)) backlog.add(e);
+        }
+        return backlog.size() < MAX_BACKLOG ? backlog : null;
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        synchronized (this) {
+            long id = ++seq;
+            Entry entry = new Entry(id, event.getLawyerUserId(), event.getClientId(), new AppointmentStreamEvent(
+                    event.getAppointmentId(), event.getLawyerProfileId(), event.getAppointmentDate(),
+                    event.getPreviousStatus(), event.getStatus()));
+            replay[(int) (id % REPLAY_SIZE)] = entry;
+            deliverTo(entry.lawyerUserId(), entry);
+            if (entry.clientId() != null && !entry.clientId().equals(entry.lawyerUserId())) deliverTo(entry.clientId(), entry);
+        }
+    }
+
+    private void deliverTo(Long userId, Entry entry) {
+        if (userId == null) return;
+        Set<Subscriber> set = subscribers.get(userId);
+        if (set == null) return;
+        for (Subscriber subscriber : set) subscriber.enqueue(entry.toSse(eventId(entry.seq())));
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(Subscriber::ping));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private String eventId(long s) {
+        return bootId + "-" + s;
+    }
+
+    // Sequence number of one of our event ids, or -1 when it was issued by another process
+    private long parseSeq(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(bootId)) return -1;
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // One stream. Events are queued under the lock and written by at most one writer at a time, so they
+    // go out in order; past MAX_BACKLOG the subscriber is dropped rather than buffered without bound.
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+        private boolean writing;
+        private boolean closed;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        synchronized void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed) return;
+            if (pending.size() >= MAX_BACKLOG) {
+                // Too far behind: the client reconnects and replays from its Last-Event-ID
+                close();
+                return;
+            }
+            pending.add(event);
+            startWriter();
+        }
+
+        // Heartbeats only go to idle streams; a queued event already shows the connection is alive
+        synchronized void ping() {
+            if (!closed && pending.isEmpty() && !writing) enqueue(SseEmitter.event().comment("ping"));
+        }
+
+        synchronized void close() {
+            if (closed) return;
+            closed = true;
+            pending.clear();
+            remove(this);
+            // complete() waits for a write in progress, so it runs on the writer
+            startWriter();
+        }
+
+        private void startWriter() {
+            if (writing) return;
+            writing = true;
+            try {
+                writers.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                writing = false;
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                boolean complete = false;
+                synchronized (this) {
+                    event = pending.poll();
+                    if (event == null) {
+                        writing = false;
+                        complete = closed;
+                    }
+                }
+                if (event == null) {
+                    if (complete) emitter.complete();
+                    return;
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away or the emitter already completed
+                    synchronized (this) {
+                        closed = true;
+                        pending.clear();
+                    }
+                    remove(this);
+                }
+            }
+        }
+    }
+
+    private record Entry(long seq, Long lawyerUserId, Long clientId, AppointmentStreamEvent payload) {
+        boolean isFor(Long userId) {
+            return userId.equals(lawyerUserId) || userId.equals(clientId);
+        }
+
+        SseEmitter.SseEventBuilder toSse(String id) {
+            return SseEmitter.event().id(id).name("appointment").data(payload, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    public record AppointmentStreamEvent(Long appointmentId, Long lawyerProfileId, String appointmentDate,
+                                         String previousStatus, String status) {
+    }
+}
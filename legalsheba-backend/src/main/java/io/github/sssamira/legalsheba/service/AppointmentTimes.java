@@ -0,0 +1,36 @@
+package io.github.sssamira.legalsheba.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// appointments.appointment_date is stored as text; this is the single place that turns it into a time
+public final class AppointmentTimes {
+
+    // Statuses that still occupy the lawyer's time
+    public static final Set<String> ACTIVE_STATUSES = Set.of("PENDING", "CONFIRMED", "IN_PROGRESS");
+
+    private static final List<DateTimeFormatter> FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME, // 2025-09-15T10:55[:00]
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]")
+    );
+
+    private AppointmentTimes() {
+    }
+
+    public static Optional<LocalDateTime> parse(String raw) {
+        if (raw == null || raw.isBlank()) return Optional.empty();
+        String s = raw.trim();
+        for (DateTimeFormatter f : FORMATS) {
+            try {
+                return Optional.of(LocalDateTime.parse(s, f).withSecond(0).withNano(0));
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        return Optional.empty();
+    }
+}
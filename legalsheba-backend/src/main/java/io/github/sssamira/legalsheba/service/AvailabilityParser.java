@@ -0,0 +1,155 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.repository.AvailabilitySlotRow;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Best-effort parser for the free-text lawyer_profiles.availability_details / v_hour values, e.g.
+// "Sunday, Thursday, Monday, 09:00–21:05", "Sun-Thu 10am-5pm" or "Weekdays 3-5pm; Sat 10:00-12:00".
+// Each ';' or newline separated segment contributes its days x its time ranges. A segment without
+// days reuses the previous segment's days; text with times but no days at all means every day.
+public final class AvailabilityParser {
+
+    private static final Pattern TIME_RANGE = Pattern.compile(
+            "\\b(\\d{1,2})(?:[:.](\\d{2}))?\\s*(?:([ap])\\.?m\\b\\.?)?\\s*(?:-|–|—|to|till|until)\\s*"
+                    + "(\\d{1,2})(?:[:.](\\d{2}))?\\s*(?:([ap])\\.?m\\b\\.?)?",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern DAY_TOKEN = Pattern.compile(
+            "\\b(sun(?:day)?|mon(?:day)?|tue(?:s(?:day)?)?|wed(?:nesday)?|thu(?:r(?:s(?:day)?)?)?|fri(?:day)?|sat(?:urday)?"
+                    + "|daily|everyday|every\\s+day|all\\s+days|weekdays?|weekends?)\\b");
+
+    private static final Pattern RANGE_JOINER = Pattern.compile("^\\s*(?:-|–|—|to|till|until)\\s*$");
+
+    // ISO day numbers; Bangladesh weekdays are Sunday to Thursday
+    private static final Map<String, Integer> DAYS = Map.of(
+            "mon", 1, "tue", 2, "wed", 3, "thu", 4, "fri", 5, "sat", 6, "sun", 7);
+    private static final List<Integer> ALL_DAYS = List.of(1, 2, 3, 4, 5, 6, 7);
+    private static final List<Integer> WEEKDAYS = List.of(7, 1, 2, 3, 4);
+    private static final List<Integer> WEEKEND = List.of(5, 6);
+
+    private AvailabilityParser() {
+    }
+
+    public static List<AvailabilitySlotRow> parse(Long lawyerId, String availabilityDetails, String vHour) {
+        String text = ((availabilityDetails == null ? "" : availabilityDetails) + " " + (vHour == null ? "" : vHour))
+                .toLowerCase(Locale.ROOT);
+        List<AvailabilitySlotRow> out = new ArrayList<>();
+        Set<Integer> lastDays = Set.of();
+        boolean anyDays = false;
+        List<int[]> pendingNoDays = new ArrayList<>();
+
+        for (String segment : text.split("[;\\n]")) {
+            List<int[]> ranges = new ArrayList<>();
+            Matcher m = TIME_RANGE.matcher(segment);
+            StringBuilder rest = new StringBuilder();
+            while (m.find()) {
+                int[] r = toMinutes(m);
+                if (r != null) ranges.add(r);
+                m.appendReplacement(rest, " ");
+            }
+            m.appendTail(rest);
+
+            Set<Integer> days = parseDays(rest.toString());
+            if (days.isEmpty()) {
+                days = lastDays;
+            } else {
+                anyDays = true;
+                lastDays = days;
+            }
+            if (days.isEmpty()) {
+                pendingNoDays.addAll(ranges);
+                continue;
+            }
+            for (int day : days) {
+                for (int[] r : ranges) addWindow(out, lawyerId, day, r[0], r[1]);
+            }
+        }
+        // Times without any day mentioned anywhere: assume every day
+        if (!anyDays) {
+            for (int day : ALL_DAYS) {
+                for (int[] r : pendingNoDays) addWindow(out, lawyerId, day, r[0], r[1]);
+            }
+        }
+        return out;
+    }
+
+    private static Set<Integer> parseDays(String text) {
+        Set<Integer> days = new LinkedHashSet<>();
+        Matcher m = DAY_TOKEN.matcher(text);
+        Integer prevDay = null;
+        int prevEnd = -1;
+        while (m.find()) {
+            String token = m.group(1).replaceAll("\\s+", " ");
+            if (token.equals("daily") || token.equals("everyday") || token.equals("every day") || token.equals("all days")) {
+                days.addAll(ALL_DAYS);
+                prevDay = null;
+                continue;
+            }
+            if (token.startsWith("weekday")) {
+                days.addAll(WEEKDAYS);
+                prevDay = null;
+                continue;
+            }
+            if (token.startsWith("weekend")) {
+                days.addAll(WEEKEND);
+                prevDay = null;
+                continue;
+            }
+            int day = DAYS.get(token.substring(0, 3));
+            // "sun-thu" / "sunday to thursday": fill the days in between, wrapping over the week end
+            if (prevDay != null && RANGE_JOINER.matcher(text.substring(prevEnd, m.start())).matches()) {
+                for (int d = prevDay; d != day; d = d % 7 + 1) days.add(d);
+            }
+            days.add(day);
+            prevDay = day;
+            prevEnd = m.end();
+        }
+        return days;
+    }
+
+    private static int[] toMinutes(Matcher m) {
+        int sh = Integer.parseInt(m.group(1));
+        int sm = m.group(2) != null ? Integer.parseInt(m.group(2)) : 0;
+        String sp = m.group(3);
+        int eh = Integer.parseInt(m.group(4));
+        int em = m.group(5) != null ? Integer.parseInt(m.group(5)) : 0;
+        String ep = m.group(6);
+        if (sh > 24 || eh > 24 || sm > 59 || em > 59) return null;
+
+        // "3-5pm": the start inherits the end's meridiem when that keeps start before end
+        if (sp == null && ep != null && sh <= 12) {
+            int candidate = to24(sh, ep);
+            sp = candidate * 60 + sm < to24(eh, ep) * 60 + em ? ep : "a";
+        }
+        int start = (sp != null ? to24(sh, sp) : sh) * 60 + sm;
+        int end = (ep != null ? to24(eh, ep) : eh) * 60 + em;
+        // "10-5" without meridiem reads as 10:00-17:00; "22-2" stays overnight
+        if (sp == null && ep == null && end <= start && sh < 12 && eh < 12) end += 12 * 60;
+        if (start > 1440 || end > 1440) return null;
+        return new int[]{start, end};
+    }
+
+    private static int to24(int hour12, String meridiem) {
+        int h = hour12 % 12;
+        return meridiem.startsWith("p") ? h + 12 : h;
+    }
+
+    // Windows crossing midnight are split into the evening part and the next day's morning part
+    private static void addWindow(List<AvailabilitySlotRow> out, Long lawyerId, int day, int start, int end) {
+        if (start == end) return;
+        if (end > start) {
+            out.add(new AvailabilitySlotRow(lawyerId, day, start, end));
+        } else {
+            out.add(new AvailabilitySlotRow(lawyerId, day, start, 1440));
+            if (end > 0) out.add(new AvailabilitySlotRow(lawyerId, day % 7 + 1, 0, end));
+        }
+    }
+}
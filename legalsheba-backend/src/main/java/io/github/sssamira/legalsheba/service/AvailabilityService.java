@@ -0,0 +1,131 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.event.AppointmentChangedEvent;
+import io.github.sssamira.legalsheba.event.LawyerProfileSavedEvent;
+import io.github.sssamira.legalsheba.model.AvailabilitySlot;
+import io.github.sssamira.legalsheba.model.LawyerProfile;
+import io.github.sssamira.legalsheba.repository.AppointmentBookingRow;
+import io.github.sssamira.legalsheba.repository.AppointmentRepository;
+import io.github.sssamira.legalsheba.repository.AvailabilitySlotRepository;
+import io.github.sssamira.legalsheba.repository.AvailabilitySlotRow;
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
+import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
+import io.github.sssamira.legalsheba.search.AvailabilityIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Owns the structured weekly availability: backfills it from the free-text profile fields, persists
+// edits, and keeps AvailabilityIndex in sync with slots and active appointments.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvailabilityService {
+
+    private final AvailabilitySlotRepository slotRepository;
+    private final LawyerProfileRepository lawyerProfileRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final AvailabilityIndex availabilityIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillAndLoad() {
+        long start = System.nanoTime();
+        int backfilled = 0;
+        for (LawyerDirectoryRow p : slotRepository.findProfilesWithoutSlots()) {
+            List<AvailabilitySlotRow> parsed = AvailabilityParser.parse(p.getId(), p.getAvailabilityDetails(), p.getVHour());
+            if (parsed.isEmpty()) continue;
+            slotRepository.saveAll(toEntities(p.getId(), parsed));
+            backfilled++;
+        }
+        List<AvailabilityIndex.Booking> active = new ArrayList<>();
+        for (AppointmentBookingRow a : appointmentRepository.findBookingsByStatusIn(AppointmentTimes.ACTIVE_STATUSES)) {
+            AppointmentTimes.parse(a.getAppointmentDate())
+                    .ifPresent(t -> active.add(new AvailabilityIndex.Booking(a.getId(), a.getLawyerId(), t)));
+        }
+        availabilityIndex.load(slotRepository.findAllRows(), active);
+        log.info("Availability index loaded ({} profiles backfilled from free text, {} active bookings) in {} ms",
+                backfilled, active.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public List<AvailabilitySlotRow> getSlots(Long lawyerId) {
+        return slotRepository.findRowsByLawyerId(lawyerId);
+    }
+
+    @Transactional
+    public List<AvailabilitySlotRow> replaceSlots(Long lawyerId, List<AvailabilitySlotRow> slots) {
+        for (AvailabilitySlotRow s : slots) {
+            if (s.getDayOfWeek() == null || s.getDayOfWeek() < 1 || s.getDayOfWeek() > 7
+                    || s.getStartMinute() == null || s.getEndMinute() == null
+                    || s.getStartMinute() < 0 || s.getEndMinute() > 1440 || s.getStartMinute() >= s.getEndMinute()) {
+                throw new IllegalArgumentException("Invalid availability window");
+            }
+        }
+        slotRepository.deleteByLawyerId(lawyerId);
+        slotRepository.saveAll(toEntities(lawyerId, slots));
+        replaceWeeklyAfterCommit(lawyerId, slots);
+        return slotRepository.findRowsByLawyerId(lawyerId);
+    }
+
+    // New lawyers only have the free-text fields; derive structured slots from them
+    // Runs after the registration committed, so it writes in a transaction of its own
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onLawyerSaved(LawyerProfileSavedEvent event) {
+        LawyerDirectoryRow p = event.getProfile();
+        List<AvailabilitySlotRow> parsed = AvailabilityParser.parse(p.getId(), p.getAvailabilityDetails(), p.getVHour());
+        if (parsed.isEmpty() || !slotRepository.findRowsByLawyerId(p.getId()).isEmpty()) return;
+        slotRepository.saveAll(toEntities(p.getId(), parsed));
+        replaceWeeklyAfterCommit(p.getId(), parsed);
+    }
+
+    // The index only ever shows committed slots: a rolled-back edit must not leave its windows searchable
+    private void replaceWeeklyAfterCommit(Long lawyerId, List<AvailabilitySlotRow> slots) {
+        List<AvailabilitySlotRow> weekly = List.copyOf(slots);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    availabilityIndex.replaceWeekly(lawyerId, weekly);
+                }
+            });
+        } else {
+            availabilityIndex.replaceWeekly(lawyerId, weekly);
+        }
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        boolean wasActive = event.getPreviousStatus() != null && AppointmentTimes.ACTIVE_STATUSES.contains(event.getPreviousStatus());
+        boolean isActive = AppointmentTimes.ACTIVE_STATUSES.contains(event.getStatus());
+        if (isActive && !wasActive) {
+            AppointmentTimes.parse(event.getAppointmentDate()).ifPresent(t -> availabilityIndex.addBooking(
+                    new AvailabilityIndex.Booking(event.getAppointmentId(), event.getLawyerProfileId(), t)));
+        } else if (wasActive && !isActive) {
+            availabilityIndex.removeBooking(event.getAppointmentId());
+        }
+    }
+
+    private List<AvailabilitySlot> toEntities(Long lawyerId, List<AvailabilitySlotRow> rows) {
+        List<AvailabilitySlot> out = new ArrayList<>(rows.size());
+        LawyerProfile lawyer = lawyerProfileRepository.getReferenceById(lawyerId);
+        for (AvailabilitySlotRow r : rows) {
+            out.add(AvailabilitySlot.builder()
+                    .lawyer(lawyer)
+                    .dayOfWeek(r.getDayOfWeek())
+                    .startMinute(r.getStartMinute())
+                    .endMinute(r.getEndMinute())
+                    .build());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,316 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.model.Appointment;
+import io.github.sssamira.legalsheba.model.BookingRequest;
+import io.github.sssamira.legalsheba.model.LawyerProfile;
+import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.repository.BookingRequestRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Queued booking intake for POST /api/appointments with an Idempotency-Key. Requests wait on a bounded
+// queue drained by a single writer thread, which books up to batch-size of them per transaction: SQLite
+// sees one writer and one commit per batch instead of a lock fight per request. The booking_requests row
+// of a key commits together with its appointment, and a key still queued maps to the same pending
+// future, so a retry either joins the original request or replays its stored result, never books twice.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingIntakeService {
+
+    private static final String KEY_UNIQUE_VIOLATION = "UNIQUE constraint failed: booking_requests.client_id, booking_requests.idempotency_key";
+
+    private final AppointmentService appointmentService;
+    private final BookingRequestRepository bookingRequestRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserIdentityCache userIdentityCache;
+
+    @Value("${appointments.intake.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${appointments.intake.batch-size:64}")
+    private int batchSize;
+
+    private BlockingQueue<Pending> queue;
+    // Queued or being written, by clientId:key; removed only once the result is committed
+    private final Map<String, Pending> inFlight = new ConcurrentHashMap<>();
+    private Thread writer;
+    private volatile boolean running = true;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        writer = new Thread(this::drain, "booking-intake");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        // None of these were written; retries with the same keys are queued again after a restart
+        for (Pending p : inFlight.values()) p.future().completeExceptionally(new IllegalStateException("Shutting down"));
+    }
+
+    // Id-only client and lawyer for building a queued Appointment. Plain JDBC (here and in UserIdentityCache)
+    // on purpose: the request's open-in-view EntityManager would hold a pooled connection until the async
+    // response completes, and the intake writer competes for the same pool.
+    public Optional<UserEntity> findClient(String email) {
+        return userIdentityCache.find(email).map(u -> UserEntity.builder().id(u.userId()).build());
+    }
+
+    public Optional<LawyerProfile> findLawyer(Long lawyerProfileId) {
+        return jdbcTemplate.queryForList("select user_id from lawyer_profiles where id = ?", Long.class, lawyerProfileId).stream()
+                .findFirst()
+                .map(userId -> LawyerProfile.builder().id(lawyerProfileId).user(UserEntity.builder().id(userId).build()).build());
+    }
+
+    // Queues the booking unless the key is already known. fresh is false when the result belongs to an
+    // earlier submission of the same key, so side effects of a booking are only attached once.
+    public Submission submit(Appointment appointment, String idempotencyKey) {
+        Long clientId = appointment.getClient().getId();
+        String hash = requestHash(appointment);
+        Pending pending = new Pending(clientId, idempotencyKey, hash, appointment, new CompletableFuture<>());
+        Pending existing = inFlight.putIfAbsent(pending.inFlightKey(), pending);
+        if (existing != null) {
+            if (!existing.requestHash().equals(hash)) throw new KeyReusedException();
+            return new Submission(existing.future(), false);
+        }
+        // Claimed the key in memory; a completed request may still have left its record behind. Retries may
+        // join the claim meanwhile, so unless it gets queued its future is completed here either way.
+        boolean queued = false;
+        try {
+            Optional<BookingRequest> stored = findStored(clientId, idempotencyKey);
+            if (stored.isPresent()) {
+                if (!stored.get().getRequestHash().equals(hash)) throw new KeyReusedException();
+                pending.future().complete(IntakeResult.of(stored.get()));
+                return new Submission(pending.future(), false);
+            }
+            if (!queue.offer(pending)) throw new QueueFullException();
+            queued = true;
+        } catch (RuntimeException e) {
+            pending.future().completeExceptionally(e);
+            throw e;
+        } finally {
+            if (!queued) inFlight.remove(pending.inFlightKey(), pending);
+        }
+        return new Submission(pending.future(), true);
+    }
+
+    // Result of a key: empty when unknown, an incomplete future while queued
+    public Optional<CompletableFuture<IntakeResult>> find(Long clientId, String idempotencyKey) {
+        Pending pending = inFlight.get(clientId + ":" + idempotencyKey);
+        if (pending != null) return Optional.of(pending.future());
+        return findStored(clientId, idempotencyKey).map(r -> CompletableFuture.completedFuture(IntakeResult.of(r)));
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                log.error("Booking intake batch of {} failed", batch.size(), e);
+                for (Pending p : batch) fail(p, e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        try {
+            complete(batch, appointmentService.bookAll(appointments(batch), outcomes -> saveRecords(batch, outcomes)));
+        } catch (AppointmentService.SlotConflictException | DataAccessException e) {
+            // Another instance took a bucket or one of these keys since the pre-check, or one request is
+            // bad; settle each request on its own so only the affected ones end up as conflicts or
+            // failures. Ids assigned in the rolled back transaction are cleared, or save() would try to
+            // merge rows that do not exist.
+            for (Pending p : batch) {
+                p.appointment().setId(null);
+                writeOne(p);
+            }
+        }
+    }
+
+    // Only a lost bucket becomes a stored CONFLICT; a key recorded meanwhile by another instance replays
+    // that record, and any other failure fails the request without a record, so a retry can still book
+    private void writeOne(Pending p) {
+        try {
+            complete(List.of(p), appointmentService.bookAll(List.of(p.appointment()), outcomes -> saveRecords(List.of(p), outcomes)));
+        } catch (AppointmentService.SlotConflictException e) {
+            p.appointment().setId(null);
+            Optional<BookingRequest> stored = findStored(p.clientId(), p.idempotencyKey());
+            if (stored.isPresent()) {
+                settle(p, IntakeResult.of(stored.get()));
+                return;
+            }
+            String message = e.getMessage();
+            try {
+                BookingRequest record = transactionTemplate.execute(tx -> bookingRequestRepository.save(
+                        record(p, AppointmentService.BookingOutcome.CONFLICT, null, message)));
+                settle(p, IntakeResult.of(record));
+            } catch (DataAccessException recordFailed) {
+                settleFromStore(p, recordFailed);
+            }
+        } catch (DataAccessException e) {
+            p.appointment().setId(null);
+            settleFromStore(p, e);
+        } catch (RuntimeException e) {
+            log.error("Booking intake request {} failed", p.inFlightKey(), e);
+            fail(p, e);
+        }
+    }
+
+    // After a failed write: the stored record if the key is taken, otherwise the failure
+    private void settleFromStore(Pending p, DataAccessException e) {
+        if (isKeyTaken(e)) {
+            Optional<BookingRequest> stored = findStored(p.clientId(), p.idempotencyKey());
+            if (stored.isPresent()) {
+                settle(p, IntakeResult.of(stored.get()));
+                return;
+            }
+        }
+        log.error("Booking intake request {} failed", p.inFlightKey(), e);
+        fail(p, e);
+    }
+
+    // booking_requests' UNIQUE(client_id, idempotency_key); see AppointmentService.isSlotConflict
+    static boolean isKeyTaken(DataAccessException e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message != null && message.contains(KEY_UNIQUE_VIOLATION);
+    }
+
+    private void saveRecords(List<Pending> batch, List<AppointmentService.BookingOutcome> outcomes) {
+        List<BookingRequest> records = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            AppointmentService.BookingOutcome o = outcomes.get(i);
+            records.add(record(batch.get(i), o.status(), o.booked() ? o.appointment().getId() : null, o.message()));
+        }
+        bookingRequestRepository.saveAll(records);
+    }
+
+    private void complete(List<Pending> batch, List<AppointmentService.BookingOutcome> outcomes) {
+        for (int i = 0; i < batch.size(); i++) {
+            AppointmentService.BookingOutcome o = outcomes.get(i);
+            settle(batch.get(i), new IntakeResult(o.status(), o.booked() ? o.appointment().getId() : null,
+                    o.booked() ? o.appointment() : null, o.message()));
+        }
+    }
+
+    // Completes before leaving inFlight, so a retry racing the removal still sees the result
+    private void settle(Pending p, IntakeResult result) {
+        p.future().complete(result);
+        inFlight.remove(p.inFlightKey(), p);
+    }
+
+    private void fail(Pending p, Throwable e) {
+        p.future().completeExceptionally(e);
+        inFlight.remove(p.inFlightKey(), p);
+    }
+
+    // JDBC for the same reason as findClient: submit() runs on request threads
+    private Optional<BookingRequest> findStored(Long clientId, String idempotencyKey) {
+        return jdbcTemplate.query("""
+                select id, request_hash, status, appointment_id, message, created_at
+                from booking_requests where client_id = ? and idempotency_key = ?
+                """, (rs, n) -> BookingRequest.builder()
+                .id(rs.getLong("id"))
+                .clientId(clientId)
+                .idempotencyKey(idempotencyKey)
+                .requestHash(rs.getString("request_hash"))
+                .status(rs.getString("status"))
+                .appointmentId(rs.getLong("appointment_id") == 0 ? null : rs.getLong("appointment_id"))
+                .message(rs.getString("message"))
+                .createdAt(rs.getString("created_at"))
+                .build(), clientId, idempotencyKey).stream().findFirst();
+    }
+
+    private static List<Appointment> appointments(List<Pending> batch) {
+        List<Appointment> out = new ArrayList<>(batch.size());
+        for (Pending p : batch) out.add(p.appointment());
+        return out;
+    }
+
+    private static BookingRequest record(Pending p, String status, Long appointmentId, String message) {
+        return BookingRequest.builder()
+                .clientId(p.clientId())
+                .idempotencyKey(p.idempotencyKey())
+                .requestHash(p.requestHash())
+                .status(status)
+                .appointmentId(appointmentId)
+                .message(message)
+                .createdAt(Instant.now().toString())
+                .build();
+    }
+
+    private static String requestHash(Appointment a) {
+        String fields = a.getLawyer().getId() + "\n" + a.getAppointmentDate() + "\n"
+                + a.getProblemDescription() + "\n" + a.getNotes();
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(fields.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Pending(Long clientId, String idempotencyKey, String requestHash, Appointment appointment,
+                           CompletableFuture<IntakeResult> future) {
+        String inFlightKey() {
+            return clientId + ":" + idempotencyKey;
+        }
+    }
+
+    public record Submission(CompletableFuture<IntakeResult> result, boolean fresh) {
+    }
+
+    // appointment is only set on the submission that booked it
+    public record IntakeResult(String status, Long appointmentId, Appointment appointment, String message) {
+        static IntakeResult of(BookingRequest r) {
+            return new IntakeResult(r.getStatus(), r.getAppointmentId(), null, r.getMessage());
+        }
+    }
+
+    public static class KeyReusedException extends RuntimeException {
+        public KeyReusedException() {
+            super("Idempotency-Key was already used for a different booking request");
+        }
+    }
+
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException() {
+            super("Too many booking requests, retry shortly with the same Idempotency-Key");
+        }
+    }
+}
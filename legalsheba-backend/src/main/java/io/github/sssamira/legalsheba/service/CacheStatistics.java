@@ -0,0 +1,23 @@
+package io.github.sssamira.legalsheba.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+// Counters of one Caffeine cache, for sizing it. weight is in the unit of the cache's weigher (bytes for
+// the InfoHub caches) and null for caches bounded by entry count.
+public record CacheStatistics(String name, long entries, Long weight, Long maxWeight,
+                              long hits, long misses, long evictions, double hitRate) {
+
+    public static CacheStatistics of(String name, Cache<?, ?> cache) {
+        CacheStats s = cache.stats();
+        Long weight = null;
+        Long maxWeight = null;
+        var eviction = cache.policy().eviction();
+        if (eviction.isPresent() && eviction.get().isWeighted()) {
+            weight = eviction.get().weightedSize().orElse(0L);
+            maxWeight = eviction.get().getMaximum();
+        }
+        return new CacheStatistics(name, cache.estimatedSize(), weight, maxWeight,
+                s.hitCount(), s.missCount(), s.evictionCount(), s.hitRate());
+    }
+}
@@ -1,12 +1,12 @@
 package io.github.sssamira.legalsheba.service;
 
-import io.github.sssamira.legalsheba.model.UserEntity;
 import io.github.sssamira.legalsheba.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -16,15 +16,24 @@ import java.util.List;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
+    private final UserIdentityCache userIdentityCache;
     private final UserRepository userRepository;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        UserEntity user = userRepository.findByEmail(email)
+        UserIdentityCache.Identity user = userIdentityCache.find(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
-        Collection<? extends GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
-        return new User(user.getEmail(), user.getPassword(), authorities);
+        Collection<? extends GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.role()));
+        return new User(user.email(), user.passwordHash(), authorities);
+    }
+
+    // Called with a fresh hash after a login whose stored hash is below the current work factor
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        userIdentityCache.invalidate(user.getUsername());
+        return User.withUserDetails(user).password(newPassword).build();
     }
 }
@@ -0,0 +1,112 @@
+package io.github.sssamira.legalsheba.service;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+// Resolves free-text locations ("House 12, Road 5, Dhanmondi, Dhaka") to coordinates using the bundled
+// gazetteer/bd_places.csv, so no geocoding service is needed. The most specific place mentioned wins
+// (an area over its district); single-typo spellings of longer names are tolerated.
+@Component
+public class Gazetteer {
+
+    private static final String RESOURCE = "gazetteer/bd_places.csv";
+    private static final int MAX_NGRAM = 3;
+
+    private final List<Place> places = new ArrayList<>();
+    private final Map<String, Place> byKey = new LinkedHashMap<>();
+
+    public Gazetteer() {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(RESOURCE).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            boolean header = true;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                String[] f = line.split(",", -1);
+                Place p = new Place(f[0], "AREA".equals(f[2]) ? 2 : 1, f[3], f[4],
+                        Double.parseDouble(f[5]), Double.parseDouble(f[6]));
+                places.add(p);
+                byKey.putIfAbsent(normalize(f[0]), p);
+                for (String alias : f[1].split("\\|")) {
+                    if (!alias.isBlank()) byKey.putIfAbsent(normalize(alias), p);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load " + RESOURCE, e);
+        }
+    }
+
+    public Optional<Place> resolve(String text) {
+        String norm = normalize(text);
+        if (norm.isEmpty()) return Optional.empty();
+        String[] tokens = norm.split(" ");
+
+        Place best = null;
+        for (int n = Math.min(MAX_NGRAM, tokens.length); n >= 1; n--) {
+            for (int i = 0; i + n <= tokens.length; i++) {
+                Place p = lookup(String.join(" ", Arrays.copyOfRange(tokens, i, i + n)));
+                if (p != null && (best == null || p.specificity() > best.specificity())) best = p;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    // Exact key first, then one edit away for keys of 6+ characters ("Dhanmondy", "Narayangaj")
+    private Place lookup(String key) {
+        Place exact = byKey.get(key);
+        if (exact != null || key.length() < 6) return exact;
+        for (Map.Entry<String, Place> e : byKey.entrySet()) {
+            String k = e.getKey();
+            if (k.length() >= 6 && Math.abs(k.length() - key.length()) <= 1 && withinOneEdit(k, key)) return e.getValue();
+        }
+        return null;
+    }
+
+    public Optional<Place> byName(String name) {
+        return Optional.ofNullable(byKey.get(normalize(name)));
+    }
+
+    public int size() {
+        return places.size();
+    }
+
+    private static boolean withinOneEdit(String a, String b) {
+        if (a.length() > b.length()) return withinOneEdit(b, a);
+        int i = 0;
+        while (i < a.length() && a.charAt(i) == b.charAt(i)) i++;
+        if (i == a.length()) return b.length() - a.length() <= 1;
+        if (a.length() == b.length()) return a.substring(i + 1).equals(b.substring(i + 1));
+        return a.substring(i).equals(b.substring(i + 1));
+    }
+
+    private static String normalize(String raw) {
+        if (raw == null) return "";
+        return raw.toLowerCase(Locale.ROOT)
+                .replace("'", "")
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .replaceAll("\\b(district|zila|zilla|sadar|city|division|upazila|thana)\\b", " ")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    // specificity: 1 = district, 2 = area inside a district
+    public record Place(String name, int specificity, String district, String division, double latitude, double longitude) {
+    }
+}
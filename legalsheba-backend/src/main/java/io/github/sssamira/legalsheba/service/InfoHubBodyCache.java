@@ -0,0 +1,116 @@
+package io.github.sssamira.legalsheba.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.sssamira.legalsheba.event.InfoHubChangedEvent;
+import io.github.sssamira.legalsheba.model.InfoHub;
+import io.github.sssamira.legalsheba.repository.InfoHubRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Serialized InfoHub articles for GET /api/infohub/{id}: the JSON once as bytes and once gzip-compressed at
+// the highest level, which is paid once per write instead of on every read. Each entry carries the
+// ResourceVersions ETag it was built for; writes rebuild it from the saved article, and an entry whose
+// stamp has moved on (a racing read stored an older copy) is rebuilt on the next read. Bounded by the
+// bytes it holds, with Caffeine's frequency-aware eviction keeping the popular articles.
+@Component
+public class InfoHubBodyCache {
+
+    // Below this gzip saves too little to be worth a Content-Encoding
+    private static final int MIN_COMPRESS_BYTES = 512;
+
+    private final InfoHubRepository infoHubRepository;
+    private final ResourceVersions resourceVersions;
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, Body> bodies;
+
+    public InfoHubBodyCache(InfoHubRepository infoHubRepository, ResourceVersions resourceVersions, ObjectMapper objectMapper,
+                            @Value("${infohub.cache.body-max-bytes:33554432}") long maxBytes) {
+        this.infoHubRepository = infoHubRepository;
+        this.resourceVersions = resourceVersions;
+        this.objectMapper = objectMapper;
+        this.bodies = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, Body b) -> b.weight())
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Body> get(Long id, ResourceVersions.Stamp stamp) {
+        Body cached = bodies.getIfPresent(id);
+        if (cached != null && cached.eTag().equals(stamp.eTag())) return Optional.of(cached);
+        Optional<Body> loaded = infoHubRepository.findById(id).map(a -> encode(a, stamp.eTag()));
+        loaded.ifPresentOrElse(b -> bodies.put(id, b), () -> bodies.invalidate(id));
+        return loaded;
+    }
+
+    public CacheStatistics stats() {
+        return CacheStatistics.of("infohub-bodies", bodies);
+    }
+
+    // Runs after ResourceVersions has bumped the article's stamp
+    @EventListener
+    public void onInfoHubChanged(InfoHubChangedEvent event) {
+        if (event.isDeleted()) {
+            bodies.invalidate(event.getId());
+            return;
+        }
+        String eTag = resourceVersions.entity(ResourceVersions.INFOHUB, event.getId()).eTag();
+        bodies.put(event.getId(), encode(event.getArticle(), eTag));
+    }
+
+    // Whether an Accept-Encoding header allows gzip (explicitly or through *) with a non-zero weight
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) continue;
+            boolean refused = false;
+            for (int i = 1; i < params.length; i++) {
+                String p = params[i].trim();
+                if (p.startsWith("q=")) refused = p.substring(2).trim().matches("0(\\.0*)?");
+            }
+            if (!refused) return true;
+        }
+        return false;
+    }
+
+    private Body encode(InfoHub article, String eTag) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(article);
+            byte[] gzip = json.length < MIN_COMPRESS_BYTES ? null : gzip(json);
+            return new Body(json, gzip != null && gzip.length < json.length ? gzip : null, eTag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize InfoHub article " + article.getId(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 3);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // gzip is null when compressing does not pay off
+    public record Body(byte[] json, byte[] gzip, String eTag) {
+        int weight() {
+            return 64 + json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+}
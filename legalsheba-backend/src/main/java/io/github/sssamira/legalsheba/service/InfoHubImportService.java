@@ -0,0 +1,147 @@
+package io.github.sssamira.legalsheba.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.sssamira.legalsheba.model.InfoHub;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Bulk import of InfoHub articles from an NDJSON stream or a JSON array, parsed one record at a time so
+// memory stays flat whatever the upload size. Records are validated against the InfoHub constraints and
+// inserted with JDBC batches, one transaction per batch-size records, so other writers get the SQLite
+// lock between batches. The FTS triggers index the rows in the same transactions.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InfoHubImportService {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${infohub.import.batch-size:500}")
+    private int batchSize;
+
+    // afterBatch runs after each committed batch. Malformed JSON ends the import at that point; records
+    // before it are still imported.
+    public Report importArticles(InputStream in, Runnable afterBatch) throws IOException {
+        long start = System.nanoTime();
+        Report report = new Report();
+        List<Pending> batch = new ArrayList<>(batchSize);
+        int index = 0;
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) token = parser.nextToken();
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                JsonNode node = parser.readValueAsTree();
+                accept(index++, node, batch, report);
+                if (batch.size() >= batchSize) flush(batch, report, afterBatch);
+                token = parser.nextToken();
+            }
+            if (array && token == null) report.error(index, "Unterminated JSON array");
+        } catch (JsonProcessingException e) {
+            report.error(index, "Malformed JSON at line " + e.getLocation().getLineNr()
+                    + ", column " + e.getLocation().getColumnNr() + ": " + e.getOriginalMessage());
+        }
+        flush(batch, report, afterBatch);
+        report.tookMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("InfoHub import: {} records, {} imported, {} failed in {} batches, {} ms",
+                report.received, report.imported, report.failed, report.batches, report.tookMs);
+        return report;
+    }
+
+    private void accept(int index, JsonNode node, List<Pending> batch, Report report) {
+        report.received++;
+        if (!node.isObject()) {
+            report.error(index, "Expected an article object");
+            return;
+        }
+        InfoHub article;
+        try {
+            article = objectMapper.treeToValue(node, InfoHub.class);
+        } catch (JsonProcessingException e) {
+            report.error(index, e.getOriginalMessage());
+            return;
+        }
+        article.setId(null);
+        Set<ConstraintViolation<InfoHub>> violations = validator.validate(article);
+        if (!violations.isEmpty()) {
+            report.error(index, violations.stream()
+                    .sorted(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .collect(Collectors.joining(", ")));
+            return;
+        }
+        batch.add(new Pending(index, article));
+    }
+
+    private void flush(List<Pending> batch, Report report, Runnable afterBatch) {
+        if (batch.isEmpty()) return;
+        try {
+            transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.batchUpdate(
+                    "insert into info_hub (title, content, category, date) values (?, ?, ?, ?)",
+                    batch, batch.size(), (ps, p) -> {
+                        ps.setString(1, p.article().getTitle());
+                        ps.setString(2, p.article().getContent());
+                        ps.setString(3, p.article().getCategory());
+                        ps.setString(4, p.article().getDate());
+                    }));
+            report.imported += batch.size();
+            report.batches++;
+            afterBatch.run();
+        } catch (DataAccessException e) {
+            log.warn("InfoHub import batch of {} records failed", batch.size(), e);
+            String message = "Batch rolled back: " + e.getMostSpecificCause().getMessage();
+            for (Pending p : batch) report.error(p.index(), message);
+        }
+        batch.clear();
+    }
+
+    private record Pending(int index, InfoHub article) {
+    }
+
+    // index is the 0-based position of the record in the upload
+    public record RecordError(int index, String message) {
+    }
+
+    // Only the first MAX_REPORTED_ERRORS errors are listed; failed counts all of them
+    @Getter
+    public static class Report {
+        private long received;
+        private long imported;
+        private long failed;
+        private int batches;
+        private long tookMs;
+        private final List<RecordError> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+
+        void error(int index, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new RecordError(index, message));
+            else errorsTruncated = true;
+        }
+    }
+}
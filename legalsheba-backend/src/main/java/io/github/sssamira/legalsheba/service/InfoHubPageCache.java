@@ -0,0 +1,108 @@
+package io.github.sssamira.legalsheba.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.sssamira.legalsheba.model.InfoHub;
+import io.github.sssamira.legalsheba.repository.InfoHubRepository;
+import io.github.sssamira.legalsheba.repository.InfoHubSummaryRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+// Read-through cache of offset pages of InfoHub summaries, keyed by category (empty for all), page and size,
+// bounded by the approximate bytes of the rows it holds. Writers call the on* methods after committing and
+// before announcing the change, which drop only the pages the write moves: pages are ordered by id
+// descending, so a new or deleted article shifts its own page and every later one, and an edit in place
+// only changes the page that shows it.
+@Component
+public class InfoHubPageCache {
+
+    private final Cache<Key, List<InfoHubSummaryRow>> pages;
+    // Bumped by every invalidation; a load that raced one is not kept
+    private final AtomicLong writes = new AtomicLong();
+
+    public InfoHubPageCache(@Value("${infohub.cache.page-max-bytes:8388608}") long maxBytes) {
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key k, List<InfoHubSummaryRow> rows) -> weight(rows))
+                .recordStats()
+                .build();
+    }
+
+    public List<InfoHubSummaryRow> page(String category, int page, int size, Supplier<List<InfoHubSummaryRow>> loader) {
+        Key key = new Key(normalize(category), page, size);
+        long before = writes.get();
+        List<InfoHubSummaryRow> rows = pages.get(key, k -> List.copyOf(loader.get()));
+        if (writes.get() != before) pages.invalidate(key);
+        return rows;
+    }
+
+    public void onCreated(InfoHub article) {
+        shifted(article.getCategory(), article.getId());
+    }
+
+    public void onUpdated(String previousCategory, InfoHub article) {
+        if (normalize(previousCategory).equals(normalize(article.getCategory()))) {
+            showing(article.getCategory(), article.getId());
+        } else {
+            shifted(previousCategory, article.getId());
+            shifted(article.getCategory(), article.getId());
+        }
+    }
+
+    public void onDeleted(InfoHub article) {
+        shifted(article.getCategory(), article.getId());
+    }
+
+    // After bulk changes that may move any page
+    public void invalidateAll() {
+        writes.incrementAndGet();
+        pages.invalidateAll();
+    }
+
+    public CacheStatistics stats() {
+        return CacheStatistics.of("infohub-pages", pages);
+    }
+
+    // Pages at or after the position of id, in the category and in the unfiltered list. Pages ending
+    // before the data does (empty or short) always go, since they can gain rows.
+    private void shifted(String category, Long id) {
+        invalidate(category, (k, rows) -> rows.size() < k.size() || rows.get(rows.size() - 1).getId() <= id);
+    }
+
+    // Pages that list id, in the category and in the unfiltered list
+    private void showing(String category, Long id) {
+        invalidate(category, (k, rows) -> rows.stream().anyMatch(r -> r.getId().equals(id)));
+    }
+
+    private void invalidate(String category, BiPredicate<Key, List<InfoHubSummaryRow>> affected) {
+        writes.incrementAndGet();
+        String c = normalize(category);
+        pages.asMap().entrySet().removeIf(e ->
+                (e.getKey().category().isEmpty() || e.getKey().category().equals(c)) && affected.test(e.getKey(), e.getValue()));
+    }
+
+    // Category matching is case-insensitive, as in the repository queries
+    private static String normalize(String category) {
+        return InfoHubRepository.categoryKey(category);
+    }
+
+    private static int weight(List<InfoHubSummaryRow> rows) {
+        int bytes = 64;
+        for (InfoHubSummaryRow r : rows) {
+            bytes += 48 + 2 * (length(r.getTitle()) + length(r.getCategory()) + length(r.getDate()) + length(r.getTeaser()));
+        }
+        return bytes;
+    }
+
+    private static int length(String s) {
+        return s == null ? 0 : s.length();
+    }
+
+    private record Key(String category, int page, int size) {
+    }
+}
@@ -0,0 +1,317 @@
+package io.github.sssamira.legalsheba.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.sssamira.legalsheba.model.InfoHub;
+import io.github.sssamira.legalsheba.pagination.PagedResponse;
+import io.github.sssamira.legalsheba.repository.InfoHubRepository;
+import io.github.sssamira.legalsheba.repository.InfoHubSummaryRow;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Optional pre-rendered InfoHub (infohub.snapshot.enabled): the first pages of every category and of the full
+// list, and every article, as JSON files with gzip twins under infohub.snapshot.dir, served straight from
+// disk without JPA or Jackson. Startup renders a fresh generation directory; InfoHubController re-renders
+// what an admin write changed before announcing it, so ETags never run ahead of the files.
+//
+// Files are immutable: each render gets a new name (written to a temp file, fsynced and renamed into place)
+// and the in-memory index is switched afterwards. Tomcat's sendfile opens the file only after the handler
+// returns, so rewriting a name in place could send new bytes under an old Content-Length; superseded files
+// are deleted once they are older than any response still being written. A publish renders the whole new
+// generation beside the live one and switches to it in one step, retiring the old generation the same way.
+@Slf4j
+@Component
+public class InfoHubSnapshot {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final InfoHubRepository infoHubRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path root;
+    private final int pages;
+    private final int pageSize;
+    private final long retireAfterMs;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final ArrayDeque<Retired> retired = new ArrayDeque<>();
+    // Null while disabled or abandoned; readers take one reference and use only that
+    private volatile Generation current;
+
+    public InfoHubSnapshot(InfoHubRepository infoHubRepository, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                           @Value("${infohub.snapshot.enabled:false}") boolean enabled,
+                           @Value("${infohub.snapshot.dir:data/infohub-snapshot}") Path root,
+                           @Value("${infohub.snapshot.pages:5}") int pages,
+                           @Value("${infohub.snapshot.page-size:10}") int pageSize,
+                           @Value("${infohub.snapshot.retire-after-ms:60000}") long retireAfterMs) {
+        this.infoHubRepository = infoHubRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.root = root;
+        this.pages = pages;
+        this.pageSize = pageSize;
+        this.retireAfterMs = retireAfterMs;
+    }
+
+    // Renders a new generation while the current one keeps serving, switches to it, then retires the
+    // previous generation and drops any left by earlier runs
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void publish() {
+        if (!enabled) return;
+        long start = System.nanoTime();
+        Generation next = null;
+        int[] articles = new int[1];
+        try {
+            Files.createDirectories(root);
+            // The counter keeps two publishes within the same millisecond apart
+            next = new Generation(Files.createDirectory(root.resolve(
+                    Long.toString(System.currentTimeMillis(), 36) + "-" + sequence.incrementAndGet())), new ConcurrentHashMap<>());
+            Generation target = next;
+            // Streamed row by row; the whole corpus is never in memory
+            jdbcTemplate.query("select id, title, content, category, date from info_hub", rs -> {
+                try {
+                    writeArticle(target, InfoHub.builder()
+                            .id(rs.getLong("id"))
+                            .title(rs.getString("title"))
+                            .content(rs.getString("content"))
+                            .category(rs.getString("category"))
+                            .date(rs.getString("date"))
+                            .build());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                articles[0]++;
+            });
+            writePages(next, null);
+            for (String category : jdbcTemplate.queryForList("select distinct upper(category) from info_hub", String.class)) {
+                if (!normalize(category).isEmpty()) writePages(next, normalize(category));
+            }
+        } catch (IOException | RuntimeException e) {
+            // Never served, so nothing can be reading it
+            if (next != null) FileSystemUtils.deleteRecursively(next.dir().toFile());
+            abandon(e);
+            return;
+        }
+
+        Generation previous = current;
+        current = next;
+        if (previous != null) retire(previous);
+        try {
+            deleteLeftovers(next);
+            deleteRetired();
+        } catch (IOException e) {
+            log.warn("Could not delete superseded InfoHub snapshot files", e);
+        }
+        log.info("InfoHub snapshot published: {} articles, {} files in {} ms",
+                articles[0], next.index().size() * 2, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public Optional<Rendered> article(Long id) {
+        Generation g = current;
+        return g == null ? Optional.empty() : Optional.ofNullable(g.index().get(articleKey(id)));
+    }
+
+    // Only the pages that were rendered: the configured page size and the first pages
+    public Optional<Rendered> page(String category, int page, int size) {
+        Generation g = current;
+        if (g == null || size != pageSize || page >= pages) return Optional.empty();
+        return Optional.ofNullable(g.index().get(pageKey(normalize(category), page)));
+    }
+
+    public synchronized void onCreated(InfoHub article) {
+        rerender(article, null);
+    }
+
+    public synchronized void onUpdated(String previousCategory, InfoHub article) {
+        rerender(article, previousCategory);
+    }
+
+    public synchronized void onDeleted(InfoHub article) {
+        Generation g = current;
+        if (g == null) return;
+        Rendered gone = g.index().remove(articleKey(article.getId()));
+        if (gone != null) retire(gone);
+        rerender(null, article.getCategory());
+    }
+
+    // Sends a rendered file as the body of an already prepared response: through Tomcat's sendfile when
+    // the connector offers it, otherwise FileChannel.transferTo into the response stream
+    public static void transfer(Path file, long length, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(length);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel channel = Channels.newChannel(out);
+            long sent = 0;
+            while (sent < length) sent += in.transferTo(sent, length - sent, channel);
+            out.flush();
+        }
+    }
+
+    private void rerender(InfoHub article, String previousCategory) {
+        Generation g = current;
+        if (g == null) return;
+        try {
+            if (article != null) writeArticle(g, article);
+            Set<String> categories = new LinkedHashSet<>();
+            if (article != null) categories.add(normalize(article.getCategory()));
+            if (previousCategory != null) categories.add(normalize(previousCategory));
+            categories.remove("");
+            writePages(g, null);
+            for (String category : categories) writePages(g, category);
+            deleteRetired();
+        } catch (IOException | RuntimeException e) {
+            abandon(e);
+        }
+    }
+
+    private void writeArticle(Generation g, InfoHub article) throws IOException {
+        put(g, articleKey(article.getId()), "a" + article.getId(), objectMapper.writeValueAsBytes(article));
+    }
+
+    private void writePages(Generation g, String category) throws IOException {
+        long total = category == null ? infoHubRepository.count() : infoHubRepository.countByCategoryIgnoreCase(category);
+        for (int p = 0; p < pages; p++) {
+            String key = pageKey(category == null ? "" : category, p);
+            if ((long) p * pageSize >= Math.max(total, 1)) {
+                // Past the end: served from the database, which answers with an empty page
+                Rendered gone = g.index().remove(key);
+                if (gone != null) retire(gone);
+                continue;
+            }
+            PageRequest pageable = PageRequest.of(p, pageSize);
+            List<InfoHubSummaryRow> rows = (category == null
+                    ? infoHubRepository.findSummaries(pageable)
+                    : infoHubRepository.findSummariesByCategory(category, pageable)).getContent();
+            String name = "p" + (category == null ? "" : "-" + HexFormat.of().formatHex(category.getBytes(StandardCharsets.UTF_8))) + "-" + p;
+            put(g, key, name, objectMapper.writeValueAsBytes(PagedResponse.of(rows, p, pageSize, total)));
+        }
+    }
+
+    private void put(Generation g, String key, String name, byte[] json) throws IOException {
+        String file = name + "." + sequence.incrementAndGet() + ".json";
+        Path plain = write(g.dir().resolve(file), json);
+        Path gzip = write(g.dir().resolve(file + ".gz"), gzip(json));
+        Rendered old = g.index().put(key, new Rendered(plain, Files.size(plain), gzip, Files.size(gzip)));
+        if (old != null) retire(old);
+    }
+
+    // Write-then-rename, so a file is either absent or complete under its final name
+    private static Path write(Path target, byte[] bytes) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(bytes));
+            ch.force(false);
+        }
+        return Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void retire(Rendered r) {
+        retired.add(new Retired(List.of(r.json(), r.gzip()), System.currentTimeMillis()));
+    }
+
+    // Its files first, then the directory with whatever else is left in it
+    private void retire(Generation g) {
+        g.index().values().forEach(this::retire);
+        retired.add(new Retired(List.of(g.dir()), System.currentTimeMillis()));
+    }
+
+    private void deleteRetired() throws IOException {
+        long cutoff = System.currentTimeMillis() - retireAfterMs;
+        while (!retired.isEmpty() && retired.peek().at() < cutoff) {
+            for (Path path : retired.poll().paths()) FileSystemUtils.deleteRecursively(path);
+        }
+    }
+
+    // Generation directories of earlier runs; those retired by this one wait for their grace period
+    private void deleteLeftovers(Generation live) throws IOException {
+        Set<Path> waiting = new HashSet<>();
+        for (Retired r : retired) waiting.addAll(r.paths());
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root)) {
+            for (Path dir : dirs) {
+                if (!dir.equals(live.dir()) && !waiting.contains(dir)) FileSystemUtils.deleteRecursively(dir);
+            }
+        }
+    }
+
+    // A snapshot that may have missed a write is worse than none: everything falls back to the database
+    private void abandon(Exception e) {
+        log.error("InfoHub snapshot disabled, serving from the database", e);
+        Generation g = current;
+        current = null;
+        if (g != null) retire(g);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 3 + 32);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static String articleKey(Long id) {
+        return "article:" + id;
+    }
+
+    private static String pageKey(String category, int page) {
+        return "page:" + category + ":" + page;
+    }
+
+    private static String normalize(String category) {
+        return InfoHubRepository.categoryKey(category);
+    }
+
+    public record Rendered(Path json, long jsonLength, Path gzip, long gzipLength) {
+    }
+
+    private record Generation(Path dir, Map<String, Rendered> index) {
+    }
+
+    private record Retired(List<Path> paths, long at) {
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.event.LawyerProfileSavedEvent;
+import io.github.sssamira.legalsheba.model.LawyerLocation;
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
+import io.github.sssamira.legalsheba.repository.LawyerLocationRepository;
+import io.github.sssamira.legalsheba.search.LawyerGeoIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Resolves lawyer locations through the gazetteer, persists the coordinates and feeds LawyerGeoIndex.
+// The court of practice is the fallback when the location text names no known place.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LawyerLocationService {
+
+    private final Gazetteer gazetteer;
+    private final LawyerLocationRepository lawyerLocationRepository;
+    private final LawyerGeoIndex lawyerGeoIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillAndLoad() {
+        long start = System.nanoTime();
+        List<LawyerLocation> resolved = new ArrayList<>();
+        int unresolved = 0;
+        for (LawyerDirectoryRow row : lawyerLocationRepository.findProfilesWithoutLocation()) {
+            Optional<LawyerLocation> loc = resolve(row);
+            if (loc.isPresent()) {
+                resolved.add(loc.get());
+            } else {
+                unresolved++;
+            }
+        }
+        lawyerLocationRepository.saveAll(resolved);
+
+        List<LawyerGeoIndex.Point> points = new ArrayList<>();
+        for (LawyerLocation l : lawyerLocationRepository.findAll()) points.add(toPoint(l));
+        lawyerGeoIndex.load(points);
+        log.info("Lawyer geo index loaded: {} lawyers ({} newly resolved, {} unresolved, {} gazetteer places) in {} ms",
+                points.size(), resolved.size(), unresolved, gazetteer.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Runs after the registration committed, so it writes in a transaction of its own
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onLawyerSaved(LawyerProfileSavedEvent event) {
+        resolve(event.getProfile()).ifPresent(l -> {
+            lawyerLocationRepository.save(l);
+            lawyerGeoIndex.upsert(toPoint(l));
+        });
+    }
+
+    private Optional<LawyerLocation> resolve(LawyerDirectoryRow row) {
+        return gazetteer.resolve(row.getLocation())
+                .or(() -> gazetteer.resolve(row.getCourtOfPractice()))
+                .map(p -> LawyerLocation.builder()
+                        .lawyerId(row.getId())
+                        .place(p.name())
+                        .latitude(p.latitude())
+                        .longitude(p.longitude())
+                        .build());
+    }
+
+    private static LawyerGeoIndex.Point toPoint(LawyerLocation l) {
+        return new LawyerGeoIndex.Point(l.getLawyerId(), l.getPlace(), l.getLatitude(), l.getLongitude());
+    }
+}
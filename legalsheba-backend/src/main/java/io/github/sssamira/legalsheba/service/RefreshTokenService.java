@@ -0,0 +1,130 @@
+package io.github.sssamira.legalsheba.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+// Opaque, single-use refresh tokens stored in refresh_tokens. rotate() spends a token and hands out its
+// successor in the same family. A spent token presented again means it was copied, so the family is revoked
+// and its holder has to sign in again; within auth.refresh.reuse-grace-ms of the rotation it is only
+// refused, since two tabs refreshing at once present the same token.
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long expirationMs;
+    private final long reuseGraceMs;
+
+    public RefreshTokenService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               @Value("${jwt.refresh-expiration:2592000000}") long expirationMs,
+                               @Value("${auth.refresh.reuse-grace-ms:10000}") long reuseGraceMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.expirationMs = expirationMs;
+        this.reuseGraceMs = reuseGraceMs;
+    }
+
+    // A new family, at sign-in
+    public String issue(long userId) {
+        return insert(userId, randomToken().substring(0, 32));
+    }
+
+    // Returns the user id and the successor token; throws InvalidRefreshTokenException when the token
+    // is unknown, expired, revoked or already spent
+    public Rotation rotate(String token) {
+        String hash = sha256(token);
+        long now = System.currentTimeMillis();
+        // null for a refused token; not thrown inside, which would roll back a family revocation
+        Rotation rotation = transactionTemplate.execute(tx -> {
+            List<Row> rows = jdbcTemplate.query(
+                    "select user_id, family, expires_at, used_at, revoked_at from refresh_tokens where token_hash = ?",
+                    (rs, n) -> new Row(rs.getLong("user_id"), rs.getString("family"), rs.getLong("expires_at"),
+                            nullableLong(rs, "used_at"), nullableLong(rs, "revoked_at")), hash);
+            if (rows.isEmpty()) return null;
+            Row row = rows.get(0);
+            if (row.revokedAt() != null || row.expiresAt() <= now) return null;
+            if (row.usedAt() != null) {
+                if (now - row.usedAt() > reuseGraceMs) {
+                    log.warn("Refresh token reused; revoking its family for user {}", row.userId());
+                    jdbcTemplate.update("update refresh_tokens set revoked_at = ? where family = ? and revoked_at is null", now, row.family());
+                }
+                return null;
+            }
+            // Conditional, so of two concurrent refreshes with the same token only one wins
+            if (jdbcTemplate.update("update refresh_tokens set used_at = ? where token_hash = ? and used_at is null", now, hash) == 0) {
+                return null;
+            }
+            return new Rotation(row.userId(), insert(row.userId(), row.family()));
+        });
+        if (rotation == null) throw new InvalidRefreshTokenException();
+        return rotation;
+    }
+
+    // Logout; unknown tokens are ignored
+    public void revokeFamily(String token) {
+        jdbcTemplate.update("""
+                update refresh_tokens set revoked_at = ?
+                where family = (select family from refresh_tokens where token_hash = ?) and revoked_at is null
+                """, System.currentTimeMillis(), sha256(token));
+    }
+
+    // Password change
+    public void revokeAll(long userId) {
+        jdbcTemplate.update("update refresh_tokens set revoked_at = ? where user_id = ? and revoked_at is null",
+                System.currentTimeMillis(), userId);
+    }
+
+    private String insert(long userId, String family) {
+        String token = randomToken();
+        jdbcTemplate.update("insert into refresh_tokens(user_id, family, token_hash, expires_at) values (?, ?, ?, ?)",
+                userId, family, sha256(token), System.currentTimeMillis() + expirationMs);
+        return token;
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static String randomToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String sha256(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Row(long userId, String family, long expiresAt, Long usedAt, Long revokedAt) {
+    }
+
+    public record Rotation(long userId, String token) {
+    }
+
+    public static class InvalidRefreshTokenException extends RuntimeException {
+        public InvalidRefreshTokenException() {
+            super("Invalid or expired refresh token");
+        }
+    }
+}
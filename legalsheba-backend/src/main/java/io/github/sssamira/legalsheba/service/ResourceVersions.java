@@ -0,0 +1,72 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.event.InfoHubChangedEvent;
+import io.github.sssamira.legalsheba.event.LawyerProfileSavedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory version counters for public resources, used to answer conditional GETs without touching
+// the database. Every write bumps both the entity and its collection. The boot epoch is part of the
+// ETag so a restart (which resets the counters) never revalidates a stale client copy.
+@Component
+public class ResourceVersions {
+
+    public static final String LAWYERS = "lawyers";
+    public static final String INFOHUB = "infohub";
+
+    // Shared caches may store these, but must revalidate with the ETag on every use
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final long startedAt = System.currentTimeMillis() / 1000 * 1000;
+    private final ConcurrentHashMap<String, Stamp> stamps = new ConcurrentHashMap<>();
+
+    public Stamp collection(String name) {
+        return stamps.getOrDefault(name, initial(name));
+    }
+
+    public Stamp entity(String name, Long id) {
+        String key = name + "-" + id;
+        return stamps.getOrDefault(key, initial(key));
+    }
+
+    public void bump(String name, Long id) {
+        long now = System.currentTimeMillis() / 1000 * 1000; // HTTP dates have second precision
+        stamps.compute(name, (k, old) -> next(k, old, now));
+        if (id != null) stamps.compute(name + "-" + id, (k, old) -> next(k, old, now));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLawyerSaved(LawyerProfileSavedEvent event) {
+        bump(LAWYERS, event.getProfile().getId());
+    }
+
+    // First, so listeners that tag data with the article's stamp (InfoHubBodyCache) see the new one
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onInfoHubChanged(InfoHubChangedEvent event) {
+        bump(INFOHUB, event.getId());
+    }
+
+    private Stamp initial(String key) {
+        return new Stamp(eTag(key, 0), 0, startedAt);
+    }
+
+    private Stamp next(String key, Stamp old, long now) {
+        long version = old == null ? 1 : old.version() + 1;
+        return new Stamp(eTag(key, version), version, Math.max(now, old == null ? startedAt : old.lastModified()));
+    }
+
+    private String eTag(String key, long version) {
+        return "\"" + key + "-" + epoch + "-" + version + "\"";
+    }
+
+    public record Stamp(String eTag, long version, long lastModified) {
+    }
+}
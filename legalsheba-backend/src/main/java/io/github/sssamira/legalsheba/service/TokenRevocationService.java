@@ -0,0 +1,206 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.security.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Revoked access tokens, checked on every authenticated request. The revocations live in SQLite; a Bloom
+// filter of the revoked jtis sits in front, so a token that was never revoked (nearly all of them) is
+// accepted without a query or an allocation, and only a possible hit is confirmed in the database.
+//
+// Per-user revocations (password change) are kept whole in memory instead: there are few of them at any
+// time, and a filter hit on a user id would send every later request of that user, with its new tokens,
+// to the database until the row expired. Each is a marker, the revocation time in milliseconds and
+// increasing per user, and every token carries the marker its user had when it was issued; a token with an
+// older marker than the current one is revoked. Ordering by marker rather than by issue time means a token
+// issued right after a revocation is never caught by it, however close the clock readings are. Markers are
+// computed and read in the database, so they also increase across instances.
+//
+// Revocations made by other instances are picked up every auth.revocation.sync-seconds by reading the rows
+// with ids above the last one seen. Rows are purged once the tokens they cover have expired (expired
+// refresh tokens go in the same pass), and the filter is rebuilt from what remains, every
+// auth.revocation.purge-minutes. Revocations, syncs and rebuilds are serialized so a revocation cannot land
+// in a filter that is about to be replaced; checks read whichever filter is current.
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long accessTokenMs;
+    private final int expectedEntries;
+    private final long purgeMinutes;
+    private final long syncSeconds;
+
+    private volatile BloomFilter filter;
+    // user id -> marker (issued_before)
+    private volatile Map<Long, Long> userCutoffs = Map.of();
+    // Highest row ids read so far; guarded by this
+    private long lastTokenId;
+    private long lastUserRevocationId;
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "token-revocation");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public TokenRevocationService(JdbcTemplate jdbcTemplate,
+                                  @Value("${jwt.expiration}") long accessTokenMs,
+                                  @Value("${auth.revocation.expected-entries:10000}") int expectedEntries,
+                                  @Value("${auth.revocation.purge-minutes:60}") long purgeMinutes,
+                                  @Value("${auth.revocation.sync-seconds:5}") long syncSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accessTokenMs = accessTokenMs;
+        this.expectedEntries = expectedEntries;
+        this.purgeMinutes = purgeMinutes;
+        this.syncSeconds = syncSeconds;
+    }
+
+    @PostConstruct
+    void start() {
+        rebuild();
+        scheduler.scheduleWithFixedDelay(this::sync, syncSeconds, syncSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::rebuild, purgeMinutes, purgeMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    // jti is null for tokens issued before they carried one; those can only be revoked per user. marker is
+    // the token's, 0 when it carries none.
+    public boolean isRevoked(String jti, long userId, long marker) {
+        checks.increment();
+        Map<Long, Long> cutoffs = userCutoffs;
+        if (!cutoffs.isEmpty()) {
+            Long issuedBefore = cutoffs.get(userId);
+            if (issuedBefore != null && marker < issuedBefore) {
+                rejected.increment();
+                return true;
+            }
+        }
+        if (jti == null || !filter.mightContain(BloomFilter.hash(jti))) return false;
+
+        lookups.increment();
+        boolean revoked = !jdbcTemplate.queryForList("select 1 from revoked_tokens where jti = ?", Integer.class, jti).isEmpty();
+        if (revoked) rejected.increment();
+        return revoked;
+    }
+
+    // Logout: the one token, until it would have expired anyway
+    public synchronized void revokeToken(String jti, long expiresAtMs) {
+        jdbcTemplate.update("insert or ignore into revoked_tokens(jti, expires_at) values (?, ?)", jti, expiresAtMs);
+        filter.add(BloomFilter.hash(jti));
+    }
+
+    // The marker to put in a token issued now. Read from the database rather than the in-memory cutoffs, so
+    // a token issued here right after a password change on another instance is not revoked by it once synced.
+    public long marker(long userId) {
+        Long marker = jdbcTemplate.queryForObject(
+                "select max(issued_before) from user_token_revocations where user_id = ?", Long.class, userId);
+        return marker == null ? 0 : marker;
+    }
+
+    // Password change: every access token of the user issued so far. The marker is the current time, or one
+    // past the user's latest if that is not later; computed in the insert, under SQLite's write lock, so it
+    // increases even across instances. Inside a transaction the new marker takes effect once it commits, so
+    // a rolled back change revokes nothing; tokens issued after the commit carry it.
+    public synchronized void revokeUser(long userId) {
+        long now = System.currentTimeMillis();
+        long cutoff = jdbcTemplate.queryForObject("""
+                insert into user_token_revocations(user_id, issued_before, expires_at)
+                select ?, max(?, coalesce(max(issued_before), 0) + 1), ? from user_token_revocations where user_id = ?
+                returning issued_before
+                """, Long.class, userId, now, now + accessTokenMs, userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishCutoff(userId, cutoff);
+                }
+            });
+        } else {
+            publishCutoff(userId, cutoff);
+        }
+    }
+
+    private synchronized void publishCutoff(long userId, long cutoff) {
+        Map<Long, Long> next = new HashMap<>(userCutoffs);
+        next.merge(userId, cutoff, Math::max);
+        userCutoffs = next;
+    }
+
+    // Revocations committed since the last sync or rebuild, by this instance or any other
+    synchronized void sync() {
+        try {
+            jdbcTemplate.query("select id, jti from revoked_tokens where id > ? order by id", rs -> {
+                filter.add(BloomFilter.hash(rs.getString(2)));
+                lastTokenId = rs.getLong(1);
+            }, lastTokenId);
+            Map<Long, Long> cutoffs = new HashMap<>();
+            jdbcTemplate.query("select id, user_id, issued_before from user_token_revocations where id > ? order by id", rs -> {
+                cutoffs.merge(rs.getLong(2), rs.getLong(3), Math::max);
+                lastUserRevocationId = rs.getLong(1);
+            }, lastUserRevocationId);
+            cutoffs.forEach(this::publishCutoff);
+        } catch (RuntimeException e) {
+            // The next sync reads from the same ids again
+            log.warn("Syncing token revocations failed", e);
+        }
+    }
+
+    public Statistics stats() {
+        return new Statistics(checks.sum(), lookups.sum(), rejected.sum());
+    }
+
+    synchronized void rebuild() {
+        try {
+            long now = System.currentTimeMillis();
+            int purged = jdbcTemplate.update("delete from revoked_tokens where expires_at <= ?", now)
+                    + jdbcTemplate.update("delete from user_token_revocations where expires_at <= ?", now);
+            // Spent ones included: they are kept until expiry to recognise a reuse
+            jdbcTemplate.update("delete from refresh_tokens where expires_at <= ?", now);
+            Integer count = jdbcTemplate.queryForObject("select count(*) from revoked_tokens", Integer.class);
+            BloomFilter next = new BloomFilter(Math.max(expectedEntries, count * 2));
+            long[] lastIds = {lastTokenId, lastUserRevocationId};
+            jdbcTemplate.query("select id, jti from revoked_tokens", rs -> {
+                next.add(BloomFilter.hash(rs.getString(2)));
+                lastIds[0] = Math.max(lastIds[0], rs.getLong(1));
+            });
+            Map<Long, Long> cutoffs = new HashMap<>();
+            jdbcTemplate.query("select id, user_id, issued_before from user_token_revocations", rs -> {
+                cutoffs.merge(rs.getLong(2), rs.getLong(3), Math::max);
+                lastIds[1] = Math.max(lastIds[1], rs.getLong(1));
+            });
+            filter = next;
+            userCutoffs = cutoffs;
+            lastTokenId = lastIds[0];
+            lastUserRevocationId = lastIds[1];
+            log.info("Token revocations: {} tokens, {} users, {} purged", count, cutoffs.size(), purged);
+        } catch (RuntimeException e) {
+            // The previous filter stays; it only lacks the purge
+            log.error("Rebuilding the token revocation filter failed", e);
+            if (filter == null) throw e;
+        }
+    }
+
+    // checks: authenticated requests seen; lookups: those the filter could not clear without the database
+    public record Statistics(long checks, long lookups, long rejected) {
+    }
+}
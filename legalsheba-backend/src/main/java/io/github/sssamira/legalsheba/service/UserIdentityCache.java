@@ -0,0 +1,72 @@
+package io.github.sssamira.legalsheba.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Who an email belongs to: user id, role, password hash and lawyer profile id, read with one query and
+// kept for users.cache.ttl-ms. Shared by authentication and by handlers that only need the caller's ids.
+// Writers of users or lawyer profiles call invalidate after committing; the TTL bounds how long a change
+// made outside the application (or missed) can stay visible.
+//
+// Plain JDBC on purpose: the SSE endpoint resolves its caller here, and touching the request's
+// open-in-view EntityManager would pin a pooled connection for as long as the stream stays open.
+@Component
+public class UserIdentityCache {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Identity> identities;
+
+    public UserIdentityCache(JdbcTemplate jdbcTemplate,
+                             @Value("${users.cache.ttl-ms:300000}") long ttlMs,
+                             @Value("${users.cache.max-entries:10000}") long maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.identities = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+    }
+
+    // Unknown emails are not cached, so a registration is visible at once
+    public Optional<Identity> find(String email) {
+        if (email == null) return Optional.empty();
+        return Optional.ofNullable(identities.get(email, this::load));
+    }
+
+    public void invalidate(String email) {
+        if (email != null) identities.invalidate(email);
+    }
+
+    public CacheStatistics stats() {
+        return CacheStatistics.of("user-identities", identities);
+    }
+
+    private Identity load(String email) {
+        return jdbcTemplate.query("""
+                        select u.id, u.email, u.role, u.password, lp.id as lawyer_profile_id
+                        from users u left join lawyer_profiles lp on lp.user_id = u.id
+                        where u.email = ?""",
+                (rs, i) -> {
+                    long profileId = rs.getLong("lawyer_profile_id");
+                    Long lawyerProfileId = rs.wasNull() ? null : profileId;
+                    return new Identity(rs.getLong("id"), rs.getString("email"), rs.getString("role"),
+                            rs.getString("password"), lawyerProfileId);
+                },
+                email).stream().findFirst().orElse(null);
+    }
+
+    // lawyerProfileId is null for users without a lawyer profile
+    public record Identity(Long userId, String email, String role, String passwordHash, Long lawyerProfileId) {
+
+        @Override
+        public String toString() {
+            return "Identity[userId=" + userId + ", email=" + email + ", role=" + role + ", lawyerProfileId=" + lawyerProfileId + "]";
+        }
+    }
+}
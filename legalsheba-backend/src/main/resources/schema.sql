@@ -54,3 +54,121 @@ CREATE TABLE IF NOT EXISTS info_hub (
     category VARCHAR(50) NOT NULL,
     date VARCHAR(50) NOT NULL
 );
+
+-- Secondary indexes for the hot lookups. Each ends in id so "ORDER BY id DESC" pages (offset and keyset)
+-- are read straight off the index without a sort; RepositoryQueryPlanTest guards them.
+CREATE INDEX IF NOT EXISTS idx_appointments_lawyer ON appointments(lawyer_id, id);
+CREATE INDEX IF NOT EXISTS idx_appointments_client ON appointments(client_id, id);
+CREATE INDEX IF NOT EXISTS idx_specialties_lawyer ON specialties(lawyer_id, name);
+-- IgnoreCase finders compare upper(category); the expression index matches that exactly
+CREATE INDEX IF NOT EXISTS idx_info_hub_category ON info_hub(upper(category), id);
+
+-- Full-text index over InfoHub titles and bodies. External content: the text lives only in info_hub and
+-- the index is kept in step by triggers that InfoHubSearchIndex creates (trigger bodies contain ';', which
+-- this script cannot hold).
+CREATE VIRTUAL TABLE IF NOT EXISTS info_hub_fts USING fts5(
+    title, content,
+    content='info_hub', content_rowid='id',
+    tokenize='porter unicode61 remove_diacritics 2'
+);
+
+-- Structured weekly availability (parsed from / alongside lawyer_profiles.availability_details)
+CREATE TABLE IF NOT EXISTS availability_slots (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    lawyer_id INTEGER NOT NULL,
+    day_of_week INTEGER NOT NULL, -- ISO: 1 = Monday ... 7 = Sunday
+    start_minute INTEGER NOT NULL, -- minutes since midnight, inclusive
+    end_minute INTEGER NOT NULL, -- minutes since midnight, exclusive (max 1440)
+    FOREIGN KEY(lawyer_id) REFERENCES lawyer_profiles(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_availability_slots_lawyer ON availability_slots(lawyer_id);
+
+-- Coordinates resolved from lawyer_profiles.location through the bundled gazetteer
+CREATE TABLE IF NOT EXISTS lawyer_locations (
+    lawyer_id INTEGER PRIMARY KEY,
+    place VARCHAR(100) NOT NULL, -- gazetteer place the location resolved to
+    latitude REAL NOT NULL,
+    longitude REAL NOT NULL,
+    FOREIGN KEY(lawyer_id) REFERENCES lawyer_profiles(id) ON DELETE CASCADE
+);
+
+-- Reserved 15-minute buckets per lawyer; the unique key makes a double booking impossible even across instances
+CREATE TABLE IF NOT EXISTS appointment_slots (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    lawyer_id INTEGER NOT NULL,
+    slot_start INTEGER NOT NULL, -- minutes since 1970-01-01T00:00 (local time), multiple of 15
+    appointment_id INTEGER NOT NULL,
+    UNIQUE(lawyer_id, slot_start),
+    FOREIGN KEY(lawyer_id) REFERENCES lawyer_profiles(id) ON DELETE CASCADE,
+    FOREIGN KEY(appointment_id) REFERENCES appointments(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_appointment_slots_appointment ON appointment_slots(appointment_id);
+
+-- Appointment counts per lawyer, appointment day and status, kept current by AppointmentService in the
+-- same transaction as each booking or status change. day is yyyy-MM-dd, '*' for the all-time totals and
+-- '' for legacy dates that do not parse.
+CREATE TABLE IF NOT EXISTS appointment_stats (
+    lawyer_id INTEGER NOT NULL,
+    day VARCHAR(10) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    n INTEGER NOT NULL,
+    PRIMARY KEY(lawyer_id, day, status),
+    FOREIGN KEY(lawyer_id) REFERENCES lawyer_profiles(id) ON DELETE CASCADE
+) WITHOUT ROWID;
+
+-- Results of queued bookings (POST /api/appointments with an Idempotency-Key header), written in the same
+-- transaction as the appointment they created, so retrying a key replays its result instead of booking again
+CREATE TABLE IF NOT EXISTS booking_requests (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    client_id INTEGER NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL, -- SHA-256 of the booking fields; a reused key must carry the same request
+    status VARCHAR(20) NOT NULL, -- BOOKED, CONFLICT or INVALID
+    appointment_id INTEGER,
+    message VARCHAR(255),
+    created_at VARCHAR(50) NOT NULL,
+    UNIQUE(client_id, idempotency_key),
+    FOREIGN KEY(client_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY(appointment_id) REFERENCES appointments(id) ON DELETE SET NULL
+);
+
+-- Refresh tokens (POST /api/auth/refresh). Only the SHA-256 of a token is stored. Each refresh marks the
+-- presented token used and issues the next one in the same family; presenting a used token again revokes
+-- the whole family. Times are epoch milliseconds.
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    user_id INTEGER NOT NULL,
+    family VARCHAR(32) NOT NULL,
+    token_hash VARCHAR(64) NOT NULL UNIQUE,
+    expires_at INTEGER NOT NULL,
+    used_at INTEGER,
+    revoked_at INTEGER,
+    FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user ON refresh_tokens(user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family ON refresh_tokens(family);
+
+-- Access tokens revoked before they expire: single tokens by jti (logout), and every token of a user issued
+-- before a password change. issued_before is the user's revocation marker (epoch milliseconds, increasing
+-- per user); tokens carry the marker current when they were issued, and one older than the user's latest is
+-- revoked. Both tables only grow between purges and every row gets a new id, so each instance picks up the
+-- revocations made elsewhere by polling for ids above the last one it has seen. Rows go once the tokens
+-- they cover have expired; expires_at is epoch milliseconds.
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    jti VARCHAR(36) NOT NULL UNIQUE,
+    expires_at INTEGER NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_token_revocations (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    user_id INTEGER NOT NULL,
+    issued_before INTEGER NOT NULL,
+    expires_at INTEGER NOT NULL,
+    FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_token_revocations_user ON user_token_revocations(user_id, issued_before);
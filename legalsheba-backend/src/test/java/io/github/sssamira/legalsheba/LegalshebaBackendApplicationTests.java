@@ -1,9 +1,8 @@
 package io.github.sssamira.legalsheba;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SqliteSpringBootTest
 class LegalshebaBackendApplicationTests {
 
 	@Test
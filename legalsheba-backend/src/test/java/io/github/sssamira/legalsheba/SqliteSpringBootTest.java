@@ -0,0 +1,30 @@
+package io.github.sssamira.legalsheba;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// @SpringBootTest against a fresh SQLite file under target/ instead of data/legalsheba.db. The file
+// name is the same for every class, so the context is closed after the class rather than cached, which
+// keeps each class on its own database. Extra properties go in properties, as on @SpringBootTest.
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/test-${random.uuid}.db?foreign_keys=on",
+        "spring.jpa.show-sql=false"
+})
+@DirtiesContext
+public @interface SqliteSpringBootTest {
+
+    @AliasFor(annotation = SpringBootTest.class, attribute = "properties")
+    String[] properties() default {};
+}
@@ -0,0 +1,300 @@
+package io.github.sssamira.legalsheba.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.Appointment;
+import io.github.sssamira.legalsheba.model.LawyerProfile;
+import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
+import io.github.sssamira.legalsheba.repository.UserRepository;
+import io.github.sssamira.legalsheba.service.AppointmentService;
+import io.github.sssamira.legalsheba.service.AppointmentStatsService;
+import io.github.sssamira.legalsheba.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The appointment endpoints over HTTP: booking, per-item results of bulk status changes and the history
+// export
+@SqliteSpringBootTest(properties = "appointments.slot-minutes=60")
+@AutoConfigureMockMvc
+class AppointmentControllerTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 4, 1, 9, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private AppointmentStatsService appointmentStatsService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private LawyerProfileRepository lawyerProfileRepository;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void bulkStatusReportsEachItemOnItsOwn() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer(), other = newLawyer();
+        Appointment confirmed = book(client, lawyer, DAY, "PENDING");
+        Appointment invalid = book(client, lawyer, DAY.plusHours(2), "PENDING");
+        Appointment foreign = book(client, other, DAY, "PENDING");
+        // Re-activating this one would overlap `confirmed`, which stays active
+        Appointment overlapping = book(client, lawyer, DAY, "REJECTED");
+
+        JsonNode results = results(bulk(lawyer, "[" + item(confirmed.getId(), "CONFIRMED") + "," + item(foreign.getId(), "CONFIRMED")
+                + "," + item(Long.MAX_VALUE, "CONFIRMED") + "," + item(null, "CONFIRMED") + "," + item(invalid.getId(), "DONE")
+                + "," + item(confirmed.getId(), "COMPLETED") + "," + item(overlapping.getId(), "PENDING") + "]"));
+
+        List<Integer> codes = new ArrayList<>();
+        results.forEach(r -> codes.add(r.get("code").asInt()));
+        assertEquals(List.of(200, 403, 404, 404, 400, 400, 409), codes);
+        assertEquals("CONFIRMED", results.get(0).get("appointment").get("status").asText());
+        assertEquals("Duplicate id", results.get(5).get("error").asText());
+        assertEquals(overlapping.getId(), results.get(6).get("id").asLong());
+
+        assertEquals(List.of("CONFIRMED", "PENDING", "PENDING", "REJECTED"), statuses(confirmed, invalid, foreign, overlapping));
+        assertTrue(appointmentStatsService.verify(lawyer.getId(), false).consistent());
+    }
+
+    @Test
+    void bulkStatusReactivatesIntoSlotsFreedInTheSameBatch() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        Appointment leaving = book(client, lawyer, DAY, "PENDING");
+        Appointment returning = book(client, lawyer, DAY, "REJECTED");
+
+        // The re-activation comes first in the batch: the release later in it still counts
+        JsonNode results = results(bulk(lawyer, "[" + item(returning.getId(), "CONFIRMED") + "," + item(leaving.getId(), "COMPLETED") + "]"));
+        assertEquals(200, results.get(0).get("code").asInt());
+        assertEquals(200, results.get(1).get("code").asInt());
+
+        assertEquals(List.of("COMPLETED", "CONFIRMED"), statuses(leaving, returning));
+        assertEquals(List.of(returning.getId()), jdbcTemplate.queryForList(
+                "select distinct appointment_id from appointment_slots where lawyer_id = ?", Long.class, lawyer.getId()));
+        assertTrue(appointmentStatsService.verify(lawyer.getId(), false).consistent());
+    }
+
+    @Test
+    void bulkStatusTakesAtMost200Items() throws Exception {
+        LawyerProfile lawyer = newLawyer();
+        bulk(lawyer, "[]").andExpect(status().isBadRequest());
+        bulk(lawyer, items(201)).andExpect(status().isBadRequest()).andExpect(content().string("At most 200 items per request"));
+
+        JsonNode results = results(bulk(lawyer, items(200)));
+        assertEquals(200, results.size());
+        results.forEach(r -> assertEquals(404, r.get("code").asInt()));
+    }
+
+    @Test
+    void exportQuotesCsvCellsAndDefusesFormulas() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        Appointment plain = book(client, lawyer, DAY, "PENDING");
+        Appointment tricky = appointmentService.book(Appointment.builder()
+                .client(client)
+                .lawyer(lawyer)
+                .appointmentDate(DAY.plusHours(2).toString())
+                .status("PENDING")
+                .problemDescription("=HYPERLINK(\"http://x\",\"y\")")
+                .notes("Said \"soon\", then\nleft")
+                .build());
+
+        MockHttpServletResponse response = export(lawyer, "csv", false);
+        assertEquals("text/csv;charset=UTF-8", response.getContentType());
+        assertEquals("attachment; filename=\"appointments-" + lawyer.getId() + ".csv\"", response.getHeader("Content-Disposition"));
+        String name = client.getFName(), lawyerName = lawyer.getUser().getFName();
+        assertEquals("id,appointmentDate,status,clientName,lawyerName,problemDescription,notes\r\n"
+                        + tricky.getId() + "," + DAY.plusHours(2) + ",PENDING," + name + "," + lawyerName
+                        + ",\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\",\"Said \"\"soon\"\", then\nleft\"\r\n"
+                        + plain.getId() + "," + DAY + ",PENDING," + name + "," + lawyerName + ",Tenancy dispute,\r\n",
+                response.getContentAsString(StandardCharsets.UTF_8));
+
+        // Every formula lead character is defused, quoted or not
+        for (String lead : List.of("+", "-", "@", "\t")) {
+            jdbcTemplate.update("update appointments set problem_description = ?, notes = null where id = ?", lead + "1", tricky.getId());
+            String row = export(lawyer, "csv", false).getContentAsString(StandardCharsets.UTF_8).split("\r\n")[1];
+            assertTrue(row.endsWith(",'" + lead + "1,"), row);
+        }
+    }
+
+    @Test
+    void exportWritesNdjsonAcrossChunksAndGzipsOnRequest() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        // More rows than one export chunk, newest (highest id) first
+        int rows = 501;
+        transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.batchUpdate("insert into appointments(client_id, lawyer_id, appointment_date, status, problem_description) values (?, ?, ?, 'PENDING', ?)",
+                IntStream.range(0, rows).mapToObj(i -> new Object[]{
+                        client.getId(), lawyer.getId(), DAY.plusDays(i).toString(), "Case " + i}).toList()));
+
+        MockHttpServletResponse ndjson = export(lawyer, "ndjson", false);
+        assertEquals("application/x-ndjson", ndjson.getContentType());
+        String[] lines = ndjson.getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(rows, lines.length);
+        long previous = Long.MAX_VALUE;
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            assertTrue(line.get("id").asLong() < previous);
+            previous = line.get("id").asLong();
+            assertEquals("Case " + (rows - 1 - i), line.get("problemDescription").asText());
+            assertEquals(client.getFName(), line.get("clientName").asText());
+        }
+
+        for (String format : List.of("csv", "ndjson")) {
+            MockHttpServletResponse zipped = export(lawyer, format, true);
+            assertEquals("application/gzip", zipped.getContentType());
+            assertEquals("attachment; filename=\"appointments-" + lawyer.getId() + "." + format + ".gz\"", zipped.getHeader("Content-Disposition"));
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(zipped.getContentAsByteArray()))) {
+                assertEquals(export(lawyer, format, false).getContentAsString(StandardCharsets.UTF_8),
+                        new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    void exportBelongsToTheLawyerAlone() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer(), other = newLawyer();
+        book(client, lawyer, DAY, "PENDING");
+
+        assertEquals(2, export(lawyer, "csv", false).getContentAsString().split("\r\n").length);
+        for (UserEntity caller : List.of(other.getUser(), client)) {
+            mockMvc.perform(get("/api/appointments/by-lawyer/{id}/export", lawyer.getUser().getId())
+                            .header("Authorization", "Bearer " + jwtService.generateToken(caller)))
+                    .andExpect(status().isForbidden());
+        }
+        mockMvc.perform(get("/api/appointments/by-lawyer/{id}/export", Long.MAX_VALUE)
+                        .header("Authorization", "Bearer " + jwtService.generateToken(lawyer.getUser())))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/appointments/by-lawyer/{id}/export", lawyer.getUser().getId()).param("format", "xlsx")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(lawyer.getUser())))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createBooksForTheCallerWithoutLoadingTheirRow() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        String body = "{\"lawyerProfileId\":" + lawyer.getId() + ",\"appointmentDate\":\"" + DAY + "\",\"problemDescription\":\"Tenancy dispute\"}";
+
+        JsonNode created = objectMapper.readTree(mockMvc.perform(post("/api/appointments")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(client))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        // The client is known by id only, so none of their columns reach the response
+        assertEquals(client.getId(), created.get("client").get("id").asLong());
+        assertTrue(created.get("client").get("password").isNull());
+        assertEquals(client.getId(), jdbcTemplate.queryForObject("select client_id from appointments where id = ?",
+                Long.class, created.get("id").asLong()));
+
+        mockMvc.perform(post("/api/appointments")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(client))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isConflict());
+    }
+
+    // By the owner's user id: the lookup tries an id as a user id first, and a profile id can equal
+    // another lawyer's user id
+    private MockHttpServletResponse export(LawyerProfile owner, String format, boolean gzip) throws Exception {
+        MvcResult pending = mockMvc.perform(get("/api/appointments/by-lawyer/{id}/export", owner.getUser().getId())
+                        .param("format", format)
+                        .param("gzip", Boolean.toString(gzip))
+                        .header("Authorization", "Bearer " + jwtService.generateToken(owner.getUser())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(pending)).andExpect(status().isOk()).andReturn().getResponse();
+    }
+
+    private ResultActions bulk(LawyerProfile lawyer, String items) throws Exception {
+        return mockMvc.perform(patch("/api/appointments/status")
+                .header("Authorization", "Bearer " + jwtService.generateToken(lawyer.getUser()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"items\":" + items + "}"));
+    }
+
+    private JsonNode results(ResultActions response) throws Exception {
+        return objectMapper.readTree(response.andExpect(status().isOk()).andReturn().getResponse().getContentAsString()).get("results");
+    }
+
+    private static String item(Long id, String status) {
+        return "{\"id\":" + id + ",\"status\":\"" + status + "\"}";
+    }
+
+    // A JSON array of count items, all for ids that do not exist
+    private static String items(int count) {
+        List<String> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) items.add(item(Long.MAX_VALUE - i, "CONFIRMED"));
+        return "[" + String.join(",", items) + "]";
+    }
+
+    private List<String> statuses(Appointment... appointments) {
+        List<String> out = new ArrayList<>();
+        for (Appointment a : appointments) {
+            out.add(jdbcTemplate.queryForObject("select status from appointments where id = ?", String.class, a.getId()));
+        }
+        return out;
+    }
+
+    private Appointment book(UserEntity client, LawyerProfile lawyer, LocalDateTime start, String status) {
+        return appointmentService.book(Appointment.builder()
+                .client(client)
+                .lawyer(lawyer)
+                .appointmentDate(start.toString())
+                .status(status)
+                .problemDescription("Tenancy dispute")
+                .build());
+    }
+
+    private UserEntity newUser(String role) {
+        return userRepository.save(UserEntity.builder()
+                .fName("Controller " + role)
+                .email(UUID.randomUUID() + "@controller.test")
+                .password("x")
+                .role(role)
+                .build());
+    }
+
+    private LawyerProfile newLawyer() {
+        return lawyerProfileRepository.save(LawyerProfile.builder().user(newUser("LAWYER")).experience(1).build());
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.sssamira.legalsheba.controller;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.LawyerProfile;
+import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
+import io.github.sssamira.legalsheba.repository.QueryBudget;
+import io.github.sssamira.legalsheba.repository.UserRepository;
+import io.github.sssamira.legalsheba.service.JwtService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Statement budgets for the appointment listings. A page must cost the same number of statements
+// whatever its size: JWT user lookup, principal lookup, profile resolution, the page query and, on a
+// cold TotalCountCache, one COUNT. Walking entity associations per row would blow the budget.
+@SqliteSpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=io.github.sssamira.legalsheba.repository.QueryBudget$Inspector"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AppointmentListingQueryBudgetTest {
+
+    private static final int APPOINTMENTS = 40;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserDetailsService userDetailsService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private LawyerProfileRepository lawyerProfileRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private QueryBudget budget;
+    private String clientToken;
+    private String lawyerToken;
+    private Long lawyerProfileId;
+
+    @BeforeAll
+    void seed() {
+        budget = QueryBudget.of(entityManagerFactory);
+        UserEntity client = newUser("USER");
+        List<LawyerProfile> lawyers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            lawyers.add(lawyerProfileRepository.save(LawyerProfile.builder().user(newUser("LAWYER")).experience(i).build()));
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            // Several lawyers so a per-row lawyer/user load would show up as distinct statements
+            rows.add(new Object[]{client.getId(), lawyers.get(i % 3).getId(), "2030-01-01T10:00"});
+        }
+        jdbcTemplate.batchUpdate("insert into appointments(client_id, lawyer_id, appointment_date, status) values (?, ?, ?, 'COMPLETED')", rows);
+
+        LawyerProfile lawyer = lawyers.get(0);
+        lawyerProfileId = lawyer.getId();
+        clientToken = token(client.getEmail());
+        lawyerToken = token(lawyer.getUser().getEmail());
+    }
+
+    @Test
+    void clientListingStaysWithinBudget() throws Exception {
+        // Cold count cache: page + COUNT
+        budget.assertAtMost(4, "GET /api/appointments/my (cold)", () -> page("/api/appointments/my?size=20", clientToken, 20));
+        budget.assertAtMost(3, "GET /api/appointments/my", () -> page("/api/appointments/my?page=1&size=20", clientToken, 20));
+        budget.assertAtMost(3, "GET /api/appointments/my?cursor", () -> page("/api/appointments/my?cursor=&size=25", clientToken, 25));
+    }
+
+    @Test
+    void lawyerListingStaysWithinBudget() throws Exception {
+        String base = "/api/appointments/by-lawyer/" + lawyerProfileId;
+        budget.assertAtMost(5, "GET " + base + " (cold)", () -> page(base + "?size=10", lawyerToken, 10));
+        budget.assertAtMost(4, "GET " + base, () -> page(base + "?page=1&size=10", lawyerToken, 4));
+        budget.assertAtMost(4, "GET " + base + "?cursor", () -> page(base + "?cursor=&size=10", lawyerToken, 10));
+    }
+
+    private void page(String url, String token, int expectedRows) throws Exception {
+        mvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(expectedRows))
+                .andExpect(jsonPath("$.content[0].clientName").isNotEmpty())
+                .andExpect(jsonPath("$.content[0].lawyerName").isNotEmpty());
+    }
+
+    private String token(String email) {
+        return jwtService.generateToken(userDetailsService.loadUserByUsername(email), Map.of());
+    }
+
+    private UserEntity newUser(String role) {
+        return userRepository.save(UserEntity.builder()
+                .fName("Budget " + role)
+                .email(UUID.randomUUID() + "@budget.test")
+                .password("x")
+                .role(role)
+                .build());
+    }
+}
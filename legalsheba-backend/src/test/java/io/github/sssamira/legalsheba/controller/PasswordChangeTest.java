@@ -0,0 +1,58 @@
+package io.github.sssamira.legalsheba.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A password change signs out every earlier session and the sign-in it returns works at once, however
+// quickly the changes follow each other
+@SqliteSpringBootTest(properties = "auth.hashing.strength=4")
+@AutoConfigureMockMvc
+class PasswordChangeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void earlierTokensStopWorkingAndTheNewOnesWorkImmediately() throws Exception {
+        JsonNode session = json(mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Client\",\"email\":\"change@seed.test\",\"password\":\"pw-0\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        for (int i = 1; i <= 3; i++) {
+            JsonNode next = json(mockMvc.perform(post("/api/auth/password")
+                            .header("Authorization", "Bearer " + session.get("token").asText())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"currentPassword\":\"pw-" + (i - 1) + "\",\"newPassword\":\"pw-" + i + "\"}"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+
+            mockMvc.perform(get("/api/appointments/my").header("Authorization", "Bearer " + next.get("token").asText()))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/api/appointments/my").header("Authorization", "Bearer " + session.get("token").asText()))
+                    .andExpect(status().is4xxClientError());
+            mockMvc.perform(post("/api/auth/refresh")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"refreshToken\":\"" + session.get("refreshToken").asText() + "\"}"))
+                    .andExpect(status().isUnauthorized());
+            session = next;
+        }
+    }
+
+    private JsonNode json(String body) throws Exception {
+        return objectMapper.readTree(body);
+    }
+}
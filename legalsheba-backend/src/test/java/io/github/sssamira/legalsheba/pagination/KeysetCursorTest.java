@@ -0,0 +1,36 @@
+package io.github.sssamira.legalsheba.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Cursors round-trip, a missing one means the first page, and anything else a client sends is rejected
+// as an IllegalArgumentException (which the controllers answer with 400)
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsAndTreatsBlankAsTheFirstPage() {
+        for (long id : new long[]{1, 42, Long.MAX_VALUE - 1}) assertEquals(id, KeysetCursor.decode(KeysetCursor.encode(id)));
+        assertEquals(Long.MAX_VALUE, KeysetCursor.decode(null));
+        assertEquals(Long.MAX_VALUE, KeysetCursor.decode(""));
+        assertEquals(Long.MAX_VALUE, KeysetCursor.decode("  "));
+    }
+
+    @Test
+    void badInputIsRejected() {
+        // Not base64url, a standard-alphabet character, no prefix, wrong prefix, no number, not a number, too large
+        for (String cursor : new String[]{"!!!", "aWQ6MT+", "42", encoded("ID:42"), encoded("id:"), encoded("id:4x"),
+                encoded("id:99999999999999999999"), encoded(" id:42")}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor), cursor);
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+    }
+
+    private static String encoded(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.sssamira.legalsheba.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Writers move a cached total in place; a total nobody has read yet is left to the next count
+class TotalCountCacheTest {
+
+    private final TotalCountCache cache = new TotalCountCache();
+    private final AtomicInteger counts = new AtomicInteger();
+
+    TotalCountCacheTest() {
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+    }
+
+    @Test
+    void adjustMovesOnlyCachedTotalsAndNeverBelowZero() {
+        assertEquals(10, cache.get("appointments:client:1", counter(10)));
+        cache.adjust("appointments:client:1", 2);
+        cache.adjust("appointments:client:1", -1);
+        assertEquals(11, cache.get("appointments:client:1", counter(99)));
+        cache.adjust("appointments:client:1", -50);
+        assertEquals(0, cache.get("appointments:client:1", counter(99)));
+        assertEquals(1, counts.get());
+
+        // Not cached: adjusting does not invent a total, the first read counts
+        cache.adjust("appointments:client:2", 5);
+        assertEquals(3, cache.get("appointments:client:2", counter(3)));
+        assertEquals(2, counts.get());
+    }
+
+    @Test
+    void invalidatePrefixRecountsOnlyMatchingKeys() {
+        cache.get("infohub:all", counter(7));
+        cache.get("infohub:cat:law", counter(3));
+        cache.get("infohub:cat:tax", counter(4));
+        cache.get("infohubs", counter(1));
+        assertEquals(4, counts.get());
+
+        cache.invalidatePrefix("infohub:cat:");
+        assertEquals(7, cache.get("infohub:all", counter(70)));
+        assertEquals(1, cache.get("infohubs", counter(10)));
+        assertEquals(4, counts.get());
+        assertEquals(30, cache.get("infohub:cat:law", counter(30)));
+        assertEquals(40, cache.get("infohub:cat:tax", counter(40)));
+        assertEquals(6, counts.get());
+
+        // An invalidated total is not adjusted back into existence
+        cache.invalidatePrefix("infohub:");
+        cache.adjust("infohub:all", 1);
+        assertEquals(8, cache.get("infohub:all", counter(8)));
+    }
+
+    @Test
+    void expiredTotalsAreRecounted() {
+        ReflectionTestUtils.setField(cache, "ttlMs", 0L);
+        assertEquals(1, cache.get("k", counter(1)));
+        assertEquals(2, cache.get("k", counter(2)));
+        assertEquals(2, counts.get());
+    }
+
+    private LongSupplier counter(long total) {
+        return () -> {
+            counts.incrementAndGet();
+            return total;
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.sssamira.legalsheba.repository;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Records the SQL of every statement prepared or executed on the capturing thread, whether it comes from
+// Hibernate or from a JdbcTemplate. Register capturing() as a bean to wrap the application's DataSource.
+public class CapturingDataSource extends DelegatingDataSource {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+    private static volatile Thread capturing;
+
+    public CapturingDataSource(DataSource target) {
+        super(target);
+    }
+
+    public static BeanPostProcessor capturing() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource ds && !(bean instanceof CapturingDataSource) ? new CapturingDataSource(ds) : bean;
+            }
+        };
+    }
+
+    // Starts capturing statements of the calling thread, dropping what was recorded so far
+    public static void clear() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+            capturing = Thread.currentThread();
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return new ArrayList<>(STATEMENTS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password));
+    }
+
+    private static <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(CapturingDataSource.class.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            String name = method.getName();
+            if (args != null && args.length > 0 && args[0] instanceof String sql
+                    && (name.startsWith("prepare") || name.startsWith("execute") || name.equals("addBatch"))) {
+                record(sql);
+            }
+            try {
+                Object result = method.invoke(target, args);
+                return name.equals("createStatement") ? proxy(Statement.class, (Statement) result) : result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+
+    private static void record(String sql) {
+        if (Thread.currentThread() != capturing) return;
+        synchronized (STATEMENTS) {
+            STATEMENTS.add(sql);
+        }
+    }
+}
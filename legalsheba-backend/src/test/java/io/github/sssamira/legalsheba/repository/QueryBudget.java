@@ -0,0 +1,86 @@
+package io.github.sssamira.legalsheba.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Fails a test when a block of work prepares more JDBC statements than allowed, so an N+1 regression
+// (an eager association walked per row, a lazy load in a loop) breaks the build instead of production.
+// Needs spring.jpa.properties.hibernate.generate_statistics=true; when QueryBudget$Inspector is also
+// registered (spring.jpa.properties.hibernate.session_factory.statement_inspector) the failure message
+// lists the statements that ran.
+public final class QueryBudget {
+
+    private final Statistics statistics;
+
+    private QueryBudget(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public static QueryBudget of(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertTrue(statistics.isStatisticsEnabled(), "QueryBudget needs hibernate.generate_statistics=true");
+        return new QueryBudget(statistics);
+    }
+
+    // Runs work and returns how many statements it prepared, failing if that exceeds maxStatements
+    public long assertAtMost(int maxStatements, String label, Work work) {
+        statistics.clear();
+        Inspector.clear();
+        try {
+            work.run();
+        } catch (Exception e) {
+            throw new AssertionError(label + " failed", e);
+        }
+        long used = statistics.getPrepareStatementCount();
+        if (used > maxStatements) {
+            fail(label + " prepared " + used + " statements, budget is " + maxStatements
+                    + statementsList());
+        }
+        return used;
+    }
+
+    private static String statementsList() {
+        StringBuilder out = new StringBuilder();
+        for (String sql : Inspector.statements()) out.append("\n  ").append(sql);
+        return out.toString();
+    }
+
+    @FunctionalInterface
+    public interface Work {
+        void run() throws Exception;
+    }
+
+    // Records every SQL statement Hibernate prepares, for the failure message
+    public static class Inspector implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            synchronized (STATEMENTS) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+
+        static void clear() {
+            synchronized (STATEMENTS) {
+                STATEMENTS.clear();
+            }
+        }
+
+        static List<String> statements() {
+            synchronized (STATEMENTS) {
+                return new ArrayList<>(STATEMENTS);
+            }
+        }
+    }
+}
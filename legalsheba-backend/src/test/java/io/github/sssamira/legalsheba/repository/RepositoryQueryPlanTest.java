@@ -0,0 +1,393 @@
+package io.github.sssamira.legalsheba.repository;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.LawyerProfile;
+import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.search.InfoHubSearchIndex;
+import io.github.sssamira.legalsheba.service.BookingIntakeService;
+import io.github.sssamira.legalsheba.service.RefreshTokenService;
+import io.github.sssamira.legalsheba.service.TokenRevocationService;
+import io.github.sssamira.legalsheba.service.UserIdentityCache;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Runs every repository query, and the JDBC queries services issue directly, against a seeded SQLite file,
+// captures the SQL that reaches the driver and fails when EXPLAIN QUERY PLAN shows a table scan or a sort.
+// Deliberate exceptions are listed per query with the plan line they are allowed to produce. A query
+// method added to a repository without a check here fails everyRepositoryQueryHasAPlanCheck.
+@SqliteSpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTest {
+
+    // A virtual table "scan" whose index string carries M is FTS5 answering a MATCH from its own index
+    private static final Pattern TABLE_SCAN = Pattern.compile("^SCAN (?!CONSTANT ROW)(?!.*VIRTUAL TABLE INDEX \\d+:.*M).*");
+    private static final Pattern SORT = Pattern.compile(".*USE TEMP B-TREE FOR .*");
+    private static final Pattern TEASER = Pattern.compile("substr(ing)?\\(cast\\(\\w+\\.content as \\w+(\\(\\d+\\))?\\),\\s*1,\\s*241\\)");
+
+    @TestConfiguration
+    static class Capture {
+        @Bean
+        static BeanPostProcessor capturingDataSource() {
+            return CapturingDataSource.capturing();
+        }
+    }
+
+    @Autowired
+    private ApplicationContext applicationContext;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private AppointmentSlotRepository appointmentSlotRepository;
+    @Autowired
+    private AppointmentStatRepository appointmentStatRepository;
+    @Autowired
+    private AvailabilitySlotRepository availabilitySlotRepository;
+    @Autowired
+    private BookingRequestRepository bookingRequestRepository;
+    @Autowired
+    private InfoHubRepository infoHubRepository;
+    @Autowired
+    private LawyerLocationRepository lawyerLocationRepository;
+    @Autowired
+    private LawyerProfileRepository lawyerProfileRepository;
+    @Autowired
+    private SpecialtyRepository specialtyRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private InfoHubSearchIndex infoHubSearchIndex;
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+    @Autowired
+    private BookingIntakeService bookingIntakeService;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UserEntity client;
+    private LawyerProfile lawyer;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.batchUpdate("insert into users(f_name, email, password, role) values (?, ?, 'x', ?)",
+                rows(400, i -> new Object[]{"User " + i, "plan" + i + "@seed.test", i % 4 == 0 ? "LAWYER" : "USER"}));
+        jdbcTemplate.update("""
+                insert into lawyer_profiles(user_id, experience, location, court_of_practice)
+                select id, id % 30, 'Dhaka', 'Judge Court' from users where email like 'plan%' and role = 'LAWYER'
+                """);
+        jdbcTemplate.update("""
+                insert into specialties(lawyer_id, name)
+                select id, case id % 3 when 0 then 'Family' when 1 then 'Criminal' else 'Civil' end from lawyer_profiles
+                """);
+        jdbcTemplate.update("""
+                insert into appointments(client_id, lawyer_id, appointment_date, status)
+                select u.id, lp.id, '2030-01-01T10:00', 'COMPLETED'
+                from users u join lawyer_profiles lp on lp.id % 7 = u.id % 7
+                where u.role = 'USER' and u.email like 'plan%'
+                """);
+        jdbcTemplate.batchUpdate("insert into info_hub(title, content, category, date) values (?, 'body', ?, '2030-01-01')",
+                rows(300, i -> new Object[]{"Article " + i, i % 2 == 0 ? "Family" : "Property"}));
+
+        jdbcTemplate.update("""
+                insert into availability_slots(lawyer_id, day_of_week, start_minute, end_minute)
+                select id, id % 7 + 1, 600, 1020 from lawyer_profiles
+                """);
+        jdbcTemplate.update("insert into lawyer_locations(lawyer_id, place, latitude, longitude) select id, 'Dhaka', 23.81, 90.41 from lawyer_profiles");
+        jdbcTemplate.update("""
+                insert into appointment_stats(lawyer_id, day, status, n)
+                select lawyer_id, '2030-01-01', status, count(*) from appointments group by lawyer_id, status
+                """);
+        jdbcTemplate.update("""
+                insert into booking_requests(client_id, idempotency_key, request_hash, status, created_at)
+                select id, 'key-' || id, 'hash', 'BOOKED', '2030-01-01T00:00' from users where role = 'USER'
+                """);
+        jdbcTemplate.update("insert into appointment_slots(lawyer_id, slot_start, appointment_id) select lawyer_id, id * 15, id from appointments");
+
+        client = userRepository.findByEmail("plan1@seed.test").orElseThrow();
+        lawyer = lawyerProfileRepository.findAll(PageRequest.of(0, 1)).getContent().get(0);
+        for (int i = 0; i < 50; i++) refreshTokenService.issue(client.getId());
+        for (int i = 0; i < 50; i++) tokenRevocationService.revokeToken(UUID.randomUUID().toString(), System.currentTimeMillis() + 60_000);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> hotQueriesUseIndexes() {
+        return hotQueries().stream().map(q -> DynamicTest.dynamicTest(q.name(), () -> assertIndexed(q)));
+    }
+
+    private List<HotQuery> hotQueries() {
+        return List.of(
+                hot("AppointmentRepository.findListRowsByLawyerId",
+                        () -> appointmentRepository.findListRowsByLawyerId(lawyer.getId(), PageRequest.of(1, 10))),
+                hot("AppointmentRepository.findListRowsByClientId",
+                        () -> appointmentRepository.findListRowsByClientId(client.getId(), PageRequest.of(1, 10))),
+                hot("AppointmentRepository.findListRowsByLawyerIdBefore",
+                        () -> appointmentRepository.findListRowsByLawyerIdBefore(lawyer.getId(), Long.MAX_VALUE, Limit.of(11))),
+                hot("AppointmentRepository.findListRowsByClientIdBefore",
+                        () -> appointmentRepository.findListRowsByClientIdBefore(client.getId(), Long.MAX_VALUE, Limit.of(11))),
+                hot("AppointmentRepository.countByLawyer", () -> appointmentRepository.countByLawyer(lawyer)),
+                hot("AppointmentRepository.countByClient", () -> appointmentRepository.countByClient(client)),
+                hot("AppointmentRepository.findByLawyer", () -> appointmentRepository.findByLawyer(lawyer)),
+                hot("AppointmentRepository.findByClient", () -> appointmentRepository.findByClient(client)),
+                hot("AppointmentRepository.findById", () -> appointmentRepository.findById(1L)),
+                hot("AppointmentRepository.countByDateAndStatus",
+                        () -> appointmentRepository.countByDateAndStatus(lawyer.getId()),
+                        "USE TEMP B-TREE FOR GROUP BY"), // groups one lawyer's appointments, found through idx_appointments_lawyer
+                hot("AppointmentRepository.countAllByDateAndStatus",
+                        () -> appointmentRepository.countAllByDateAndStatus(),
+                        "SCAN a1_0 USING INDEX idx_appointments_lawyer", "USE TEMP B-TREE FOR GROUP BY"), // one-off backfill of appointment_stats
+                hot("AppointmentRepository.findBookingsByStatusIn",
+                        () -> appointmentRepository.findBookingsByStatusIn(List.of("PENDING", "CONFIRMED")),
+                        "SCAN a1_0"), // startup load of every live booking into the slot ledger
+                hot("AppointmentRepository.findWithPartiesByIdIn",
+                        () -> appointmentRepository.findWithPartiesByIdIn(List.of(1L, 2L, 3L))),
+                hot("AppointmentSlotRepository.findHolders",
+                        () -> appointmentSlotRepository.findHolders(lawyer.getId(), List.of(1L, 2L, 3L, 4L))),
+                hot("AppointmentSlotRepository.deleteByAppointmentIdIn",
+                        () -> transactionTemplate.executeWithoutResult(tx -> appointmentSlotRepository.deleteByAppointmentIdIn(List.of(1L, 2L)))),
+                hot("AppointmentSlotRepository.existsByLawyerIdAndSlotStartIn",
+                        () -> appointmentSlotRepository.existsByLawyerIdAndSlotStartIn(lawyer.getId(), List.of(1L, 2L, 3L, 4L))),
+                hot("AppointmentSlotRepository.findReservedAppointmentIds",
+                        () -> appointmentSlotRepository.findReservedAppointmentIds(),
+                        "SCAN as1_0 USING COVERING INDEX idx_appointment_slots_appointment"), // startup reconciliation of the ledger
+                hot("AppointmentSlotRepository.deleteByAppointmentId",
+                        () -> transactionTemplate.executeWithoutResult(tx -> appointmentSlotRepository.deleteByAppointmentId(1L))),
+                hot("AppointmentStatRepository.findByLawyerIdAndDay",
+                        () -> appointmentStatRepository.findByLawyerIdAndDay(lawyer.getId(), "*")),
+                hot("AppointmentStatRepository.findByLawyerIdAndDayBetweenOrderByDay",
+                        () -> appointmentStatRepository.findByLawyerIdAndDayBetweenOrderByDay(lawyer.getId(), "2030-01-01", "2030-01-31")),
+                hot("AppointmentStatRepository.findByLawyerId", () -> appointmentStatRepository.findByLawyerId(lawyer.getId())),
+                hot("AppointmentStatRepository.add",
+                        () -> transactionTemplate.executeWithoutResult(tx -> appointmentStatRepository.add(lawyer.getId(), "2030-01-01", "PENDING", 0))),
+                hot("AppointmentStatRepository.deleteByLawyerId",
+                        () -> transactionTemplate.executeWithoutResult(tx -> appointmentStatRepository.deleteByLawyerId(-1L))),
+                hot("AvailabilitySlotRepository.findAllRows",
+                        () -> availabilitySlotRepository.findAllRows(),
+                        "SCAN as1_0"), // startup load of the availability index
+                hot("AvailabilitySlotRepository.deleteByLawyerId",
+                        () -> transactionTemplate.executeWithoutResult(tx -> availabilitySlotRepository.deleteByLawyerId(-1L))),
+                hot("AvailabilitySlotRepository.findProfilesWithoutSlots",
+                        () -> availabilitySlotRepository.findProfilesWithoutSlots(),
+                        "SCAN lp1_0"), // one-off backfill of profiles saved before slots existed
+                hot("BookingRequestRepository.findById", () -> bookingRequestRepository.findById(1L)),
+                hot("AvailabilitySlotRepository.findRowsByLawyerId",
+                        () -> availabilitySlotRepository.findRowsByLawyerId(lawyer.getId()),
+                        "USE TEMP B-TREE FOR ORDER BY"), // sorts one lawyer's handful of windows
+                hot("InfoHubRepository.findSummaries",
+                        () -> infoHubRepository.findSummaries(PageRequest.of(1, 10)),
+                        "SCAN ih1_0"), // walks the rowid b-tree backwards and stops at the LIMIT
+                hot("InfoHubRepository.findSummariesBefore",
+                        () -> infoHubRepository.findSummariesBefore(Long.MAX_VALUE, Limit.of(11))),
+                hot("InfoHubRepository.findSummariesByCategory",
+                        () -> infoHubRepository.findSummariesByCategory("family", PageRequest.of(1, 10))),
+                hot("InfoHubRepository.findSummariesByCategoryBefore",
+                        () -> infoHubRepository.findSummariesByCategoryBefore("family", Long.MAX_VALUE, Limit.of(11))),
+                hot("InfoHubRepository.countByCategoryIgnoreCase", () -> infoHubRepository.countByCategoryIgnoreCase("family")),
+                hot("InfoHubRepository.findById", () -> infoHubRepository.findById(1L)),
+                hot("LawyerLocationRepository.findProfilesWithoutLocation",
+                        () -> lawyerLocationRepository.findProfilesWithoutLocation(),
+                        "SCAN lp1_0"), // one-off backfill of profiles saved before locations existed
+                hot("LawyerProfileRepository.existsByUser", () -> lawyerProfileRepository.existsByUser(lawyer.getUser())),
+                hot("LawyerProfileRepository.findAllDirectoryRows",
+                        () -> lawyerProfileRepository.findAllDirectoryRows(),
+                        "SCAN lp1_0"), // startup load of the search indexes
+                hot("LawyerProfileRepository.findByUserId", () -> lawyerProfileRepository.findByUserId(lawyer.getUser().getId())),
+                hot("LawyerProfileRepository.findByUserIdOrId",
+                        () -> lawyerProfileRepository.findByUserIdOrId(lawyer.getUser().getId(), Limit.of(1)),
+                        "USE TEMP B-TREE FOR ORDER BY"), // at most two rows: the user id match and the profile id match
+                hot("LawyerProfileRepository.findByUser", () -> lawyerProfileRepository.findByUser(lawyer.getUser())),
+                hot("LawyerProfileRepository.findDirectoryRowById", () -> lawyerProfileRepository.findDirectoryRowById(lawyer.getId())),
+                hot("LawyerProfileRepository.findDirectoryRowsByIds",
+                        () -> lawyerProfileRepository.findDirectoryRowsByIds(List.of(lawyer.getId(), lawyer.getId() + 1))),
+                hot("LawyerProfileRepository.findDirectoryPage",
+                        () -> lawyerProfileRepository.findDirectoryPage("Family", null, null, null, null, PageRequest.of(0, 20)),
+                        "SCAN lp1_0"), // substring filters cannot use an index; rows come in id order, no sort
+                hot("SpecialtyRepository.findNamesByLawyerIds",
+                        () -> specialtyRepository.findNamesByLawyerIds(List.of(lawyer.getId(), lawyer.getId() + 1)),
+                        "USE TEMP B-TREE FOR ORDER BY"), // orders only the specialties of one page of lawyers
+                hot("SpecialtyRepository.findAllNames",
+                        () -> specialtyRepository.findAllNames(),
+                        "SCAN s1_0"), // startup load of the search indexes
+                hot("SpecialtyRepository.findByLawyer", () -> specialtyRepository.findByLawyer(lawyer)),
+                hot("UserRepository.findByEmail", () -> userRepository.findByEmail("plan1@seed.test")),
+                hot("UserRepository.existsByEmail", () -> userRepository.existsByEmail("plan1@seed.test")),
+                hot("UserRepository.updatePassword", () -> userRepository.updatePassword("plan399@seed.test", "x"))
+        );
+    }
+
+    @TestFactory
+    Stream<DynamicTest> jdbcQueriesUseIndexes() {
+        return jdbcQueries().stream().map(q -> DynamicTest.dynamicTest(q.name(), () -> assertIndexed(q)));
+    }
+
+    // Every query method a repository declares, and every repository, needs an entry in hotQueries()
+    @Test
+    void everyRepositoryQueryHasAPlanCheck() {
+        Set<String> checked = hotQueries().stream().map(HotQuery::name).collect(Collectors.toSet());
+        Set<String> missing = new TreeSet<>();
+        Repositories repositories = new Repositories(applicationContext);
+        for (Class<?> domainType : repositories) {
+            Class<?> repository = repositories.getRepositoryInformationFor(domainType)
+                    .map(RepositoryInformation::getRepositoryInterface)
+                    .orElseThrow();
+            String prefix = repository.getSimpleName() + ".";
+            for (Method m : repository.getDeclaredMethods()) {
+                if (m.isDefault() || m.isSynthetic() || Modifier.isStatic(m.getModifiers())) continue;
+                if (!checked.contains(prefix + m.getName())) missing.add(prefix + m.getName());
+            }
+            if (checked.stream().noneMatch(name -> name.startsWith(prefix))) missing.add(prefix + "*");
+        }
+        assertTrue(missing.isEmpty(), "Repository queries without a plan check: " + missing);
+    }
+
+    // InfoHub lists come from the summary projection, which may read content only through the teaser's
+    // substr and never as a whole column
+    @Test
+    void infoHubSummariesReadOnlyTheTeaser() {
+        CapturingDataSource.clear();
+        List<InfoHubSummaryRow> rows = new ArrayList<>(infoHubRepository.findSummaries(PageRequest.of(0, 5)).getContent());
+        rows.addAll(infoHubRepository.findSummariesByCategory("family", PageRequest.of(0, 5)).getContent());
+        rows.addAll(infoHubRepository.findSummariesBefore(Long.MAX_VALUE, Limit.of(5)));
+        rows.addAll(infoHubRepository.findSummariesByCategoryBefore("family", Long.MAX_VALUE, Limit.of(5)));
+        List<String> statements = CapturingDataSource.statements();
+        assertEquals(4, statements.size(), String.join("\n", statements));
+        for (String sql : statements) {
+            assertTrue(TEASER.matcher(sql).find(), sql);
+            assertFalse(TEASER.matcher(sql).replaceAll("").contains("content"), sql);
+        }
+        assertEquals(20, rows.size());
+        rows.forEach(r -> assertEquals("body", r.getTeaser()));
+
+        // One character past the teaser is read, which is how truncation is told
+        transactionTemplate.executeWithoutResult(tx -> {
+            String body = "x".repeat(InfoHubSummaryRow.TEASER_LENGTH);
+            jdbcTemplate.update("insert into info_hub(title, content, category, date) values ('Exact', ?, 'Teaser', '2030-01-01')", body);
+            jdbcTemplate.update("insert into info_hub(title, content, category, date) values ('Longer', ?, 'Teaser', '2030-01-01')", body + "yz");
+            List<InfoHubSummaryRow> teasers = infoHubRepository.findSummariesByCategoryBefore("teaser", Long.MAX_VALUE, Limit.of(5));
+            assertEquals(List.of("Longer", "Exact"), teasers.stream().map(InfoHubSummaryRow::getTitle).toList());
+            assertEquals(List.of(true, false), teasers.stream().map(InfoHubSummaryRow::isTruncated).toList());
+            teasers.forEach(t -> assertEquals(body, t.getTeaser()));
+            tx.setRollbackOnly();
+        });
+    }
+
+    // Queries services run through JdbcTemplate, named by the method that issues them
+    private List<HotQuery> jdbcQueries() {
+        return List.of(
+                hot("InfoHubSearchIndex.search", () -> infoHubSearchIndex.search("article", null, 10, 10),
+                        "SCAN page", "USE TEMP B-TREE FOR ORDER BY"), // matches are ordered by rank; the page holds at most limit rows
+                hot("InfoHubSearchIndex.search (category)", () -> infoHubSearchIndex.search("article", "family", 10, 10),
+                        "SCAN page", "USE TEMP B-TREE FOR ORDER BY"),
+                hot("UserIdentityCache.find", () -> {
+                    userIdentityCache.invalidate("plan2@seed.test");
+                    userIdentityCache.find("plan2@seed.test");
+                }),
+                hot("BookingIntakeService.find", () -> bookingIntakeService.find(client.getId(), "key-" + client.getId())),
+                hot("BookingIntakeService.findLawyer", () -> bookingIntakeService.findLawyer(lawyer.getId())),
+                hot("RefreshTokenService.rotate", () -> refreshTokenService.rotate(refreshTokenService.issue(client.getId()))),
+                hot("RefreshTokenService.revokeFamily", () -> refreshTokenService.revokeFamily(refreshTokenService.issue(client.getId()))),
+                hot("RefreshTokenService.revokeAll", () -> refreshTokenService.revokeAll(client.getId() + 1)),
+                hot("TokenRevocationService.isRevoked", () -> {
+                    String jti = UUID.randomUUID().toString();
+                    tokenRevocationService.revokeToken(jti, System.currentTimeMillis() + 60_000);
+                    tokenRevocationService.isRevoked(jti, client.getId(), 0);
+                }),
+                hot("TokenRevocationService.revokeUser", () -> tokenRevocationService.revokeUser(client.getId() + 2)),
+                hot("TokenRevocationService.marker", () -> tokenRevocationService.marker(client.getId() + 2)),
+                hot("TokenRevocationService.sync", () -> ReflectionTestUtils.invokeMethod(tokenRevocationService, "sync")),
+                // Runs at startup and on the purge schedule; there is no expires_at index to keep writes cheap
+                hot("TokenRevocationService.rebuild", () -> ReflectionTestUtils.invokeMethod(tokenRevocationService, "rebuild"),
+                        "SCAN revoked_tokens", "SCAN revoked_tokens USING COVERING INDEX sqlite_autoindex_revoked_tokens_1",
+                        "SCAN refresh_tokens", "SCAN user_token_revocations",
+                        "SCAN user_token_revocations USING COVERING INDEX idx_user_token_revocations_user")
+        );
+    }
+
+    private void assertIndexed(HotQuery q) {
+        CapturingDataSource.clear();
+        q.call().run();
+        List<String> captured = CapturingDataSource.statements();
+        assertFalse(captured.isEmpty(), q.name() + " issued no SQL");
+        // Plain inserts and upserts have no plan worth checking; their conflict target is a unique key
+        List<String> statements = captured.stream()
+                .filter(sql -> !sql.trim().toLowerCase().startsWith("insert"))
+                .toList();
+
+        List<String> problems = new ArrayList<>();
+        for (String sql : statements) {
+            for (String line : explain(sql)) {
+                boolean bad = TABLE_SCAN.matcher(line).matches() || SORT.matcher(line).matches();
+                if (bad && !q.allowed().contains(line)) problems.add(line + "   <-   " + sql);
+            }
+        }
+        if (!problems.isEmpty()) {
+            fail(q.name() + " falls back to a scan or sort:\n  " + String.join("\n  ", problems));
+        }
+    }
+
+    private List<String> explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) con -> {
+            try (PreparedStatement ps = con.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                int params = ps.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= params; i++) ps.setNull(i, Types.NULL);
+                List<String> lines = new ArrayList<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) lines.add(rs.getString("detail"));
+                }
+                return lines;
+            }
+        });
+    }
+
+    private static HotQuery hot(String name, Runnable call, String... allowed) {
+        return new HotQuery(name, call, List.of(allowed));
+    }
+
+    private static List<Object[]> rows(int n, java.util.function.IntFunction<Object[]> row) {
+        List<Object[]> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(row.apply(i));
+        return out;
+    }
+
+    private record HotQuery(String name, Runnable call, List<String> allowed) {
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.sssamira.legalsheba.search;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.InfoHub;
+import io.github.sssamira.legalsheba.repository.InfoHubRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The FTS index follows every write to info_hub through its triggers, ranks title matches first and
+// treats whatever users type as plain words
+@SqliteSpringBootTest
+class InfoHubSearchIndexTest {
+
+    @Autowired
+    private InfoHubSearchIndex infoHubSearchIndex;
+    @Autowired
+    private InfoHubRepository infoHubRepository;
+
+    @Test
+    void writesAreSearchableAndRankedByTitle() {
+        InfoHub inBody = save("Family court basics", "Filing for divorce starts with a notice to the Union Parishad.", "Family");
+        InfoHub inTitle = save("Divorce in Bangladesh", "How dissolution of marriage works and what it costs.", "Family");
+        save("Land registration", "Mutation and registration of land at the sub-registry office.", "Property");
+
+        List<Long> ids = ids(infoHubSearchIndex.search("divorce", null, 0, 10));
+        assertEquals(List.of(inTitle.getId(), inBody.getId()), ids);
+        assertEquals(1, infoHubSearchIndex.search("land registration", null, 0, 10).total());
+        // Stemming and prefix on the last word
+        assertEquals(1, infoHubSearchIndex.search("registrations lan", "property", 0, 10).total());
+        assertEquals(0, infoHubSearchIndex.search("divorce", "property", 0, 10).total());
+
+        inBody.setContent("Bail can be sought from the magistrate.");
+        infoHubRepository.save(inBody);
+        assertEquals(List.of(inTitle.getId()), ids(infoHubSearchIndex.search("divorce", null, 0, 10)));
+        assertEquals(List.of(inBody.getId()), ids(infoHubSearchIndex.search("bail", null, 0, 10)));
+
+        infoHubRepository.delete(inTitle);
+        assertEquals(0, infoHubSearchIndex.search("divorce", null, 0, 10).total());
+    }
+
+    @Test
+    void highlightsAreEscapedAndOperatorsInert() {
+        save("Tenancy <script>", "Rent \"control\" AND eviction: NEAR(notice) rules.", "Property");
+
+        InfoHubSearchIndex.Result r = infoHubSearchIndex.search("tenancy \" NEAR( AND -*", null, 0, 10);
+        assertEquals(1, r.total());
+        InfoHubSearchIndex.Hit hit = r.hits().get(0);
+        assertEquals("<mark>Tenancy</mark> &lt;script&gt;", hit.title());
+        assertTrue(infoHubSearchIndex.search("eviction notice", null, 0, 10).hits().get(0).snippet().contains("<mark>eviction</mark>"));
+        assertNull(InfoHubSearchIndex.matchExpression("\"*:()"));
+    }
+
+    private InfoHub save(String title, String content, String category) {
+        return infoHubRepository.save(InfoHub.builder().title(title).content(content).category(category).date("2025-01-01").build());
+    }
+
+    private static List<Long> ids(InfoHubSearchIndex.Result r) {
+        return r.hits().stream().map(InfoHubSearchIndex.Hit::id).toList();
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.sssamira.legalsheba.search;
+
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Values OR within a facet and facets AND together; each facet is counted without its own filter
+class LawyerFacetIndexTest {
+
+    @Test
+    void valuesOfOneFacetAreOred() {
+        LawyerFacetIndex index = index();
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(index, LawyerFacetIndex.Query.builder().specialties(List.of("Family", "land"))));
+        // Locations are matched after trimming and case folding
+        assertEquals(List.of(1L, 2L, 4L, 6L), ids(index, LawyerFacetIndex.Query.builder().locations(List.of(" DHAKA", "Sylhet"))));
+        // An unknown value adds nothing, and alone matches nothing
+        assertEquals(List.of(1L, 2L, 5L), ids(index, LawyerFacetIndex.Query.builder().specialties(List.of("Tax", "Family"))));
+        assertEquals(List.of(), ids(index, LawyerFacetIndex.Query.builder().specialties(List.of("Tax"))));
+        // Specialties can be AND-ed instead
+        assertEquals(List.of(5L), ids(index, LawyerFacetIndex.Query.builder().specialties(List.of("Family", "Land")).matchAllSpecialties(true)));
+    }
+
+    @Test
+    void facetsAreAnded() {
+        LawyerFacetIndex index = index();
+        assertEquals(List.of(5L), ids(index, LawyerFacetIndex.Query.builder()
+                .specialties(List.of("Family")).locations(List.of("Chattogram"))));
+        assertEquals(List.of(), ids(index, LawyerFacetIndex.Query.builder()
+                .specialties(List.of("Family")).locations(List.of("Chattogram")).courts(List.of("Supreme Court"))));
+        assertEquals(List.of(1L, 3L), ids(index, LawyerFacetIndex.Query.builder()
+                .specialties(List.of("Criminal")).courts(List.of("Supreme Court"))));
+        assertEquals(List.of(3L), ids(index, LawyerFacetIndex.Query.builder()
+                .specialties(List.of("Criminal")).courts(List.of("Supreme Court")).experienceBands(List.of("6-10"))));
+
+        // Paging walks the hits in ordinal order and keeps the full total
+        LawyerFacetIndex.Result page = index.search(LawyerFacetIndex.Query.builder().build(), 2, 3);
+        assertEquals(List.of(3L, 4L, 5L), page.getIds());
+        assertEquals(6, page.getTotal());
+    }
+
+    @Test
+    void eachFacetIsCountedWithoutItsOwnFilter() {
+        LawyerFacetIndex index = index();
+        LawyerFacetIndex.Result r = index.search(LawyerFacetIndex.Query.builder().locations(List.of("Dhaka")).build(), 0, 10);
+        assertEquals(List.of(1L, 2L, 6L), r.getIds());
+        // Sibling locations show what selecting them too would add; the others are narrowed to Dhaka
+        assertCounts(Map.of("Dhaka", 3, "Chattogram", 2, "Sylhet", 1), List.of("Dhaka", "Chattogram", "Sylhet"), r.getFacets().get("location"));
+        assertCounts(Map.of("Family", 2, "Criminal", 1), List.of("Family", "Criminal"), r.getFacets().get("specialty"));
+        assertCounts(Map.of("Supreme Court", 2, "Dhaka Judge Court", 1), List.of("Supreme Court", "Dhaka Judge Court"), r.getFacets().get("court"));
+        assertCounts(Map.of("0-2", 1, "3-5", 1), List.of("0-2", "3-5"), r.getFacets().get("experience"));
+
+        // OR-ed specialties count against the other filters only; AND-ed ones against the hits
+        LawyerFacetIndex.Query.QueryBuilder land = LawyerFacetIndex.Query.builder().specialties(List.of("Land"));
+        assertCounts(Map.of("Family", 3, "Land", 3, "Criminal", 2), List.of("Family", "Land", "Criminal"),
+                index.search(land.build(), 0, 10).getFacets().get("specialty"));
+        assertCounts(Map.of("Land", 3, "Criminal", 1, "Family", 1), List.of("Land", "Criminal", "Family"),
+                index.search(land.matchAllSpecialties(true).build(), 0, 10).getFacets().get("specialty"));
+    }
+
+    @Test
+    void experienceFallsIntoBands() {
+        assertEquals(-1, LawyerFacetIndex.bandOf(null));
+        assertEquals(-1, LawyerFacetIndex.bandOf(-1));
+        int[] years = {0, 2, 3, 5, 6, 10, 11, 20, 21, 60};
+        int[] bands = {0, 0, 1, 1, 2, 2, 3, 3, 4, 4};
+        for (int i = 0; i < years.length; i++) assertEquals(bands[i], LawyerFacetIndex.bandOf(years[i]), "years " + years[i]);
+
+        LawyerFacetIndex index = index();
+        assertEquals(List.of(1L, 5L), ids(index, LawyerFacetIndex.Query.builder().experienceBands(List.of("0-2", " 21+ "))));
+        assertEquals(List.of(), ids(index, LawyerFacetIndex.Query.builder().experienceBands(List.of("senior"))));
+        // Lawyer 6 has no experience on record and so no band
+        assertCounts(Map.of("0-2", 1, "3-5", 1, "6-10", 1, "11-20", 1, "21+", 1), List.of("0-2", "11-20", "21+", "3-5", "6-10"),
+                index.search(LawyerFacetIndex.Query.builder().build(), 0, 10).getFacets().get("experience"));
+    }
+
+    @Test
+    void upsertReplacesEveryFacetOfALawyer() {
+        LawyerFacetIndex index = index();
+        index.upsert(row(2, 12, "Sylhet", "Supreme Court"), List.of("Criminal"));
+
+        assertEquals(6, index.size());
+        assertEquals(List.of(1L, 6L), ids(index, LawyerFacetIndex.Query.builder().locations(List.of("Dhaka"))));
+        assertEquals(List.of(2L, 4L), ids(index, LawyerFacetIndex.Query.builder().locations(List.of("Sylhet"))));
+        assertEquals(List.of(1L, 5L), ids(index, LawyerFacetIndex.Query.builder().specialties(List.of("Family"))));
+        assertEquals(List.of(1L, 2L, 3L), ids(index, LawyerFacetIndex.Query.builder().specialties(List.of("Criminal"))));
+        assertEquals(List.of(), ids(index, LawyerFacetIndex.Query.builder().experienceBands(List.of("3-5"))));
+        assertEquals(List.of(2L, 4L), ids(index, LawyerFacetIndex.Query.builder().experienceBands(List.of("11-20"))));
+        assertEquals(List.of(4L), ids(index, LawyerFacetIndex.Query.builder().courts(List.of("Dhaka Judge Court"))));
+
+        // Clearing a field drops the lawyer from that facet only
+        index.upsert(row(2, null, null, null), List.of());
+        assertEquals(List.of(4L), ids(index, LawyerFacetIndex.Query.builder().locations(List.of("Sylhet"))));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), ids(index, LawyerFacetIndex.Query.builder()));
+    }
+
+    private static LawyerFacetIndex index() {
+        LawyerFacetIndex index = new LawyerFacetIndex(null, null);
+        index.upsert(row(1, 1, "Dhaka", "Supreme Court"), List.of("Family", "Criminal"));
+        index.upsert(row(2, 4, "Dhaka", "Dhaka Judge Court"), List.of("Family"));
+        index.upsert(row(3, 8, "Chattogram", "Supreme Court"), List.of("Criminal", "Land"));
+        index.upsert(row(4, 15, "Sylhet", "Dhaka Judge Court"), List.of("Land"));
+        index.upsert(row(5, 25, "Chattogram", null), List.of("Family", "Land"));
+        index.upsert(row(6, null, "  dhaka ", "supreme  court"), List.of());
+        return index;
+    }
+
+    private static LawyerDirectoryRow row(long id, Integer experience, String location, String court) {
+        return new LawyerDirectoryRow(id, "Lawyer " + id, experience, location, court, null, null);
+    }
+
+    private static List<Long> ids(LawyerFacetIndex index, LawyerFacetIndex.Query.QueryBuilder query) {
+        return index.search(query.build(), 0, 100).getIds();
+    }
+
+    // Counts and their order: most lawyers first, ties by label
+    private static void assertCounts(Map<String, Integer> expected, List<String> order, Map<String, Integer> actual) {
+        assertEquals(expected, actual);
+        assertEquals(order, List.copyOf(actual.keySet()));
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.sssamira.legalsheba.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Nearest-first over the grid must match a plain sort by great-circle distance, whichever cells the
+// lawyers fall in
+class LawyerGeoIndexTest {
+
+    private static final double DHANMONDI_LAT = 23.7461;
+    private static final double DHANMONDI_LON = 90.3742;
+
+    @Test
+    void nearestComesFirstAndRadiusCutsOff() {
+        LawyerGeoIndex index = index();
+
+        List<LawyerGeoIndex.Hit> hits = index.nearest(DHANMONDI_LAT, DHANMONDI_LON, 10, null);
+        assertEquals(List.of(2L, 1L, 4L, 3L, 6L, 5L), hits.stream().map(LawyerGeoIndex.Hit::lawyerId).toList());
+        assertEquals(0, hits.get(0).distanceKm(), 1e-9);
+        assertEquals(8.1, hits.get(1).distanceKm(), 0.1);
+        for (int i = 1; i < hits.size(); i++) assertTrue(hits.get(i - 1).distanceKm() <= hits.get(i).distanceKm());
+
+        assertEquals(List.of(2L, 1L), index.nearest(DHANMONDI_LAT, DHANMONDI_LON, 2, null).stream()
+                .map(LawyerGeoIndex.Hit::lawyerId).toList());
+        assertEquals(List.of(2L, 1L, 4L), index.nearest(DHANMONDI_LAT, DHANMONDI_LON, 10, 20.0).stream()
+                .map(LawyerGeoIndex.Hit::lawyerId).toList());
+        // Nothing within reach of a point in the Bay of Bengal
+        assertTrue(index.nearest(20.0, 90.0, 10, 50.0).isEmpty());
+    }
+
+    @Test
+    void upsertMovesALawyer() {
+        LawyerGeoIndex index = index();
+        index.upsert(new LawyerGeoIndex.Point(5L, "Dhanmondi", DHANMONDI_LAT, DHANMONDI_LON + 0.001));
+
+        assertEquals(6, index.size());
+        List<LawyerGeoIndex.Hit> hits = index.nearest(DHANMONDI_LAT, DHANMONDI_LON, 2, null);
+        assertEquals(List.of(2L, 5L), hits.stream().map(LawyerGeoIndex.Hit::lawyerId).toList());
+        assertEquals("Sylhet", index.nearest(24.8949, 91.8687, 1, null).get(0).place());
+    }
+
+    private static LawyerGeoIndex index() {
+        LawyerGeoIndex index = new LawyerGeoIndex();
+        index.load(List.of(
+                new LawyerGeoIndex.Point(1L, "Dhaka", 23.8103, 90.4125),
+                new LawyerGeoIndex.Point(2L, "Dhanmondi", DHANMONDI_LAT, DHANMONDI_LON),
+                new LawyerGeoIndex.Point(3L, "Gazipur", 23.9999, 90.4203),
+                new LawyerGeoIndex.Point(4L, "Narayanganj", 23.6238, 90.5000),
+                new LawyerGeoIndex.Point(5L, "Chattogram", 22.3569, 91.7832),
+                new LawyerGeoIndex.Point(6L, "Sylhet", 24.8949, 91.8687)));
+        return index;
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.sssamira.legalsheba.search;
+
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Query latency over a synthetic 20k-lawyer directory, and the cost of the rebuild a registration triggers.
+// Run with: mvn test -Pperf -Dtest=LawyerRelevanceIndexPerfTest
+@Tag("perf")
+class LawyerRelevanceIndexPerfTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LawyerRelevanceIndexPerfTest.class);
+
+    private static final int LAWYERS = 20_000;
+    private static final String[] AREAS = {"Family", "Criminal", "Property", "Civil", "Corporate", "Tax", "Labour",
+            "Cyber", "Banking", "Immigration", "Intellectual Property", "Inheritance", "Constitutional", "Consumer"};
+    private static final String[] DISTRICTS = {"Dhaka", "Chattogram", "Sylhet", "Rajshahi", "Khulna", "Barishal",
+            "Rangpur", "Mymensingh", "Gazipur", "Narayanganj", "Cumilla", "Bogura", "Jessore", "Noakhali"};
+    private static final String[] QUERIES = {
+            "My husband wants a divorce and custody of our children",
+            "Police arrested my brother without a warrant, we need bail",
+            "Landlord is forcing eviction and keeping the rent deposit",
+            "Dispute with my siblings over my father's will and the land",
+            "Company director refuses to pay the shareholder dividend",
+            "My facebook account was hacked and used for blackmail",
+            "Employer terminated me without paying salary or gratuity",
+            "Cheque bounce case against a debtor who took a loan"};
+
+    @Test
+    void queryAndRebuildLatency() {
+        Random random = new Random(42);
+        LawyerRelevanceIndex index = new LawyerRelevanceIndex(null, null);
+        List<LawyerDirectoryRow> rows = new ArrayList<>();
+        Map<Long, List<String>> specialties = new HashMap<>();
+        for (long id = 1; id <= LAWYERS; id++) {
+            String district = DISTRICTS[random.nextInt(DISTRICTS.length)];
+            rows.add(new LawyerDirectoryRow(id, "Lawyer " + id, random.nextInt(30),
+                    "Road " + random.nextInt(50) + ", " + district, district + " Judge Court", null, null));
+            specialties.put(id, List.of(AREAS[random.nextInt(AREAS.length)], AREAS[random.nextInt(AREAS.length)]));
+        }
+        index.load(rows, specialties);
+
+        long[] rebuildNanos = new long[20];
+        for (int i = 0; i < rebuildNanos.length; i++) {
+            LawyerDirectoryRow row = rows.get(random.nextInt(LAWYERS));
+            long start = System.nanoTime();
+            index.upsert(row, List.of(AREAS[random.nextInt(AREAS.length)]));
+            rebuildNanos[i] = System.nanoTime() - start;
+        }
+
+        for (int i = 0; i < 20_000; i++) index.recommend(QUERIES[i % QUERIES.length], 10);
+        long[] queryNanos = new long[5_000];
+        for (int i = 0; i < queryNanos.length; i++) {
+            long start = System.nanoTime();
+            assertFalse(index.recommend(QUERIES[i % QUERIES.length], 10).isEmpty());
+            queryNanos[i] = System.nanoTime() - start;
+        }
+
+        log.info("recommend over {} lawyers: p50 {} us, p90 {} us, p99 {} us", LAWYERS,
+                percentile(queryNanos, 50) / 1_000, percentile(queryNanos, 90) / 1_000, percentile(queryNanos, 99) / 1_000);
+        log.info("upsert (snapshot rebuild) at {} lawyers: p50 {} ms", LAWYERS, percentile(rebuildNanos, 50) / 1_000_000);
+    }
+
+    private static long percentile(long[] nanos, int p) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.sssamira.legalsheba.search;
+
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Specialties outrank the court, which outranks the location; lay words reach the legal area they mean
+class LawyerRelevanceIndexTest {
+
+    @Test
+    void fieldWeightsOrderTheMatches() {
+        LawyerRelevanceIndex index = new LawyerRelevanceIndex(null, null);
+        index.upsert(lawyer(1, "Criminal Lane", null), List.of());
+        index.upsert(lawyer(2, null, "Criminal Court"), List.of());
+        index.upsert(lawyer(3, null, null), List.of("Criminal"));
+        index.upsert(lawyer(4, "Dhaka", "Dhaka Judge Court"), List.of("Family"));
+
+        assertEquals(List.of(3L, 2L, 1L), ids(index.recommend("criminal", 10)));
+        assertEquals(List.of(3L, 2L), ids(index.recommend("criminal", 2)));
+        // Plural folding on both sides
+        assertEquals(List.of(4L), ids(index.recommend("families", 10)));
+        assertTrue(index.recommend("the of and", 10).isEmpty());
+    }
+
+    @Test
+    void layWordsExpandToLegalAreas() {
+        LawyerRelevanceIndex index = new LawyerRelevanceIndex(null, null);
+        index.upsert(lawyer(1, "Dhaka", null), List.of("Family"));
+        index.upsert(lawyer(2, "Dhaka", null), List.of("Inheritance", "Civil"));
+        index.upsert(lawyer(3, "Sylhet", null), List.of("Criminal"));
+
+        List<LawyerRelevanceIndex.Match> divorce = index.recommend("My husband wants a divorce and custody", 10);
+        assertEquals(List.of(1L), ids(divorce));
+        assertEquals(List.of("family"), divorce.get(0).getMatchedTerms());
+
+        // "will" is a stopword, but still a lay word for inheritance
+        List<LawyerRelevanceIndex.Match> will = index.recommend("My father left a will", 10);
+        assertEquals(List.of(2L), ids(will));
+        assertEquals(List.of("inheritance"), will.get(0).getMatchedTerms());
+
+        // A direct match outweighs an expansion of the same strength
+        assertEquals(List.of(3L, 1L), ids(index.recommend("criminal divorce", 10)));
+    }
+
+    private static LawyerDirectoryRow lawyer(long id, String location, String court) {
+        return new LawyerDirectoryRow(id, "Lawyer " + id, 5, location, court, null, null);
+    }
+
+    private static List<Long> ids(List<LawyerRelevanceIndex.Match> matches) {
+        return matches.stream().map(LawyerRelevanceIndex.Match::getLawyerId).toList();
+    }
+}
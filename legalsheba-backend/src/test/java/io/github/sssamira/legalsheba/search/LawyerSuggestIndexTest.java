@@ -0,0 +1,61 @@
+package io.github.sssamira.legalsheba.search;
+
+import io.github.sssamira.legalsheba.repository.LawyerDirectoryRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A term that loses its last lawyer leaves the top-k lists it sat in, and the term those lists had no room
+// for takes its place
+class LawyerSuggestIndexTest {
+
+    @Test
+    void termsDownToZeroWeightMakeRoomForCrowdedOutOnes() {
+        LawyerSuggestIndex index = new LawyerSuggestIndex(null, null);
+        long id = 1;
+        // Ten places under "dh", two lawyers each, fill every top-k list on the way
+        for (char c = 'a'; c < 'k'; c++) {
+            index.upsert(lawyer(id++, "Dh" + c), List.of());
+            index.upsert(lawyer(id++, "Dh" + c), List.of());
+        }
+        index.upsert(lawyer(id, "Dhanmondi"), List.of());
+        assertFalse(texts(index.suggest("dh", 20)).contains("Dhanmondi"));
+
+        // Both lawyers of "Dha" move away
+        index.upsert(lawyer(1, "Sylhet"), List.of());
+        index.upsert(lawyer(2, "Sylhet"), List.of());
+
+        List<String> texts = texts(index.suggest("dh", 20));
+        assertFalse(texts.contains("Dha"));
+        assertTrue(texts.contains("Dhanmondi"));
+        assertEquals(10, texts.size());
+    }
+
+    @Test
+    void weightChangesReorderSuggestions() {
+        LawyerSuggestIndex index = new LawyerSuggestIndex(null, null);
+        index.upsert(lawyer(1, "Gazipur"), List.of());
+        index.upsert(lawyer(2, "Gaibandha"), List.of());
+        index.upsert(lawyer(3, "Gaibandha"), List.of());
+        assertEquals(List.of("Gaibandha", "Gazipur"), texts(index.suggest("ga", 5)));
+
+        index.upsert(lawyer(2, "Gazipur"), List.of());
+        index.upsert(lawyer(3, "Gazipur"), List.of());
+        assertEquals(List.of("Gazipur"), texts(index.suggest("ga", 5)));
+    }
+
+    private static LawyerDirectoryRow lawyer(long id, String location) {
+        return new LawyerDirectoryRow(id, "Name " + id, 5, location, null, null, null);
+    }
+
+    private static List<String> texts(List<LawyerSuggestIndex.Suggestion> suggestions) {
+        return suggestions.stream()
+                .filter(s -> !LawyerSuggestIndex.NAME.equals(s.getType()))
+                .map(LawyerSuggestIndex.Suggestion::getText)
+                .toList();
+    }
+}
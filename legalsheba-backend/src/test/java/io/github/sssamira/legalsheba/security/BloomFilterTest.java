@@ -0,0 +1,39 @@
+package io.github.sssamira.legalsheba.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void everyAddedKeyIsFoundAndFewOthersAre() {
+        Random random = new Random(42);
+        BloomFilter filter = new BloomFilter(10_000);
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String jti = new UUID(random.nextLong(), random.nextLong()).toString();
+            added.add(jti);
+            filter.add(BloomFilter.hash(jti));
+        }
+        for (String jti : added) assertTrue(filter.mightContain(BloomFilter.hash(jti)), jti);
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(BloomFilter.hash(new UUID(random.nextLong(), random.nextLong()).toString()))) falsePositives++;
+        }
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives in 100000");
+    }
+
+    @Test
+    void numericKeysAreNeverMissed() {
+        BloomFilter filter = new BloomFilter(1_000);
+        for (long id = 1; id <= 5_000; id++) filter.add(BloomFilter.hash(id));
+        for (long id = 1; id <= 5_000; id++) assertTrue(filter.mightContain(BloomFilter.hash(id)), "id " + id);
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.sssamira.legalsheba.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void calibrationStaysBetweenTheDefaultAndTheConfiguredMaximum() {
+        BoundedPasswordEncoder cheapest = new BoundedPasswordEncoder(1, 1, 0, 0, 14);
+        BoundedPasswordEncoder capped = new BoundedPasswordEncoder(1, 1, 0, 60_000, 11);
+        try {
+            assertEquals(10, cheapest.stats().strength());
+            assertEquals(11, capped.stats().strength());
+        } finally {
+            cheapest.shutdown();
+            capped.shutdown();
+        }
+    }
+
+    @Test
+    void fullQueueRejectsAtOnce() throws Exception {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(1, 1, 4, 0, 14);
+        try {
+            // One hash running and one queued, each checking against a cost-14 hash
+            String slow = costly(14);
+            CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("x", slow));
+            awaitQueued(encoder, 0, 1);
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("x", slow));
+            awaitQueued(encoder, 1, 1);
+
+            assertThrows(BoundedPasswordEncoder.HashingBusyException.class, () -> encoder.encode("secret"));
+            assertEquals(1, encoder.stats().rejected());
+            assertFalse(running.get());
+            assertFalse(queued.get());
+            assertTrue(encoder.matches("secret", encoder.encode("secret")));
+        } finally {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void hashesBelowTheWorkFactorNeedAnUpgrade() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(1, 1, 5, 0, 14);
+        try {
+            assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+            assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        } finally {
+            encoder.shutdown();
+        }
+    }
+
+    // A well-formed hash of the given cost: matching against it costs as much as a real one
+    static String costly(int strength) {
+        return new BCryptPasswordEncoder(4).encode("other").replaceFirst("\\$04\\$", "\\$" + strength + "\\$");
+    }
+
+    static void awaitQueued(BoundedPasswordEncoder encoder, int queued, int active) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (encoder.stats().queued() != queued || encoder.stats().active() != active) {
+            if (System.currentTimeMillis() > deadline) throw new AssertionError("Hashing pool never reached " + encoder.stats());
+            Thread.sleep(1);
+        }
+    }
+}
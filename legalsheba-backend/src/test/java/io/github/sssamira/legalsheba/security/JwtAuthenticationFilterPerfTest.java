@@ -0,0 +1,124 @@
+package io.github.sssamira.legalsheba.security;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.repository.UserRepository;
+import io.github.sssamira.legalsheba.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Per-request cost of authenticating a bearer token: the filter with a claims-carrying token, the filter with a
+// token issued before tokens carried the user id and role, and the pre-change path (three parses that each
+// rebuild the HMAC key, plus a user lookup through JPA) reproduced here as the baseline.
+// Run with: mvn test -Pperf -Dtest=JwtAuthenticationFilterPerfTest
+@Tag("perf")
+@SqliteSpringBootTest
+class JwtAuthenticationFilterPerfTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilterPerfTest.class);
+
+    private static final int WARM_UP = 20_000;
+    private static final int MEASURED = 5_000;
+    private static final FilterChain NOTHING = (request, response) -> {
+    };
+
+    @Autowired
+    private JwtAuthenticationFilter filter;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Test
+    void filterLatency() throws Exception {
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .fName("Perf User")
+                .email("perf@seed.test")
+                .password("x")
+                .role("USER")
+                .build());
+        String withClaims = jwtService.generateToken(user);
+        String withoutClaims = jwtService.generateToken(User.withUsername(user.getEmail()).password("x").roles("USER").build(), Map.of());
+
+        report("before (3 parses + JPA lookup)", measure(() -> assertEquals(user.getEmail(), authenticateLikeBefore(withClaims))));
+        report("filter, claims token", measure(() -> assertTrue(filterAuthenticates(withClaims))));
+        report("filter, token without claims", measure(() -> assertTrue(filterAuthenticates(withoutClaims))));
+    }
+
+    private boolean filterAuthenticates(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/appointments");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), NOTHING);
+        boolean authenticated = SecurityContextHolder.getContext().getAuthentication() != null;
+        SecurityContextHolder.clearContext();
+        return authenticated;
+    }
+
+    // What the filter did before: extractUsername, load the user, then isTokenValid parsing twice more
+    private String authenticateLikeBefore(String token) {
+        String username = parseLikeBefore(token).getSubject();
+        UserEntity user = userRepository.findByEmail(username).orElseThrow();
+        assertNotNull(user.getPassword());
+        boolean valid = parseLikeBefore(token).getSubject().equals(user.getEmail())
+                && !parseLikeBefore(token).getExpiration().before(new Date());
+        return valid ? username : null;
+    }
+
+    private Claims parseLikeBefore(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static long[] measure(Call call) throws Exception {
+        for (int i = 0; i < WARM_UP; i++) call.run();
+        long[] nanos = new long[MEASURED];
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            call.run();
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static void report(String what, long[] nanos) {
+        log.info("{}: p50 {} us, p90 {} us, p99 {} us", what,
+                percentile(nanos, 50) / 1_000, percentile(nanos, 90) / 1_000, percentile(nanos, 99) / 1_000);
+    }
+
+    private static long percentile(long[] nanos, int p) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+    }
+
+    private interface Call {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.sssamira.legalsheba.security;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.concurrent.CompletableFuture;
+
+import static io.github.sssamira.legalsheba.security.BoundedPasswordEncoderTest.awaitQueued;
+import static io.github.sssamira.legalsheba.security.BoundedPasswordEncoderTest.costly;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Sign-in through the bounded encoder: a saturated pool answers 503 with Retry-After, and a hash below the
+// work factor is replaced after a successful login
+@SqliteSpringBootTest(properties = {
+        "auth.hashing.threads=1",
+        "auth.hashing.queue-capacity=1",
+        "auth.hashing.strength=5"
+})
+@AutoConfigureMockMvc
+class PasswordHashingLoginTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private BoundedPasswordEncoder encoder;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void loginRehashesAWeakerHash() throws Exception {
+        String email = user("weak@seed.test", new BCryptPasswordEncoder(4).encode("pw123456"));
+
+        login(email).andExpect(status().isOk());
+        String stored = storedHash(email);
+        assertTrue(stored.startsWith("$2a$05$"), stored);
+        assertFalse(encoder.upgradeEncoding(stored));
+        // The cached identity was dropped along with the old hash
+        login(email).andExpect(status().isOk());
+    }
+
+    @Test
+    void saturatedPoolAnswers503() throws Exception {
+        String email = user("busy@seed.test", encoder.encode("pw123456"));
+        String slow = costly(14);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("x", slow));
+        awaitQueued(encoder, 0, 1);
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("x", slow));
+        awaitQueued(encoder, 1, 1);
+
+        login(email)
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").exists());
+        running.join();
+        queued.join();
+        login(email).andExpect(status().isOk());
+    }
+
+    private String user(String email, String hash) {
+        userRepository.save(UserEntity.builder().fName("Hash Test").email(email).password(hash).role("USER").build());
+        return email;
+    }
+
+    private ResultActions login(String email) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"pw123456\"}"));
+    }
+
+    private String storedHash(String email) {
+        return jdbcTemplate.queryForObject("select password from users where email = ?", String.class, email);
+    }
+}
@@ -0,0 +1,217 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.Appointment;
+import io.github.sssamira.legalsheba.model.LawyerProfile;
+import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
+import io.github.sssamira.legalsheba.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Hammers AppointmentService from many threads against a throwaway SQLite file and checks that no
+// lawyer ever ends up with two active appointments in the same slot, and that the statistics counters
+// written in the booking transactions still match a full recount
+@SqliteSpringBootTest(properties = "appointments.slot-minutes=60")
+class AppointmentServiceConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentServiceConcurrencyTest.class);
+    private static final int THREADS = 16;
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 6, 0, 0);
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private AppointmentStatsService appointmentStatsService;
+    @Autowired
+    private BookingIntakeService bookingIntakeService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private LawyerProfileRepository lawyerProfileRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sameLawyerContentionBooksEachSlotExactlyOnce() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        int slots = 24;
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        long nanos = runConcurrently(THREADS, t -> {
+            List<Integer> hours = new ArrayList<>();
+            for (int h = 0; h < slots; h++) hours.add(h);
+            Collections.shuffle(hours, new Random(t));
+            for (int h : hours) {
+                if (tryBook(client, lawyer, DAY.plusHours(h))) booked.incrementAndGet();
+                else conflicts.incrementAndGet();
+            }
+        });
+
+        report("same lawyer", booked.get() + conflicts.get(), booked.get(), nanos);
+        assertEquals(slots, booked.get());
+        assertEquals(THREADS * slots - slots, conflicts.get());
+        assertEquals(0, overlappingPairs());
+        assertTrue(appointmentStatsService.verify(lawyer.getId(), false).consistent());
+    }
+
+    @Test
+    void manyLawyersBookInParallelWithoutDoubleBooking() throws Exception {
+        UserEntity client = newUser("USER");
+        List<LawyerProfile> lawyers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) lawyers.add(newLawyer());
+        int attemptsPerThread = 150;
+
+        Set<String> expected = ConcurrentHashMap.newKeySet();
+        AtomicInteger booked = new AtomicInteger();
+        long nanos = runConcurrently(THREADS, t -> {
+            Random random = new Random(1000 + t);
+            for (int i = 0; i < attemptsPerThread; i++) {
+                LawyerProfile lawyer = lawyers.get(random.nextInt(lawyers.size()));
+                // Half-hour starts with one-hour appointments: neighbours overlap too
+                LocalDateTime start = DAY.plusMinutes(30L * random.nextInt(96));
+                if (tryBook(client, lawyer, start)) {
+                    booked.incrementAndGet();
+                    expected.add(lawyer.getId() + "@" + start);
+                }
+            }
+        });
+
+        report("8 lawyers", THREADS * attemptsPerThread, booked.get(), nanos);
+        assertEquals(expected.size(), booked.get());
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from appointments where lawyer_id in ("
+                + String.join(",", lawyers.stream().map(l -> l.getId().toString()).toList()) + ")", Integer.class);
+        assertEquals(booked.get(), rows);
+        assertEquals(0, overlappingPairs());
+        for (LawyerProfile lawyer : lawyers) assertTrue(appointmentStatsService.verify(lawyer.getId(), false).consistent());
+    }
+
+    @Test
+    void queuedIntakeBooksEachKeyOnceUnderRetries() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        // Two keys per hour, so half of them lose their slot; every thread submits every key
+        int keys = 48;
+
+        Map<String, Set<String>> answers = new ConcurrentHashMap<>();
+        long nanos = runConcurrently(THREADS, t -> {
+            List<Integer> order = new ArrayList<>();
+            for (int k = 0; k < keys; k++) order.add(k);
+            Collections.shuffle(order, new Random(2000 + t));
+            for (int k : order) {
+                Appointment appt = Appointment.builder()
+                        .client(client)
+                        .lawyer(lawyer)
+                        .appointmentDate(DAY.plusHours(k / 2).toString())
+                        .status("PENDING")
+                        .build();
+                BookingIntakeService.IntakeResult r = bookingIntakeService.submit(appt, "key-" + k).result().get(30, TimeUnit.SECONDS);
+                answers.computeIfAbsent("key-" + k, x -> ConcurrentHashMap.newKeySet()).add(r.status() + ":" + r.appointmentId());
+            }
+        });
+
+        report("intake retries", THREADS * keys, keys / 2, nanos);
+        assertEquals(keys, answers.size());
+        answers.forEach((key, seen) -> assertEquals(1, seen.size(), key + " answered differently: " + seen));
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from appointments where lawyer_id = ?", Integer.class, lawyer.getId());
+        assertEquals(keys / 2, rows);
+        Integer records = jdbcTemplate.queryForObject("select count(*) from booking_requests where client_id = ?", Integer.class, client.getId());
+        assertEquals(keys, records);
+        assertEquals(0, overlappingPairs());
+        assertTrue(appointmentStatsService.verify(lawyer.getId(), false).consistent());
+    }
+
+    // Active appointments of the same lawyer less than slot-minutes apart
+    private int overlappingPairs() {
+        Integer n = jdbcTemplate.queryForObject("""
+                select count(*) from appointments a join appointments b
+                  on a.lawyer_id = b.lawyer_id and a.id < b.id
+                 and a.status in ('PENDING', 'CONFIRMED', 'IN_PROGRESS')
+                 and b.status in ('PENDING', 'CONFIRMED', 'IN_PROGRESS')
+                 and abs(strftime('%s', a.appointment_date) - strftime('%s', b.appointment_date)) < 3600
+                """, Integer.class);
+        return n == null ? 0 : n;
+    }
+
+    private boolean tryBook(UserEntity client, LawyerProfile lawyer, LocalDateTime start) {
+        try {
+            appointmentService.book(Appointment.builder()
+                    .client(client)
+                    .lawyer(lawyer)
+                    .appointmentDate(start.toString())
+                    .status("PENDING")
+                    .build());
+            return true;
+        } catch (AppointmentService.SlotConflictException e) {
+            return false;
+        }
+    }
+
+    private long runConcurrently(int threads, ThreadBody body) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            futures.add(pool.submit((Callable<Void>) () -> {
+                start.await();
+                body.run(id);
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<Void> f : futures) f.get();
+        long nanos = System.nanoTime() - begin;
+        pool.shutdown();
+        return nanos;
+    }
+
+    private static void report(String scenario, int attempts, int booked, long nanos) {
+        log.debug("[booking stress] {}: {} attempts ({} booked) by {} threads in {} ms = {} attempts/s",
+                scenario, attempts, booked, THREADS, nanos / 1_000_000, Math.round(attempts / (nanos / 1e9)));
+    }
+
+    private UserEntity newUser(String role) {
+        return userRepository.save(UserEntity.builder()
+                .fName("Stress " + role)
+                .email(UUID.randomUUID() + "@stress.test")
+                .password("x")
+                .role(role)
+                .build());
+    }
+
+    private LawyerProfile newLawyer() {
+        return lawyerProfileRepository.save(LawyerProfile.builder().user(newUser("LAWYER")).experience(1).build());
+    }
+
+    @FunctionalInterface
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+}
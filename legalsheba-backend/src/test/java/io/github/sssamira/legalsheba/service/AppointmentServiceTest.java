@@ -0,0 +1,148 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.Appointment;
+import io.github.sssamira.legalsheba.model.LawyerProfile;
+import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.repository.AppointmentSlotRepository;
+import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
+import io.github.sssamira.legalsheba.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+// Single-threaded behaviour of AppointmentService against a throwaway SQLite file
+@SqliteSpringBootTest(properties = "appointments.slot-minutes=60")
+class AppointmentServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 2, 4, 9, 0);
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private LawyerProfileRepository lawyerProfileRepository;
+    @Autowired
+    private AppointmentStatsService appointmentStatsService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockitoSpyBean
+    private AppointmentSlotRepository appointmentSlotRepository;
+
+    @Test
+    void onlyTheSlotUniqueKeyCountsAsAConflict() {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        appointmentService.book(appointment(client, lawyer, DAY));
+
+        // Another instance reserved the buckets after the pre-check: the insert fails on the unique key
+        doReturn(false).when(appointmentSlotRepository).existsByLawyerIdAndSlotStartIn(any(), any());
+        assertThrows(AppointmentService.SlotConflictException.class,
+                () -> appointmentService.book(appointment(client, lawyer, DAY.plusMinutes(30))));
+
+        // A client that does not exist fails its foreign key: an error, not a 409
+        UserEntity missing = UserEntity.builder().id(Long.MAX_VALUE).build();
+        DataAccessException e = assertThrows(DataAccessException.class,
+                () -> appointmentService.book(appointment(missing, lawyer, DAY.plusDays(1))));
+        assertFalse(AppointmentService.isSlotConflict(e));
+    }
+
+    @Test
+    void statisticsFollowEveryKindOfChange() {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        Appointment first = appointmentService.book(appointment(client, lawyer, DAY));
+        appointmentService.book(appointment(client, lawyer, DAY.plusDays(1)));
+        appointmentService.changeStatus(first, "CONFIRMED");
+
+        Appointment overlapping = appointment(client, lawyer, DAY);
+        Appointment undated = appointment(client, lawyer, DAY);
+        undated.setAppointmentDate("next week");
+        List<AppointmentService.BookingOutcome> outcomes = appointmentService.bookAll(List.of(
+                appointment(client, lawyer, DAY.plusHours(2)), overlapping, undated,
+                appointment(client, lawyer, DAY.plusDays(2))), booked -> { });
+        assertEquals(List.of("BOOKED", "CONFLICT", "INVALID", "BOOKED"), outcomes.stream().map(AppointmentService.BookingOutcome::status).toList());
+        Appointment later = outcomes.get(0).appointment();
+
+        // A rejected request re-activated into the slot the first appointment gives up in the same batch
+        Appointment rejected = appointment(client, lawyer, DAY);
+        rejected.setStatus("REJECTED");
+        rejected = appointmentService.book(rejected);
+        Map<Appointment, String> changes = new LinkedHashMap<>();
+        changes.put(first, "COMPLETED");
+        changes.put(later, "COMPLETED");
+        changes.put(rejected, "PENDING");
+        assertEquals(Set.of(), appointmentService.changeStatuses(lawyer.getId(), changes));
+
+        AppointmentStatsService.Verification v = appointmentStatsService.verify(lawyer.getId(), false);
+        assertTrue(v.consistent(), () -> v.mismatches().toString());
+        assertEquals(5, v.appointments());
+        assertEquals(Map.of("COMPLETED", 2L, "PENDING", 3L), appointmentStatsService.totals(lawyer.getId()));
+        assertEquals(Map.of(DAY.toLocalDate(), Map.of("COMPLETED", 2L, "PENDING", 1L)),
+                appointmentStatsService.byDay(lawyer.getId(), DAY.toLocalDate(), DAY.toLocalDate()));
+    }
+
+    @Test
+    void verifyReportsDriftAndRepairsItOnRequest() {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        appointmentService.changeStatus(appointmentService.book(appointment(client, lawyer, DAY)), "CONFIRMED");
+        appointmentService.book(appointment(client, lawyer, DAY.plusDays(1)));
+        jdbcTemplate.update("update appointment_stats set n = n + 5 where lawyer_id = ? and day = '*' and status = 'PENDING'", lawyer.getId());
+        jdbcTemplate.update("insert into appointment_stats(lawyer_id, day, status, n) values (?, '2030-01-01', 'REJECTED', 2)", lawyer.getId());
+
+        AppointmentStatsService.Verification report = appointmentStatsService.verify(lawyer.getId(), false);
+        assertFalse(report.consistent());
+        assertFalse(report.repaired());
+        assertEquals(List.of(new AppointmentStatsService.Mismatch("*", "PENDING", 6, 1),
+                new AppointmentStatsService.Mismatch("2030-01-01", "REJECTED", 2, 0)), report.mismatches());
+        assertFalse(appointmentStatsService.verify(lawyer.getId(), false).consistent());
+
+        AppointmentStatsService.Verification repair = appointmentStatsService.verify(lawyer.getId(), true);
+        assertTrue(repair.repaired());
+        assertEquals(report.mismatches(), repair.mismatches());
+        assertTrue(appointmentStatsService.verify(lawyer.getId(), false).consistent());
+        assertEquals(Map.of("CONFIRMED", 1L, "PENDING", 1L), appointmentStatsService.totals(lawyer.getId()));
+        // Nothing to repair the second time
+        assertFalse(appointmentStatsService.verify(lawyer.getId(), true).repaired());
+    }
+
+    private static Appointment appointment(UserEntity client, LawyerProfile lawyer, LocalDateTime start) {
+        return Appointment.builder()
+                .client(client)
+                .lawyer(lawyer)
+                .appointmentDate(start.toString())
+                .status("PENDING")
+                .build();
+    }
+
+    private UserEntity newUser(String role) {
+        return userRepository.save(UserEntity.builder()
+                .fName("Test " + role)
+                .email(UUID.randomUUID() + "@appointments.test")
+                .password("x")
+                .role(role)
+                .build());
+    }
+
+    private LawyerProfile newLawyer() {
+        return lawyerProfileRepository.save(LawyerProfile.builder().user(newUser("LAWYER")).experience(1).build());
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.event.AppointmentChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Reconnects resume from Last-Event-ID or are told to resync, and a subscriber that stops reading is
+// dropped without holding up the others
+class AppointmentStreamServiceTest {
+
+    private static final long LAWYER = 1, CLIENT = 2, OTHER = 3;
+
+    // Emitters created by the service under test, in subscription order; the next one blocks in send
+    // until the latch opens when blockNext is set
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch blockNext;
+    private final AppointmentStreamService service = new AppointmentStreamService() {
+        @Override
+        SseEmitter newEmitter(long timeout) {
+            RecordingEmitter emitter = new RecordingEmitter(blockNext);
+            blockNext = null;
+            emitters.add(emitter);
+            return emitter;
+        }
+    };
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void reconnectReplaysOnlyTheMissedEventsOfThatUser() throws Exception {
+        RecordingEmitter first = subscribe(CLIENT, null);
+        publish(10, CLIENT);
+        await(() -> first.events.size() == 2);
+        String lastSeen = first.lastId();
+
+        publish(11, OTHER);
+        publish(12, CLIENT);
+        publish(13, CLIENT);
+        RecordingEmitter resumed = subscribe(CLIENT, lastSeen);
+        await(() -> resumed.events.size() == 3);
+        assertEquals(":connected", resumed.events.get(0));
+        assertEquals(List.of("12", "13"), resumed.events.subList(1, 3).stream()
+                .map(e -> e.substring(e.lastIndexOf(':') + 1)).toList());
+        // The lawyer side of every event reaches the lawyer, and nothing of OTHER's reaches the client
+        RecordingEmitter lawyer = subscribe(LAWYER, lastSeen);
+        await(() -> lawyer.events.size() == 4);
+    }
+
+    @Test
+    void unknownOrTooOldIdAsksForResync() throws Exception {
+        publish(1, CLIENT);
+        RecordingEmitter probe = subscribe(CLIENT, null);
+        publish(2, CLIENT);
+        await(() -> probe.events.size() == 2);
+        String old = probe.lastId();
+        String bootId = old.substring(0, old.lastIndexOf('-'));
+
+        // From another process, from the future, or malformed
+        for (String id : List.of("kq2x1-2", bootId + "-99", bootId + "-x", "2")) {
+            RecordingEmitter e = subscribe(CLIENT, id);
+            await(() -> e.events.size() == 1);
+            assertTrue(e.events.get(0).contains("event:resync"), id);
+        }
+
+        // Pushed out of the replay ring by other users' events
+        for (int i = 0; i < 1100; i++) publish(100 + i, OTHER);
+        RecordingEmitter late = subscribe(CLIENT, old);
+        await(() -> late.events.size() == 1);
+        assertTrue(late.events.get(0).contains("event:resync"));
+
+        // Still in the ring, but more than a subscriber may have queued
+        RecordingEmitter current = subscribe(CLIENT, null);
+        await(() -> current.events.size() == 1);
+        publishAll(2000, AppointmentStreamService.MAX_BACKLOG, current);
+        RecordingEmitter behind = subscribe(CLIENT, bootId + "-" + (Long.parseLong(current.lastId().substring(bootId.length() + 1))
+                - AppointmentStreamService.MAX_BACKLOG));
+        await(() -> behind.events.size() == 1);
+        assertTrue(behind.events.get(0).contains("event:resync"));
+    }
+
+    @Test
+    void stalledSubscriberIsDroppedWithoutDelayingOthers() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        blockNext = unblock;
+        RecordingEmitter stalled = subscribe(CLIENT, null);
+        RecordingEmitter healthy = subscribe(CLIENT, null);
+        await(() -> healthy.events.size() == 1);
+
+        int events = AppointmentStreamService.MAX_BACKLOG + 10;
+        publishAll(0, events, healthy);
+        assertTrue(stalled.events.isEmpty());
+        assertFalse(stalled.completed);
+
+        // Once its socket gives way the stalled stream is completed, not fed the rest of its backlog
+        unblock.countDown();
+        await(() -> stalled.completed);
+        assertTrue(stalled.events.size() < AppointmentStreamService.MAX_BACKLOG);
+        publish(events, CLIENT);
+        await(() -> healthy.events.size() == 2 + events);
+        assertFalse(healthy.completed);
+    }
+
+    private RecordingEmitter subscribe(long userId, String lastEventId) {
+        service.subscribe(userId, lastEventId);
+        return emitters.get(emitters.size() - 1);
+    }
+
+    private void publish(long appointmentId, long clientId) {
+        service.onAppointmentChanged(new AppointmentChangedEvent(appointmentId, 7L, LAWYER, clientId,
+                "2030-01-01T09:00", "PENDING", "CONFIRMED"));
+    }
+
+    // Publishes count events for CLIENT, letting reader keep up so that only a stalled subscriber overflows
+    private void publishAll(long firstId, int count, RecordingEmitter reader) throws InterruptedException {
+        int start = reader.events.size();
+        for (int i = 0; i < count; i++) {
+            publish(firstId + i, CLIENT);
+            int sent = i + 1;
+            if (sent % 32 == 0 || sent == count) await(() -> reader.events.size() == start + sent);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    // Keeps each event as its SSE text, with an appointment's payload reduced to its id
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch block;
+        volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch block) {
+            this.block = block;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (block != null) {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (DataWithMediaType part : builder.build()) {
+                Object data = part.getData();
+                text.append(data instanceof AppointmentStreamService.AppointmentStreamEvent e ? e.appointmentId() : data);
+            }
+            events.add(text.toString().trim());
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        String lastId() {
+            String last = events.get(events.size() - 1);
+            return last.substring(3, last.indexOf('\n'));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.repository.AvailabilitySlotRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Free-text availability as lawyers actually write it; days are ISO numbers (Mon=1 .. Sun=7)
+class AvailabilityParserTest {
+
+    @Test
+    void dayListsAndRanges() {
+        assertEquals(slots(List.of(7, 4, 1), "09:00", "21:05"), parse("Sunday, Thursday, Monday, 09:00–21:05", null));
+        // Ranges wrap over the end of the week
+        assertEquals(slots(List.of(7, 1, 2, 3, 4), "10:00", "17:00"), parse("Sun-Thu 10am-5pm", null));
+        assertEquals(slots(List.of(4, 5, 6, 7), "10:00", "13:00"), parse("Thursday to Sunday 10am-1pm", null));
+        assertEquals(slots(List.of(5, 6), "10:00", "12:00"), parse("Weekends 10:00-12:00", null));
+    }
+
+    @Test
+    void segmentsAndTimesWithoutDays() {
+        List<AvailabilitySlotRow> expected = new ArrayList<>(slots(List.of(7, 1, 2, 3, 4), "15:00", "17:00"));
+        expected.add(slot(6, "10:00", "12:00"));
+        assertEquals(expected, parse("Weekdays 3-5pm; Sat 10:00-12:00", null));
+        // A segment without days keeps the previous segment's
+        expected = new ArrayList<>(slots(List.of(2), "09:00", "11:00"));
+        expected.add(slot(2, "14:00", "16:00"));
+        assertEquals(expected, parse("Tuesday 9-11\n14:00-16:00", null));
+        // The time may come from v_hour alone, which means every day
+        assertEquals(slots(List.of(1, 2, 3, 4, 5, 6, 7), "18:00", "20:00"), parse(null, "6pm-8pm"));
+    }
+
+    @Test
+    void twelveAndTwentyFourHourTimes() {
+        assertEquals(slots(List.of(1), "15:00", "17:00"), parse("Mon 3-5pm", null));
+        assertEquals(slots(List.of(1), "11:00", "13:00"), parse("Mon 11am-1pm", null));
+        assertEquals(slots(List.of(1), "12:00", "14:30"), parse("Mon 12pm to 2.30pm", null));
+        assertEquals(slots(List.of(1), "10:00", "17:00"), parse("Mon 10-5", null));
+        assertEquals(slots(List.of(1), "13:00", "18:00"), parse("Mon 13:00-18:00", null));
+    }
+
+    @Test
+    void overnightWindowsSpillIntoTheNextDay() {
+        assertEquals(List.of(slot(5, "22:00", "24:00"), slot(6, "00:00", "02:00")), parse("Fri 22:00-02:00", null));
+        // Saturday night runs into Sunday
+        assertEquals(List.of(slot(6, "21:00", "24:00"), slot(7, "00:00", "01:00")), parse("Sat 9pm-1am", null));
+        assertEquals(List.of(slot(3, "20:00", "24:00")), parse("Wed 20:00-24:00", null));
+    }
+
+    @Test
+    void unparseableInputYieldsNothing() {
+        assertTrue(parse(null, null).isEmpty());
+        assertTrue(parse("By appointment", "call first").isEmpty());
+        assertTrue(parse("Sunday, Monday", null).isEmpty());
+        assertTrue(parse("Mon 25:00-26:00", null).isEmpty());
+        assertTrue(parse("Mon 10:75-11:00", null).isEmpty());
+        assertTrue(parse("Mon 10am-10am", null).isEmpty());
+    }
+
+    private static List<AvailabilitySlotRow> parse(String details, String vHour) {
+        return AvailabilityParser.parse(1L, details, vHour);
+    }
+
+    private static List<AvailabilitySlotRow> slots(List<Integer> days, String from, String to) {
+        return days.stream().map(d -> slot(d, from, to)).toList();
+    }
+
+    private static AvailabilitySlotRow slot(int day, String from, String to) {
+        return new AvailabilitySlotRow(1L, day, minutes(from), minutes(to));
+    }
+
+    private static int minutes(String hhmm) {
+        String[] p = hhmm.split(":");
+        return Integer.parseInt(p[0]) * 60 + Integer.parseInt(p[1]);
+    }
+}
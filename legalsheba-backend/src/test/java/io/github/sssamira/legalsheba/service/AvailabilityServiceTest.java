@@ -0,0 +1,71 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.LawyerProfile;
+import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.repository.AvailabilitySlotRow;
+import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
+import io.github.sssamira.legalsheba.repository.UserRepository;
+import io.github.sssamira.legalsheba.search.AvailabilityIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The availability index follows committed slot edits only
+@SqliteSpringBootTest
+class AvailabilityServiceTest {
+
+    @Autowired
+    private AvailabilityService availabilityService;
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private LawyerProfileRepository lawyerProfileRepository;
+
+    @Test
+    void rolledBackEditLeavesTheIndexAlone() {
+        Long lawyer = newLawyer().getId();
+        availabilityService.replaceSlots(lawyer, List.of(new AvailabilitySlotRow(lawyer, 1, 9 * 60, 12 * 60)));
+        assertTrue(availableMonday(9 * 60, 10 * 60).contains(lawyer));
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            availabilityService.replaceSlots(lawyer, List.of(new AvailabilitySlotRow(lawyer, 1, 14 * 60, 17 * 60)));
+            // Not visible before the commit either
+            assertTrue(availableMonday(9 * 60, 10 * 60).contains(lawyer));
+            tx.setRollbackOnly();
+        });
+        assertTrue(availableMonday(9 * 60, 10 * 60).contains(lawyer));
+        assertFalse(availableMonday(14 * 60, 15 * 60).contains(lawyer));
+        assertEquals(List.of(new AvailabilitySlotRow(lawyer, 1, 9 * 60, 12 * 60)), availabilityService.getSlots(lawyer));
+
+        availabilityService.replaceSlots(lawyer, List.of(new AvailabilitySlotRow(lawyer, 1, 14 * 60, 17 * 60)));
+        assertFalse(availableMonday(9 * 60, 10 * 60).contains(lawyer));
+        assertTrue(availableMonday(14 * 60, 15 * 60).contains(lawyer));
+    }
+
+    private List<Long> availableMonday(int fromMinute, int toMinute) {
+        return availabilityIndex.availableWeekly(DayOfWeek.MONDAY, fromMinute, toMinute);
+    }
+
+    private LawyerProfile newLawyer() {
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .fName("Availability lawyer")
+                .email(UUID.randomUUID() + "@availability.test")
+                .password("x")
+                .role("LAWYER")
+                .build());
+        return lawyerProfileRepository.save(LawyerProfile.builder().user(user).experience(1).build());
+    }
+}
@@ -0,0 +1,222 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.Appointment;
+import io.github.sssamira.legalsheba.model.LawyerProfile;
+import io.github.sssamira.legalsheba.model.UserEntity;
+import io.github.sssamira.legalsheba.repository.AppointmentSlotRepository;
+import io.github.sssamira.legalsheba.repository.BookingRequestRepository;
+import io.github.sssamira.legalsheba.repository.LawyerProfileRepository;
+import io.github.sssamira.legalsheba.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// An Idempotency-Key books at most once: when sent concurrently, after the in-memory state is lost to a
+// restart, and when a batch has to be settled request by request; a key reused for another booking is refused
+@SqliteSpringBootTest(properties = "appointments.slot-minutes=60")
+@AutoConfigureMockMvc
+class BookingIntakeServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 3, 4, 9, 0);
+
+    @Autowired
+    private BookingIntakeService bookingIntakeService;
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private BookingRequestRepository bookingRequestRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private LawyerProfileRepository lawyerProfileRepository;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoSpyBean
+    private AppointmentSlotRepository appointmentSlotRepository;
+
+    @Test
+    void sameKeySentConcurrentlyBooksOnce() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BookingIntakeService.Submission>> submissions = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            submissions.add(pool.submit(() -> {
+                start.await();
+                return bookingIntakeService.submit(appointment(client, lawyer, DAY), "concurrent");
+            }));
+        }
+        start.countDown();
+
+        int fresh = 0;
+        Long appointmentId = null;
+        for (Future<BookingIntakeService.Submission> f : submissions) {
+            BookingIntakeService.Submission s = f.get(30, TimeUnit.SECONDS);
+            BookingIntakeService.IntakeResult r = s.result().get(30, TimeUnit.SECONDS);
+            assertEquals(AppointmentService.BookingOutcome.BOOKED, r.status());
+            if (appointmentId == null) appointmentId = r.appointmentId();
+            assertEquals(appointmentId, r.appointmentId());
+            if (s.fresh()) fresh++;
+        }
+        pool.shutdown();
+        assertEquals(1, fresh);
+        assertEquals(1, appointments(lawyer));
+        assertEquals(1, records(client));
+    }
+
+    @Test
+    void sameKeyAfterRestartBooksOnce() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        BookingIntakeService.IntakeResult first = bookingIntakeService.submit(appointment(client, lawyer, DAY), "restart")
+                .result().get(30, TimeUnit.SECONDS);
+
+        // A second instance knows nothing of the first one's in-flight keys, only what was committed
+        BookingIntakeService restarted = new BookingIntakeService(appointmentService, bookingRequestRepository,
+                transactionTemplate, jdbcTemplate, userIdentityCache);
+        ReflectionTestUtils.setField(restarted, "queueCapacity", 10);
+        ReflectionTestUtils.setField(restarted, "batchSize", 4);
+        restarted.start();
+        try {
+            BookingIntakeService.Submission again = restarted.submit(appointment(client, lawyer, DAY), "restart");
+            assertFalse(again.fresh());
+            assertEquals(first.appointmentId(), again.result().get(30, TimeUnit.SECONDS).appointmentId());
+            assertEquals(first.appointmentId(), restarted.find(client.getId(), "restart").orElseThrow().join().appointmentId());
+        } finally {
+            restarted.stop();
+        }
+        assertEquals(1, appointments(lawyer));
+    }
+
+    @Test
+    void keyReusedForAnotherBookingIsRefused() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile lawyer = newLawyer();
+        String token = jwtService.generateToken(client);
+
+        assertEquals(200, createQueued(token, lawyer, DAY, "reused", "Tenancy dispute"));
+        assertEquals(200, createQueued(token, lawyer, DAY, "reused", "Tenancy dispute"));
+        assertEquals(422, createQueued(token, lawyer, DAY, "reused", "Inheritance"));
+        assertThrows(BookingIntakeService.KeyReusedException.class,
+                () -> bookingIntakeService.submit(appointment(client, lawyer, DAY.plusHours(1)), "reused"));
+        assertEquals(1, appointments(lawyer));
+    }
+
+    @Test
+    void rolledBackBatchIsSettledRequestByRequest() throws Exception {
+        UserEntity client = newUser("USER");
+        LawyerProfile blocker = newLawyer(), free = newLawyer(), raced = newLawyer();
+        // Another instance holds raced's 09:00 but this one's pre-check misses it, so the batch insert fails
+        appointmentService.book(appointment(client, raced, DAY));
+        doReturn(false).when(appointmentSlotRepository).existsByLawyerIdAndSlotStartIn(eq(raced.getId()), any());
+        // The writer stops in the first request's pre-check (blocker has nothing booked) until the batch
+        // under test is queued behind it
+        CountDownLatch queued = new CountDownLatch(1);
+        doAnswer(call -> {
+            queued.await(10, TimeUnit.SECONDS);
+            return false;
+        }).when(appointmentSlotRepository).existsByLawyerIdAndSlotStartIn(eq(blocker.getId()), any());
+
+        BookingIntakeService.Submission first = bookingIntakeService.submit(appointment(client, blocker, DAY), "batch-0");
+        BookingIntakeService.Submission booked = bookingIntakeService.submit(appointment(client, free, DAY), "batch-1");
+        BookingIntakeService.Submission lost = bookingIntakeService.submit(appointment(client, raced, DAY), "batch-2");
+        LawyerProfile gone = LawyerProfile.builder().id(Long.MAX_VALUE).user(UserEntity.builder().id(client.getId()).build()).build();
+        BookingIntakeService.Submission broken = bookingIntakeService.submit(appointment(client, gone, DAY), "batch-3");
+        BookingIntakeService.Submission alsoBooked = bookingIntakeService.submit(appointment(client, free, DAY.plusHours(2)), "batch-4");
+        queued.countDown();
+
+        assertEquals(AppointmentService.BookingOutcome.BOOKED, first.result().get(30, TimeUnit.SECONDS).status());
+        assertNotNull(booked.result().get(30, TimeUnit.SECONDS).appointmentId());
+        assertNotNull(alsoBooked.result().get(30, TimeUnit.SECONDS).appointmentId());
+        assertEquals(AppointmentService.BookingOutcome.CONFLICT, lost.result().get(30, TimeUnit.SECONDS).status());
+        // A foreign key failure is an error, not a conflict: nothing is stored, so the key can be retried
+        assertThrows(ExecutionException.class, () -> broken.result().get(30, TimeUnit.SECONDS));
+        assertEquals(List.of("BOOKED", "BOOKED", "CONFLICT", "BOOKED"), jdbcTemplate.queryForList(
+                "select status from booking_requests where client_id = ? order by idempotency_key", String.class, client.getId()));
+        assertEquals(2, appointments(free));
+        assertEquals(1, appointments(raced));
+    }
+
+    private int createQueued(String token, LawyerProfile lawyer, LocalDateTime start, String key, String problem) throws Exception {
+        MvcResult pending = mockMvc.perform(post("/api/appointments")
+                        .header("Authorization", "Bearer " + token)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lawyerProfileId\":" + lawyer.getId() + ",\"appointmentDate\":\"" + start
+                                + "\",\"problemDescription\":\"" + problem + "\"}"))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(pending)).andReturn().getResponse().getStatus();
+    }
+
+    private int appointments(LawyerProfile lawyer) {
+        return jdbcTemplate.queryForObject("select count(*) from appointments where lawyer_id = ?", Integer.class, lawyer.getId());
+    }
+
+    private int records(UserEntity client) {
+        return jdbcTemplate.queryForObject("select count(*) from booking_requests where client_id = ?", Integer.class, client.getId());
+    }
+
+    private static Appointment appointment(UserEntity client, LawyerProfile lawyer, LocalDateTime start) {
+        return Appointment.builder()
+                .client(UserEntity.builder().id(client.getId()).build())
+                .lawyer(lawyer)
+                .appointmentDate(start.toString())
+                .status("PENDING")
+                .problemDescription("Tenancy dispute")
+                .build();
+    }
+
+    private UserEntity newUser(String role) {
+        return userRepository.save(UserEntity.builder()
+                .fName("Intake " + role)
+                .email(UUID.randomUUID() + "@intake.test")
+                .password("x")
+                .role(role)
+                .build());
+    }
+
+    private LawyerProfile newLawyer() {
+        return lawyerProfileRepository.save(LawyerProfile.builder().user(newUser("LAWYER")).experience(1).build());
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.sssamira.legalsheba.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Addresses as lawyers type them resolve to the most specific bundled place; anything else resolves to nothing
+class GazetteerTest {
+
+    private final Gazetteer gazetteer = new Gazetteer();
+
+    @Test
+    void mostSpecificPlaceWins() {
+        assertEquals("Dhanmondi", name("House 12, Road 5, Dhanmondi, Dhaka"));
+        assertEquals("Dhaka", name("Dhaka Judge Court"));
+        assertEquals("Chattogram", name("Chittagong District Court"));
+        // One typo in a longer name
+        assertEquals("Dhanmondi", name("Dhanmondy"));
+        assertEquals("Narayanganj", name("narayangaj sadar"));
+    }
+
+    @Test
+    void unknownPlacesResolveToNothing() {
+        assertTrue(gazetteer.resolve("Atlantis").isEmpty());
+        assertTrue(gazetteer.resolve("Chamber 4, Mars Colony").isEmpty());
+        assertTrue(gazetteer.resolve("").isEmpty());
+        assertTrue(gazetteer.resolve(null).isEmpty());
+        // Short names are matched exactly only
+        assertTrue(gazetteer.resolve("Ctx").isEmpty());
+    }
+
+    @Test
+    void upazilasResolveOverTheirDistrict() {
+        assertEquals("Bhaluka", name("Bhaluka, Mymensingh"));
+        assertEquals("Char Fasson", name("Char Fashion Bazar, Bhola"));
+        assertEquals("Anderkilla", name("Court Building, Anderkilla, Chittagong"));
+        assertEquals("Mymensingh", gazetteer.resolve("Bhaluka").orElseThrow().district());
+    }
+
+    // Guards the bundled data: every area sits in a listed district of the same division, within about
+    // 100 km of the district town, and is reachable by its own name
+    @Test
+    void everyAreaLiesNearItsDistrict() throws IOException {
+        List<String[]> rows;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new ClassPathResource("gazetteer/bd_places.csv").getInputStream(), StandardCharsets.UTF_8))) {
+            rows = in.lines().filter(l -> !l.isBlank() && !l.startsWith("#")).skip(1).map(l -> l.split(",", -1)).toList();
+        }
+        assertEquals(rows.size(), gazetteer.size());
+        assertEquals(64, rows.stream().filter(f -> f[2].equals("DISTRICT")).count());
+        for (String[] f : rows) {
+            Gazetteer.Place place = gazetteer.byName(f[0]).orElseThrow();
+            assertEquals(f[0], place.name());
+            Gazetteer.Place district = gazetteer.byName(f[3]).orElseThrow();
+            assertEquals(1, district.specificity(), f[0]);
+            assertEquals(district.division(), place.division(), f[0]);
+            assertTrue(Math.abs(place.latitude() - district.latitude()) < 1
+                    && Math.abs(place.longitude() - district.longitude()) < 1, f[0]);
+        }
+    }
+
+    private String name(String text) {
+        return gazetteer.resolve(text).orElseThrow().name();
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.sssamira.legalsheba.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.sssamira.legalsheba.event.InfoHubChangedEvent;
+import io.github.sssamira.legalsheba.model.InfoHub;
+import io.github.sssamira.legalsheba.repository.InfoHubRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Bodies are built once per ETag, gzipped only when that pays off, and served compressed only to
+// clients that accept it
+class InfoHubBodyCacheTest {
+
+    private final InfoHubRepository infoHubRepository = mock(InfoHubRepository.class);
+    private final ResourceVersions resourceVersions = new ResourceVersions();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InfoHubBodyCache cache = new InfoHubBodyCache(infoHubRepository, resourceVersions, objectMapper, 1 << 20);
+
+    @Test
+    void gzipMustBeAcceptedWithANonZeroWeight() {
+        for (String header : new String[]{"gzip", "GZIP", "deflate, gzip;q=0.5", "br, *;q=0.1", " gzip ; q=1"}) {
+            assertTrue(InfoHubBodyCache.acceptsGzip(header), header);
+        }
+        for (String header : new String[]{null, "", "identity", "deflate, br", "gzip;q=0", "gzip; q=0.000", "*;q=0", "x-gzip"}) {
+            assertFalse(InfoHubBodyCache.acceptsGzip(header), header);
+        }
+    }
+
+    @Test
+    void bodyIsRebuiltOnlyWhenTheETagMoves() {
+        when(infoHubRepository.findById(1L)).thenReturn(Optional.of(article(1L, "Short")));
+        ResourceVersions.Stamp first = resourceVersions.entity(ResourceVersions.INFOHUB, 1L);
+
+        InfoHubBodyCache.Body body = cache.get(1L, first).orElseThrow();
+        assertSame(body, cache.get(1L, first).orElseThrow());
+        verify(infoHubRepository, times(1)).findById(1L);
+
+        // A write elsewhere moved the stamp without this cache hearing of it
+        resourceVersions.bump(ResourceVersions.INFOHUB, 1L);
+        ResourceVersions.Stamp second = resourceVersions.entity(ResourceVersions.INFOHUB, 1L);
+        InfoHubBodyCache.Body rebuilt = cache.get(1L, second).orElseThrow();
+        assertEquals(second.eTag(), rebuilt.eTag());
+        verify(infoHubRepository, times(2)).findById(1L);
+
+        // A write through this instance rebuilds from the saved article, so the next read needs no query
+        InfoHub edited = article(1L, "Edited");
+        resourceVersions.onInfoHubChanged(new InfoHubChangedEvent(1L, edited));
+        cache.onInfoHubChanged(new InfoHubChangedEvent(1L, edited));
+        ResourceVersions.Stamp third = resourceVersions.entity(ResourceVersions.INFOHUB, 1L);
+        assertTrue(new String(cache.get(1L, third).orElseThrow().json()).contains("Edited"));
+        verify(infoHubRepository, times(2)).findById(1L);
+
+        // Deleted articles are dropped, and a missing one is not cached
+        cache.onInfoHubChanged(new InfoHubChangedEvent(1L, null));
+        when(infoHubRepository.findById(1L)).thenReturn(Optional.empty());
+        assertTrue(cache.get(1L, third).isEmpty());
+        assertTrue(cache.get(1L, third).isEmpty());
+        verify(infoHubRepository, times(4)).findById(1L);
+    }
+
+    @Test
+    void smallBodiesAreNotCompressed() throws IOException {
+        when(infoHubRepository.findById(1L)).thenReturn(Optional.of(article(1L, "Short")));
+        when(infoHubRepository.findById(2L)).thenReturn(Optional.of(article(2L, "Tenancy law in Bangladesh. ".repeat(100))));
+
+        InfoHubBodyCache.Body small = cache.get(1L, resourceVersions.entity(ResourceVersions.INFOHUB, 1L)).orElseThrow();
+        assertTrue(small.json().length < 512);
+        assertNull(small.gzip());
+
+        InfoHubBodyCache.Body large = cache.get(2L, resourceVersions.entity(ResourceVersions.INFOHUB, 2L)).orElseThrow();
+        assertNotNull(large.gzip());
+        assertTrue(large.gzip().length < large.json().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(large.gzip()))) {
+            assertArrayEquals(large.json(), in.readAllBytes());
+        }
+        assertEquals(objectMapper.writeValueAsString(article(2L, "Tenancy law in Bangladesh. ".repeat(100))), new String(large.json()));
+    }
+
+    private static InfoHub article(Long id, String content) {
+        return InfoHub.builder().id(id).title("Tenancy").content(content).category("Property").date("2025-01-01").build();
+    }
+}
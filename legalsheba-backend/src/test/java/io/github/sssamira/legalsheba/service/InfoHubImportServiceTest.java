@@ -0,0 +1,69 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.repository.InfoHubRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Both upload shapes import valid records in batches and report invalid ones by position
+@SqliteSpringBootTest(properties = "infohub.import.batch-size=2")
+class InfoHubImportServiceTest {
+
+    @Autowired
+    private InfoHubImportService infoHubImportService;
+    @Autowired
+    private InfoHubRepository infoHubRepository;
+
+    @Test
+    void ndjsonImportsValidRecordsAndReportsTheRest() throws IOException {
+        long before = infoHubRepository.count();
+        AtomicInteger batches = new AtomicInteger();
+        InfoHubImportService.Report report = infoHubImportService.importArticles(stream("""
+                {"title":"Bail","content":"How bail works","category":"criminal","date":"2030-01-01"}
+                {"title":"","content":"No title","category":"criminal","date":"2030-01-01"}
+                {"title":"Rent","content":"Tenancy rules","category":"property","date":"2030-01-02","id":999}
+                {"title":"Wills","content":"Writing a will","category":"family","date":"2030-01-03"}
+                ["not an article"]
+                {"title":"%s","content":"Too long a title","category":"family","date":"2030-01-04"}
+                """.formatted("x".repeat(151))), batches::incrementAndGet);
+
+        assertEquals(6, report.getReceived());
+        assertEquals(3, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals(2, report.getBatches());
+        assertEquals(2, batches.get());
+        assertEquals(List.of(1, 4, 5), report.getErrors().stream().map(InfoHubImportService.RecordError::index).toList());
+        assertTrue(report.getErrors().get(0).message().startsWith("title "));
+        assertEquals(before + 3, infoHubRepository.count());
+    }
+
+    @Test
+    void arrayStopsAtMalformedJsonKeepingEarlierRecords() throws IOException {
+        long before = infoHubRepository.count();
+        InfoHubImportService.Report report = infoHubImportService.importArticles(stream("""
+                [{"title":"One","content":"a","category":"tax","date":"2030-01-01"},
+                 {"title":"Two","content":"b","category":"tax","date":"2030-01-01"},
+                 {"title":"Three","content":"c","category":"tax","date":"2030-01-01"},
+                 {"title": oops}]
+                """), () -> {});
+
+        assertEquals(3, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(3, report.getErrors().get(0).index());
+        assertTrue(report.getErrors().get(0).message().startsWith("Malformed JSON at line 4"));
+        assertEquals(before + 3, infoHubRepository.count());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
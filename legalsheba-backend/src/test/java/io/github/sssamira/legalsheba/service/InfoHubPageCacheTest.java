@@ -0,0 +1,79 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.model.InfoHub;
+import io.github.sssamira.legalsheba.repository.InfoHubSummaryRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Writes must drop exactly the cached pages whose rows they move, in their category and in the full list
+class InfoHubPageCacheTest {
+
+    private final InfoHubPageCache cache = new InfoHubPageCache(1 << 20);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void editInPlaceDropsOnlyThePageShowingIt() {
+        // ids 30..21 on page 0, 20..11 on page 1, 10..1 on page 2, in both "family" and the full list
+        warm(null);
+        warm("family");
+        cache.onUpdated("Family", article(15, "family"));
+        assertEquals(List.of(false, true, false), reloaded(null));
+        assertEquals(List.of(false, true, false), reloaded("FAMILY"));
+    }
+
+    @Test
+    void insertAndDeleteDropTheirPageAndLaterOnes() {
+        warm(null);
+        warm("family");
+        warm("property");
+        cache.onDeleted(article(25, "family"));
+        assertEquals(List.of(true, true, true), reloaded(null));
+        assertEquals(List.of(false, false, false), reloaded("property"));
+
+        warm(null);
+        warm("family");
+        cache.onCreated(article(12, "property"));
+        assertEquals(List.of(false, true, true), reloaded(null));
+        assertEquals(List.of(false, true, true), reloaded("property"));
+        assertEquals(List.of(false, false, false), reloaded("family"));
+    }
+
+    @Test
+    void moveBetweenCategoriesShiftsBoth() {
+        warm("family");
+        warm("property");
+        cache.onUpdated("family", article(5, "property"));
+        assertEquals(List.of(false, false, true), reloaded("family"));
+        assertEquals(List.of(false, false, true), reloaded("property"));
+    }
+
+    private void warm(String category) {
+        for (int page = 0; page < 3; page++) load(category, page);
+    }
+
+    // Per page whether it had to be loaded again
+    private List<Boolean> reloaded(String category) {
+        return List.of(load(category, 0), load(category, 1), load(category, 2));
+    }
+
+    private boolean load(String category, int page) {
+        int before = loads.get();
+        cache.page(category, page, 10, () -> {
+            loads.incrementAndGet();
+            long top = 30 - page * 10L;
+            return LongStream.rangeClosed(top - 9, top).map(i -> top - 9 + top - i)
+                    .mapToObj(id -> new InfoHubSummaryRow(id, "t" + id, category, "2030-01-01", "x"))
+                    .toList();
+        });
+        return loads.get() != before;
+    }
+
+    private static InfoHub article(long id, String category) {
+        return InfoHub.builder().id(id).title("t").content("c").category(category).date("2030-01-01").build();
+    }
+}
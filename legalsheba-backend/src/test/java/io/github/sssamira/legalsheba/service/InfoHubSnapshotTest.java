@@ -0,0 +1,210 @@
+package io.github.sssamira.legalsheba.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.InfoHub;
+import io.github.sssamira.legalsheba.repository.InfoHubRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Rendered files match what the database would answer, follow admin writes, and superseded files and
+// generations are cleaned up without ever leaving readers without a snapshot. Files are retired
+// immediately here instead of after a minute.
+@SqliteSpringBootTest(properties = {
+        "infohub.snapshot.enabled=true",
+        "infohub.snapshot.dir=target/infohub-snapshot-test",
+        "infohub.snapshot.pages=2",
+        "infohub.snapshot.page-size=2",
+        "infohub.snapshot.retire-after-ms=0"
+})
+class InfoHubSnapshotTest {
+
+    @Autowired
+    private InfoHubSnapshot snapshot;
+    @Autowired
+    private InfoHubRepository infoHubRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Value("${infohub.snapshot.dir}")
+    private Path root;
+
+    @Test
+    void publishedFilesServeArticlesAndPages() throws IOException {
+        InfoHub bail = save("Bail", "Tenancy"), rent = save("Rent", "tenancy"), wills = save("Wills", "Succession");
+        snapshot.publish();
+
+        JsonNode article = read(snapshot.article(rent.getId()).orElseThrow().json());
+        assertEquals("Rent", article.get("title").asText());
+
+        // Categories match case-insensitively, as upper(category) does in the database
+        JsonNode tenancy = read(snapshot.page("TENANCY", 0, 2).orElseThrow().json());
+        assertEquals(List.of(rent.getId(), bail.getId()), ids(tenancy));
+        assertEquals(2, tenancy.get("totalElements").asLong());
+        assertEquals(snapshot.page("tenancy", 0, 2), snapshot.page("Tenancy", 0, 2));
+        // Past the last page, a different page size or a category nothing is filed under: the database answers
+        assertTrue(snapshot.page("tenancy", 1, 2).isEmpty());
+        assertTrue(snapshot.page("tenancy", 0, 3).isEmpty());
+        assertTrue(snapshot.page(" tenancy", 0, 2).isEmpty());
+        assertEquals(List.of(wills.getId(), rent.getId()), ids(read(snapshot.page(null, 0, 2).orElseThrow().json())));
+
+        InfoHubSnapshot.Rendered r = snapshot.article(wills.getId()).orElseThrow();
+        assertEquals(Files.size(r.json()), r.jsonLength());
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(r.gzip()))) {
+            assertArrayEquals(Files.readAllBytes(r.json()), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void writesRerenderTheirArticleAndPages() throws IOException {
+        InfoHub tax = save("Income tax", "Revenue"), vat = save("VAT", "Revenue");
+        snapshot.publish();
+
+        String previousCategory = vat.getCategory();
+        vat.setTitle("VAT returns");
+        vat.setCategory("Customs");
+        vat = infoHubRepository.save(vat);
+        snapshot.onUpdated(previousCategory, vat);
+        assertEquals("VAT returns", read(snapshot.article(vat.getId()).orElseThrow().json()).get("title").asText());
+        assertEquals(List.of(tax.getId()), ids(read(snapshot.page("revenue", 0, 2).orElseThrow().json())));
+        assertEquals(List.of(vat.getId()), ids(read(snapshot.page("customs", 0, 2).orElseThrow().json())));
+
+        InfoHub fees = save("Court fees", "Revenue");
+        snapshot.onCreated(fees);
+        assertEquals(List.of(fees.getId(), tax.getId()), ids(read(snapshot.page("revenue", 0, 2).orElseThrow().json())));
+
+        infoHubRepository.delete(tax);
+        snapshot.onDeleted(tax);
+        assertTrue(snapshot.article(tax.getId()).isEmpty());
+        JsonNode revenue = read(snapshot.page("revenue", 0, 2).orElseThrow().json());
+        assertEquals(List.of(fees.getId()), ids(revenue));
+        assertEquals(1, revenue.get("totalElements").asLong());
+        assertFalse(ids(read(snapshot.page(null, 0, 2).orElseThrow().json())).contains(tax.getId()));
+    }
+
+    @Test
+    void supersededFilesAndGenerationsAreDeleted() throws IOException, InterruptedException {
+        InfoHub will = save("Probate", "Succession");
+        snapshot.publish();
+        Path firstGeneration = generations().get(0);
+        snapshot.publish();
+        assertNotEquals(firstGeneration, snapshot.article(will.getId()).orElseThrow().json().getParent());
+
+        InfoHubSnapshot.Rendered before = snapshot.article(will.getId()).orElseThrow();
+        will.setTitle("Probate and letters of administration");
+        snapshot.onUpdated(will.getCategory(), infoHubRepository.save(will));
+        InfoHubSnapshot.Rendered after = snapshot.article(will.getId()).orElseThrow();
+        assertNotEquals(before.json(), after.json());
+
+        // Retired files and generations go with the next write that comes after their grace period
+        Thread.sleep(2);
+        snapshot.onCreated(save("Heirs", "Succession"));
+        assertFalse(Files.exists(before.json()));
+        assertFalse(Files.exists(before.gzip()));
+        assertTrue(Files.exists(after.json()));
+        assertEquals(List.of(after.json().getParent()), generations());
+    }
+
+    @Test
+    void publishSwitchesGenerationsWithoutAGapAndKeepsTheOldFilesForTheirGracePeriod() throws Exception {
+        InfoHub article = save("Guardianship", "Family");
+        snapshot.publish();
+
+        // Readers never find the index empty while the next generation is being rendered
+        AtomicBoolean publishing = new AtomicBoolean(true);
+        AtomicInteger misses = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (publishing.get()) {
+                if (snapshot.article(article.getId()).isEmpty() || snapshot.page(null, 0, 2).isEmpty()) misses.incrementAndGet();
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 5; i++) snapshot.publish();
+        publishing.set(false);
+        reader.join();
+        assertEquals(0, misses.get());
+
+        // With a real grace period the previous generation outlives the switch, so a response already
+        // handed to sendfile can still open its file
+        InfoHubSnapshot graceful = new InfoHubSnapshot(infoHubRepository, jdbcTemplate, objectMapper, true,
+                root.resolveSibling("infohub-snapshot-grace-test"), 2, 2, 60_000);
+        graceful.publish();
+        InfoHubSnapshot.Rendered served = graceful.article(article.getId()).orElseThrow();
+        graceful.publish();
+        assertNotEquals(served.json(), graceful.article(article.getId()).orElseThrow().json());
+        assertEquals("Guardianship", read(served.json()).get("title").asText());
+        assertTrue(Files.exists(served.gzip()));
+    }
+
+    @Test
+    void transferUsesSendfileOnlyWhenTheConnectorOffersIt() throws IOException {
+        InfoHub article = save("Divorce", "Family");
+        snapshot.publish();
+        InfoHubSnapshot.Rendered r = snapshot.article(article.getId()).orElseThrow();
+
+        MockHttpServletRequest plain = new MockHttpServletRequest();
+        MockHttpServletResponse copied = new MockHttpServletResponse();
+        InfoHubSnapshot.transfer(r.json(), r.jsonLength(), plain, copied);
+        assertArrayEquals(Files.readAllBytes(r.json()), copied.getContentAsByteArray());
+        assertEquals(r.jsonLength(), copied.getContentLengthLong());
+        assertNull(plain.getAttribute("org.apache.tomcat.sendfile.filename"));
+
+        MockHttpServletRequest sendfile = new MockHttpServletRequest();
+        sendfile.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse deferred = new MockHttpServletResponse();
+        InfoHubSnapshot.transfer(r.gzip(), r.gzipLength(), sendfile, deferred);
+        assertEquals(0, deferred.getContentAsByteArray().length);
+        assertEquals(r.gzip().toAbsolutePath().toString(), sendfile.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(r.gzipLength(), sendfile.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(r.gzipLength(), deferred.getContentLengthLong());
+    }
+
+    private InfoHub save(String title, String category) {
+        return infoHubRepository.save(InfoHub.builder()
+                .title(title)
+                .content(title + " explained")
+                .category(category)
+                .date("2030-01-01")
+                .build());
+    }
+
+    private JsonNode read(Path file) throws IOException {
+        return objectMapper.readTree(file.toFile());
+    }
+
+    private static List<Long> ids(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.get("content").forEach(row -> ids.add(row.get("id").asLong()));
+        return ids;
+    }
+
+    private List<Path> generations() throws IOException {
+        try (Stream<Path> dirs = Files.list(root)) {
+            return dirs.toList();
+        }
+    }
+}
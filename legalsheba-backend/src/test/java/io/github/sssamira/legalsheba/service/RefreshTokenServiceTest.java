@@ -0,0 +1,73 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Refresh tokens are single-use and a replayed one takes its whole family down; access token revocations
+// hit exactly the revoked jti or the user's tokens carrying a marker older than the revocation
+@SqliteSpringBootTest(properties = "auth.refresh.reuse-grace-ms=0")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    @BeforeEach
+    void user() {
+        String email = UUID.randomUUID() + "@x.com";
+        jdbcTemplate.update("insert into users (f_name, email, password, role) values ('T', ?, 'x', 'USER')", email);
+        userId = jdbcTemplate.queryForObject("select id from users where email = ?", Long.class, email);
+    }
+
+    @Test
+    void rotationSpendsTheTokenAndReuseRevokesTheFamily() throws InterruptedException {
+        String first = refreshTokenService.issue(userId);
+        RefreshTokenService.Rotation second = refreshTokenService.rotate(first);
+        assertEquals(userId, second.userId());
+
+        Thread.sleep(5);
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(first));
+        // The replay revoked the successor too
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(second.token()));
+    }
+
+    @Test
+    void logoutAndPasswordChangeRevokeOnlyWhatTheyCover() {
+        String kept = refreshTokenService.issue(userId);
+        String loggedOut = refreshTokenService.issue(userId);
+        refreshTokenService.revokeFamily(loggedOut);
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(loggedOut));
+        kept = refreshTokenService.rotate(kept).token();
+
+        String jti = UUID.randomUUID().toString();
+        long now = tokenRevocationService.marker(userId);
+        assertFalse(tokenRevocationService.isRevoked(jti, userId, now));
+        tokenRevocationService.revokeToken(jti, System.currentTimeMillis() + 60_000);
+        assertTrue(tokenRevocationService.isRevoked(jti, userId, now));
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString(), userId, now));
+
+        refreshTokenService.revokeAll(userId);
+        tokenRevocationService.revokeUser(userId);
+        String finalKept = kept;
+        assertThrows(RefreshTokenService.InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(finalKept));
+        long cutoff = jdbcTemplate.queryForObject("select issued_before from user_token_revocations where user_id = ?", Long.class, userId);
+        assertTrue(tokenRevocationService.isRevoked(UUID.randomUUID().toString(), userId, cutoff - 1));
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString(), userId, cutoff));
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString(), userId + 1000, cutoff - 1));
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import io.github.sssamira.legalsheba.model.InfoHub;
+import io.github.sssamira.legalsheba.repository.InfoHubRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Conditional GETs are answered 304 from the in-memory stamps while nothing changed, and a bump makes
+// the copies clients hold stale, whether they revalidate by ETag or by date
+@SqliteSpringBootTest
+@AutoConfigureMockMvc
+class ResourceVersionsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ResourceVersions resourceVersions;
+    @Autowired
+    private InfoHubRepository infoHubRepository;
+
+    @Test
+    void bumpInvalidatesEarlierValidators() throws Exception {
+        Long id = infoHubRepository.save(InfoHub.builder()
+                .title("Tenancy").content("Notice periods").category("Property").date("2025-01-01").build()).getId();
+        String article = "/api/infohub/" + id;
+
+        MockHttpServletResponse first = fetch(article, new HttpHeaders(), 200);
+        String eTag = first.getHeader(HttpHeaders.ETAG);
+        long lastModified = first.getDateHeader(HttpHeaders.LAST_MODIFIED);
+        String listETag = fetch("/api/infohub", new HttpHeaders(), 200).getHeader(HttpHeaders.ETAG);
+        fetch(article, ifNoneMatch(eTag), 304);
+        fetch(article, ifModifiedSince(lastModified), 304);
+        fetch("/api/infohub", ifNoneMatch(listETag), 304);
+
+        // Last-Modified has second precision, so the bump must land in a later second to be seen by date
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000 + 1);
+        resourceVersions.bump(ResourceVersions.INFOHUB, id);
+
+        MockHttpServletResponse byETag = fetch(article, ifNoneMatch(eTag), 200);
+        MockHttpServletResponse byDate = fetch(article, ifModifiedSince(lastModified), 200);
+        String newETag = byETag.getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+        assertEquals(newETag, byDate.getHeader(HttpHeaders.ETAG));
+        long newLastModified = byETag.getDateHeader(HttpHeaders.LAST_MODIFIED);
+        assertTrue(newLastModified >= lastModified + 1000);
+        assertEquals(resourceVersions.entity(ResourceVersions.INFOHUB, id).lastModified(), newLastModified);
+
+        fetch(article, ifNoneMatch(newETag), 304);
+        fetch(article, ifModifiedSince(newLastModified), 304);
+        // The collection moved with the article
+        String newListETag = fetch("/api/infohub", ifNoneMatch(listETag), 200).getHeader(HttpHeaders.ETAG);
+        fetch("/api/infohub", ifNoneMatch(newListETag), 304);
+
+        // Another article's bump leaves this one's validators alone
+        resourceVersions.bump(ResourceVersions.INFOHUB, id + 1);
+        fetch(article, ifNoneMatch(newETag), 304);
+        fetch("/api/infohub", ifNoneMatch(newListETag), 200);
+    }
+
+    private MockHttpServletResponse fetch(String path, HttpHeaders headers, int expectedStatus) throws Exception {
+        return mockMvc.perform(get(path).headers(headers))
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse();
+    }
+
+    private static HttpHeaders ifNoneMatch(String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        return headers;
+    }
+
+    private static HttpHeaders ifModifiedSince(long date) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfModifiedSince(date);
+        return headers;
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.sssamira.legalsheba.service;
+
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Each test runs its own service over tables it empties first, so the filter holds only what the test put in
+@SqliteSpringBootTest
+class TokenRevocationServiceTest {
+
+    private static final long ACCESS_TOKEN_MS = 900_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private TokenRevocationService service;
+    private long userId;
+
+    @BeforeEach
+    void emptyTables() {
+        jdbcTemplate.update("delete from revoked_tokens");
+        jdbcTemplate.update("delete from user_token_revocations");
+        jdbcTemplate.update("delete from refresh_tokens");
+        String email = UUID.randomUUID() + "@x.com";
+        jdbcTemplate.update("insert into users (f_name, email, password, role) values ('T', ?, 'x', 'USER')", email);
+        userId = jdbcTemplate.queryForObject("select id from users where email = ?", Long.class, email);
+        service = newInstance();
+    }
+
+    @Test
+    void filterMissesNeverReachTheDatabase() {
+        for (int i = 0; i < 1_000; i++) assertFalse(service.isRevoked(UUID.randomUUID().toString(), userId, 0));
+        assertEquals(0, service.stats().lookups());
+
+        String jti = UUID.randomUUID().toString();
+        service.revokeToken(jti, System.currentTimeMillis() + 60_000);
+        assertTrue(service.isRevoked(jti, userId, 0));
+        assertEquals(1, service.stats().lookups());
+        assertEquals(1001, service.stats().checks());
+    }
+
+    @Test
+    void rebuildPurgesExpiredRowsAndKeepsLiveRevocations() {
+        long now = System.currentTimeMillis();
+        String expired = UUID.randomUUID().toString(), live = UUID.randomUUID().toString();
+        jdbcTemplate.update("insert into revoked_tokens(jti, expires_at) values (?, ?), (?, ?)", expired, now - 1, live, now + 60_000);
+        long otherUser = userId + 1_000_000;
+        jdbcTemplate.update("insert into users (id, f_name, email, password, role) values (?, 'T', ?, 'x', 'USER')",
+                otherUser, UUID.randomUUID() + "@x.com");
+        jdbcTemplate.update("insert into user_token_revocations(user_id, issued_before, expires_at) values (?, ?, ?), (?, ?, ?)",
+                userId, now - ACCESS_TOKEN_MS, now - 1, otherUser, now, now + 60_000);
+        jdbcTemplate.update("""
+                insert into refresh_tokens(user_id, family, token_hash, expires_at) values (?, 'f', 'spent', ?), (?, 'f', 'live', ?)
+                """, userId, now - 1, userId, now + 60_000);
+
+        service.rebuild();
+
+        assertEquals(List.of(live), jdbcTemplate.queryForList("select jti from revoked_tokens", String.class));
+        assertEquals(List.of(otherUser), jdbcTemplate.queryForList("select user_id from user_token_revocations", Long.class));
+        assertEquals(List.of("live"), jdbcTemplate.queryForList("select token_hash from refresh_tokens", String.class));
+        assertTrue(service.isRevoked(live, userId, 0));
+        assertFalse(service.isRevoked(expired, userId, 0));
+        assertEquals(0, service.marker(userId));
+        assertTrue(service.isRevoked(null, otherUser, now - 1));
+        assertFalse(service.isRevoked(null, otherUser, now));
+    }
+
+    @Test
+    void tokensIssuedAfterAPasswordChangeCarryItsMarker() {
+        long before = service.marker(userId);
+        service.revokeUser(userId);
+        long first = service.marker(userId);
+        assertTrue(service.isRevoked(null, userId, before));
+        assertFalse(service.isRevoked(null, userId, first));
+
+        // Immediately again: the marker still moves forward, whatever the clock says
+        service.revokeUser(userId);
+        long second = service.marker(userId);
+        assertTrue(second > first);
+        assertTrue(service.isRevoked(null, userId, first));
+        assertFalse(service.isRevoked(null, userId, second));
+    }
+
+    @Test
+    void revocationsMadeByAnotherInstanceAreEnforcedAfterTheNextSync() {
+        TokenRevocationService other = newInstance();
+        String jti = UUID.randomUUID().toString();
+        long before = service.marker(userId);
+        other.revokeToken(jti, System.currentTimeMillis() + 60_000);
+        other.revokeUser(userId);
+        assertFalse(service.isRevoked(jti, userId + 1, 0));
+        assertFalse(service.isRevoked(null, userId, before));
+
+        service.sync();
+        assertTrue(service.isRevoked(jti, userId + 1, 0));
+        assertTrue(service.isRevoked(null, userId, before));
+        // Tokens issued here already carry the other instance's marker, before and after the sync
+        assertFalse(service.isRevoked(null, userId, service.marker(userId)));
+
+        // An instance whose clock runs an hour ahead revoked last: the next change here still orders after it
+        long ahead = System.currentTimeMillis() + 3_600_000;
+        jdbcTemplate.update("insert into user_token_revocations(user_id, issued_before, expires_at) values (?, ?, ?)",
+                userId, ahead, ahead + ACCESS_TOKEN_MS);
+        service.revokeUser(userId);
+        assertTrue(service.marker(userId) > ahead);
+        other.sync();
+        assertTrue(other.isRevoked(null, userId, ahead));
+    }
+
+    @Test
+    void aRolledBackPasswordChangeRevokesNothing() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            service.revokeUser(userId);
+            tx.setRollbackOnly();
+        });
+        assertEquals(0, service.marker(userId));
+        assertFalse(service.isRevoked(null, userId, 0));
+
+        transactionTemplate.executeWithoutResult(tx -> service.revokeUser(userId));
+        assertTrue(service.isRevoked(null, userId, 0));
+    }
+
+    private TokenRevocationService newInstance() {
+        TokenRevocationService instance = new TokenRevocationService(jdbcTemplate, ACCESS_TOKEN_MS, 1_000, 60, 5);
+        instance.rebuild();
+        return instance;
+    }
+}
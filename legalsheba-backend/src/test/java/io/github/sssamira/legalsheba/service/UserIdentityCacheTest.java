@@ -0,0 +1,100 @@
+package io.github.sssamira.legalsheba.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.sssamira.legalsheba.SqliteSpringBootTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every write to a user's identity drops its cached entry, and an email nobody owns yet is looked up
+// afresh each time
+@SqliteSpringBootTest(properties = "auth.hashing.strength=4")
+@AutoConfigureMockMvc
+class UserIdentityCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @MockitoSpyBean
+    private UserIdentityCache userIdentityCache;
+
+    @Test
+    void unknownEmailsAreNotCached() throws Exception {
+        String email = newEmail();
+        long misses = userIdentityCache.stats().misses();
+        assertTrue(userIdentityCache.find(email).isEmpty());
+        assertTrue(userIdentityCache.find(email).isEmpty());
+        assertEquals(misses + 2, userIdentityCache.stats().misses());
+
+        register("/api/auth/register", email, "pw-0");
+        UserIdentityCache.Identity identity = userIdentityCache.find(email).orElseThrow();
+        assertEquals("USER", identity.role());
+        assertNull(identity.lawyerProfileId());
+        verify(userIdentityCache).invalidate(email);
+    }
+
+    @Test
+    void registeringALawyerInvalidatesTheEmail() throws Exception {
+        String email = newEmail();
+        JsonNode session = register("/api/auth/register-lawyer", email, "pw-0");
+
+        verify(userIdentityCache).invalidate(email);
+        UserIdentityCache.Identity identity = userIdentityCache.find(email).orElseThrow();
+        assertEquals("LAWYER", identity.role());
+        assertEquals(session.get("lawyerProfileId").asLong(), identity.lawyerProfileId());
+    }
+
+    @Test
+    void passwordChangeReplacesTheCachedHash() throws Exception {
+        String email = newEmail();
+        JsonNode session = register("/api/auth/register", email, "pw-0");
+        UserIdentityCache.Identity before = userIdentityCache.find(email).orElseThrow();
+        // Cached now: a second lookup is a hit
+        long hits = userIdentityCache.stats().hits();
+        assertEquals(before, userIdentityCache.find(email).orElseThrow());
+        assertEquals(hits + 1, userIdentityCache.stats().hits());
+
+        mockMvc.perform(post("/api/auth/password")
+                        .header("Authorization", "Bearer " + session.get("token").asText())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currentPassword\":\"pw-0\",\"newPassword\":\"pw-1\"}"))
+                .andExpect(status().isOk());
+
+        verify(userIdentityCache, times(2)).invalidate(email);
+        UserIdentityCache.Identity after = userIdentityCache.find(email).orElseThrow();
+        assertEquals(before.userId(), after.userId());
+        assertTrue(passwordEncoder.matches("pw-1", after.passwordHash()));
+        assertFalse(passwordEncoder.matches("pw-0", after.passwordHash()));
+    }
+
+    private JsonNode register(String path, String email, String password) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Cached\",\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private static String newEmail() {
+        return UUID.randomUUID() + "@identity.test";
+    }
+}
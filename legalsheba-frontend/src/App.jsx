@@ -9,7 +9,7 @@ import LegalHub from './components/LegalHub.jsx'
 import InfoHubDetail from './components/InfoHubDetail.jsx'
 import Dashboard from './components/Dashboard.jsx'
 import Auth from './components/Auth.jsx'
-import { getStoredUser, clearToken, clearStoredUser, getLawyerById } from './lib/api.js'
+import { getStoredUser, clearToken, clearStoredUser, getLawyerById, logout } from './lib/api.js'
 
 export default function App() {
   const [currentPage, setCurrentPage] = useState('home')
@@ -59,6 +59,7 @@ export default function App() {
   }, [currentPage])
 
   const handleLogout = () => {
+    logout()
     clearToken()
     clearStoredUser()
     setUserType('anonymous')
@@ -111,20 +111,22 @@ export default function Auth({ mode: initialMode = 'login', onAuth, onCancel })
         }
         // Prefer token+user from register; otherwise, login to obtain JWT
         let token = userRes.token || ''
+        let refreshToken = userRes.refreshToken
         let user = userRes.user || { id: userRes.id, role: form.role, name: form.name, email: form.email }
         if (!token) {
           const loginRes = await loginUser({ email: form.email, password: form.password })
           token = loginRes.token || token
+          refreshToken = loginRes.refreshToken
           user = loginRes.user || user
         }
-        if (token) setToken(token)
+        if (token) setToken(token, refreshToken)
         if (user) setStoredUser(user)
         onAuth && onAuth(form.role || 'client')
       } else {
         const loginRes = await loginUser({ email: form.email, password: form.password })
         const token = loginRes.token || ''
         const user = loginRes.user || null
-        if (token) setToken(token)
+        if (token) setToken(token, loginRes.refreshToken)
         if (user) setStoredUser(user)
         onAuth && onAuth(user?.role || 'client')
       }
@@ -6,8 +6,8 @@ import { Tabs, TabsContent, TabsList, TabsTrigger } from './ui/tabs.jsx'
 import { User, FileText, Calendar, Scale, Clock, Plus } from 'lucide-react'
 import { getStoredUser, setStoredUser } from '../lib/api.js'
 import { getMyLawyerProfile } from '../lib/api.js'
-import { getAppointmentsByLawyerProfile, updateAppointmentStatus, getMyAppointments } from '../lib/api.js'
-import { listInfoHub, createInfoHub, updateInfoHub as apiUpdateInfoHub, deleteInfoHub } from '../lib/api.js'
+import { getAppointmentsByLawyerProfile, updateAppointmentStatus, getMyAppointments, subscribeAppointmentEvents } from '../lib/api.js'
+import { listInfoHub, getInfoHubById, createInfoHub, updateInfoHub as apiUpdateInfoHub, deleteInfoHub } from '../lib/api.js'
 
 export default function Dashboard({ userType }) {
   const [activeTab, setActiveTab] = useState(userType === 'lawyer' ? 'appointments' : 'overview')
@@ -68,6 +68,21 @@ export default function Dashboard({ userType }) {
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [userType, lawyerUserId])
 
+  // Live updates instead of reloading: status changes patch the list, new bookings reload the first page
+  useEffect(() => {
+    if (userType !== 'lawyer' || !resolvedLawyerId) return
+    return subscribeAppointmentEvents((type, ev) => {
+      if (type === 'resync' || (type === 'appointment' && ev.previousStatus == null)) {
+        loadAppointments(0, resolvedLawyerId)
+      } else if (type === 'appointment') {
+        setAppointments((prev) => prev
+          .map((a) => (a.id === ev.appointmentId ? { ...a, status: ev.status } : a))
+          .filter((a) => a.status !== 'REJECTED'))
+      }
+    })
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [userType, resolvedLawyerId])
+
   async function loadAppointments(nextPage = page, idOverride = null) {
     try {
       setApLoading(true)
@@ -351,8 +366,12 @@ function AdminInfoHub() {
     finally { setLoading(false) }
   }
 
+  // List items only carry a teaser; load the full article for editing
   async function onEdit(item) {
-    setForm({ id: item.id, title: item.title, content: item.content, category: item.category, date: item.date })
+    try {
+      const full = await getInfoHubById(item.id)
+      setForm({ id: full.id, title: full.title, content: full.content, category: full.category, date: full.date })
+    } catch (e) { setError(e.message || 'Failed to load post') }
   }
 
   async function onDelete(id) {
@@ -416,6 +435,15 @@ function ClientAppointments() {
 
   useEffect(() => { refresh(0) }, [])
 
+  useEffect(() => subscribeAppointmentEvents((type, ev) => {
+    if (type === 'resync' || (type === 'appointment' && ev.previousStatus == null)) {
+      refresh(0)
+    } else if (type === 'appointment') {
+      setItems((prev) => prev.map((a) => (a.id === ev.appointmentId ? { ...a, status: ev.status } : a)))
+    }
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }), [])
+
   async function refresh(p = 0) {
     try {
       setLoading(true)
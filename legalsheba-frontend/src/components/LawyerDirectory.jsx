@@ -6,25 +6,46 @@ import { Select, SelectContent, SelectItem, SelectTrigger, SelectValue } from '.
 import { Badge } from './ui/badge.jsx'
 import { Checkbox } from './ui/checkbox.jsx'
 import { Search, MapPin, Star, Clock, DollarSign, Filter, Calendar, Phone, Mail, Award, ArrowRight } from 'lucide-react'
-import { getLawyers } from '../lib/api.js'
+import { getLawyerById, searchLawyers, suggestLawyers } from '../lib/api.js'
+
+const PAGE_SIZE = 20
+const EXPERIENCE_BANDS = ['0-2', '3-5', '6-10', '11-20', '21+']
 
 export default function LawyerDirectory({ userType, onViewProfile }) {
   const [searchTerm, setSearchTerm] = useState('')
+  const [suggestions, setSuggestions] = useState([])
   const [selectedSpecialty, setSelectedSpecialty] = useState('')
   const [selectedLocation, setSelectedLocation] = useState('')
+  const [selectedCourt, setSelectedCourt] = useState('')
+  const [selectedBands, setSelectedBands] = useState([])
   const [showFilters, setShowFilters] = useState(false)
   const [lawyers, setLawyers] = useState([])
+  const [facets, setFacets] = useState({})
+  const [total, setTotal] = useState(0)
+  const [page, setPage] = useState(0)
   const [loading, setLoading] = useState(true)
   const [error, setError] = useState('')
 
+  // Filtering and paging happen on the server; each filter change starts again from the first page
+  const filters = useMemo(() => ({
+    specialties: selectedSpecialty ? [selectedSpecialty] : [],
+    locations: selectedLocation ? [selectedLocation] : [],
+    courts: selectedCourt ? [selectedCourt] : [],
+    experience: selectedBands,
+  }), [selectedSpecialty, selectedLocation, selectedCourt, selectedBands])
+
   useEffect(() => {
     let ignore = false
     async function load() {
       setLoading(true)
       setError('')
       try {
-        const data = await getLawyers()
-        if (!ignore) setLawyers(Array.isArray(data) ? data : [])
+        const res = await searchLawyers({ ...filters, page, size: PAGE_SIZE })
+        if (ignore) return
+        const content = Array.isArray(res?.content) ? res.content : []
+        setLawyers(prev => (page === 0 ? content : [...prev, ...content]))
+        setFacets(res?.facets || {})
+        setTotal(res?.totalElements ?? content.length)
       } catch (e) {
         if (!ignore) setError(e.message || 'Failed to load lawyers')
       } finally {
@@ -33,34 +54,48 @@ export default function LawyerDirectory({ userType, onViewProfile }) {
     }
     load()
     return () => { ignore = true }
-  }, [])
+  }, [filters, page])
 
-  const specialtyOptions = useMemo(() => {
-    const set = new Set()
-    lawyers.forEach(l => (l.specialties || []).forEach(s => set.add(s)))
-    return Array.from(set).sort()
-  }, [lawyers])
+  // Filter changes go back to the first page in the same render, so no stale page is appended
+  const filterBy = (setter) => (value) => { setter(value); setPage(0) }
 
-  const locationOptions = useMemo(() => {
-    const set = new Set()
-    lawyers.forEach(l => {
-      const val = l.courtOfPractice || l.location
-      if (val) set.add(val)
-    })
-    return Array.from(set).sort()
-  }, [lawyers])
+  // Type-ahead: picking a specialty, location or court applies it as a filter; picking a name opens the profile
+  useEffect(() => {
+    const q = searchTerm.trim()
+    if (!q) { setSuggestions([]); return }
+    let ignore = false
+    const timer = setTimeout(() => {
+      suggestLawyers(q)
+        .then(res => { if (!ignore) setSuggestions(Array.isArray(res) ? res : []) })
+        .catch(() => { if (!ignore) setSuggestions([]) })
+    }, 200)
+    return () => { ignore = true; clearTimeout(timer) }
+  }, [searchTerm])
 
-  const filteredLawyers = useMemo(() => {
-    const q = searchTerm.toLowerCase()
-    return lawyers.filter(l => {
-      const specs = l.specialties || []
-      const matchesSearch = l.name?.toLowerCase().includes(q) || specs.some(s => s.toLowerCase().includes(q))
-      const matchesSpecialty = !selectedSpecialty || specs.includes(selectedSpecialty)
-      const loc = l.courtOfPractice || l.location || ''
-      const matchesLocation = !selectedLocation || loc === selectedLocation
-      return matchesSearch && matchesSpecialty && matchesLocation
-    })
-  }, [lawyers, searchTerm, selectedSpecialty, selectedLocation])
+  async function applySuggestion(s) {
+    setSearchTerm('')
+    setSuggestions([])
+    if (s.type === 'SPECIALTY') filterBy(setSelectedSpecialty)(s.text)
+    else if (s.type === 'LOCATION') filterBy(setSelectedLocation)(s.text)
+    else if (s.type === 'COURT') filterBy(setSelectedCourt)(s.text)
+    else if (s.type === 'NAME' && s.lawyerId != null && onViewProfile) {
+      try {
+        onViewProfile(await getLawyerById(s.lawyerId))
+      } catch (e) {
+        setError(e.message || 'Failed to load lawyer')
+      }
+    }
+  }
+
+  function toggleBand(band) {
+    setSelectedBands(prev => (prev.includes(band) ? prev.filter(b => b !== band) : [...prev, band]))
+    setPage(0)
+  }
+
+  // Facet counts cover every lawyer matching the other filters, not just the pages loaded so far
+  const specialtyOptions = useMemo(() => Object.keys(facets.specialty || {}).sort(), [facets])
+  const locationOptions = useMemo(() => Object.keys(facets.location || {}).sort(), [facets])
+  const courtOptions = useMemo(() => Object.keys(facets.court || {}).sort(), [facets])
 
   return (
     <div className="container mx-auto px-3 sm:px-4 py-6 sm:py-8">
@@ -74,10 +109,20 @@ export default function LawyerDirectory({ userType, onViewProfile }) {
           <div className="space-y-4">
             <div className="relative">
               <Search className="absolute left-3 top-1/2 transform -translate-y-1/2 h-4 w-4 text-muted-foreground" />
-              <Input placeholder="Search by name or specialization..." className="pl-10" value={searchTerm} onChange={(e) => setSearchTerm(e.target.value)} />
+              <Input placeholder="Search by name, specialization, location or court..." className="pl-10" value={searchTerm} onChange={(e) => setSearchTerm(e.target.value)} />
+              {suggestions.length > 0 && (
+                <div className="absolute z-10 mt-1 w-full rounded-md border bg-background shadow-md">
+                  {suggestions.map((s) => (
+                    <button key={`${s.type}-${s.lawyerId ?? ''}-${s.text}`} type="button" className="flex w-full items-center justify-between px-3 py-2 text-left text-sm hover:bg-muted" onClick={() => applySuggestion(s)}>
+                      <span>{s.text}</span>
+                      <span className="text-xs text-muted-foreground">{s.type.toLowerCase()}</span>
+                    </button>
+                  ))}
+                </div>
+              )}
             </div>
             <div className="flex flex-col sm:flex-row sm:flex-wrap gap-3 sm:gap-4">
-              <Select value={selectedSpecialty} onValueChange={setSelectedSpecialty}>
+              <Select value={selectedSpecialty} onValueChange={filterBy(setSelectedSpecialty)}>
                 <SelectTrigger className="w-full sm:w-60">
                   <SelectValue placeholder="Select Specialization" />
                 </SelectTrigger>
@@ -89,9 +134,9 @@ export default function LawyerDirectory({ userType, onViewProfile }) {
                 </SelectContent>
               </Select>
 
-              <Select value={selectedLocation} onValueChange={setSelectedLocation}>
+              <Select value={selectedLocation} onValueChange={filterBy(setSelectedLocation)}>
                 <SelectTrigger className="w-full sm:w-60">
-                  <SelectValue placeholder="Select Court/Location" />
+                  <SelectValue placeholder="Select Location" />
                 </SelectTrigger>
                 <SelectContent>
                   <SelectItem value="">All Locations</SelectItem>
@@ -101,6 +146,18 @@ export default function LawyerDirectory({ userType, onViewProfile }) {
                 </SelectContent>
               </Select>
 
+              <Select value={selectedCourt} onValueChange={filterBy(setSelectedCourt)}>
+                <SelectTrigger className="w-full sm:w-60">
+                  <SelectValue placeholder="Select Court" />
+                </SelectTrigger>
+                <SelectContent>
+                  <SelectItem value="">All Courts</SelectItem>
+                  {courtOptions.map((c) => (
+                    <SelectItem key={c} value={c}>{c}</SelectItem>
+                  ))}
+                </SelectContent>
+              </Select>
+
               <Button variant="outline" onClick={() => setShowFilters(!showFilters)} className="flex items-center gap-2 w-full sm:w-auto">
                 <Filter className="h-4 w-4" />
                 {showFilters ? 'Hide Filters' : 'More Filters'}
@@ -113,18 +170,12 @@ export default function LawyerDirectory({ userType, onViewProfile }) {
                   <div>
                     <label className="text-sm font-medium mb-2 block">Experience</label>
                     <div className="space-y-2">
-                      <div className="flex items-center space-x-2">
-                        <Checkbox id="exp1" />
-                        <label htmlFor="exp1" className="text-sm">0-5 years</label>
-                      </div>
-                      <div className="flex items-center space-x-2">
-                        <Checkbox id="exp2" />
-                        <label htmlFor="exp2" className="text-sm">5-10 years</label>
-                      </div>
-                      <div className="flex items-center space-x-2">
-                        <Checkbox id="exp3" />
-                        <label htmlFor="exp3" className="text-sm">10+ years</label>
-                      </div>
+                      {EXPERIENCE_BANDS.map((band) => (
+                        <div key={band} className="flex items-center space-x-2">
+                          <Checkbox id={`exp-${band}`} checked={selectedBands.includes(band)} onChange={() => toggleBand(band)} />
+                          <label htmlFor={`exp-${band}`} className="text-sm">{band} years ({facets.experience?.[band] ?? 0})</label>
+                        </div>
+                      ))}
                     </div>
                   </div>
 
@@ -172,7 +223,7 @@ export default function LawyerDirectory({ userType, onViewProfile }) {
 
       <div className="mb-4 flex flex-col sm:flex-row sm:items-center gap-2 sm:gap-4 sm:justify-between">
         <p className="text-sm sm:text-base text-muted-foreground">
-          {loading ? 'Loading lawyers…' : error ? `Error: ${error}` : `Showing ${filteredLawyers.length} lawyers`}
+          {loading ? 'Loading lawyers…' : error ? `Error: ${error}` : `Showing ${lawyers.length} of ${total} lawyers`}
         </p>
         <Select defaultValue="rating">
           <SelectTrigger className="w-full sm:w-48">
@@ -188,7 +239,7 @@ export default function LawyerDirectory({ userType, onViewProfile }) {
       </div>
 
       <div className="space-y-6">
-        {filteredLawyers.map((lawyer) => (
+        {lawyers.map((lawyer) => (
           <Card key={lawyer.id} className="hover:shadow-lg transition-shadow">
             <CardContent className="p-4 sm:p-6">
               <div className="grid lg:grid-cols-4 gap-4 sm:gap-6">
@@ -264,9 +315,9 @@ export default function LawyerDirectory({ userType, onViewProfile }) {
         ))}
       </div>
 
-      {!loading && !error && (
+      {!loading && !error && lawyers.length < total && (
         <div className="text-center mt-8">
-          <Button variant="outline" className="w-full sm:w-auto">Load More Lawyers</Button>
+          <Button variant="outline" className="w-full sm:w-auto" onClick={() => setPage(p => p + 1)}>Load More Lawyers</Button>
         </div>
       )}
     </div>
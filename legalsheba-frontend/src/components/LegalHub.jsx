@@ -1,10 +1,10 @@
-import React, { useEffect, useState } from 'react'
+import React, { useEffect, useRef, useState } from 'react'
 import { Button } from './ui/button.jsx'
 import { Card, CardContent, CardHeader, CardTitle } from './ui/card.jsx'
 import { Input } from './ui/input.jsx'
 import { Tabs, TabsContent } from './ui/tabs.jsx'
 import { Search, BookOpen, Home, Heart, Briefcase, Shield, Users, Building, Bookmark, Share, Clock, FileText } from 'lucide-react'
-import { listInfoHub } from '../lib/api.js'
+import { listInfoHub, searchInfoHub } from '../lib/api.js'
 
 export default function LegalHub({ onOpenPost }) {
   const [searchTerm, setSearchTerm] = useState('')
@@ -15,6 +15,7 @@ export default function LegalHub({ onOpenPost }) {
   const [page, setPage] = useState(0)
   const [size] = useState(10)
   const [hasMore, setHasMore] = useState(true)
+  const latestRequest = useRef(0)
 
   const categories = [
     { id: 'all', name: 'All Categories', icon: BookOpen },
@@ -30,35 +31,40 @@ export default function LegalHub({ onOpenPost }) {
     { id: 1, category: 'property', question: 'What documents do I need to buy property in Bangladesh?', answer: 'You need original deed, updated land records, mutation certificate, and more. A property lawyer should verify all documents.', popularity: 95 },
     { id: 2, category: 'family', question: 'What are the grounds for divorce in Bangladesh?', answer: 'Grounds include adultery, cruelty, desertion, conversion, mental illness, etc. Process differs by personal law.', popularity: 88 },
   ]
-  // Load InfoHub posts from backend
+  // Load InfoHub posts from backend; typing switches to server-side full-text search (debounced)
   useEffect(() => {
-    refresh(0)
+    const t = setTimeout(() => refresh(0), searchTerm.trim() ? 250 : 0)
+    return () => clearTimeout(t)
     // eslint-disable-next-line react-hooks/exhaustive-deps
-  }, [selectedCategory])
+  }, [selectedCategory, searchTerm])
 
   async function refresh(p = 0) {
+    const requestId = ++latestRequest.current
     try {
       setLoading(true)
       setError('')
       const category = selectedCategory === 'all' ? '' : selectedCategory
-      const res = await listInfoHub({ category, page: p, size })
+      const q = searchTerm.trim()
+      const res = q
+        ? await searchInfoHub({ q, category, page: p, size })
+        : await listInfoHub({ category, page: p, size })
+      // A newer search has been started meanwhile
+      if (requestId !== latestRequest.current) return
       const content = Array.isArray(res?.content) ? res.content : []
       setPosts(p === 0 ? content : [...posts, ...content])
       const totalPages = Number(res?.totalPages ?? 0)
       setHasMore(p + 1 < totalPages)
       setPage(p)
     } catch (e) {
-      setError(e.message || 'Failed to load articles')
+      if (requestId === latestRequest.current) setError(e.message || 'Failed to load articles')
     } finally {
-      setLoading(false)
+      if (requestId === latestRequest.current) setLoading(false)
     }
   }
 
   const filteredFaqs = faqs.filter((f) => (selectedCategory === 'all' || f.category === selectedCategory) && (f.question.toLowerCase().includes(searchTerm.toLowerCase()) || f.answer.toLowerCase().includes(searchTerm.toLowerCase())))
-  const filteredPosts = posts.filter((g) => (
-    (selectedCategory === 'all' || (g.category || '').toLowerCase() === selectedCategory) &&
-    ((g.title || '').toLowerCase().includes(searchTerm.toLowerCase()) || (g.content || '').toLowerCase().includes(searchTerm.toLowerCase()))
-  ))
+  // Category and search term are applied by the backend
+  const filteredPosts = posts
 
   return (
     <div className="container mx-auto px-3 sm:px-4 py-6 sm:py-8">
@@ -107,13 +113,18 @@ export default function LegalHub({ onOpenPost }) {
             {filteredPosts.map((post) => (
               <Card key={post.id} className="hover:bg-muted/50 cursor-pointer" onClick={() => onOpenPost && onOpenPost(post)}>
                 <CardHeader>
-                  <CardTitle className="text-sm sm:text-base">{post.title}</CardTitle>
+                  {/* Search hits carry server-escaped HTML with <mark> around the matched words */}
+                  {post.snippet !== undefined
+                    ? <CardTitle className="text-sm sm:text-base" dangerouslySetInnerHTML={{ __html: post.title }} />
+                    : <CardTitle className="text-sm sm:text-base">{post.title}</CardTitle>}
                 </CardHeader>
                 <CardContent>
                   <div className="text-[10px] sm:text-xs text-muted-foreground mb-2 flex items-center gap-2">
                     <span className="capitalize">{post.category || 'general'}</span>•<span>{post.date}</span>
                   </div>
-                  <div className="text-xs sm:text-sm text-muted-foreground line-clamp-3 whitespace-pre-wrap">{(post.content || '').slice(0, 240)}{(post.content || '').length > 240 ? '…' : ''}</div>
+                  {post.snippet !== undefined
+                    ? <div className="text-xs sm:text-sm text-muted-foreground line-clamp-3 whitespace-pre-wrap" dangerouslySetInnerHTML={{ __html: post.snippet || '' }} />
+                    : <div className="text-xs sm:text-sm text-muted-foreground line-clamp-3 whitespace-pre-wrap">{post.teaser}{post.truncated ? '…' : ''}</div>}
                 </CardContent>
               </Card>
             ))}
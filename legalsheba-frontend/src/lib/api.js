@@ -7,6 +7,8 @@ const ENDPOINTS = {
   register: '/auth/register',
   registerLawyer: '/auth/register-lawyer',
   login: '/auth/login',
+  refresh: '/auth/refresh',
+  logout: '/auth/logout',
   lawyers: '/lawyers',
   appointments: '/appointments',
   infohub: '/infohub',
@@ -15,11 +17,53 @@ const ENDPOINTS = {
 export function getToken() {
   return localStorage.getItem('token') || ''
 }
-export function setToken(token) {
+export function setToken(token, refreshToken) {
   if (token) localStorage.setItem('token', token)
+  if (refreshToken) localStorage.setItem('refreshToken', refreshToken)
 }
 export function clearToken() {
   localStorage.removeItem('token')
+  localStorage.removeItem('refreshToken')
+}
+
+// Access tokens last minutes; a rejected one is renewed once with the refresh token, which is single-use.
+// Concurrent callers share one refresh. If another tab already rotated the refresh token, the server
+// refuses ours but localStorage holds the new pair, so that is used instead.
+let refreshing = null
+async function refreshAccessToken() {
+  if (!refreshing) {
+    const used = localStorage.getItem('refreshToken')
+    refreshing = (async () => {
+      if (!used) return false
+      try {
+        const res = await fetch(`${API_BASE}${ENDPOINTS.refresh}`, {
+          method: 'POST',
+          headers: { 'Content-Type': 'application/json' },
+          body: JSON.stringify({ refreshToken: used }),
+        })
+        if (res.ok) {
+          const json = await res.json()
+          setToken(json.token, json.refreshToken)
+          return true
+        }
+      } catch { /* network error: keep the tokens, the request fails as before */ }
+      return localStorage.getItem('refreshToken') !== used
+    })().finally(() => { refreshing = null })
+  }
+  return refreshing
+}
+
+// Revokes the current tokens server-side; local state is cleared by the caller either way
+export async function logout() {
+  const token = getToken()
+  if (!token) return
+  try {
+    await fetch(`${API_BASE}${ENDPOINTS.logout}`, {
+      method: 'POST',
+      headers: { 'Content-Type': 'application/json', Authorization: `Bearer ${token}` },
+      body: JSON.stringify({ refreshToken: localStorage.getItem('refreshToken') || undefined }),
+    })
+  } catch { /* best effort */ }
 }
 export function setStoredUser(user) {
   if (user) localStorage.setItem('user', JSON.stringify(user))
@@ -31,7 +75,7 @@ export function clearStoredUser() {
   localStorage.removeItem('user')
 }
 
-async function request(path, { method = 'GET', data, auth = false } = {}) {
+async function request(path, { method = 'GET', data, auth = false, retried = false } = {}) {
   const headers = { 'Content-Type': 'application/json' }
   if (auth) {
     const token = getToken()
@@ -49,6 +93,9 @@ async function request(path, { method = 'GET', data, auth = false } = {}) {
   } catch (e) {
     throw new Error(`Network error: ${e.message || 'Failed to fetch'}`)
   }
+  if (auth && !retried && (res.status === 401 || res.status === 403) && await refreshAccessToken()) {
+    return request(path, { method, data, auth, retried: true })
+  }
   const text = await res.text()
   let json
   try { json = text ? JSON.parse(text) : {} } catch { json = { message: text } }
@@ -65,6 +112,7 @@ export async function registerUser({ name, email, password, role }) {
   // Normalize to { token, user }
   return {
     token: res.token,
+    refreshToken: res.refreshToken,
     user: res.id ? { id: res.id, email: res.email, role: res.role, name: res.fName || res.name, lawyerProfileId: res.lawyerProfileId } : undefined,
   }
 }
@@ -73,6 +121,7 @@ export async function loginUser({ email, password }) {
   const res = await request(ENDPOINTS.login, { method: 'POST', data: { email, password } })
   return {
     token: res.token,
+    refreshToken: res.refreshToken,
     user: res.id ? { id: res.id, email: res.email, role: res.role, name: res.fName || res.name, lawyerProfileId: res.lawyerProfileId } : undefined,
   }
 }
@@ -99,13 +148,24 @@ export async function registerLawyer({
   })
   return {
     token: res.token,
+    refreshToken: res.refreshToken,
     user: res.id ? { id: res.id, email: res.email, role: res.role, name: res.fName || res.name, lawyerProfileId: res.lawyerProfileId } : undefined,
   }
 }
 
-// Directory endpoints (public)
-export async function getLawyers() {
-  return request(ENDPOINTS.lawyers, { method: 'GET' })
+// Directory endpoints (public). Faceted search: filters are arrays (OR within a facet, AND across facets); returns { content, facets, ... }
+export async function searchLawyers({ specialties = [], locations = [], courts = [], experience = [], page = 0, size = 20 } = {}) {
+  const params = new URLSearchParams({ page: String(page), size: String(size) })
+  specialties.forEach(v => params.append('specialty', v))
+  locations.forEach(v => params.append('location', v))
+  courts.forEach(v => params.append('court', v))
+  experience.forEach(v => params.append('experience', v))
+  return request(`${ENDPOINTS.lawyers}/search?${params.toString()}`, { method: 'GET' })
+}
+// Type-ahead suggestions: [{ text, type: NAME|SPECIALTY|LOCATION|COURT, lawyerId?, weight }]
+export async function suggestLawyers(q, limit = 8) {
+  const params = new URLSearchParams({ q: q || '', limit: String(limit) })
+  return request(`${ENDPOINTS.lawyers}/suggest?${params.toString()}`, { method: 'GET' })
 }
 export async function getLawyerById(id) {
   return request(`${ENDPOINTS.lawyers}/${id}`, { method: 'GET' })
@@ -143,6 +203,64 @@ export async function updateAppointmentStatus(id, status) {
   })
 }
 
+// Live appointment changes for the signed-in user over Server-Sent Events. EventSource cannot send the
+// Authorization header, so the stream is read with fetch. Reconnects after drops, resuming from the last
+// event id. onEvent(type, data): type 'appointment' carries { appointmentId, lawyerProfileId,
+// appointmentDate, previousStatus, status } (previousStatus null = new booking); 'resync' means events
+// were missed and the list should be reloaded. Returns a function that stops the subscription.
+export function subscribeAppointmentEvents(onEvent) {
+  const controller = new AbortController()
+  let lastEventId = null
+  let retryMs = 1000
+
+  async function connect() {
+    const headers = { Accept: 'text/event-stream' }
+    const token = getToken()
+    if (token) headers['Authorization'] = `Bearer ${token}`
+    if (lastEventId) headers['Last-Event-ID'] = lastEventId
+    const res = await fetch(`${API_BASE}${ENDPOINTS.appointments}/stream`, { headers, signal: controller.signal })
+    // Renewed tokens reconnect on the next loop; without them the subscription ends
+    if (res.status === 401 || res.status === 403) return refreshAccessToken()
+    if (!res.ok || !res.body) throw new Error(`Stream failed (${res.status})`)
+    retryMs = 1000
+    const reader = res.body.pipeThrough(new TextDecoderStream()).getReader()
+    let buffer = ''
+    for (;;) {
+      const { value, done } = await reader.read()
+      if (done) return true
+      buffer += value
+      let end
+      while ((end = buffer.indexOf('\n\n')) >= 0) {
+        const block = buffer.slice(0, end)
+        buffer = buffer.slice(end + 2)
+        let type = 'message', data = '', id = null
+        for (const line of block.split('\n')) {
+          if (line.startsWith('id:')) id = line.slice(3).trim()
+          else if (line.startsWith('event:')) type = line.slice(6).trim()
+          else if (line.startsWith('data:')) data += line.slice(5)
+        }
+        if (id) lastEventId = id
+        if (!data) continue
+        try { onEvent(type, JSON.parse(data)) } catch { /* ignore malformed events */ }
+      }
+    }
+  }
+
+  ;(async () => {
+    while (!controller.signal.aborted) {
+      try {
+        if (await connect() === false) return
+      } catch {
+        if (controller.signal.aborted) return
+        retryMs = Math.min(retryMs * 2, 30000)
+      }
+      await new Promise((r) => setTimeout(r, retryMs))
+    }
+  })()
+
+  return () => controller.abort()
+}
+
 export { API_BASE, ENDPOINTS }
 
 // InfoHub (public GET, ADMIN for mutations)
@@ -154,6 +272,13 @@ export async function listInfoHub({ category = '', page = 0, size = 10 } = {}) {
   return request(`${ENDPOINTS.infohub}?${params.toString()}`, { method: 'GET' })
 }
 
+// Keyword search (BM25 ranked); title and snippet are HTML-escaped with matches wrapped in <mark>
+export async function searchInfoHub({ q, category = '', page = 0, size = 10 } = {}) {
+  const params = new URLSearchParams({ q, page: String(page), size: String(size) })
+  if (category) params.set('category', category)
+  return request(`${ENDPOINTS.infohub}/search?${params.toString()}`, { method: 'GET' })
+}
+
 export async function getInfoHubById(id) {
   return request(`${ENDPOINTS.infohub}/${id}`, { method: 'GET' })
 }